@@ -0,0 +1,56 @@
+package frc.crevolib.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of mapping one stick axis through the driver's translation curve, analytic and sampled into
+ * a {@link LookupTableCurve}. Inputs sweep the whole stick range so both the deadzone and the
+ * exponent branch are timed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpCurveBenchmark {
+    private static final int kInputCount = 1024;
+
+    private final double[] mInputs = new double[kInputCount];
+    private ExpCurve mCurve;
+    private LookupTableCurve mLookupTableCurve;
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        // Same as the driver's translation curve
+        mCurve = new ExpCurve(4.0, 0, 1, 0.01);
+        mLookupTableCurve = new LookupTableCurve(mCurve, 1e-3);
+        for (int i = 0; i < kInputCount; i++) {
+            mInputs[i] = -1.0 + 2.0 * i / (kInputCount - 1);
+        }
+    }
+
+    @Benchmark
+    public double calculate() {
+        mIndex = (mIndex + 1) & (kInputCount - 1);
+        return mCurve.calculate(mInputs[mIndex]);
+    }
+
+    @Benchmark
+    public double lookupTable() {
+        mIndex = (mIndex + 1) & (kInputCount - 1);
+        return mLookupTableCurve.calculate(mInputs[mIndex]);
+    }
+}
@@ -0,0 +1,55 @@
+package frc.crevolib.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a latency-compensated pose lookup from a full history at the odometry rate, with lookup
+ * times spread over the last 300 ms the way vision timestamps are.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PoseHistoryBenchmark {
+    private static final int kLookupCount = 256;
+    private static final double kOdometryPeriodSecs = 0.004;
+
+    private final PoseHistory mHistory = new PoseHistory(512);
+    private final PoseHistory.Sample mSample = new PoseHistory.Sample();
+    private final double[] mLookups = new double[kLookupCount];
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        double t = 0.0;
+        for (int i = 0; i < 512; i++) {
+            t += kOdometryPeriodSecs;
+            mHistory.add(t, i * 0.01, i * 0.005, Math.IEEEremainder(i * 0.02, 2.0 * Math.PI), 2.5, 1.25, 1.0);
+        }
+        var random = new Random(2851);
+        for (int i = 0; i < kLookupCount; i++) {
+            mLookups[i] = t - random.nextDouble() * 0.3;
+        }
+    }
+
+    @Benchmark
+    public double sample() {
+        mIndex = (mIndex + 1) & (kLookupCount - 1);
+        mHistory.sample(mLookups[mIndex], mSample);
+        return mSample.xMeters;
+    }
+}
@@ -0,0 +1,65 @@
+package frc.robot;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ctre.phoenix6.swerve.SwerveRequest;
+
+import frc.crevolib.util.Curve;
+import frc.crevolib.util.ExpCurve;
+import frc.crevolib.util.LookupTableCurve;
+
+/**
+ * Cost of the driver's drive request lambda from <code>RobotContainer.setDefaultCommands</code>,
+ * which runs every teleop loop. Stick values are pre-generated instead of read from the HID, the
+ * curves match the driver's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DriveRequestBenchmark {
+    private static final int kSampleCount = 256;
+
+    private final double[] mLeftX = new double[kSampleCount];
+    private final double[] mLeftY = new double[kSampleCount];
+    private final double[] mRightX = new double[kSampleCount];
+    private Curve mTranslationCurve, mRotationCurve;
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        mTranslationCurve = new LookupTableCurve(new ExpCurve(4.0, 0, 1, 0.01), 1e-3);
+        mRotationCurve = new LookupTableCurve(new ExpCurve(1.0, 0, 1, 0.01), 1e-3);
+        var random = new Random(2851);
+        for (int i = 0; i < kSampleCount; i++) {
+            mLeftX[i] = random.nextDouble() * 2.0 - 1.0;
+            mLeftY[i] = random.nextDouble() * 2.0 - 1.0;
+            mRightX[i] = random.nextDouble() * 2.0 - 1.0;
+        }
+    }
+
+    @Benchmark
+    public SwerveRequest.FieldCentric driveRequest() {
+        mIndex = (mIndex + 1) & (kSampleCount - 1);
+        final double allianceSign = 1.0;
+        final double speedScale = RobotContainer.modeFast ? 1.0 : 0.3;
+        return RobotContainer.drive
+            .withVelocityX(allianceSign * mTranslationCurve.calculate(mLeftY[mIndex]) * RobotContainer.kMaxVelocity * speedScale)
+            .withVelocityY(allianceSign * mTranslationCurve.calculate(mLeftX[mIndex]) * RobotContainer.kMaxVelocity * speedScale)
+            .withRotationalRate(mRotationCurve.calculate(-mRightX[mIndex]) * RobotContainer.kMaxAngularVelocity * speedScale);
+    }
+}
@@ -0,0 +1,62 @@
+package frc.robot.algaepivot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
+import edu.wpi.first.math.interpolation.Interpolator;
+import edu.wpi.first.math.interpolation.InverseInterpolator;
+
+/**
+ * Cost of looking up the algae shooter angle, the body of
+ * <code>AlgaeShooterInterpolation.getInterpolatedAngle</code>, against the boxed
+ * <code>InterpolatingTreeMap</code> it replaced. Distances cover the table and a bit past both
+ * ends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlgaeShooterInterpolationBenchmark {
+    private static final int kDistanceCount = 256;
+
+    private final double[] mDistances = new double[kDistanceCount];
+    private final InterpolatingTreeMap<Double, Double> mTreeMap =
+            new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), Interpolator.forDouble());
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < kDistanceCount; i++) {
+            mDistances[i] = -0.5 + 6.5 * i / (kDistanceCount - 1);
+        }
+        mTreeMap.put(0.0, 0.0);
+        mTreeMap.put(1.5, 0.0);
+        mTreeMap.put(3.89, 29.0);
+        mTreeMap.put(5.3, 26.5);
+    }
+
+    @Benchmark
+    public double interpolateAngle() {
+        mIndex = (mIndex + 1) & (kDistanceCount - 1);
+        return AlgaeShooterInterpolation.interpolateAngle(mDistances[mIndex]);
+    }
+
+    @Benchmark
+    public double boxedTreeMap() {
+        mIndex = (mIndex + 1) & (kDistanceCount - 1);
+        return mTreeMap.get(mDistances[mIndex]);
+    }
+}
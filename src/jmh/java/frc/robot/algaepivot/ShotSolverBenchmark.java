@@ -0,0 +1,60 @@
+package frc.robot.algaepivot;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.crevolib.util.InterpolationTable;
+
+/**
+ * Cost of one shoot-on-the-move solve, to check it stays well inside its time budget. Robot
+ * positions and velocities are spread over the blue half of the field at driving speeds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShotSolverBenchmark {
+    private static final int kSampleCount = 256;
+
+    private final double[][] mSamples = new double[kSampleCount][4];
+    private final ShotSolver mSolver = new ShotSolver();
+    // The deployed table has no flywheel or time of flight columns yet, so a made up one with all
+    // three, shaped like a real shot
+    private final InterpolationTable mTable = new InterpolationTable(
+        new String[] {ShotSolver.kPivotAngleColumn, ShotSolver.kFlywheelRPMColumn, ShotSolver.kTimeOfFlightColumn},
+        new double[] {1.5, 3.0, 4.5, 6.0},
+        new double[][] {{20.0, 3000.0, 0.25}, {28.0, 3800.0, 0.40}, {27.0, 4400.0, 0.55}, {25.0, 5000.0, 0.70}});
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        var random = new Random(2851);
+        for (double[] sample : mSamples) {
+            sample[0] = 4.0 + random.nextDouble() * 4.0;
+            sample[1] = 4.5 + random.nextDouble() * 3.0;
+            sample[2] = random.nextDouble() * 6.0 - 3.0;
+            sample[3] = random.nextDouble() * 6.0 - 3.0;
+        }
+    }
+
+    @Benchmark
+    public double solve() {
+        mIndex = (mIndex + 1) & (kSampleCount - 1);
+        final double[] sample = mSamples[mIndex];
+        mSolver.solve(mTable, sample[0], sample[1], sample[2], sample[3], 8.774, sample[1]);
+        return mSolver.getHeadingRadians();
+    }
+}
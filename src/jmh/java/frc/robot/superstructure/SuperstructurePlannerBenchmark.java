@@ -0,0 +1,65 @@
+package frc.robot.superstructure;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+
+/**
+ * Cost of planning a superstructure move when a command starts, from a registered goal, where the
+ * path is cached, and from an arbitrary measured configuration, where it is walked from the goal's
+ * time field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SuperstructurePlannerBenchmark {
+    private static final int kSampleCount = 256;
+
+    private final double[][] mStarts = new double[kSampleCount][2];
+    private SuperstructurePlanner mPlanner;
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        mPlanner = SuperstructurePlanner.getInstance();
+        mPlanner.addGoal(RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4LeftWrist);
+        mPlanner.addGoal(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight);
+        mPlanner.cachePaths();
+
+        var random = new Random(2851);
+        for (double[] start : mStarts) {
+            start[0] = -0.05 + random.nextDouble() * 0.3;
+            start[1] = -0.45 + random.nextDouble() * 0.7;
+        }
+    }
+
+    @Benchmark
+    public SuperstructurePlanner.Path cached() {
+        return mPlanner.plan(RushinatorPivot.State.kScoreL4.pos.getRotations(),
+                RushinatorWrist.State.kScoreL4LeftWrist.pos.getRotations(),
+                RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight);
+    }
+
+    @Benchmark
+    public SuperstructurePlanner.Path fromMeasured() {
+        mIndex = (mIndex + 1) & (kSampleCount - 1);
+        final double[] start = mStarts[mIndex];
+        return mPlanner.plan(start[0], start[1], RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight);
+    }
+}
@@ -0,0 +1,60 @@
+package frc.robot.vision;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+/**
+ * Cost of turning one camera estimate into vision standard deviations, which runs for every
+ * estimate fused into the pose estimator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfidenceCalculatorBenchmark {
+    @Param({"1", "2", "4"})
+    public int tagCount;
+
+    private EstimatedRobotPose mEstimate;
+
+    @Setup
+    public void setup() {
+        PhotonTrackedTarget[] targets = new PhotonTrackedTarget[tagCount];
+        for (int i = 0; i < tagCount; i++) {
+            var cameraToTarget = new Transform3d(1.5 + i, 0.2 * i, 0.3, Rotation3d.kZero);
+            targets[i] = new PhotonTrackedTarget(0, 0, 1, 0, i + 1, -1, -1,
+                    cameraToTarget, cameraToTarget, 0.05, List.of(), List.of());
+        }
+        mEstimate = new EstimatedRobotPose(Pose3d.kZero, 0.0, List.of(targets),
+                PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR);
+    }
+
+    @Benchmark
+    public Matrix<N3, N1> confidenceCalculator() {
+        return PoseEstimatorSubsystem.confidenceCalculator(mEstimate, 0);
+    }
+}
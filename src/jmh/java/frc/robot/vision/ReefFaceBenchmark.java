@@ -0,0 +1,68 @@
+package frc.robot.vision;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.vision.VisionConfig.ReefFace;
+
+/**
+ * Cost of the closest reef face search behind <code>LineupMaster.getClosestReefFace</code>, which
+ * runs every loop while aligning. Robot positions are spread over the field.
+ *
+ * <p>Compares the linear {@link ReefFace#closestTo} scan with the {@link FieldTargetIndex} sector
+ * lookup. Both are called directly, LineupMaster itself publishes to NetworkTables and needs the
+ * native libraries loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReefFaceBenchmark {
+    private static final int kPositionCount = 256;
+
+    private final Translation2d[] mPositions = new Translation2d[kPositionCount];
+    private ReefFace[] mFaces;
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        // Same faces LineupMaster searches, the L4 faces are only used as goals
+        mFaces = Arrays.stream(ReefFace.values())
+                .filter(face -> !face.name().endsWith("_L4"))
+                .toArray(ReefFace[]::new);
+        var random = new Random(2851);
+        for (int i = 0; i < kPositionCount; i++) {
+            mPositions[i] = new Translation2d(
+                    random.nextDouble() * VisionConfig.FIELD_LENGTH_METERS,
+                    random.nextDouble() * VisionConfig.FIELD_WIDTH_METERS);
+        }
+    }
+
+    @Benchmark
+    public ReefFace closestTo() {
+        mIndex = (mIndex + 1) & (kPositionCount - 1);
+        return ReefFace.closestTo(mPositions[mIndex], mFaces);
+    }
+
+    @Benchmark
+    public ReefFace indexed() {
+        mIndex = (mIndex + 1) & (kPositionCount - 1);
+        final Translation2d position = mPositions[mIndex];
+        return FieldTargetIndex.getInstance().getReefFace(position.getX(), position.getY());
+    }
+}
@@ -0,0 +1,65 @@
+package frc.robot.vision.commands;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.vision.VisionConfig.ReefFace;
+
+/**
+ * Cost of the math in one <code>AutoAlign.execute()</code>: the closest face search and the three
+ * alignment controllers. Telemetry and the swerve request are left out, they need the robot's
+ * native libraries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlignControllerBenchmark {
+    private static final int kPoseCount = 256;
+
+    private final Pose2d[] mRobotPoses = new Pose2d[kPoseCount];
+    private ReefFace[] mFaces;
+    private AlignController mController;
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        mFaces = new ReefFace[] {
+            ReefFace.BLU_REEF_AB, ReefFace.BLU_REEF_CD, ReefFace.BLU_REEF_EF,
+            ReefFace.BLU_REEF_GH, ReefFace.BLU_REEF_IJ, ReefFace.BLU_REEF_KL
+        };
+        mController = new AlignController(0.00635, Math.toRadians(1.0));
+        // Poses within a meter or so of the blue reef, where alignment runs
+        var random = new Random(2851);
+        for (int i = 0; i < kPoseCount; i++) {
+            mRobotPoses[i] = new Pose2d(
+                    2.5 + random.nextDouble() * 4.0,
+                    2.0 + random.nextDouble() * 4.0,
+                    Rotation2d.fromDegrees(random.nextDouble() * 360.0));
+        }
+    }
+
+    @Benchmark
+    public ChassisSpeeds execute() {
+        mIndex = (mIndex + 1) & (kPoseCount - 1);
+        var robotPose = mRobotPoses[mIndex];
+        var face = ReefFace.closestTo(robotPose.getTranslation(), mFaces);
+        return mController.calculate(robotPose, face.leftBranch);
+    }
+}
@@ -0,0 +1,92 @@
+package frc.crevolib.math;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * PID controller whose setpoint follows a trapezoid profile to the goal. Behaves like WPILib's
+ * <code>ProfiledPIDController</code> without continuous input, but steps the profile with a
+ * {@link TrapezoidProfiler} and keeps one setpoint that is updated in place, so
+ * {@link #calculate(double)} does not allocate.
+ *
+ * <p>Only used from the robot thread.
+ */
+public class ProfiledController {
+    private final PIDController mController;
+    private final TrapezoidProfiler mProfile;
+
+    private final TrapezoidProfile.State mSetpoint = new TrapezoidProfile.State();
+    private final TrapezoidProfile.State mGoal = new TrapezoidProfile.State();
+
+    /**
+     * @param kP proportional gain
+     * @param kI integral gain
+     * @param kD derivative gain
+     * @param maxVelocity profile velocity limit, in units per second
+     * @param maxAcceleration profile acceleration limit, in units per second squared
+     */
+    public ProfiledController(double kP, double kI, double kD, double maxVelocity, double maxAcceleration) {
+        mController = new PIDController(kP, kI, kD);
+        mProfile = new TrapezoidProfiler(maxVelocity, maxAcceleration);
+    }
+
+    /** Sets the goal position, to be reached at rest. */
+    public void setGoal(double position) {
+        mGoal.position = position;
+        mGoal.velocity = 0.0;
+    }
+
+    /** @return the goal, do not modify */
+    public TrapezoidProfile.State getGoal() {
+        return mGoal;
+    }
+
+    /** @return the current setpoint of the profile, updated in place by {@link #calculate(double)} */
+    public TrapezoidProfile.State getSetpoint() {
+        return mSetpoint;
+    }
+
+    /**
+     * Sets the position error that counts as at the setpoint.
+     *
+     * @param positionTolerance allowed error, in the same units as the goal
+     */
+    public void setTolerance(double positionTolerance) {
+        mController.setTolerance(positionTolerance);
+    }
+
+    /**
+     * Advances the profile by one period and runs the PID controller against the new setpoint.
+     *
+     * @param measurement measured position
+     * @return PID output, without any feedforward
+     */
+    public double calculate(double measurement) {
+        mProfile.calculate(mController.getPeriod(), mSetpoint, mGoal, mSetpoint);
+        return mController.calculate(measurement, mSetpoint.position);
+    }
+
+    /** @return true if the profile has finished and the last measurement is within tolerance of the goal */
+    public boolean atGoal() {
+        return mController.atSetpoint()
+            && mSetpoint.position == mGoal.position
+            && mSetpoint.velocity == mGoal.velocity;
+    }
+
+    /**
+     * Restarts the profile from a measured state and clears the PID controller.
+     *
+     * @param position measured position
+     * @param velocity measured velocity
+     */
+    public void reset(double position, double velocity) {
+        mController.reset();
+        mSetpoint.position = position;
+        mSetpoint.velocity = velocity;
+    }
+
+    /** Restarts the profile from a measured position at rest. */
+    public void reset(double position) {
+        reset(position, 0.0);
+    }
+}
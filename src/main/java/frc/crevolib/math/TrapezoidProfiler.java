@@ -0,0 +1,87 @@
+package frc.crevolib.math;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * The same trapezoid profile as WPILib's {@link TrapezoidProfile}, worked on primitives and written
+ * into a caller's state instead of a new one, so stepping it every loop does not allocate.
+ *
+ * <p>Immutable, can be shared between profiles with the same constraints.
+ */
+public class TrapezoidProfiler {
+    private final double mMaxVelocity;
+    private final double mMaxAcceleration;
+
+    /**
+     * @param maxVelocity maximum velocity, in units per second
+     * @param maxAcceleration maximum acceleration, in units per second squared
+     */
+    public TrapezoidProfiler(double maxVelocity, double maxAcceleration) {
+        mMaxVelocity = maxVelocity;
+        mMaxAcceleration = maxAcceleration;
+    }
+
+    /**
+     * Finds where the profile from <code>current</code> to <code>goal</code> is after
+     * <code>t</code> seconds.
+     *
+     * @param t time since the current state, in seconds
+     * @param current state the profile starts from
+     * @param goal state the profile ends at
+     * @param out filled with the state at <code>t</code>, may be <code>current</code>
+     */
+    public void calculate(double t, TrapezoidProfile.State current, TrapezoidProfile.State goal, TrapezoidProfile.State out) {
+        // Worked as if moving in the positive direction, flipped back at the end
+        final double direction = current.position > goal.position ? -1.0 : 1.0;
+        final double currentPosition = current.position * direction;
+        double currentVelocity = current.velocity * direction;
+        final double goalPosition = goal.position * direction;
+        final double goalVelocity = goal.velocity * direction;
+
+        if (Math.abs(currentVelocity) > mMaxVelocity) {
+            currentVelocity = Math.copySign(mMaxVelocity, currentVelocity);
+        }
+
+        // Distance needed to come from and go back to zero velocity at each end
+        final double cutoffBegin = currentVelocity / mMaxAcceleration;
+        final double cutoffDistBegin = cutoffBegin * cutoffBegin * mMaxAcceleration / 2.0;
+        final double cutoffEnd = goalVelocity / mMaxAcceleration;
+        final double cutoffDistEnd = cutoffEnd * cutoffEnd * mMaxAcceleration / 2.0;
+
+        // The full trapezoid, as if the profile started and ended at zero velocity
+        final double fullTrapezoidDist = cutoffDistBegin + (goalPosition - currentPosition) + cutoffDistEnd;
+        double accelerationTime = mMaxVelocity / mMaxAcceleration;
+        double fullSpeedDist = fullTrapezoidDist - accelerationTime * accelerationTime * mMaxAcceleration;
+
+        // A triangle if it never reaches full speed
+        if (fullSpeedDist < 0) {
+            accelerationTime = Math.sqrt(fullTrapezoidDist / mMaxAcceleration);
+            fullSpeedDist = 0;
+        }
+
+        final double endAccel = accelerationTime - cutoffBegin;
+        final double endFullSpeed = endAccel + fullSpeedDist / mMaxVelocity;
+        final double endDecel = endFullSpeed + accelerationTime - cutoffEnd;
+
+        double position;
+        double velocity;
+        if (t < endAccel) {
+            velocity = currentVelocity + t * mMaxAcceleration;
+            position = currentPosition + (currentVelocity + t * mMaxAcceleration / 2.0) * t;
+        } else if (t < endFullSpeed) {
+            velocity = mMaxVelocity;
+            position = currentPosition + (currentVelocity + endAccel * mMaxAcceleration / 2.0) * endAccel
+                + mMaxVelocity * (t - endAccel);
+        } else if (t <= endDecel) {
+            final double timeLeft = endDecel - t;
+            velocity = goalVelocity + timeLeft * mMaxAcceleration;
+            position = goalPosition - (goalVelocity + timeLeft * mMaxAcceleration / 2.0) * timeLeft;
+        } else {
+            velocity = goalVelocity;
+            position = goalPosition;
+        }
+
+        out.position = position * direction;
+        out.velocity = velocity * direction;
+    }
+}
@@ -0,0 +1,122 @@
+package frc.crevolib.sim;
+
+import java.util.function.DoubleUnaryOperator;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * Physics model of a mechanism built from its feedforward constants. The mechanism obeys
+ * <code>V = kS * sgn(v) + kG(x) + kV * v + kA * a</code>, which is exactly the model the
+ * feedforward and the Motion Magic slot gains assume, so a controller tuned against this model is
+ * tuned against the same characterization as the robot.
+ *
+ * <p>Positions and velocities are in whatever units the constants were characterized in. Gravity
+ * is given in volts as a function of position, so elevators, arms and balanced joints all fit.
+ * Between updates the input voltage is held constant and the velocity follows the exact
+ * exponential response, so the model stays stable at any step size.
+ */
+public class MechanismSim {
+    private final double kS, kV, kA;
+    private final DoubleUnaryOperator mGravityVolts;
+    private final double mMinPosition, mMaxPosition;
+
+    private double mPosition;
+    private double mVelocity = 0.0;
+    private double mInputVoltage = 0.0;
+
+    /**
+     * @param kS static friction, in volts
+     * @param kV velocity gain, in volts per unit per second. Must be positive
+     * @param kA acceleration gain, in volts per unit per second squared. Zero models a mechanism
+     *     that reaches its steady state velocity immediately
+     * @param gravityVolts voltage needed to hold the mechanism at a position
+     * @param minPosition hard stop, or negative infinity
+     * @param maxPosition hard stop, or positive infinity
+     * @param startingPosition initial position
+     */
+    public MechanismSim(double kS, double kV, double kA, DoubleUnaryOperator gravityVolts,
+            double minPosition, double maxPosition, double startingPosition) {
+        if (kV <= 0.0) {
+            throw new IllegalArgumentException("kV must be positive to simulate a mechanism");
+        }
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        mGravityVolts = gravityVolts;
+        mMinPosition = minPosition;
+        mMaxPosition = maxPosition;
+        mPosition = startingPosition;
+    }
+
+    /**
+     * Creates a model of a roller or flywheel with no gravity, friction or hard stops, from its
+     * motors and inertia rather than measured constants. Positions are in rotations of the roller.
+     *
+     * @param gearbox motors driving the roller
+     * @param gearing motor rotations per roller rotation
+     * @param moiKgMetersSquared moment of inertia of the roller
+     */
+    public static MechanismSim roller(DCMotor gearbox, double gearing, double moiKgMetersSquared) {
+        // V = w / Kv + I R, with the motor speed w = 2 pi G v and the current I = 2 pi J a / (Kt G)
+        double kV = 2.0 * Math.PI * gearing / gearbox.KvRadPerSecPerVolt;
+        double kA = 2.0 * Math.PI * gearbox.rOhms * moiKgMetersSquared / (gearbox.KtNMPerAmp * gearing);
+        return new MechanismSim(0.0, kV, kA, position -> 0.0,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0.0);
+    }
+
+    public void setInputVoltage(double volts) {
+        mInputVoltage = MathUtil.clamp(volts, -12.0, 12.0);
+    }
+
+    public double getInputVoltage() {
+        return mInputVoltage;
+    }
+
+    /**
+     * Advances the model, holding the input voltage constant.
+     *
+     * @param dtSeconds time to advance by
+     */
+    public void update(double dtSeconds) {
+        double netVoltage = mInputVoltage - mGravityVolts.applyAsDouble(mPosition);
+        if (mVelocity == 0.0 && Math.abs(netVoltage) <= kS) {
+            // Static friction holds the mechanism in place
+            return;
+        }
+        netVoltage -= kS * Math.signum(mVelocity != 0.0 ? mVelocity : netVoltage);
+
+        double terminalVelocity = netVoltage / kV;
+        if (kA <= 0.0) {
+            mVelocity = terminalVelocity;
+            mPosition += mVelocity * dtSeconds;
+        } else {
+            double timeConstant = kA / kV;
+            double decay = Math.exp(-dtSeconds / timeConstant);
+            mPosition += terminalVelocity * dtSeconds
+                    + (mVelocity - terminalVelocity) * timeConstant * (1.0 - decay);
+            mVelocity = terminalVelocity + (mVelocity - terminalVelocity) * decay;
+        }
+
+        if (mPosition <= mMinPosition) {
+            mPosition = mMinPosition;
+            mVelocity = Math.max(mVelocity, 0.0);
+        } else if (mPosition >= mMaxPosition) {
+            mPosition = mMaxPosition;
+            mVelocity = Math.min(mVelocity, 0.0);
+        }
+    }
+
+    public double getPosition() {
+        return mPosition;
+    }
+
+    public double getVelocity() {
+        return mVelocity;
+    }
+
+    public void setState(double position, double velocity) {
+        mPosition = position;
+        mVelocity = velocity;
+    }
+}
@@ -0,0 +1,75 @@
+package frc.crevolib.sim;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleConsumer;
+
+import com.ctre.phoenix6.Utils;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * Steps every registered physics model on its own thread, at a fixed rate that does not depend on
+ * the 20 ms robot loop. This is what keeps simulated device state fresh for controllers that run
+ * faster than the loop, such as Motion Magic on a simulated TalonFX.
+ *
+ * <p>Each model is a callback that receives the time since the previous step. Callbacks run on
+ * the notifier thread, so they should only touch thread-safe state such as the CTRE sim state
+ * objects and their own model.
+ */
+public class PhysicsSim {
+    private static PhysicsSim mInstance;
+
+    private final List<DoubleConsumer> mModels = new CopyOnWriteArrayList<>();
+    private Notifier mNotifier = null;
+    private double mLastTime;
+
+    private PhysicsSim() {}
+
+    public static PhysicsSim getInstance() {
+        if (mInstance == null) {
+            mInstance = new PhysicsSim();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Adds a model to be stepped. Models can be registered before or after {@link #start(double)}.
+     *
+     * @param model called with the elapsed time in seconds on every step
+     */
+    public void register(DoubleConsumer model) {
+        mModels.add(model);
+    }
+
+    /**
+     * Starts stepping the models. Does nothing if already started.
+     *
+     * @param periodSeconds time between steps
+     */
+    public synchronized void start(double periodSeconds) {
+        if (mNotifier != null) {
+            return;
+        }
+        mLastTime = Utils.getCurrentTimeSeconds();
+        mNotifier = new Notifier(() -> {
+            final double currentTime = Utils.getCurrentTimeSeconds();
+            step(currentTime - mLastTime);
+            mLastTime = currentTime;
+        });
+        mNotifier.setName("PhysicsSim");
+        mNotifier.startPeriodic(periodSeconds);
+    }
+
+    /**
+     * Steps every model once on the calling thread. Used when the models are driven by something
+     * other than the notifier, for example a benchmark that advances time manually.
+     *
+     * @param dtSeconds time to advance by
+     */
+    public void step(double dtSeconds) {
+        for (var model : mModels) {
+            model.accept(dtSeconds);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package frc.crevolib.sim;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import frc.crevolib.math.TrapezoidProfiler;
+
+/**
+ * Stand-in for a TalonFX running Motion Magic, for simulated IO implementations that do not have a
+ * motor controller to run it. Follows a trapezoid profile with the same cruise velocity and
+ * acceleration and closes the loop with the same slot gains, so a mechanism behaves roughly the
+ * same in simulation whichever control mode it is in.
+ *
+ * <p>Gravity is left to the caller since it depends on the mechanism (and on the slot, for the
+ * elevator). Runs many times per loop in the sim IOs, so it does not allocate.
+ */
+public class SimMotionMagic {
+    private final TrapezoidProfiler mProfile;
+    private final PIDController mPIDController;
+    private final double kS, kV, kA;
+
+    private final TrapezoidProfile.State mSetpoint = new TrapezoidProfile.State();
+    private final TrapezoidProfile.State mGoal = new TrapezoidProfile.State();
+    private boolean mActive = false;
+
+    /**
+     * @param cruiseVelocity Motion Magic cruise velocity, in mechanism units per second
+     * @param acceleration Motion Magic acceleration, in mechanism units per second squared
+     */
+    public SimMotionMagic(double cruiseVelocity, double acceleration,
+            double kP, double kI, double kD, double kS, double kV, double kA) {
+        mProfile = new TrapezoidProfiler(cruiseVelocity, acceleration);
+        mPIDController = new PIDController(kP, kI, kD);
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+    }
+
+    /**
+     * Sets the goal position. The profile starts from the measured state the first time this is
+     * called after {@link #stop()}, the same way a TalonFX does when it enters Motion Magic.
+     */
+    public void setGoal(double position, double measuredPosition, double measuredVelocity) {
+        if (!mActive) {
+            mSetpoint.position = measuredPosition;
+            mSetpoint.velocity = measuredVelocity;
+            mPIDController.reset();
+            mActive = true;
+        }
+        mGoal.position = position;
+        mGoal.velocity = 0.0;
+    }
+
+    /** Leaves Motion Magic, for example when the caller switches to open-loop voltage. */
+    public void stop() {
+        mActive = false;
+    }
+
+    public boolean isActive() {
+        return mActive;
+    }
+
+    /**
+     * Advances the profile by one step and calculates the output.
+     *
+     * @param measuredPosition current mechanism position
+     * @param dtSeconds time since the last call
+     * @return output voltage, not including gravity
+     */
+    public double calculate(double measuredPosition, double dtSeconds) {
+        double lastVelocity = mSetpoint.velocity;
+        mProfile.calculate(dtSeconds, mSetpoint, mGoal, mSetpoint);
+        double acceleration = (mSetpoint.velocity - lastVelocity) / dtSeconds;
+        return mPIDController.calculate(measuredPosition, mSetpoint.position)
+                + kS * Math.signum(mSetpoint.velocity)
+                + kV * mSetpoint.velocity
+                + kA * acceleration;
+    }
+}
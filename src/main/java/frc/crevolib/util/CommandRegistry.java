@@ -0,0 +1,101 @@
+package frc.crevolib.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Keeps the commands behind button bindings so they are built once and reused. The robot clears
+ * and remakes its bindings on every mode change; without this each rebind also rebuilt every
+ * command group bound to a button.
+ *
+ * <p>Commands are looked up by key, see {@link #get(String, Supplier)}. A command that is kept here
+ * must only be bound to triggers, never put inside another composition, since WPILib does not allow
+ * a command to be composed twice. Build groups inside the factory instead.
+ *
+ * <p>The factory runs once, at startup if the bindings are prebuilt, so it must not read robot state
+ * such as the pose or a mechanism's position. Anything that depends on the state when the button is
+ * pressed belongs in the command itself, for example a <code>ConditionalCommand</code>,
+ * <code>SelectCommand</code> or <code>Commands.defer</code>.
+ *
+ * <p>How many commands were built, how many lookups were served from the registry and how long each
+ * gamepad took to bind are published with {@link Logger} under <code>Commands/</code>.
+ */
+public class CommandRegistry {
+    private static final String kPrefix = "Commands/";
+
+    private static CommandRegistry mInstance;
+
+    private final Map<String, Command> mCommands = new HashMap<>();
+    private int mCreated = 0;
+    private int mReused = 0;
+
+    private CommandRegistry() {}
+
+    public static CommandRegistry getInstance() {
+        if (mInstance == null) {
+            mInstance = new CommandRegistry();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Gets the command kept under a key, building it the first time the key is asked for.
+     *
+     * @param key unique name for the binding, such as <code>"Driver/ScoreL4"</code>
+     * @param factory builds the command, only called once per key
+     * @return the same command every time for a key
+     */
+    public Command get(String key, Supplier<Command> factory) {
+        Command command = mCommands.get(key);
+        if (command == null) {
+            command = factory.get();
+            mCommands.put(key, command);
+            mCreated++;
+        } else {
+            mReused++;
+        }
+        return command;
+    }
+
+    /**
+     * Runs button setup once ahead of time so its commands are built at startup rather than on the
+     * first enable, then drops the bindings it made. Call before the first mode change.
+     *
+     * @param bindings the button setup to build commands for
+     */
+    public void prebuild(Runnable bindings) {
+        final long start = System.nanoTime();
+        bindings.run();
+        CommandScheduler.getInstance().getDefaultButtonLoop().clear();
+        recordBinding("Prebuild", System.nanoTime() - start);
+    }
+
+    /**
+     * Publishes how long a gamepad took to make its bindings, along with the registry counts.
+     *
+     * @param name gamepad or step that did the binding
+     * @param nanos time the binding took
+     */
+    public void recordBinding(String name, long nanos) {
+        final double millis = nanos / 1e6;
+        Logger.recordOutput(kPrefix + name + "/BindMs", millis);
+        Logger.recordOutput(kPrefix + "Created", mCreated);
+        Logger.recordOutput(kPrefix + "Reused", mReused);
+    }
+
+    /** @return number of commands built through the registry */
+    public int getCreatedCount() {
+        return mCreated;
+    }
+
+    /** @return number of lookups answered with an already built command */
+    public int getReusedCount() {
+        return mReused;
+    }
+}
@@ -3,19 +3,22 @@ package frc.crevolib.util;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.CommandPS5Controller;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
 import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
 
 public abstract class Gamepad extends SubsystemBase {
 
     public boolean configured = false;
     private boolean printed = false;
     public CommandPS5Controller controller;
-    private Rotation2d storedLeftStickDirection = new Rotation2d();
-    private Rotation2d storedRightStickDirection = new Rotation2d();
+    // Kept as radians so reading a stick does not allocate
+    private double storedLeftStickRadians = 0.0;
+    private double storedRightStickRadians = 0.0;
 
     /**
      * Creates a new Gamepad.
@@ -46,6 +49,7 @@ public abstract class Gamepad extends SubsystemBase {
             }
 
             // Configure button bindings once the driver controller is connected
+            final long bindStart = System.nanoTime();
             if (DriverStation.isTest()) {
                 setupTestButtons();
             } else if (DriverStation.isDisabled()) {
@@ -54,6 +58,7 @@ public abstract class Gamepad extends SubsystemBase {
                 setupTeleopButtons();
             }
             configured = true;
+            CommandRegistry.getInstance().recordBinding(getName(), System.nanoTime() - bindStart);
 
             System.out.println("[info] " + getName() + ": gamepad connected");
         }
@@ -67,18 +72,35 @@ public abstract class Gamepad extends SubsystemBase {
         configure();
     }
 
+    /**
+     * Gets the command for a binding from the {@link CommandRegistry}, so rebinding on a mode change
+     * reuses it instead of building it again.
+     *
+     * @param key name of the binding, unique within this gamepad
+     * @param factory builds the command the first time
+     * @return the command kept for this gamepad and key
+     */
+    protected Command command(String key, Supplier<Command> factory) {
+        return CommandRegistry.getInstance().get(getName() + "/" + key, factory);
+    }
+
     /* Zero is stick up, 90 is stick to the left*/
     public Rotation2d getLeftStickDirection() {
+        return Rotation2d.fromRadians(getLeftStickRadians());
+    }
+
+    /* Same as getLeftStickDirection, in radians */
+    public double getLeftStickRadians() {
         double x = -1 * controller.getLeftX();
         double y = -1 * controller.getLeftY();
         if (x != 0 || y != 0) {
-            storedLeftStickDirection = new Rotation2d(y, x);
+            storedLeftStickRadians = Math.atan2(x, y);
         }
-        return storedLeftStickDirection;
+        return storedLeftStickRadians;
     }
 
     public double getLeftStickCardinals() {
-        double stickAngle = getLeftStickDirection().getRadians();
+        double stickAngle = getLeftStickRadians();
         if (stickAngle > -Math.PI / 4 && stickAngle <= Math.PI / 4) {
             return 0;
         } else if (stickAngle > Math.PI / 4 && stickAngle <= 3 * Math.PI / 4) {
@@ -97,16 +119,20 @@ public abstract class Gamepad extends SubsystemBase {
     }
 
     public Rotation2d getRightStickDirection() {
+        return Rotation2d.fromRadians(getRightStickRadians());
+    }
+
+    public double getRightStickRadians() {
         double x = controller.getRightX();
         double y = controller.getRightY();
         if (x != 0 || y != 0) {
-            storedRightStickDirection = new Rotation2d(y, x);
+            storedRightStickRadians = Math.atan2(x, y);
         }
-        return storedRightStickDirection;
+        return storedRightStickRadians;
     }
 
     public double getRightStickCardinals() {
-        double stickAngle = getRightStickDirection().getRadians();
+        double stickAngle = getRightStickRadians();
         if (stickAngle > -Math.PI / 4 && stickAngle <= Math.PI / 4) {
             return 0;
         } else if (stickAngle > Math.PI / 4 && stickAngle <= 3 * Math.PI / 4) {
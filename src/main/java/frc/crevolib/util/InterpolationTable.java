@@ -0,0 +1,232 @@
+package frc.crevolib.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Table of one or more outputs against a single key, answered by linear interpolation between rows.
+ * Keys and values are kept in sorted primitive arrays, so a lookup never boxes or allocates. Evenly
+ * spaced keys are indexed directly, anything else is found by binary search.
+ *
+ * <p>Keys outside the table are clamped to the first or last row, like WPILib's
+ * <code>InterpolatingTreeMap</code>.
+ *
+ * <p>Tables can be read from CSV. The first line names the columns, the first column is the key.
+ * Blank lines and lines starting with <code>#</code> are skipped. Rows do not need to be sorted.
+ *
+ * <pre>
+ * distance_m, pivot_angle_deg
+ * 1.5, 0.0
+ * 3.89, 29.0
+ * </pre>
+ *
+ * <p>Tables are immutable and can be shared between threads.
+ */
+public class InterpolationTable {
+    /** Keys this close to evenly spaced, relative to the spacing, are indexed directly. */
+    private static final double kUniformTolerance = 1e-9;
+
+    private final String[] mColumnNames;
+    private final double[] mKeys;
+    /** Row-major, <code>mColumnCount</code> values per key. */
+    private final double[] mValues;
+    private final int mColumnCount;
+    private final boolean mUniform;
+    private final double mInverseSpacing;
+
+    /**
+     * Creates a table from rows of outputs.
+     *
+     * @param columnNames names of the output columns
+     * @param keys the key of each row, strictly increasing
+     * @param rows the outputs of each row, one value per column
+     * @throws IllegalArgumentException if the table is empty, the keys are not strictly increasing
+     *     or a row has the wrong number of values
+     */
+    public InterpolationTable(String[] columnNames, double[] keys, double[][] rows) {
+        if (keys.length == 0 || keys.length != rows.length) {
+            throw new IllegalArgumentException("InterpolationTable: needs one row per key and at least one row");
+        }
+        mColumnNames = columnNames.clone();
+        mColumnCount = columnNames.length;
+        mKeys = keys.clone();
+        mValues = new double[keys.length * mColumnCount];
+        for (int i = 0; i < keys.length; i++) {
+            if (!Double.isFinite(keys[i]) || (i > 0 && keys[i] <= keys[i - 1])) {
+                throw new IllegalArgumentException("InterpolationTable: keys must be finite and strictly increasing, row " + i);
+            }
+            if (rows[i].length != mColumnCount) {
+                throw new IllegalArgumentException("InterpolationTable: row " + i + " has " + rows[i].length
+                        + " values, expected " + mColumnCount);
+            }
+            System.arraycopy(rows[i], 0, mValues, i * mColumnCount, mColumnCount);
+        }
+
+        boolean uniform = keys.length > 2;
+        double spacing = keys.length > 1 ? (keys[keys.length - 1] - keys[0]) / (keys.length - 1) : 1.0;
+        for (int i = 1; i < keys.length && uniform; i++) {
+            uniform = Math.abs(keys[i] - (keys[0] + i * spacing)) <= kUniformTolerance * spacing;
+        }
+        mUniform = uniform;
+        mInverseSpacing = 1.0 / spacing;
+    }
+
+    /**
+     * Reads a table from a CSV file, see the class description for the format.
+     *
+     * @param file the file to read
+     * @return the table
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid table
+     */
+    public static InterpolationTable load(File file) throws IOException {
+        return fromCsv(Files.readAllLines(file.toPath()));
+    }
+
+    /**
+     * Parses a table from the lines of a CSV file, see the class description for the format.
+     *
+     * @param lines the lines of the file
+     * @return the table
+     * @throws IllegalArgumentException if the lines are not a valid table
+     */
+    public static InterpolationTable fromCsv(List<String> lines) {
+        String[] header = null;
+        List<double[]> rows = new ArrayList<>();
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            String line = lines.get(lineNumber - 1).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] cells = line.split(",");
+            if (header == null) {
+                if (cells.length < 2) {
+                    throw new IllegalArgumentException("InterpolationTable: header needs a key and at least one output");
+                }
+                header = cells;
+                continue;
+            }
+            if (cells.length != header.length) {
+                throw new IllegalArgumentException("InterpolationTable: line " + lineNumber + " has " + cells.length
+                        + " cells, expected " + header.length);
+            }
+            double[] row = new double[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                try {
+                    row[i] = Double.parseDouble(cells[i].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("InterpolationTable: line " + lineNumber + " has a bad number '"
+                            + cells[i].trim() + "'");
+                }
+            }
+            rows.add(row);
+        }
+        if (header == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("InterpolationTable: no rows");
+        }
+
+        rows.sort(Comparator.comparingDouble(row -> row[0]));
+        String[] columnNames = new String[header.length - 1];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = header[i + 1].trim();
+        }
+        double[] keys = new double[rows.size()];
+        double[][] outputs = new double[rows.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = rows.get(i)[0];
+            outputs[i] = Arrays.copyOfRange(rows.get(i), 1, header.length);
+        }
+        return new InterpolationTable(columnNames, keys, outputs);
+    }
+
+    /**
+     * Finds an output column by name.
+     *
+     * @param name the column name from the CSV header
+     * @return the column index, or -1 if there is no such column
+     */
+    public int columnIndex(String name) {
+        for (int i = 0; i < mColumnNames.length; i++) {
+            if (mColumnNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    public int getRowCount() {
+        return mKeys.length;
+    }
+
+    /**
+     * Interpolates one output.
+     *
+     * @param key the key to look up
+     * @param column index of the output column
+     * @return the interpolated output
+     */
+    public double get(double key, int column) {
+        int row = rowBelow(key);
+        if (row == mKeys.length - 1) {
+            return mValues[row * mColumnCount + column];
+        }
+        double fraction = fractionAbove(key, row);
+        double low = mValues[row * mColumnCount + column];
+        double high = mValues[(row + 1) * mColumnCount + column];
+        return low + (high - low) * fraction;
+    }
+
+    /**
+     * Interpolates every output at once, finding the row only once.
+     *
+     * @param key the key to look up
+     * @param out filled with one value per column, must be at least {@link #getColumnCount()} long
+     */
+    public void get(double key, double[] out) {
+        int row = rowBelow(key);
+        int base = row * mColumnCount;
+        if (row == mKeys.length - 1) {
+            System.arraycopy(mValues, base, out, 0, mColumnCount);
+            return;
+        }
+        double fraction = fractionAbove(key, row);
+        for (int i = 0; i < mColumnCount; i++) {
+            double low = mValues[base + i];
+            double high = mValues[base + mColumnCount + i];
+            out[i] = low + (high - low) * fraction;
+        }
+    }
+
+    /** Index of the last row with a key at or below <code>key</code>, clamped to the table. */
+    private int rowBelow(double key) {
+        int last = mKeys.length - 1;
+        if (!(key > mKeys[0])) {
+            // Also catches NaN
+            return key >= mKeys[last] ? last : 0;
+        }
+        if (key >= mKeys[last]) {
+            return last;
+        }
+        if (mUniform) {
+            return Math.min((int) ((key - mKeys[0]) * mInverseSpacing), last - 1);
+        }
+        int index = Arrays.binarySearch(mKeys, key);
+        // A miss returns -(insertion point) - 1, the row below is one before the insertion point
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /** Fraction of the way from row <code>row</code> to the next row, clamped to [0, 1]. */
+    private double fractionAbove(double key, int row) {
+        double fraction = (key - mKeys[row]) / (mKeys[row + 1] - mKeys[row]);
+        return Math.max(0.0, Math.min(1.0, fraction));
+    }
+}
@@ -0,0 +1,108 @@
+package frc.crevolib.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations with bounded relative error, laid out like an HdrHistogram.
+ *
+ * <p>Durations are counted in units of about a microsecond. The first 64 buckets are one unit
+ * wide, after that every power of two is split into 32 buckets, so a recorded value is off by at
+ * most about 3% no matter its size. Every bucket is allocated up front, so
+ * {@link #record(long)} never allocates and costs a few integer operations.
+ *
+ * <p>Not thread-safe. Record and read from the same thread.
+ */
+public class LatencyHistogram {
+    /** Durations are stored in units of 2^10 ns, just over a microsecond. */
+    private static final int kUnitShift = 10;
+    private static final int kSubBucketBits = 5;
+    private static final int kSubBucketCount = 1 << kSubBucketBits;
+    private static final int kLinearBuckets = 2 * kSubBucketCount;
+    /** Values above 2^(kMaxMagnitude + 6) units, about 4 s, land in the last bucket. */
+    private static final int kMaxMagnitude = 16;
+    private static final int kBucketCount = kLinearBuckets + kMaxMagnitude * kSubBucketCount;
+
+    private final long[] mCounts = new long[kBucketCount];
+    private long mTotalCount = 0;
+    private long mMaxNanos = 0;
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds, negative values are counted as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mCounts[indexOf(nanos >>> kUnitShift)]++;
+        mTotalCount++;
+        if (nanos > mMaxNanos) {
+            mMaxNanos = nanos;
+        }
+    }
+
+    public long getTotalCount() {
+        return mTotalCount;
+    }
+
+    /**
+     * Gets the largest recorded duration. Unlike the percentiles this is exact.
+     *
+     * @return the largest duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    /**
+     * Gets the duration that the given percentage of recorded values are at or below.
+     *
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing
+     *     was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (mTotalCount == 0) {
+            return 0;
+        }
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100.0 * mTotalCount));
+        long count = 0;
+        for (int i = 0; i < kBucketCount; i++) {
+            count += mCounts[i];
+            if (count >= targetCount) {
+                return Math.min(((upperBoundOf(i) + 1) << kUnitShift) - 1, mMaxNanos);
+            }
+        }
+        return mMaxNanos;
+    }
+
+    /** Clears every recorded value. */
+    public void reset() {
+        Arrays.fill(mCounts, 0);
+        mTotalCount = 0;
+        mMaxNanos = 0;
+    }
+
+    private static int indexOf(long units) {
+        if (units < kLinearBuckets) {
+            return (int) units;
+        }
+        // Number of bits below the top kSubBucketBits + 1 bits, at least 1 here
+        int magnitude = 63 - Long.numberOfLeadingZeros(units) - kSubBucketBits;
+        if (magnitude > kMaxMagnitude) {
+            return kBucketCount - 1;
+        }
+        int subBucket = (int) (units >>> magnitude) - kSubBucketCount;
+        return kLinearBuckets + (magnitude - 1) * kSubBucketCount + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < kLinearBuckets) {
+            return index;
+        }
+        int magnitude = (index - kLinearBuckets) / kSubBucketCount + 1;
+        long subBucket = (index - kLinearBuckets) % kSubBucketCount + kSubBucketCount;
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+}
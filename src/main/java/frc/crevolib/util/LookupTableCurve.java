@@ -0,0 +1,142 @@
+package frc.crevolib.util;
+
+/**
+ * This class samples another <code>Curve</code> into a table at construction and maps inputs by
+ * linearly interpolating between samples. It is a subclass of <code>Curve</code> and can stand in
+ * for the curve it samples, but costs a table lookup instead of the source curve's math, so it
+ * suits curves that run on every stick axis every loop.
+ *
+ * <p>The table covers inputs from -1.0 to 1.0 and is sized so the interpolated value stays within
+ * a given error of the source curve. The error is checked against the source at construction on
+ * a grid several times finer than the table. Inputs outside the table, such as NaN, are passed to
+ * the source curve.
+ *
+ * <p>The source curve's offset, scalar and deadzone are sampled into the table, changing them
+ * afterwards has no effect. The offset, scalar and deadzone of this curve are not used.
+ */
+public class LookupTableCurve extends Curve {
+    /** Error of the table is checked at this many points between each pair of samples. */
+    private static final int kChecksPerInterval = 16;
+    private static final int kMinSamples = 17;
+    private static final int kMaxSamples = 1 << 16;
+
+    /** The curve that was sampled. */
+    private final Curve source;
+    /** Values of the source curve at evenly spaced inputs from -1.0 to 1.0. */
+    private final double[] table;
+    /** Number of table intervals per unit of input. */
+    private final double samplesPerUnit;
+    /** Bound on the difference from the source curve, checked when the table was built. */
+    private final double maxError;
+
+    /**
+     * Constructs a Lookup Table Curve from <code>source</code> with the smallest table, doubling in
+     * size, that stays within <code>maxError</code> of it.
+     *
+     * @param source the curve to sample
+     * @param maxError the largest allowed difference from the source curve
+     * @throws IllegalArgumentException if the bound cannot be met with the largest table
+     */
+    public LookupTableCurve(Curve source, double maxError) {
+        this.source = source;
+        setScalar(1.0);
+
+        int sampleCount = kMinSamples;
+        double[] candidate = sample(source, sampleCount);
+        double error = measureError(source, candidate);
+        while (error > maxError) {
+            if (sampleCount >= kMaxSamples) {
+                throw new IllegalArgumentException("LookupTableCurve: error of " + error
+                        + " with " + sampleCount + " samples, cannot reach " + maxError);
+            }
+            sampleCount = (sampleCount - 1) * 2 + 1;
+            candidate = sample(source, sampleCount);
+            error = measureError(source, candidate);
+        }
+        this.table = candidate;
+        this.samplesPerUnit = (table.length - 1) / 2.0;
+        this.maxError = error;
+    }
+
+    /**
+     * Constructs a Lookup Table Curve from <code>source</code> with a fixed number of samples.
+     *
+     * @param source the curve to sample
+     * @param sampleCount number of samples in the table, at least 2
+     */
+    public LookupTableCurve(Curve source, int sampleCount) {
+        if (sampleCount < 2) {
+            throw new IllegalArgumentException("LookupTableCurve: needs at least 2 samples, got " + sampleCount);
+        }
+        this.source = source;
+        setScalar(1.0);
+        this.table = sample(source, sampleCount);
+        this.samplesPerUnit = (table.length - 1) / 2.0;
+        this.maxError = measureError(source, table);
+    }
+
+    /** @param input value to be mapped */
+    @Override
+    public double calculate(double input) {
+        if (!(input >= -1.0 && input <= 1.0)) {
+            return source.calculate(input);
+        }
+        double position = (input + 1.0) * samplesPerUnit;
+        int index = Math.min((int) position, table.length - 2);
+        double fraction = position - index;
+        return table[index] + (table[index + 1] - table[index]) * fraction;
+    }
+
+    /**
+     * Returns the bound on the difference from the source curve checked when the table was built.
+     *
+     * @return the error bound of the table
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * Returns the number of samples in the table.
+     *
+     * @return the table size
+     */
+    public int getSampleCount() {
+        return table.length;
+    }
+
+    private static double[] sample(Curve source, int sampleCount) {
+        double[] values = new double[sampleCount];
+        double dx = 2.0 / (sampleCount - 1);
+        for (int i = 0; i < sampleCount; i++) {
+            values[i] = source.calculate(-1.0 + i * dx);
+        }
+        values[sampleCount - 1] = source.calculate(1.0);
+        return values;
+    }
+
+    /**
+     * Returns a bound on the difference between the table and the source curve. The difference is
+     * measured on a grid finer than the table, and the largest change between neighbouring grid
+     * points is added, since the difference can peak between them where the source has a kink,
+     * such as the edge of a deadzone.
+     */
+    private static double measureError(Curve source, double[] values) {
+        double dx = 2.0 / (values.length - 1);
+        double error = 0.0;
+        double maxStep = 0.0;
+        double lastError = 0.0;
+        for (int i = 0; i < values.length - 1; i++) {
+            for (int j = 1; j <= kChecksPerInterval; j++) {
+                double fraction = (double) j / kChecksPerInterval;
+                double x = -1.0 + (i + fraction) * dx;
+                double interpolated = values[i] + (values[i + 1] - values[i]) * fraction;
+                double pointError = interpolated - source.calculate(x);
+                error = Math.max(error, Math.abs(pointError));
+                maxStep = Math.max(maxStep, Math.abs(pointError - lastError));
+                lastError = pointError;
+            }
+        }
+        return error + maxStep;
+    }
+}
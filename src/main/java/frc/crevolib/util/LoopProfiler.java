@@ -0,0 +1,317 @@
+package frc.crevolib.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Times each part of the robot loop and keeps a {@link LatencyHistogram} per part, so it is easy to
+ * see which subsystem <code>periodic()</code>, command <code>execute()</code> or button poll is
+ * eating the loop budget.
+ *
+ * <p>The profiler works like a stopwatch with laps. {@link #begin(Section)} ends the section that
+ * is currently running and starts the next one, so sections that run back to back, like subsystem
+ * periodics inside the scheduler, only need to mark where they start. Commands are timed from the
+ * scheduler's execute callback, each command is charged from the end of the previous one, which
+ * includes the previous command's <code>isFinished()</code> and <code>end()</code>. The button poll
+ * is timed by handing the scheduler a button loop that polls the real one.
+ *
+ * <p>Recording never allocates. Histograms are published with {@link Logger} about once a second,
+ * as p50, p99 and max in milliseconds plus the number of samples that went over the section's
+ * budget.
+ *
+ * <p>With {@link #enableAllocationAudit()} each section also counts the bytes the main thread
+ * allocated while it ran, using the JVM's per-thread allocation counter. Sections on hot paths can
+ * be given an allocation budget with {@link Section#setAllocationBudget(long)}; runs over budget
+ * are counted and reported once as a driver station warning.
+ */
+public class LoopProfiler {
+    private static final String kPrefix = "LoopProfiler/";
+    private static final long kPublishPeriodNanos = 1_000_000_000L;
+    /** A single periodic or command using more than this share of the loop is counted as an overrun. */
+    private static final double kSectionBudgetFraction = 0.1;
+
+    private static LoopProfiler mInstance;
+
+    private final List<Section> mSections = new ArrayList<>();
+    private final Map<String, Section> mCommandSectionsByName = new HashMap<>();
+    // Weak so commands that are built on the fly do not pile up, Command uses identity equality
+    private final Map<Command, Section> mCommandSections = new WeakHashMap<>();
+
+    private long mLoopBudgetNanos = 20_000_000L;
+    private long mSectionBudgetNanos = (long) (mLoopBudgetNanos * kSectionBudgetFraction);
+    private Section mLoopSection;
+    private Section mButtonsSection;
+
+    private Section mOpenSection = null;
+    private long mLastMarkNanos = 0;
+    private long mLoopStartNanos = 0;
+    private long mLastPublishNanos = 0;
+
+    private com.sun.management.ThreadMXBean mThreadMXBean = null;
+    private long mLastMarkBytes = 0;
+    private long mLoopStartBytes = 0;
+
+    private LoopProfiler() {}
+
+    public static LoopProfiler getInstance() {
+        if (mInstance == null) {
+            mInstance = new LoopProfiler();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Hooks the profiler into the command scheduler. Call once, before any button bindings are
+     * made. Bindings must go on the scheduler's default button loop, which is where
+     * <code>Trigger</code> puts them unless told otherwise, and should be cleared through
+     * {@link CommandScheduler#getDefaultButtonLoop()} since the active loop belongs to the profiler.
+     *
+     * @param loopPeriodSeconds the robot loop period, loops that take longer count as overruns
+     */
+    public void install(double loopPeriodSeconds) {
+        mLoopBudgetNanos = (long) (loopPeriodSeconds * 1e9);
+        mSectionBudgetNanos = (long) (mLoopBudgetNanos * kSectionBudgetFraction);
+        mLoopSection = new Section(kPrefix + "Loop/", mLoopBudgetNanos);
+        mButtonsSection = section("Buttons");
+
+        var scheduler = CommandScheduler.getInstance();
+        final EventLoop buttonLoop = scheduler.getDefaultButtonLoop();
+        final EventLoop profiledLoop = new EventLoop();
+        profiledLoop.bind(() -> {
+            begin(mButtonsSection);
+            buttonLoop.poll();
+            end();
+        });
+        scheduler.setActiveButtonLoop(profiledLoop);
+        scheduler.onCommandExecute(this::commandExecuted);
+    }
+
+    /**
+     * Starts counting allocated bytes per section. Costs a read of the thread's allocation counter
+     * at every mark, so it is meant for audits rather than matches.
+     *
+     * @return false if this JVM cannot count allocations per thread
+     */
+    public boolean enableAllocationAudit() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            mThreadMXBean = bean;
+            return true;
+        }
+        DriverStation.reportWarning("[LoopProfiler] Allocation audit is not supported by this JVM", false);
+        return false;
+    }
+
+    public boolean isAuditingAllocations() {
+        return mThreadMXBean != null;
+    }
+
+    /**
+     * Gets the section a command is timed in, creating it if the command has not run yet. Used to
+     * set budgets on commands.
+     *
+     * @param command the command
+     * @return the section shared by every command with the same name
+     */
+    public Section commandSection(Command command) {
+        var section = mCommandSections.get(command);
+        if (section == null) {
+            // Only allocates the first time a command instance runs
+            section = mCommandSectionsByName.computeIfAbsent(command.getName(), name -> section("Commands/" + name));
+            mCommandSections.put(command, section);
+        }
+        return section;
+    }
+
+    /**
+     * Creates a section to time, usually held as a field by the code it times.
+     *
+     * @param name key of the section in the log, may contain '/' to group sections
+     * @return the new section
+     */
+    public Section section(String name) {
+        var section = new Section(kPrefix + name + "/", mSectionBudgetNanos);
+        mSections.add(section);
+        return section;
+    }
+
+    /** Marks the start of a robot loop. */
+    public void startLoop() {
+        mLoopStartNanos = System.nanoTime();
+        mLastMarkNanos = mLoopStartNanos;
+        mLoopStartBytes = allocatedBytes();
+        mLastMarkBytes = mLoopStartBytes;
+        mOpenSection = null;
+    }
+
+    /**
+     * Ends the running section, if any, and starts timing <code>section</code>.
+     *
+     * @param section the section that starts now
+     */
+    public void begin(Section section) {
+        final long now = System.nanoTime();
+        final long bytes = allocatedBytes();
+        if (mOpenSection != null) {
+            mOpenSection.record(now - mLastMarkNanos, bytes - mLastMarkBytes);
+        }
+        mOpenSection = section;
+        mLastMarkNanos = now;
+        mLastMarkBytes = bytes;
+    }
+
+    /** Ends the running section, if any. */
+    public void end() {
+        final long now = System.nanoTime();
+        final long bytes = allocatedBytes();
+        if (mOpenSection != null) {
+            mOpenSection.record(now - mLastMarkNanos, bytes - mLastMarkBytes);
+            mOpenSection = null;
+        }
+        mLastMarkNanos = now;
+        mLastMarkBytes = bytes;
+    }
+
+    /** Marks the end of a robot loop and publishes the histograms when they are due. */
+    public void endLoop() {
+        end();
+        if (mLoopSection == null) {
+            return;
+        }
+        mLoopSection.record(mLastMarkNanos - mLoopStartNanos, mLastMarkBytes - mLoopStartBytes);
+
+        if (mLastMarkNanos - mLastPublishNanos >= kPublishPeriodNanos) {
+            mLastPublishNanos = mLastMarkNanos;
+            mLoopSection.publish();
+            for (int i = 0; i < mSections.size(); i++) {
+                mSections.get(i).publish();
+            }
+        }
+    }
+
+    /** Clears every histogram, for example when the robot changes mode. */
+    public void reset() {
+        if (mLoopSection != null) {
+            mLoopSection.reset();
+        }
+        for (int i = 0; i < mSections.size(); i++) {
+            mSections.get(i).reset();
+        }
+    }
+
+    private void commandExecuted(Command command) {
+        final long now = System.nanoTime();
+        final long bytes = allocatedBytes();
+        commandSection(command).record(now - mLastMarkNanos, bytes - mLastMarkBytes);
+        mOpenSection = null;
+        mLastMarkNanos = now;
+        // Skip the bytes allocated by a command's first run, when its section is created
+        mLastMarkBytes = allocatedBytes();
+    }
+
+    private long allocatedBytes() {
+        return mThreadMXBean != null ? mThreadMXBean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /** One timed part of the loop. */
+    public final class Section {
+        private final LatencyHistogram mHistogram = new LatencyHistogram();
+        private final long mBudgetNanos;
+        private long mOverruns = 0;
+        private final String mP50Key, mP99Key, mMaxKey, mCountKey, mOverrunsKey;
+
+        private long mAllocationBudgetBytes = Long.MAX_VALUE;
+        private long mAllocatedBytes = 0;
+        private long mMaxAllocatedBytes = 0;
+        private long mAllocationOverruns = 0;
+        private boolean mReportedAllocationOverrun = false;
+        private final String mName;
+        private final String mAllocatedMeanKey, mAllocatedMaxKey, mAllocationOverrunsKey;
+
+        private Section(String prefix, long budgetNanos) {
+            mBudgetNanos = budgetNanos;
+            mP50Key = prefix + "P50Ms";
+            mP99Key = prefix + "P99Ms";
+            mMaxKey = prefix + "MaxMs";
+            mCountKey = prefix + "Count";
+            mOverrunsKey = prefix + "Overruns";
+            mName = prefix.substring(kPrefix.length(), prefix.length() - 1);
+            mAllocatedMeanKey = prefix + "AllocatedBytesMean";
+            mAllocatedMaxKey = prefix + "AllocatedBytesMax";
+            mAllocationOverrunsKey = prefix + "AllocationOverruns";
+        }
+
+        /** Ends the running section and starts this one, see {@link LoopProfiler#begin(Section)}. */
+        public void begin() {
+            LoopProfiler.this.begin(this);
+        }
+
+        /**
+         * Sets how many bytes one run of this section may allocate during an allocation audit.
+         *
+         * @param bytes the budget, 0 for a section that should never allocate
+         * @return this section
+         */
+        public Section setAllocationBudget(long bytes) {
+            mAllocationBudgetBytes = bytes;
+            return this;
+        }
+
+        private void record(long nanos, long bytes) {
+            mHistogram.record(nanos);
+            if (nanos > mBudgetNanos) {
+                mOverruns++;
+            }
+
+            mAllocatedBytes += bytes;
+            if (bytes > mMaxAllocatedBytes) {
+                mMaxAllocatedBytes = bytes;
+            }
+            if (bytes > mAllocationBudgetBytes) {
+                mAllocationOverruns++;
+                if (!mReportedAllocationOverrun) {
+                    mReportedAllocationOverrun = true;
+                    DriverStation.reportWarning("[LoopProfiler] " + mName + " allocated " + bytes
+                            + " bytes, budget is " + mAllocationBudgetBytes, false);
+                }
+            }
+        }
+
+        private void reset() {
+            mHistogram.reset();
+            mOverruns = 0;
+            mAllocatedBytes = 0;
+            mMaxAllocatedBytes = 0;
+            mAllocationOverruns = 0;
+        }
+
+        private void publish() {
+            if (mHistogram.getTotalCount() == 0) {
+                return;
+            }
+            Logger.recordOutput(mP50Key, mHistogram.getValueAtPercentile(50.0) / 1e6);
+            Logger.recordOutput(mP99Key, mHistogram.getValueAtPercentile(99.0) / 1e6);
+            Logger.recordOutput(mMaxKey, mHistogram.getMaxNanos() / 1e6);
+            Logger.recordOutput(mCountKey, mHistogram.getTotalCount());
+            Logger.recordOutput(mOverrunsKey, mOverruns);
+
+            if (isAuditingAllocations()) {
+                Logger.recordOutput(mAllocatedMeanKey, mAllocatedBytes / mHistogram.getTotalCount());
+                Logger.recordOutput(mAllocatedMaxKey, mMaxAllocatedBytes);
+                Logger.recordOutput(mAllocationOverrunsKey, mAllocationOverruns);
+            }
+        }
+    }
+}
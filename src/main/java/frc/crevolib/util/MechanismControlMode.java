@@ -0,0 +1,17 @@
+package frc.crevolib.util;
+
+/**
+ * Selects where a position-controlled mechanism runs its motion profile and feedback loop.
+ */
+public enum MechanismControlMode {
+    /**
+     * Profile, PID and feedforward are calculated on the roboRIO every loop and sent to the motor
+     * as a voltage.
+     */
+    kRioProfiled,
+    /**
+     * Profile, PID and feedforward are run by the TalonFX at 1 kHz using Motion Magic. The roboRIO
+     * only sends the goal position.
+     */
+    kMotionMagic
+}
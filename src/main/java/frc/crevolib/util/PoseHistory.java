@@ -0,0 +1,179 @@
+package frc.crevolib.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size history of robot poses and velocities, so code can ask where the robot was at a
+ * given time and make up for its own latency. Samples are stored in primitive arrays in a ring;
+ * once full, the oldest sample is overwritten.
+ *
+ * <p>Written by exactly one thread, normally the robot thread as it applies odometry, and read from
+ * any thread. Neither {@link #add} nor {@link #sample} block or allocate. A read that is overtaken
+ * by the writer while it searches is retried.
+ *
+ * <p>Timestamps are in seconds and must come from one clock, see {@link Timebase}. Angles are in
+ * radians and velocities are field relative.
+ */
+public class PoseHistory {
+    /** One interpolated sample, filled in by {@link PoseHistory#sample}. Reuse it between calls. */
+    public static class Sample {
+        public double timestampSeconds;
+        public double xMeters;
+        public double yMeters;
+        public double thetaRadians;
+        public double vxMetersPerSec;
+        public double vyMetersPerSec;
+        public double omegaRadiansPerSec;
+    }
+
+    // Lookups this far past the newest sample are held there, rather than trusting the velocity
+    // through a stalled writer
+    private static final double kMaxExtrapolationSeconds = 0.1;
+
+    private final int mask;
+    private final int capacity;
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] thetas;
+    private final double[] vxs;
+    private final double[] vys;
+    private final double[] omegas;
+
+    /** Number of samples ever added, the newest is at <code>count - 1</code>. Only written by the writer. */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Creates a new history.
+     *
+     * @param capacity the minimum number of samples kept; rounded up to the next power of two
+     */
+    public PoseHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.capacity = size;
+        timestamps = new double[size];
+        xs = new double[size];
+        ys = new double[size];
+        thetas = new double[size];
+        vxs = new double[size];
+        vys = new double[size];
+        omegas = new double[size];
+    }
+
+    /**
+     * Adds the newest sample. Must only be called from the writer thread. Samples that are not
+     * newer than the last one are ignored.
+     *
+     * @return true if the sample was added
+     */
+    public boolean add(double timestampSeconds, double xMeters, double yMeters, double thetaRadians,
+            double vxMetersPerSec, double vyMetersPerSec, double omegaRadiansPerSec) {
+        final long n = count.get();
+        if (n > 0 && timestampSeconds <= timestamps[(int) ((n - 1) & mask)]) {
+            return false;
+        }
+        final int i = (int) (n & mask);
+        timestamps[i] = timestampSeconds;
+        xs[i] = xMeters;
+        ys[i] = yMeters;
+        thetas[i] = thetaRadians;
+        vxs[i] = vxMetersPerSec;
+        vys[i] = vyMetersPerSec;
+        omegas[i] = omegaRadiansPerSec;
+        // Publishes the sample, readers never look past count - 1
+        count.lazySet(n + 1);
+        return true;
+    }
+
+    /**
+     * Finds the robot's state at a time, interpolating between the two samples around it. Times
+     * newer than the newest sample are extrapolated from it along its velocity, up to 0.1 s past
+     * it, since the writer may be up to a loop behind. Binary search, O(log n).
+     *
+     * @param timestampSeconds the time to look up
+     * @param out filled in with the result
+     * @return false if there are no samples or the time is older than the oldest one kept
+     */
+    public boolean sample(double timestampSeconds, Sample out) {
+        while (true) {
+            final long n = count.get();
+            if (n == 0) {
+                return false;
+            }
+            // Leave a slot of slack for a write that is in progress
+            final long oldest = Math.max(0, n - capacity + 1);
+            final long newest = n - 1;
+
+            final boolean found;
+            if (timestampSeconds >= timestamps[(int) (newest & mask)]) {
+                extrapolate((int) (newest & mask), timestampSeconds, out);
+                found = true;
+            } else if (timestampSeconds < timestamps[(int) (oldest & mask)]) {
+                found = false;
+            } else {
+                // Last sample at or before the time, newest is after it so lo < newest
+                long lo = oldest;
+                long hi = newest;
+                while (hi - lo > 1) {
+                    final long mid = (lo + hi) >>> 1;
+                    if (timestamps[(int) (mid & mask)] <= timestampSeconds) {
+                        lo = mid;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                interpolate((int) (lo & mask), (int) (hi & mask), timestampSeconds, out);
+                found = true;
+            }
+
+            // Retry if the writer wrapped around onto the slots that were read. The fence keeps the
+            // reads above from moving past the second read of count.
+            VarHandle.acquireFence();
+            if (count.get() - capacity < oldest) {
+                return found;
+            }
+        }
+    }
+
+    /** @return the number of samples held, up to the capacity */
+    public int size() {
+        return (int) Math.min(count.get(), capacity);
+    }
+
+    /** @return the timestamp of the newest sample, or NaN if there are none */
+    public double getNewestTimestamp() {
+        final long n = count.get();
+        return n == 0 ? Double.NaN : timestamps[(int) ((n - 1) & mask)];
+    }
+
+    private void extrapolate(int i, double timestampSeconds, Sample out) {
+        final double dt = Math.min(timestampSeconds - timestamps[i], kMaxExtrapolationSeconds);
+        out.timestampSeconds = timestampSeconds;
+        out.xMeters = xs[i] + vxs[i] * dt;
+        out.yMeters = ys[i] + vys[i] * dt;
+        out.thetaRadians = Math.IEEEremainder(thetas[i] + omegas[i] * dt, 2.0 * Math.PI);
+        out.vxMetersPerSec = vxs[i];
+        out.vyMetersPerSec = vys[i];
+        out.omegaRadiansPerSec = omegas[i];
+    }
+
+    private void interpolate(int a, int b, double timestampSeconds, Sample out) {
+        final double t = (timestampSeconds - timestamps[a]) / (timestamps[b] - timestamps[a]);
+        out.timestampSeconds = timestampSeconds;
+        out.xMeters = xs[a] + (xs[b] - xs[a]) * t;
+        out.yMeters = ys[a] + (ys[b] - ys[a]) * t;
+        // Shortest way around, headings wrap at +-pi
+        out.thetaRadians = Math.IEEEremainder(thetas[a] + Math.IEEEremainder(thetas[b] - thetas[a], 2.0 * Math.PI) * t, 2.0 * Math.PI);
+        out.vxMetersPerSec = vxs[a] + (vxs[b] - vxs[a]) * t;
+        out.vyMetersPerSec = vys[a] + (vys[b] - vys[a]) * t;
+        out.omegaRadiansPerSec = omegas[a] + (omegas[b] - omegas[a]) * t;
+    }
+}
@@ -0,0 +1,86 @@
+package frc.crevolib.util;
+
+import java.io.File;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * An {@link InterpolationTable} read from a CSV file in the deploy directory that is read again
+ * whenever the file changes, so a table can be retuned during practice by redeploying or editing
+ * the file on the robot without restarting code.
+ *
+ * <p>{@link #poll()} checks the file's modification time at most once per check period and is
+ * meant to be called from a periodic. Each load logs the table's row count under
+ * <code>InterpolationTable/&lt;file name&gt;/Rows</code>. If the file is missing or is not a valid
+ * table, a warning is reported and the last good table, or the fallback, stays in use.
+ */
+public class ReloadableInterpolationTable {
+    private final File mFile;
+    private final long mCheckPeriodNanos;
+
+    private InterpolationTable mTable;
+    private long mLastModified = 0;
+    private long mLastCheckNanos;
+
+    /**
+     * Creates the table and reads the file once.
+     *
+     * @param deployFileName path of the CSV file relative to the deploy directory
+     * @param fallback table to use until the file has been read successfully
+     * @param checkPeriodSeconds how often {@link #poll()} looks at the file
+     */
+    public ReloadableInterpolationTable(String deployFileName, InterpolationTable fallback, double checkPeriodSeconds) {
+        mFile = new File(Filesystem.getDeployDirectory(), deployFileName);
+        mCheckPeriodNanos = (long) (checkPeriodSeconds * 1e9);
+        mTable = fallback;
+        mLastCheckNanos = System.nanoTime();
+        reload(mFile.lastModified());
+    }
+
+    /**
+     * Gets the current table. Hold on to it for no longer than a loop, it is replaced on reload.
+     *
+     * @return the last table read successfully, or the fallback
+     */
+    public InterpolationTable get() {
+        return mTable;
+    }
+
+    /**
+     * Reads the file again if it changed since it was last read.
+     *
+     * @return true if a new table was loaded
+     */
+    public boolean poll() {
+        final long now = System.nanoTime();
+        if (now - mLastCheckNanos < mCheckPeriodNanos) {
+            return false;
+        }
+        mLastCheckNanos = now;
+        final long modified = mFile.lastModified();
+        if (modified == mLastModified) {
+            return false;
+        }
+        return reload(modified);
+    }
+
+    private boolean reload(long modified) {
+        // Remember the attempt either way, a bad file is only reported once per change
+        mLastModified = modified;
+        if (modified == 0) {
+            DriverStation.reportWarning("[InterpolationTable] " + mFile + " not found, keeping the last table", false);
+            return false;
+        }
+        try {
+            mTable = InterpolationTable.load(mFile);
+            Logger.recordOutput("InterpolationTable/" + mFile.getName() + "/Rows", mTable.getRowCount());
+            return true;
+        } catch (Exception e) {
+            DriverStation.reportWarning("[InterpolationTable] Could not read " + mFile + ": " + e.getMessage(), false);
+            return false;
+        }
+    }
+}
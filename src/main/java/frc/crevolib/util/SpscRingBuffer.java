@@ -0,0 +1,126 @@
+package frc.crevolib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free ring buffer for handing objects from exactly one producer thread to exactly
+ * one consumer thread.
+ *
+ * <p>Neither {@link #offer(Object)} nor {@link #poll()} block or allocate. When the buffer is full,
+ * new elements are rejected and counted so the consumer can tell it is falling behind.
+ *
+ * @param <T> type of element stored in the buffer
+ */
+public class SpscRingBuffer<T> {
+    /** Backing storage, sized to a power of two so indices can be masked instead of divided. */
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final int capacity;
+
+    /** Index of the next slot the consumer will read. Only written by the consumer. */
+    private final AtomicLong head = new AtomicLong();
+    /** Index of the next slot the producer will write. Only written by the producer. */
+    private final AtomicLong tail = new AtomicLong();
+    /** Number of elements rejected because the buffer was full. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param capacity the minimum number of elements the buffer can hold; rounded up to the next
+     *     power of two
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.capacity = size;
+    }
+
+    /**
+     * Adds an element to the buffer. Must only be called from the producer thread.
+     *
+     * @param value the element to add, must not be null
+     * @return true if the element was added, false if the buffer was full
+     */
+    public boolean offer(T value) {
+        final long t = tail.get();
+        if (t - head.get() >= capacity) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        slots.lazySet((int) (t & mask), value);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest element in the buffer. Must only be called from the consumer
+     * thread.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public T poll() {
+        final long h = head.get();
+        if (h >= tail.get()) {
+            return null;
+        }
+        final int index = (int) (h & mask);
+        final T value = slots.get(index);
+        slots.lazySet(index, null);
+        head.lazySet(h + 1);
+        return value;
+    }
+
+    /**
+     * Removes every element currently in the buffer, oldest first, and passes it to
+     * <code>consumer</code>. Must only be called from the consumer thread.
+     *
+     * @param consumer receives each element
+     * @return the number of elements drained
+     */
+    public int drainTo(Consumer<? super T> consumer) {
+        int count = 0;
+        T value;
+        while ((value = poll()) != null) {
+            consumer.accept(value);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns an estimate of the number of elements in the buffer.
+     *
+     * @return number of elements waiting to be consumed
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Returns the number of elements the buffer can hold.
+     *
+     * @return buffer capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the total number of elements rejected because the buffer was full.
+     *
+     * @return dropped element count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
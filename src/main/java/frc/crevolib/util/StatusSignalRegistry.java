@@ -0,0 +1,84 @@
+package frc.crevolib.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+/**
+ * Keeps every mechanism status signal in one place so they can all be refreshed with a single
+ * {@link BaseStatusSignal#refreshAll(BaseStatusSignal...)} call per CAN bus each loop.
+ *
+ * <p>Subsystems register the signals they read once, when they are constructed, and keep a
+ * reference to each signal. After {@link #refreshAll()} runs at the top of the loop, subsystems
+ * read the cached value with <code>getValueAsDouble()</code> instead of calling the device getter,
+ * which would otherwise perform its own blocking refresh every time it is called.
+ */
+public class StatusSignalRegistry {
+    private static StatusSignalRegistry mInstance;
+
+    /** Signals waiting to be grouped, keyed by CAN bus name. Only touched during registration. */
+    private final Map<String, List<BaseStatusSignal>> mSignalsByBus = new LinkedHashMap<>();
+    /** One array of signals per CAN bus, rebuilt whenever a signal is registered. */
+    private BaseStatusSignal[][] mBusGroups = new BaseStatusSignal[0][];
+
+    private StatusSignalRegistry() {}
+
+    public static StatusSignalRegistry getInstance() {
+        if (mInstance == null) {
+            mInstance = new StatusSignalRegistry();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Registers signals to be refreshed every loop. Should be called once per signal, from the
+     * constructor of the subsystem that owns <code>device</code>.
+     *
+     * @param device the device the signals belong to, used to group signals by CAN bus
+     * @param signals the signals to refresh
+     */
+    public synchronized void register(ParentDevice device, BaseStatusSignal... signals) {
+        var busSignals = mSignalsByBus.computeIfAbsent(device.getNetwork(), bus -> new ArrayList<>());
+        for (var signal : signals) {
+            busSignals.add(signal);
+        }
+
+        var groups = new BaseStatusSignal[mSignalsByBus.size()][];
+        int i = 0;
+        for (var group : mSignalsByBus.values()) {
+            groups[i++] = group.toArray(new BaseStatusSignal[0]);
+        }
+        mBusGroups = groups;
+
+        // Prime the cache so reads before the next loop's refresh are not zero
+        BaseStatusSignal.refreshAll(signals);
+    }
+
+    /**
+     * Refreshes every registered signal, one CAN transaction batch per bus. Call once per loop
+     * before any subsystem reads its signals.
+     */
+    public void refreshAll() {
+        final var groups = mBusGroups;
+        for (int i = 0; i < groups.length; i++) {
+            BaseStatusSignal.refreshAll(groups[i]);
+        }
+    }
+
+    /**
+     * Gets the number of registered signals.
+     *
+     * @return total signals across all buses
+     */
+    public int getSignalCount() {
+        int count = 0;
+        for (var group : mBusGroups) {
+            count += group.length;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,231 @@
+package frc.crevolib.util;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Typed NetworkTables publishers for periodic telemetry.
+ *
+ * <p>Each channel is created once, usually as a field of the subsystem or command that publishes
+ * it, and holds its own publisher handle. This avoids the string-keyed table lookup that every
+ * <code>SmartDashboard.put*</code> call performs. Channels live in the <code>SmartDashboard</code>
+ * table, so existing dashboard layouts keep working.
+ *
+ * <p>Every channel has a {@link Level}. Channels above the current level are skipped without
+ * touching NetworkTables. A channel can also have a minimum period between publishes. Setting a
+ * value never allocates; callers that build a value (for example formatting a string) should check
+ * {@link Channel#isDue()} first.
+ */
+public final class Telemetry {
+    /** How much telemetry to publish. Each level includes every level before it. */
+    public enum Level {
+        /** Values needed by the drive team during a match. */
+        kCompetition,
+        /** Tuning and debugging values. */
+        kDebug
+    }
+
+    private static final NetworkTable kTable = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private static volatile Level sLevel = Level.kDebug;
+
+    private Telemetry() {}
+
+    /**
+     * Sets the highest level of channel that is published.
+     *
+     * @param level the new verbosity level
+     */
+    public static void setLevel(Level level) {
+        sLevel = level;
+    }
+
+    public static Level getLevel() {
+        return sLevel;
+    }
+
+    public static DoubleChannel doubleChannel(String key) {
+        return doubleChannel(key, Level.kDebug, 0.0);
+    }
+
+    public static DoubleChannel doubleChannel(String key, Level level) {
+        return doubleChannel(key, level, 0.0);
+    }
+
+    /**
+     * Creates a channel that publishes a double.
+     *
+     * @param key entry name in the SmartDashboard table
+     * @param level the lowest verbosity level this channel is published at
+     * @param periodSeconds minimum time between publishes, or 0 to publish every call
+     * @return the new channel
+     */
+    public static DoubleChannel doubleChannel(String key, Level level, double periodSeconds) {
+        return new DoubleChannel(kTable.getDoubleTopic(key).publish(), level, periodSeconds);
+    }
+
+    public static BooleanChannel booleanChannel(String key) {
+        return booleanChannel(key, Level.kDebug, 0.0);
+    }
+
+    public static BooleanChannel booleanChannel(String key, Level level) {
+        return booleanChannel(key, level, 0.0);
+    }
+
+    /**
+     * Creates a channel that publishes a boolean.
+     *
+     * @param key entry name in the SmartDashboard table
+     * @param level the lowest verbosity level this channel is published at
+     * @param periodSeconds minimum time between publishes, or 0 to publish every call
+     * @return the new channel
+     */
+    public static BooleanChannel booleanChannel(String key, Level level, double periodSeconds) {
+        return new BooleanChannel(kTable.getBooleanTopic(key).publish(), level, periodSeconds);
+    }
+
+    public static StringChannel stringChannel(String key) {
+        return stringChannel(key, Level.kDebug, 0.0);
+    }
+
+    public static StringChannel stringChannel(String key, Level level) {
+        return stringChannel(key, level, 0.0);
+    }
+
+    /**
+     * Creates a channel that publishes a string.
+     *
+     * @param key entry name in the SmartDashboard table
+     * @param level the lowest verbosity level this channel is published at
+     * @param periodSeconds minimum time between publishes, or 0 to publish every call
+     * @return the new channel
+     */
+    public static StringChannel stringChannel(String key, Level level, double periodSeconds) {
+        return new StringChannel(kTable.getStringTopic(key).publish(), level, periodSeconds);
+    }
+
+    public static <T> StructChannel<T> structChannel(String key, Struct<T> struct, Level level) {
+        return structChannel(key, struct, level, 0.0);
+    }
+
+    /**
+     * Creates a channel that publishes a struct-serializable value, such as a <code>Pose2d</code>.
+     *
+     * @param key entry name in the SmartDashboard table
+     * @param struct struct serializer for the value, for example <code>Pose2d.struct</code>
+     * @param level the lowest verbosity level this channel is published at
+     * @param periodSeconds minimum time between publishes, or 0 to publish every call
+     * @return the new channel
+     */
+    public static <T> StructChannel<T> structChannel(String key, Struct<T> struct, Level level, double periodSeconds) {
+        return new StructChannel<>(kTable.getStructTopic(key, struct).publish(), level, periodSeconds);
+    }
+
+    /** Level and rate limiting shared by every channel type. */
+    public abstract static class Channel {
+        private final Level mLevel;
+        private final long mPeriodMicros;
+        private long mLastPublishMicros = 0;
+        private boolean mHasPublished = false;
+
+        private Channel(Level level, double periodSeconds) {
+            mLevel = level;
+            mPeriodMicros = (long) (periodSeconds * 1e6);
+        }
+
+        /**
+         * Checks whether a value set now would be published.
+         *
+         * @return true if the channel is enabled at the current level and its period has passed
+         */
+        public boolean isDue() {
+            if (mLevel.ordinal() > sLevel.ordinal()) {
+                return false;
+            }
+            return mPeriodMicros <= 0
+                    || !mHasPublished
+                    || RobotController.getFPGATime() - mLastPublishMicros >= mPeriodMicros;
+        }
+
+        /**
+         * Checks whether to publish and, if so, records the publish time.
+         *
+         * @return true if the caller should publish its value
+         */
+        protected boolean acquire() {
+            if (!isDue()) {
+                return false;
+            }
+            if (mPeriodMicros > 0) {
+                mLastPublishMicros = RobotController.getFPGATime();
+                mHasPublished = true;
+            }
+            return true;
+        }
+    }
+
+    public static final class DoubleChannel extends Channel {
+        private final DoublePublisher mPublisher;
+
+        private DoubleChannel(DoublePublisher publisher, Level level, double periodSeconds) {
+            super(level, periodSeconds);
+            mPublisher = publisher;
+        }
+
+        public void set(double value) {
+            if (acquire()) {
+                mPublisher.set(value);
+            }
+        }
+    }
+
+    public static final class BooleanChannel extends Channel {
+        private final BooleanPublisher mPublisher;
+
+        private BooleanChannel(BooleanPublisher publisher, Level level, double periodSeconds) {
+            super(level, periodSeconds);
+            mPublisher = publisher;
+        }
+
+        public void set(boolean value) {
+            if (acquire()) {
+                mPublisher.set(value);
+            }
+        }
+    }
+
+    public static final class StringChannel extends Channel {
+        private final StringPublisher mPublisher;
+
+        private StringChannel(StringPublisher publisher, Level level, double periodSeconds) {
+            super(level, periodSeconds);
+            mPublisher = publisher;
+        }
+
+        public void set(String value) {
+            if (acquire()) {
+                mPublisher.set(value);
+            }
+        }
+    }
+
+    public static final class StructChannel<T> extends Channel {
+        private final StructPublisher<T> mPublisher;
+
+        private StructChannel(StructPublisher<T> publisher, Level level, double periodSeconds) {
+            super(level, periodSeconds);
+            mPublisher = publisher;
+        }
+
+        public void set(T value) {
+            if (acquire()) {
+                mPublisher.set(value);
+            }
+        }
+    }
+}
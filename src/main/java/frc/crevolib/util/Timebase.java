@@ -0,0 +1,43 @@
+package frc.crevolib.util;
+
+import com.ctre.phoenix6.Utils;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * The one clock robot code should timestamp things with: FPGA time in seconds, the same clock as
+ * {@link Timer#getFPGATimestamp()} and PhotonVision result timestamps.
+ *
+ * <p>CTRE's swerve odometry and pose estimator keep time with {@link Utils#getCurrentTimeSeconds()}
+ * instead, which is a different clock in simulation and replay. Timestamps going to or coming from
+ * the CTRE drivetrain are converted here, at the boundary, so everything else can compare times
+ * directly.
+ */
+public final class Timebase {
+    private Timebase() {}
+
+    /** @return the current FPGA time in seconds */
+    public static double nowSeconds() {
+        return Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Converts a CTRE timestamp, such as <code>SwerveDriveState.Timestamp</code>, to FPGA time.
+     *
+     * @param ctreSeconds time from CTRE's clock
+     * @return the same moment in FPGA seconds
+     */
+    public static double fromCtre(double ctreSeconds) {
+        return Utils.currentTimeToFpgaTime(ctreSeconds);
+    }
+
+    /**
+     * Converts an FPGA timestamp to CTRE's clock, for handing measurements to the CTRE estimator.
+     *
+     * @param fpgaSeconds time in FPGA seconds
+     * @return the same moment on CTRE's clock
+     */
+    public static double toCtre(double fpgaSeconds) {
+        return Utils.fpgaToCurrentTime(fpgaSeconds);
+    }
+}
@@ -7,12 +7,18 @@ package frc.robot;
 import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 
+import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.NT4Publisher;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
+import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 
 import com.ctre.phoenix6.swerve.SwerveModule.DriveRequestType;
 import com.ctre.phoenix6.swerve.SwerveRequest;
 
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
@@ -23,10 +29,17 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.crevolib.configs.CTREConfigs;
+import frc.crevolib.sim.PhysicsSim;
+import frc.crevolib.util.CommandRegistry;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.crevolib.util.Telemetry;
 import frc.robot.driver.DriverXbox;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
 import frc.robot.drivetrain.TunerConstants;
 import frc.robot.operator.OperatorXbox;
+import frc.robot.superstructure.SuperstructurePlanner;
+import frc.robot.vision.FieldTargetIndex;
 import frc.robot.RobotContainer.*;
 
 import static edu.wpi.first.units.Units.*;
@@ -45,10 +58,69 @@ import static edu.wpi.first.units.Units.*;
 public class Robot extends LoggedRobot {
   public static final CTREConfigs ctreConfigs = new CTREConfigs();
 
+  /** Where the robot code is running and where its logged inputs come from. */
+  public enum Mode {
+    /** Running on the roboRIO against real hardware. */
+    kReal,
+    /** Running in the desktop simulator. */
+    kSim,
+    /** Running on a desktop JVM against the inputs of a recorded log. */
+    kReplay
+  }
+
+  public static class Settings {
+    // Set to kReplay to rerun the code against a recorded log instead of the simulator
+    static final Mode kSimMode = Mode.kSim;
+    public static final Mode kMode = RobotBase.isReal() ? Mode.kReal : kSimMode;
+
+    // In simulation, true runs the hardware IO against simulated CTRE devices so Motion Magic runs
+    // in the device firmware, false runs the lighter sim IO that can go faster than real time
+    public static final boolean kSimulateDevices = true;
+    // Mechanism physics models step at this period, independent of the 20 ms loop
+    public static final double kSimStepPeriodSecs = 0.002;
+
+    // Counts bytes allocated per loop section in the LoopProfiler, for finding allocations on hot
+    // paths. Leave off for matches
+    static final boolean kAuditAllocations = false;
+  }
+
   private Command m_autonomousCommand;
   private RobotContainer m_robotContainer;
+  private final LoopProfiler.Section m_statusSignalsSection = LoopProfiler.getInstance().section("StatusSignals");
   // private boolean constantRPM;
 
+  /**
+   * Configures and starts the AdvantageKit logger. This must run before any subsystem is created so
+   * every logged input goes through the replay source when replaying.
+   *
+   * <p>Data receivers run on AdvantageKit's receiver thread, the main loop only hands each cycle's
+   * table to a queue, so writing the log never blocks {@link #robotPeriodic()}.
+   */
+  public Robot() {
+    Logger.recordMetadata("ProjectName", "2025RobotCode-Jay");
+    Logger.recordMetadata("RobotMode", Settings.kMode.name());
+
+    switch (Settings.kMode) {
+      case kReal:
+        // Writes to the USB stick at /U/logs
+        Logger.addDataReceiver(new WPILOGWriter());
+        Logger.addDataReceiver(new NT4Publisher());
+        break;
+      case kSim:
+        Logger.addDataReceiver(new NT4Publisher());
+        break;
+      case kReplay:
+        // Run cycles back to back instead of every 20 ms so replay finishes faster than real time
+        setUseTiming(false);
+        String logPath = LogFileUtil.findReplayLog();
+        Logger.setReplaySource(new WPILOGReader(logPath));
+        Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim")));
+        break;
+    }
+
+    Logger.start();
+  }
+
   /**
    * This method cancels all commands and returns subsystems to their default commands and the
    * gamepad configs are reset so that new bindings can be assigned based on mode This method
@@ -56,7 +128,12 @@ public class Robot extends LoggedRobot {
    */
   public static void resetCommandsAndButtons() {
     CommandScheduler.getInstance().cancelAll(); // Disable any currently running commands
-    CommandScheduler.getInstance().getActiveButtonLoop().clear();
+    // The active button loop belongs to the LoopProfiler, bindings live on the default loop
+    CommandScheduler.getInstance().getDefaultButtonLoop().clear();
+    // Timings are kept per mode
+    LoopProfiler.getInstance().reset();
+    // The alliance is fixed while enabled, read it once per mode
+    FieldTargetIndex.getInstance().refreshAlliance();
 
     // Reset Config for all gamepads and other button bindings
     // Driver.getInstance().resetConfig();
@@ -76,7 +153,22 @@ public class Robot extends LoggedRobot {
     // autonomous chooser on the dashboard.
     
     //CameraServer.startAutomaticCapture();
+    // Must be installed before any button bindings are made
+    LoopProfiler.getInstance().install(getPeriod());
+    if (Settings.kAuditAllocations) {
+      LoopProfiler.getInstance().enableAllocationAudit();
+    }
     m_robotContainer = new RobotContainer();
+    // Builds the teleop commands now so the first enable and later mode changes only rebind them
+    CommandRegistry.getInstance().prebuild(() -> {
+      DriverXbox.getInstance().setupTeleopButtons();
+      OperatorXbox.getInstance().setupTeleopButtons();
+    });
+    // The score commands registered their planner goals as the bindings and named commands were built
+    if (SuperstructurePlanner.Settings.kEnabled) {
+      SuperstructurePlanner.getInstance().cachePaths();
+      Logger.recordOutput("Superstructure/CachedPaths", SuperstructurePlanner.getInstance().getCachedPathCount());
+    }
   }
 
   /**
@@ -93,7 +185,16 @@ public class Robot extends LoggedRobot {
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
 
+    LoopProfiler.getInstance().startLoop();
+
+    // Refresh every mechanism signal in one batch so subsystems read cached values
+    m_statusSignalsSection.begin();
+    StatusSignalRegistry.getInstance().refreshAll();
+    LoopProfiler.getInstance().end();
+
+    // Subsystems, the button poll and commands are timed from inside the scheduler
     CommandScheduler.getInstance().run();
+    LoopProfiler.getInstance().endLoop();
   }
 
   /**
@@ -106,7 +207,9 @@ public class Robot extends LoggedRobot {
 
   @Override
   public void disabledPeriodic() {
-      
+      // Drop debug telemetry once the field is connected, the FMS is attached before the match starts
+      Telemetry.setLevel(DriverStation.isFMSAttached() ? Telemetry.Level.kCompetition : Telemetry.Level.kDebug);
+      FieldTargetIndex.getInstance().refreshAlliance();
   }
 
   Timer m_gcTimer = new Timer();
@@ -203,6 +306,9 @@ public class Robot extends LoggedRobot {
    */
   @Override
   public void simulationInit() {
+    if (Settings.kMode == Mode.kSim) {
+      PhysicsSim.getInstance().start(Settings.kSimStepPeriodSecs);
+    }
   }
 
   /**
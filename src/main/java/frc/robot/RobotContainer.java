@@ -10,12 +10,14 @@ import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.ConditionalCommand;
+import frc.crevolib.util.LoopProfiler;
 import frc.robot.algaeflywheel.AlgaeRoller;
 import frc.robot.algaepivot.AlgaeSubsystem;
 import frc.robot.auton.AutonMaster;
 import frc.robot.climber.Climber;
 import frc.robot.driver.DriverXbox;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.drivetrain.TeleopDriveRequest;
 import frc.robot.drivetrain.TunerConstants;
 import frc.robot.elevator.ElevatorSubsystem;
 
@@ -26,6 +28,7 @@ import frc.robot.vision.PoseEstimatorSubsystem;
 
 import frc.robot.rushinator.*;
 import frc.robot.rushinator.commands.*;
+import frc.robot.superstructure.Superstructure;
 
 /**
  * This class is where the bulk of the robot should be declared. Since Command-based is a
@@ -51,6 +54,8 @@ public class RobotContainer {
     public RobotContainer() {
         mAutonChooser = mAutonMaster.getAutonSelector();
         setDefaultCommands();
+        // Registered after the mechanisms so its periodic sees this loop's inputs
+        Superstructure.getInstance();
 
         ShuffleboardTab autonTab = Shuffleboard.getTab("Auton Chooser");
         autonTab.add(mAutonChooser);
@@ -86,31 +91,12 @@ public class RobotContainer {
         // final var climber = new Climber(operator::getClimberDeploy, operator::getClimberRetract, operator::getClimberOverride, Climber.OperatingMode.kManual);
         // climber.setDefaultCommand(new Climber.DefaultCommand(climber));
 
-        CommandSwerveDrivetrain.getInstance().setDefaultCommand(
-                CommandSwerveDrivetrain.getInstance().applyRequest(() -> {
-                    if (currAlliance == Alliance.Blue){
-                        if (modeFast) {
-                        return drive.withVelocityX(driver.getDriveTranslation().getX() * kMaxVelocity) // Drive forward with negative Y (forward)
-                        .withVelocityY(driver.getDriveTranslation().getY() * kMaxVelocity) // Drive left with negative X (left)
-                        .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity); // Drive counterclockwise with negative X (left)
-                        } else {
-                        return drive.withVelocityX(driver.getDriveTranslation().getX() * kMaxVelocity * 0.3) // Drive forward with negative Y (forward)
-                            .withVelocityY(driver.getDriveTranslation().getY() * kMaxVelocity * 0.3) // Drive left with negative X (left)
-                            .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity * 0.3); // Drive counterclockwise with negative X (left)
-                        }
-                    } else {
-                        if (modeFast) {
-                            return drive.withVelocityX(-driver.getDriveTranslation().getX() * kMaxVelocity) // Drive forward with negative Y (forward)
-                            .withVelocityY(-driver.getDriveTranslation().getY() * kMaxVelocity) // Drive left with negative X (left)
-                            .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity); // Drive counterclockwise with negative X (left)
-                        } else {
-                            return drive.withVelocityX(-driver.getDriveTranslation().getX() * kMaxVelocity * 0.3) // Drive forward with negative Y (forward)
-                                .withVelocityY(-driver.getDriveTranslation().getY() * kMaxVelocity * 0.3) // Drive left with negative X (left)
-                                .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity * 0.3); // Drive counterclockwise with negative X (left)
-                        }
-                    }
-            })
-        );
+        final var driveCommand = CommandSwerveDrivetrain.getInstance().applyRequest(new TeleopDriveRequest(
+            drive, driver::getDriveTranslationX, driver::getDriveTranslationY, driver::getDriveRotation,
+            () -> modeFast, currAlliance, kMaxVelocity, kMaxAngularVelocity));
+        driveCommand.setName("DriverDrive");
+        LoopProfiler.getInstance().commandSection(driveCommand).setAllocationBudget(0);
+        CommandSwerveDrivetrain.getInstance().setDefaultCommand(driveCommand);
 
         // if (modeFast) {
         //     return drive.withVelocityX(driver.getDriveTranslation().getX() * kMaxVelocity) // Drive forward with negative Y (forward)
@@ -176,15 +162,7 @@ public class RobotContainer {
             new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelRight),
             new SetWristState(RushinatorWrist.State.kTravelLeft),
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kClimblRight
+            () -> Superstructure.getInstance().isRightSide()
             )
         );
 
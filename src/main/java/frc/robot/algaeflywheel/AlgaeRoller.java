@@ -4,17 +4,15 @@
 
 package frc.robot.algaeflywheel;
 
-import org.opencv.core.RotatedRect;
-
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
+import org.littletonrobotics.junction.Logger;
 
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import edu.wpi.first.wpilibj2.command.WaitCommand;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.robot.Robot;
 
 /** Add your docs here. */
 public class AlgaeRoller extends SubsystemBase{
@@ -29,51 +27,59 @@ public class AlgaeRoller extends SubsystemBase{
     }
 
     private static AlgaeRoller mInstance;
-    private final TalonFX mTalonShooterLeft, mTalonShooterRight, mTalonIndexer;
-
-    private AlgaeRoller() {
-        mTalonShooterLeft = new TalonFX(Settings.kLeftID);
-        mTalonShooterRight = new TalonFX(Settings.kRightID);
-        mTalonIndexer = new TalonFX(Settings.kIndexID);
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/AlgaeRoller");
+    private final AlgaeRollerIO mIO;
+    private final AlgaeRollerIOInputsAutoLogged mInputs = new AlgaeRollerIOInputsAutoLogged();
+    private final DoubleChannel mLeftVelocityTelemetry = Telemetry.doubleChannel("Left Flywheel Velocity (RPM)");
+    private final DoubleChannel mRightVelocityTelemetry = Telemetry.doubleChannel("Right Flywheel Velocity (RPM)");
 
-        mTalonShooterLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-        mTalonShooterRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-        mTalonIndexer.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+    AlgaeRoller(AlgaeRollerIO io) {
+        mIO = io;
     }
 
     public static AlgaeRoller getInstance() {
         if (mInstance == null) {
-            mInstance = new AlgaeRoller();
+            mInstance = new AlgaeRoller(switch (Robot.Settings.kMode) {
+                case kReal -> new AlgaeRollerIOTalonFX();
+                case kSim -> new AlgaeRollerIOSim();
+                case kReplay -> new AlgaeRollerIO() {};
+            });
         }
         return mInstance;
     }
 
     public void setFlywheelVoltage(double voltage) {
-        mTalonShooterLeft.setVoltage(voltage);
-        mTalonShooterRight.setVoltage(voltage);
+        mIO.setFlywheelVoltage(voltage);
     }
 
     public void setFlywheelVelocity(Rotation2d velocity) {
-        mTalonShooterLeft.setControl(new VelocityVoltage(velocity.getRotations()));
-        mTalonShooterRight.setControl(new VelocityVoltage(velocity.getRotations()));
+        mIO.setFlywheelVelocity(velocity.getRotations());
     }
 
     public void setIndexerVoltage(double voltage) {
-        mTalonIndexer.setVoltage(voltage);
+        mIO.setIndexerVoltage(voltage);
     }
 
     public Rotation2d geLeftVelocity() {
-        return Rotation2d.fromRotations(mTalonShooterLeft.getVelocity().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.leftVelocityRotationsPerSec);
     }
 
     public Rotation2d getRightVelocity() {
-        return Rotation2d.fromRotations(mTalonShooterRight.getVelocity().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.rightVelocityRotationsPerSec);
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("Left Flywheel Velocity (RPM)", mTalonShooterLeft.getVelocity().getValueAsDouble() * 60);
-        SmartDashboard.putNumber("Right Flywheel Velocity (RPM)", mTalonShooterRight.getVelocity().getValueAsDouble() * 60);
+        mLoopSection.begin();
+
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("AlgaeRoller", mInputs);
+
+        mLeftVelocityTelemetry.set(mInputs.leftVelocityRotationsPerSec * 60);
+        mRightVelocityTelemetry.set(mInputs.rightVelocityRotationsPerSec * 60);
+
+        Logger.recordOutput("AlgaeRoller/LeftVelocityRPS", mInputs.leftVelocityRotationsPerSec);
+        Logger.recordOutput("AlgaeRoller/RightVelocityRPS", mInputs.rightVelocityRotationsPerSec);
     }
 
     public static class DefaultCommand extends Command {
@@ -0,0 +1,30 @@
+package frc.robot.algaeflywheel;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the algae flywheels and their indexer. Velocities are in rotations of
+ * the flywheel motors.
+ *
+ * <p>Every method has an empty default, so <code>new AlgaeRollerIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface AlgaeRollerIO {
+    @AutoLog
+    public static class AlgaeRollerIOInputs {
+        public double leftVelocityRotationsPerSec = 0.0;
+        public double rightVelocityRotationsPerSec = 0.0;
+        public double flywheelAppliedVolts = 0.0;
+        public double indexerAppliedVolts = 0.0;
+    }
+
+    default void updateInputs(AlgaeRollerIOInputs inputs) {}
+
+    /** Runs both flywheels open loop. */
+    default void setFlywheelVoltage(double volts) {}
+
+    /** Runs the velocity loop on both flywheel motor controllers, with their slot 0 gains. */
+    default void setFlywheelVelocity(double velocityRotationsPerSec) {}
+
+    default void setIndexerVoltage(double volts) {}
+}
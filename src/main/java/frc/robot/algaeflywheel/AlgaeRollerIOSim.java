@@ -0,0 +1,52 @@
+package frc.robot.algaeflywheel;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+
+/**
+ * Physics model of the algae flywheels and indexer, with no algae loaded. The two flywheels are
+ * driven with the same voltage, so they are modeled as one.
+ */
+public class AlgaeRollerIOSim implements AlgaeRollerIO {
+    // Estimated from CAD
+    private static final double kFlywheelGearing = 1.0;
+    private static final double kFlywheelMOIKgMetersSquared = 0.004;
+    private static final double kIndexerGearing = 3.0;
+    private static final double kIndexerMOIKgMetersSquared = 0.002;
+
+    private final MechanismSim mFlywheelSim = MechanismSim.roller(DCMotor.getKrakenX60(1), kFlywheelGearing, kFlywheelMOIKgMetersSquared);
+    private final MechanismSim mIndexerSim = MechanismSim.roller(DCMotor.getKrakenX60(1), kIndexerGearing, kIndexerMOIKgMetersSquared);
+    private double mFlywheelVolts = 0.0;
+    private double mIndexerVolts = 0.0;
+
+    @Override
+    public void updateInputs(AlgaeRollerIOInputs inputs) {
+        mFlywheelSim.setInputVoltage(mFlywheelVolts);
+        mFlywheelSim.update(TimedRobot.kDefaultPeriod);
+        mIndexerSim.setInputVoltage(mIndexerVolts);
+        mIndexerSim.update(TimedRobot.kDefaultPeriod);
+
+        inputs.leftVelocityRotationsPerSec = mFlywheelSim.getVelocity();
+        inputs.rightVelocityRotationsPerSec = mFlywheelSim.getVelocity();
+        inputs.flywheelAppliedVolts = mFlywheelSim.getInputVoltage();
+        inputs.indexerAppliedVolts = mIndexerSim.getInputVoltage();
+    }
+
+    @Override
+    public void setFlywheelVoltage(double volts) {
+        mFlywheelVolts = volts;
+    }
+
+    @Override
+    public void setFlywheelVelocity(double velocityRotationsPerSec) {
+        // Slot 0 is never configured on the TalonFXs, so with zero gains a velocity request puts out
+        // nothing. The model does the same rather than pretend the loop is tuned.
+        mFlywheelVolts = 0.0;
+    }
+
+    @Override
+    public void setIndexerVoltage(double volts) {
+        mIndexerVolts = volts;
+    }
+}
@@ -0,0 +1,65 @@
+package frc.robot.algaeflywheel;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.algaeflywheel.AlgaeRoller.Settings;
+
+/** Algae flywheels and indexer, each driven by its own TalonFX. */
+public class AlgaeRollerIOTalonFX implements AlgaeRollerIO {
+    private final TalonFX mTalonShooterLeft, mTalonShooterRight, mTalonIndexer;
+    private final StatusSignal<AngularVelocity> mLeftVelocitySignal, mRightVelocitySignal;
+    private final StatusSignal<Voltage> mFlywheelVoltageSignal, mIndexerVoltageSignal;
+
+    private final VelocityVoltage mVelocityRequest = new VelocityVoltage(0.0);
+
+    public AlgaeRollerIOTalonFX() {
+        mTalonShooterLeft = new TalonFX(Settings.kLeftID);
+        mTalonShooterRight = new TalonFX(Settings.kRightID);
+        mTalonIndexer = new TalonFX(Settings.kIndexID);
+
+        mTalonShooterLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mTalonShooterRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mTalonIndexer.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mLeftVelocitySignal = mTalonShooterLeft.getVelocity(false);
+        mRightVelocitySignal = mTalonShooterRight.getVelocity(false);
+        mFlywheelVoltageSignal = mTalonShooterLeft.getMotorVoltage(false);
+        mIndexerVoltageSignal = mTalonIndexer.getMotorVoltage(false);
+        StatusSignalRegistry.getInstance().register(mTalonShooterLeft, mLeftVelocitySignal, mFlywheelVoltageSignal);
+        StatusSignalRegistry.getInstance().register(mTalonShooterRight, mRightVelocitySignal);
+        StatusSignalRegistry.getInstance().register(mTalonIndexer, mIndexerVoltageSignal);
+    }
+
+    @Override
+    public void updateInputs(AlgaeRollerIOInputs inputs) {
+        // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+        inputs.leftVelocityRotationsPerSec = mLeftVelocitySignal.getValueAsDouble();
+        inputs.rightVelocityRotationsPerSec = mRightVelocitySignal.getValueAsDouble();
+        inputs.flywheelAppliedVolts = mFlywheelVoltageSignal.getValueAsDouble();
+        inputs.indexerAppliedVolts = mIndexerVoltageSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setFlywheelVoltage(double volts) {
+        mTalonShooterLeft.setVoltage(volts);
+        mTalonShooterRight.setVoltage(volts);
+    }
+
+    @Override
+    public void setFlywheelVelocity(double velocityRotationsPerSec) {
+        mVelocityRequest.withVelocity(velocityRotationsPerSec);
+        mTalonShooterLeft.setControl(mVelocityRequest);
+        mTalonShooterRight.setControl(mVelocityRequest);
+    }
+
+    @Override
+    public void setIndexerVoltage(double volts) {
+        mTalonIndexer.setVoltage(volts);
+    }
+}
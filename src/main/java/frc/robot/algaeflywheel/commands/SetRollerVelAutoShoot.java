@@ -4,8 +4,10 @@ import java.util.function.Supplier;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.BooleanChannel;
+import frc.crevolib.util.Telemetry.Level;
 import frc.robot.algaeflywheel.AlgaeRoller;
 import frc.robot.operator.OperatorXbox;
 
@@ -15,6 +17,9 @@ public class SetRollerVelAutoShoot extends Command{
 
     private final Rotation2d kAllowedError = Rotation2d.fromRotations(5); // 300 RPM
 
+    private static final BooleanChannel leftReadyTelemetry = Telemetry.booleanChannel("Shooter Ready (left)", Level.kCompetition);
+    private static final BooleanChannel rightReadyTelemetry = Telemetry.booleanChannel("Shooter Ready (right)", Level.kCompetition);
+
 
     SetRollerVelAutoShoot(Supplier<Rotation2d> velocitySupplier) {
         algaeSystem = AlgaeRoller.getInstance();
@@ -29,15 +34,13 @@ public class SetRollerVelAutoShoot extends Command{
 
         algaeSystem.setFlywheelVelocity(velFlywheel);
 
-        SmartDashboard.putBoolean("Shooter Ready (left)", 
-            (Math.abs(velFlywheel.getRotations()) - (Math.abs(leftVel.getRotations()))) < kAllowedError.getRotations());
-        SmartDashboard.putBoolean("Shooter Ready (right)", 
-            (Math.abs(velFlywheel.getRotations()) - (Math.abs(rightVel.getRotations()))) < kAllowedError.getRotations());
-    
         var leftAtVel = 
             (Math.abs(velFlywheel.getRotations()) - (Math.abs(leftVel.getRotations()))) < kAllowedError.getRotations();
         var rightAtVel = 
             (Math.abs(velFlywheel.getRotations()) - (Math.abs(rightVel.getRotations()))) < kAllowedError.getRotations();
+
+        leftReadyTelemetry.set(leftAtVel);
+        rightReadyTelemetry.set(rightAtVel);
         
         if (leftAtVel || rightAtVel) {
             algaeSystem.setIndexerVoltage(12);
@@ -0,0 +1,25 @@
+package frc.robot.algaepivot;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the algae pivot. Positions are CANcoder rotations of the pivot.
+ *
+ * <p>Every method has an empty default, so <code>new AlgaePivotIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface AlgaePivotIO {
+    @AutoLog
+    public static class AlgaePivotIOInputs {
+        public double absolutePositionRotations = 0.0;
+        public double velocityRotationsPerSec = 0.0;
+        public double appliedVolts = 0.0;
+    }
+
+    default void updateInputs(AlgaePivotIOInputs inputs) {}
+
+    default void setVoltage(double volts) {}
+
+    /** Runs Motion Magic on the motor controller, with the CANcoder as the feedback sensor. */
+    default void setMotionMagicPosition(double positionRotations) {}
+}
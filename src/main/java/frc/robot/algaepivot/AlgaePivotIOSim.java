@@ -0,0 +1,60 @@
+package frc.robot.algaepivot;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.SimMotionMagic;
+import frc.robot.Robot;
+import frc.robot.algaepivot.AlgaeSubsystem.Settings;
+
+/**
+ * Physics model of the algae pivot. Does not touch any CTRE device, so it runs as fast as the loop
+ * is called.
+ */
+public class AlgaePivotIOSim implements AlgaePivotIO {
+    private static final int kSubsteps = (int) Math.ceil(TimedRobot.kDefaultPeriod / Robot.Settings.kSimStepPeriodSecs);
+    private static final double kSubstepSecs = TimedRobot.kDefaultPeriod / kSubsteps;
+
+    private final MechanismSim mSim = createModel();
+    private final SimMotionMagic mMotionMagic = new SimMotionMagic(
+            Settings.kMMCruiseVelocity, Settings.kMMAcceleration,
+            Settings.kMMkP, 0.0, 0.0, 0.0, 0.0, 0.0
+    );
+    private double mAppliedVolts = 0.0;
+
+    /**
+     * Creates the pivot model, in rotations of the pivot. Gravity follows the cosine of the angle
+     * like the arm feedforward. Shared with the simulated devices in {@link AlgaePivotIOTalonFX}.
+     */
+    static MechanismSim createModel() {
+        return new MechanismSim(Settings.kS, Settings.kSimV, Settings.kSimA,
+                position -> Settings.kG * Math.cos(2.0 * Math.PI * position),
+                Settings.kMinPos.getRotations(), Settings.kMaxPos.getRotations(),
+                AlgaeSubsystem.State.kStow.pos.getRotations());
+    }
+
+    @Override
+    public void updateInputs(AlgaePivotIOInputs inputs) {
+        for (int i = 0; i < kSubsteps; i++) {
+            if (mMotionMagic.isActive()) {
+                mAppliedVolts = mMotionMagic.calculate(mSim.getPosition(), kSubstepSecs);
+            }
+            mSim.setInputVoltage(mAppliedVolts);
+            mSim.update(kSubstepSecs);
+        }
+
+        inputs.absolutePositionRotations = mSim.getPosition();
+        inputs.velocityRotationsPerSec = mSim.getVelocity();
+        inputs.appliedVolts = mSim.getInputVoltage();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mMotionMagic.stop();
+        mAppliedVolts = volts;
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations) {
+        mMotionMagic.setGoal(positionRotations, mSim.getPosition(), mSim.getVelocity());
+    }
+}
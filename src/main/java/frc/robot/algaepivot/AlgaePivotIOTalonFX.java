@@ -0,0 +1,119 @@
+package frc.robot.algaepivot;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MagnetSensorConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+import com.ctre.phoenix6.sim.ChassisReference;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.PhysicsSim;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.algaepivot.AlgaeSubsystem.Settings;
+
+/**
+ * Algae pivot driven by a TalonFX, with a CANcoder on the pivot. In simulation both devices are
+ * driven by the pivot's physics model.
+ */
+public class AlgaePivotIOTalonFX implements AlgaePivotIO {
+    private final TalonFX mTalonPivot;
+    private final CANcoder mCANcoderPivot;
+    private final StatusSignal<Angle> mAbsolutePositionSignal;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+
+    private final MotionMagicVoltage mMotionMagicRequest = new MotionMagicVoltage(0.0);
+
+    private MechanismSim mSimModel = null;
+
+    public AlgaePivotIOTalonFX() {
+        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
+        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        ));
+        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
+        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
+                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
+                withMagnetOffset(Settings.kZeroOffset)
+        ));
+
+        // Only P is used on the RIO (feedforward is disabled), so only P is carried over
+        mTalonPivot.getConfigurator().apply(new Slot0Configs().withKP(Settings.kMMkP));
+        mTalonPivot.getConfigurator().apply(new MotionMagicConfigs()
+                .withMotionMagicCruiseVelocity(Settings.kMMCruiseVelocity)
+                .withMotionMagicAcceleration(Settings.kMMAcceleration)
+        );
+        mTalonPivot.getConfigurator().apply(new FeedbackConfigs()
+                .withFeedbackRemoteSensorID(Settings.kCANcoderPivotID)
+                .withFeedbackSensorSource(Settings.kFeedbackSource)
+                .withRotorToSensorRatio(Settings.kRotorToSensorRatio)
+        );
+
+        mAbsolutePositionSignal = mCANcoderPivot.getAbsolutePosition(false);
+        mVelocitySignal = mCANcoderPivot.getVelocity(false);
+        mMotorVoltageSignal = mTalonPivot.getMotorVoltage(false);
+        StatusSignalRegistry.getInstance().register(mCANcoderPivot, mAbsolutePositionSignal, mVelocitySignal);
+        StatusSignalRegistry.getInstance().register(mTalonPivot, mMotorVoltageSignal);
+
+        if (RobotBase.isSimulation()) {
+            mSimModel = AlgaePivotIOSim.createModel();
+            mTalonPivot.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+            mCANcoderPivot.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+            PhysicsSim.getInstance().register(this::updateSimState);
+        }
+    }
+
+    /** Runs on the physics thread, see {@link PhysicsSim}. */
+    private void updateSimState(double dtSeconds) {
+        var talonSimState = mTalonPivot.getSimState();
+        var cancoderSimState = mCANcoderPivot.getSimState();
+        talonSimState.setSupplyVoltage(RobotController.getBatteryVoltage());
+        cancoderSimState.setSupplyVoltage(RobotController.getBatteryVoltage());
+
+        mSimModel.setInputVoltage(talonSimState.getMotorVoltage());
+        mSimModel.update(dtSeconds);
+
+        talonSimState.setRawRotorPosition(mSimModel.getPosition() * Settings.kRotorToSensorRatio);
+        talonSimState.setRotorVelocity(mSimModel.getVelocity() * Settings.kRotorToSensorRatio);
+        // The CANcoder adds its magnet offset to the raw position
+        cancoderSimState.setRawPosition(mSimModel.getPosition() - Settings.kZeroOffset);
+        cancoderSimState.setVelocity(mSimModel.getVelocity());
+    }
+
+    @Override
+    public void updateInputs(AlgaePivotIOInputs inputs) {
+        // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+        inputs.absolutePositionRotations = mAbsolutePositionSignal.getValueAsDouble();
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+        inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mTalonPivot.setVoltage(volts);
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations) {
+        mTalonPivot.setControl(mMotionMagicRequest.withPosition(positionRotations));
+    }
+}
@@ -1,21 +1,45 @@
 package frc.robot.algaepivot;
 
-import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
-import edu.wpi.first.math.interpolation.Interpolator;
-import edu.wpi.first.math.interpolation.InverseInterpolator;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.InterpolationTable;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.ReloadableInterpolationTable;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
 
+/**
+ * Shooter setpoints against distance to the target, read from <code>algae_shooter.csv</code> in
+ * the deploy directory. The key column is the distance in meters, <code>pivot_angle_deg</code> is
+ * required and further outputs, like flywheel RPM or time of flight, can be added as columns and
+ * found with {@link InterpolationTable#columnIndex(String)}. The file is read again when it changes,
+ * except when connected to the FMS.
+ */
 public class AlgaeShooterInterpolation extends SubsystemBase{
-    // Create an InterpolatingTreeMap to store data points with double keys
-    private static InterpolatingTreeMap<Double, Double> dataAngle = new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), Interpolator.forDouble());
+    private static final String kTableFile = "algae_shooter.csv";
+    private static final String kPivotAngleColumn = "pivot_angle_deg";
+    private static final double kReloadCheckPeriodSecs = 1.0;
+
+    // Used until the deploy file is read, and if it never can be
+    private static final InterpolationTable kFallbackTable = new InterpolationTable(
+        new String[] {kPivotAngleColumn},
+        new double[] {0.0, 1.5, 3.89, 5.3},
+        new double[][] {{0.0}, {0.0}, {29.0}, {26.5}});
+
+    private static InterpolationTable table = kFallbackTable;
+    private static int pivotAngleColumn = 0;
+
     private static AlgaeShooterInterpolation mInstance;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/AlgaeShooterInterpolation");
+    private final ReloadableInterpolationTable tableFile;
     private double algaeShooterPivotAngle;
     private double distance;
-    // private static InterpolatingDoubleTreeMap data = new InterpolatingDoubleTreeMap();
+    private final DoubleChannel angleTelemetry = Telemetry.doubleChannel("[Interpolated Angle]");
+    private final DoubleChannel distanceTelemetry = Telemetry.doubleChannel("[Interpolated Passed Dist.]");
+
     public AlgaeShooterInterpolation() {
-        // Configures the TreeMap
-        configureInterpolatingAngleTreeMap();
+        tableFile = new ReloadableInterpolationTable(kTableFile, kFallbackTable, kReloadCheckPeriodSecs);
+        useTable(tableFile.get());
     }
 
     public static AlgaeShooterInterpolation getInstance() {
@@ -25,30 +49,56 @@ public class AlgaeShooterInterpolation extends SubsystemBase{
         return mInstance;
     }
 
-    // Method to set up data values for Angles in the TreeMap
-    private void configureInterpolatingAngleTreeMap() {
-        // Add data points to the TreeMap
-        dataAngle.put(0.0, 0.0);
-        dataAngle.put(1.5, 0.0);
-        dataAngle.put(3.89, 29.0);
-        dataAngle.put(5.3, 26.5);
-        
-    }
-
     // Method to interpolate the data point at a specific distance
     public double getInterpolatedAngle(double distance) {
         this.distance = distance;
 
-        /* Get the interpolated entry from the TreeMap for the specified distance */
-        algaeShooterPivotAngle = dataAngle.get(distance);
+        algaeShooterPivotAngle = interpolateAngle(distance);
 
         // Return the interpolated data point
         return algaeShooterPivotAngle;
     }
 
+    /**
+     * Looks up the shooter pivot angle for a distance without touching the subsystem, so the table
+     * can be used off-robot.
+     *
+     * @param distance distance to the target in meters
+     * @return the interpolated pivot angle
+     */
+    public static double interpolateAngle(double distance) {
+        return table.get(distance, pivotAngleColumn);
+    }
+
+    /**
+     * Gets the table in use, for outputs other than the pivot angle.
+     *
+     * @return the current table
+     */
+    public static InterpolationTable getTable() {
+        return table;
+    }
+
+    private static void useTable(InterpolationTable newTable) {
+        int column = newTable.columnIndex(kPivotAngleColumn);
+        if (column < 0) {
+            DriverStation.reportWarning("[AlgaeShooterInterpolation] " + kTableFile + " has no "
+                + kPivotAngleColumn + " column, keeping the last table", false);
+            return;
+        }
+        pivotAngleColumn = column;
+        table = newTable;
+    }
+
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("[Interpolated Angle]", algaeShooterPivotAngle);
-        SmartDashboard.putNumber("[Interpolated Passed Dist.]", distance);
+        mLoopSection.begin();
+
+        if (!DriverStation.isFMSAttached() && tableFile.poll()) {
+            useTable(tableFile.get());
+        }
+
+        angleTelemetry.set(algaeShooterPivotAngle);
+        distanceTelemetry.set(distance);
     }
 }
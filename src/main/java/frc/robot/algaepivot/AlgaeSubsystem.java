@@ -1,22 +1,20 @@
 package frc.robot.algaepivot;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MagnetSensorConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
+import org.littletonrobotics.junction.Logger;
+
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import edu.wpi.first.math.controller.ArmFeedforward;
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.math.ProfiledController;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.MechanismControlMode;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.robot.Robot;
 
 import java.util.function.Supplier;
 
@@ -45,8 +43,22 @@ public class AlgaeSubsystem extends SubsystemBase {
         static final double kCurrentLimit = 40.0;
 
         // TODO: Enable lower min-pos to bring down CoG when elevator is up. We should be able to tuck the shooter into the elevator.
-        static final Rotation2d kMinPos = Rotation2d.fromRotations(0.0439453125);
-        static final Rotation2d kMaxPos = Rotation2d.fromRotations(0.369384765625);
+        public static final Rotation2d kMinPos = Rotation2d.fromRotations(0.0439453125);
+        public static final Rotation2d kMaxPos = Rotation2d.fromRotations(0.369384765625);
+
+        // kRioProfiled runs the ProfiledController on the RIO, kMotionMagic runs the profile on
+        // the TalonFX with the CANcoder as its feedback sensor
+        static final MechanismControlMode kControlMode = MechanismControlMode.kRioProfiled;
+        // FusedCANcoder requires Phoenix Pro and an accurate kRotorToSensorRatio
+        static final FeedbackSensorSourceValue kFeedbackSource = FeedbackSensorSourceValue.RemoteCANcoder;
+        static final double kRotorToSensorRatio = 1.0;
+        // The RIO loop works in radians, the TalonFX works in rotations
+        static final double kMMkP = kP * 2.0 * Math.PI; // V / rot
+        static final double kMMCruiseVelocity = kMaxVelocity.getRotations(); // rot / sec
+        static final double kMMAcceleration = kMaxAcceleration.getRotations(); // rot / sec^2
+        // kV and kA are zeroed for the RIO loop, so the sim uses the last characterized values
+        static final double kSimV = 1.77 * 2.0 * Math.PI; // V * sec / rot
+        static final double kSimA = 0.01 * 2.0 * Math.PI; // V * sec^2 / rot
     }
 
     public enum State {
@@ -65,86 +77,128 @@ public class AlgaeSubsystem extends SubsystemBase {
         public final Rotation2d pos;
     }
 
-    private final TalonFX mTalonPivot;
-    private final CANcoder mCANcoderPivot;
+    private final AlgaePivotIO mIO;
+    private final AlgaePivotIOInputsAutoLogged mInputs = new AlgaePivotIOInputsAutoLogged();
     private final ArmFeedforward mFFController;
-    private final ProfiledPIDController mPPIDController;
+    private final ProfiledController mPPIDController;
+
+    private MechanismControlMode mControlMode;
+    private double mTargetPosition = 0.0;
 
-    public static State kLastState;
+    private final DoubleChannel mPositionTelemetry = Telemetry.doubleChannel("Algae Pivot Pos (rotations)", Level.kCompetition);
+    private final DoubleChannel mTargetPositionTelemetry = Telemetry.doubleChannel("Algae Pivot Target Pos (rotations)");
+    private final DoubleChannel mVelocityTelemetry = Telemetry.doubleChannel("Algae Pivot Vel (rotations / sec)");
+    private final DoubleChannel mTargetVelocityTelemetry = Telemetry.doubleChannel("Algae Pivot Target Vel (rotations / sec)");
+    private final DoubleChannel mVoltageTelemetry = Telemetry.doubleChannel("Algae Pivot Applied Voltage");
 
-    private AlgaeSubsystem() {
-        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
-        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        ));
-        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+    private State mTargetState;
 
-        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
-        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
-                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
-                withMagnetOffset(Settings.kZeroOffset)
-        ));
+    /**
+     * Public so the superstructure can be tested against the sim IO, use {@link #getInstance()} in
+     * robot code.
+     *
+     * @param io hardware, simulation or replay
+     */
+    public AlgaeSubsystem(AlgaePivotIO io) {
+        mIO = io;
 
         mFFController = new ArmFeedforward(Settings.kS, Settings.kG, Settings.kV, Settings.kA);
-        mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
-                Settings.kMaxVelocity.getRadians(),
-                Settings.kMaxAcceleration.getRadians()
-        ));
+        mPPIDController = new ProfiledController(Settings.kP, Settings.kI, Settings.kD,
+                Settings.kMaxVelocity.getRadians(), Settings.kMaxAcceleration.getRadians());
         
-        if (kLastState == null) {
-            kLastState = State.kStow;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRadians());
+        mTargetState = State.kStow;
+        mPPIDController.setGoal(mTargetState.pos.getRadians());
+        mTargetPosition = mTargetState.pos.getRotations();
+        mControlMode = Settings.kControlMode;
     }
 
 
     private static AlgaeSubsystem mInstance;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/AlgaePivot");
     public static AlgaeSubsystem getInstance() {
         if (mInstance == null) {
-            mInstance = new AlgaeSubsystem();
+            mInstance = new AlgaeSubsystem(switch (Robot.Settings.kMode) {
+                case kReal -> new AlgaePivotIOTalonFX();
+                case kSim -> Robot.Settings.kSimulateDevices ? new AlgaePivotIOTalonFX() : new AlgaePivotIOSim();
+                case kReplay -> new AlgaePivotIO() {};
+            });
         }
         return mInstance;
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        mTargetState = targetState;
         setTargetPosition(targetState.pos);
     }
 
+    /** @return the last state passed to {@link #setTargetState} */
+    public State getTargetState() {
+        return mTargetState;
+    }
+
     public void setTargetPosition(Rotation2d targetPosition) {
         // NOTE: Use radians for target goal to align with re:calc constant units
         mPPIDController.setGoal(targetPosition.getRadians());
+        mTargetPosition = targetPosition.getRotations();
+    }
+
+    /**
+     * Selects whether the motion profile runs on the RIO or on the TalonFX. When falling back to
+     * the RIO, the profile is restarted from the current state so the pivot does not jump.
+     *
+     * @param controlMode where to run the profile
+     */
+    public void setControlMode(MechanismControlMode controlMode) {
+        if (controlMode == MechanismControlMode.kRioProfiled && mControlMode != controlMode) {
+            mPPIDController.reset(getWristPosition().getRadians(), getWristVelocity().getRadians());
+        }
+        mControlMode = controlMode;
+    }
+
+    public MechanismControlMode getControlMode() {
+        return mControlMode;
     }
 
     public Rotation2d getWristPosition() {
-        var pos = mCANcoderPivot.getAbsolutePosition().getValueAsDouble();
+        var pos = mInputs.absolutePositionRotations;
         return Rotation2d.fromRotations(pos);
     }
 
     public Rotation2d getWristVelocity() {
-        var vel = mCANcoderPivot.getVelocity().getValueAsDouble();
+        var vel = mInputs.velocityRotationsPerSec;
         return Rotation2d.fromRotations(vel);
     }
 
     @Override
     public void periodic() {
+        mLoopSection.begin();
+
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("AlgaePivot", mInputs);
+
         double voltage;
-        if (kLastState != null) {
-            voltage = mPPIDController.calculate(getWristPosition().getRadians());
-            // voltage += mFFController.calculate(getWristPosition().getRadians(), mPPIDController.getSetpoint().velocity);
+        if (mControlMode == MechanismControlMode.kMotionMagic) {
+            mIO.setMotionMagicPosition(mTargetPosition);
+            voltage = mInputs.appliedVolts;
         } else {
-            voltage = 0.0;
-        }
+            // Read the input directly, getWristPosition() would allocate a Rotation2d every loop
+            voltage = mPPIDController.calculate(Units.rotationsToRadians(mInputs.absolutePositionRotations));
+            // voltage += mFFController.calculate(getWristPosition().getRadians(), mPPIDController.getSetpoint().velocity);
 
-        mTalonPivot.setVoltage(voltage);
+            mIO.setVoltage(voltage);
+        }
 
         // Telemetry
-        SmartDashboard.putNumber("Algae Pivot Pos (rotations)", getWristPosition().getRotations());
-        SmartDashboard.putNumber("Algae Pivot Target Pos (rotations)", Rotation2d.fromRadians(mPPIDController.getSetpoint().position).getRotations());
-        SmartDashboard.putNumber("Algae Pivot Vel (rotations / sec)", getWristVelocity().getRotations());
-        SmartDashboard.putNumber("Algae Pivot Target Vel (rotations / sec)", Rotation2d.fromRadians(mPPIDController.getSetpoint().velocity).getRotations());
-        SmartDashboard.putNumber("Algae Pivot Applied Voltage", voltage);
+        mPositionTelemetry.set(mInputs.absolutePositionRotations);
+        mTargetPositionTelemetry.set(Units.radiansToRotations(mPPIDController.getSetpoint().position));
+        mVelocityTelemetry.set(mInputs.velocityRotationsPerSec);
+        mTargetVelocityTelemetry.set(Units.radiansToRotations(mPPIDController.getSetpoint().velocity));
+        mVoltageTelemetry.set(voltage);
+
+        Logger.recordOutput("AlgaePivot/ControlMode", mControlMode);
+        Logger.recordOutput("AlgaePivot/TargetPosition", mTargetPosition);
+        Logger.recordOutput("AlgaePivot/SetpointPosition", Units.radiansToRotations(mPPIDController.getSetpoint().position));
+        Logger.recordOutput("AlgaePivot/Voltage", voltage);
     }
 
     public static class DefaultCommand extends Command {
@@ -155,7 +209,7 @@ public class AlgaeSubsystem extends SubsystemBase {
 
         @Override
         public void execute() {
-            if (kLastState == State.kTuck) {
+            if (AlgaeSubsystem.getInstance().getTargetState() == State.kTuck) {
                 AlgaeSubsystem.getInstance().setTargetState(State.kTuck);
             } else {
                 AlgaeSubsystem.getInstance().setTargetState(State.kStow);
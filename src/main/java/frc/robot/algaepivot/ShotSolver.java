@@ -0,0 +1,152 @@
+package frc.robot.algaepivot;
+
+import frc.crevolib.util.InterpolationTable;
+
+/**
+ * Solves an algae shot from a moving robot. The ball keeps the robot's field velocity after it
+ * leaves the shooter, so instead of aiming at the target the shooter aims at a virtual target
+ * moved back along the robot's velocity by the ball's time of flight. Time of flight depends on
+ * distance, which depends on the virtual target, so the virtual target is refined a few times.
+ *
+ * <p>Shot setpoints come from the shooter {@link InterpolationTable}, which must have measured
+ * <code>pivot_angle_deg</code>, <code>flywheel_rpm</code> and <code>time_of_flight_s</code> columns.
+ * A table without all three, like the pivot-only table used for stationary shots, is not solved:
+ * {@link #solve} returns false and every output is NaN, so nothing is aimed from guessed numbers.
+ *
+ * <p>Each solve stops after a fixed number of refinements or once its time budget is spent,
+ * whichever comes first, and keeps the best estimate so far. Solving never allocates, results are
+ * read back with the getters.
+ */
+public class ShotSolver {
+    public static class Settings {
+        static final int kMaxIterations = 6;
+        static final double kConvergedMeters = 0.005;
+        static final long kBudgetNanos = 100_000; // 0.1 ms of the 20 ms loop
+    }
+
+    static final String kPivotAngleColumn = "pivot_angle_deg";
+    static final String kFlywheelRPMColumn = "flywheel_rpm";
+    static final String kTimeOfFlightColumn = "time_of_flight_s";
+
+    // Column indexes are looked up once per table
+    private InterpolationTable mTable = null;
+    private int mPivotAngleColumn = -1, mFlywheelRPMColumn = -1, mTimeOfFlightColumn = -1;
+
+    private double mVirtualTargetX, mVirtualTargetY;
+    private double mDistanceMeters;
+    private double mTimeOfFlightSecs;
+    private double mPivotAngleDegrees;
+    private double mFlywheelRPM;
+    private double mHeadingRadians;
+    private int mIterations;
+    private boolean mConverged;
+
+    /**
+     * Solves a shot.
+     *
+     * @param table shooter setpoints against distance
+     * @param robotX field x of the shooter in meters
+     * @param robotY field y of the shooter in meters
+     * @param robotVx field relative x velocity of the robot in meters / sec
+     * @param robotVy field relative y velocity of the robot in meters / sec
+     * @param targetX field x of the target in meters
+     * @param targetY field y of the target in meters
+     * @return true if the virtual target converged within the iteration and time budget, false if
+     *     it did not or the table is missing a column
+     */
+    public boolean solve(InterpolationTable table,
+            double robotX, double robotY, double robotVx, double robotVy,
+            double targetX, double targetY) {
+        final long start = System.nanoTime();
+        if (table != mTable) {
+            mTable = table;
+            mPivotAngleColumn = table.columnIndex(kPivotAngleColumn);
+            mFlywheelRPMColumn = table.columnIndex(kFlywheelRPMColumn);
+            mTimeOfFlightColumn = table.columnIndex(kTimeOfFlightColumn);
+        }
+
+        mVirtualTargetX = targetX;
+        mVirtualTargetY = targetY;
+        mConverged = false;
+        mIterations = 0;
+        if (!hasShotColumns()) {
+            mDistanceMeters = Double.NaN;
+            mTimeOfFlightSecs = Double.NaN;
+            mPivotAngleDegrees = Double.NaN;
+            mFlywheelRPM = Double.NaN;
+            mHeadingRadians = Double.NaN;
+            return false;
+        }
+        while (mIterations < Settings.kMaxIterations) {
+            mIterations++;
+            mDistanceMeters = Math.hypot(mVirtualTargetX - robotX, mVirtualTargetY - robotY);
+            mTimeOfFlightSecs = table.get(mDistanceMeters, mTimeOfFlightColumn);
+
+            final double nextX = targetX - robotVx * mTimeOfFlightSecs;
+            final double nextY = targetY - robotVy * mTimeOfFlightSecs;
+            final double change = Math.hypot(nextX - mVirtualTargetX, nextY - mVirtualTargetY);
+            mVirtualTargetX = nextX;
+            mVirtualTargetY = nextY;
+            if (change < Settings.kConvergedMeters) {
+                mConverged = true;
+                break;
+            }
+            if (System.nanoTime() - start > Settings.kBudgetNanos) {
+                break;
+            }
+        }
+
+        mDistanceMeters = Math.hypot(mVirtualTargetX - robotX, mVirtualTargetY - robotY);
+        mPivotAngleDegrees = table.get(mDistanceMeters, mPivotAngleColumn);
+        mFlywheelRPM = table.get(mDistanceMeters, mFlywheelRPMColumn);
+        mHeadingRadians = Math.atan2(mVirtualTargetY - robotY, mVirtualTargetX - robotX);
+        return mConverged;
+    }
+
+    /** @return true if the last table solved has every column a shot needs */
+    public boolean hasShotColumns() {
+        return mPivotAngleColumn >= 0 && mFlywheelRPMColumn >= 0 && mTimeOfFlightColumn >= 0;
+    }
+
+    /** @return pivot angle for the shot in degrees, NaN if the table is missing a column */
+    public double getPivotAngleDegrees() {
+        return mPivotAngleDegrees;
+    }
+
+    /** @return flywheel speed for the shot in RPM, NaN if the table is missing a column */
+    public double getFlywheelRPM() {
+        return mFlywheelRPM;
+    }
+
+    /** @return field heading from the shooter to the virtual target in radians */
+    public double getHeadingRadians() {
+        return mHeadingRadians;
+    }
+
+    /** @return distance from the shooter to the virtual target in meters */
+    public double getDistanceMeters() {
+        return mDistanceMeters;
+    }
+
+    /** @return time of flight at the solved distance in seconds */
+    public double getTimeOfFlightSecs() {
+        return mTimeOfFlightSecs;
+    }
+
+    public double getVirtualTargetX() {
+        return mVirtualTargetX;
+    }
+
+    public double getVirtualTargetY() {
+        return mVirtualTargetY;
+    }
+
+    /** @return number of virtual target refinements the last solve used */
+    public int getIterations() {
+        return mIterations;
+    }
+
+    public boolean isConverged() {
+        return mConverged;
+    }
+}
@@ -0,0 +1,105 @@
+package frc.robot.algaepivot.commands;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.algaepivot.AlgaeShooterInterpolation;
+import frc.robot.algaepivot.AlgaeSubsystem;
+import frc.robot.algaepivot.ShotSolver;
+import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.vision.PoseEstimatorSubsystem;
+import frc.robot.vision.VisionConfig;
+
+/**
+ * Aims the algae pivot at the alliance's net while the robot is moving, using {@link ShotSolver}
+ * on the estimated pose and the drivetrain's measured speeds every loop. The pivot is driven
+ * directly, clamped to its travel; the flywheel speed and the heading the robot should hold are
+ * exposed for the commands that own the flywheel and the drivetrain.
+ *
+ * <p>The pivot is only moved once the shooter table has measured flywheel and time of flight
+ * columns, see {@link ShotSolver}. The net spans below come from the field dimensions, not the
+ * field drawings, so nothing runs this command until both have been checked on a field.
+ */
+public class AimAlgaeShot extends Command {
+    public static class Settings {
+        // The barge runs along the center line. Each alliance's net covers half of it.
+        static final double kNetX = VisionConfig.FIELD_LENGTH_METERS / 2.0;
+        static final double kBlueNetMinY = VisionConfig.FIELD_WIDTH_METERS / 2.0;
+        static final double kBlueNetMaxY = VisionConfig.FIELD_WIDTH_METERS;
+        static final double kRedNetMinY = 0.0;
+        static final double kRedNetMaxY = VisionConfig.FIELD_WIDTH_METERS / 2.0;
+        // Keeps the aim point away from the ends of the net
+        static final double kNetEdgeMarginMeters = 0.5;
+
+        // Robot heading relative to the shot direction that points the shooter at the target
+        static final Rotation2d kShooterFacing = Rotation2d.kZero;
+    }
+
+    private final AlgaeSubsystem mAlgaeSubsystem;
+    private final ShotSolver mSolver = new ShotSolver();
+
+    private Rotation2d mFlywheelVelocity = Rotation2d.kZero;
+    private Rotation2d mHeadingSetpoint = Rotation2d.kZero;
+
+    public AimAlgaeShot() {
+        mAlgaeSubsystem = AlgaeSubsystem.getInstance();
+        addRequirements(mAlgaeSubsystem);
+    }
+
+    @Override
+    public void execute() {
+        final var pose = PoseEstimatorSubsystem.getInstance().getCurrentPose();
+        final ChassisSpeeds robotSpeeds = CommandSwerveDrivetrain.getInstance().getRobotRelvativeSpeeds();
+
+        // Rotate the robot relative speeds into the field frame
+        final double cos = pose.getRotation().getCos();
+        final double sin = pose.getRotation().getSin();
+        final double fieldVx = robotSpeeds.vxMetersPerSecond * cos - robotSpeeds.vyMetersPerSecond * sin;
+        final double fieldVy = robotSpeeds.vxMetersPerSecond * sin + robotSpeeds.vyMetersPerSecond * cos;
+
+        // Aim straight across the barge, at the point of the net in front of the robot
+        final boolean isRed = DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red;
+        final double minY = (isRed ? Settings.kRedNetMinY : Settings.kBlueNetMinY) + Settings.kNetEdgeMarginMeters;
+        final double maxY = (isRed ? Settings.kRedNetMaxY : Settings.kBlueNetMaxY) - Settings.kNetEdgeMarginMeters;
+        final double targetY = MathUtil.clamp(pose.getY(), minY, maxY);
+
+        final boolean converged = mSolver.solve(AlgaeShooterInterpolation.getTable(),
+            pose.getX(), pose.getY(), fieldVx, fieldVy, Settings.kNetX, targetY);
+
+        // The solver leaves everything NaN for a table without measured shot columns, then the
+        // pivot holds where it is and the flywheel stays off
+        if (mSolver.hasShotColumns()) {
+            mAlgaeSubsystem.setTargetPosition(Rotation2d.fromDegrees(MathUtil.clamp(mSolver.getPivotAngleDegrees(),
+                AlgaeSubsystem.Settings.kMinPos.getDegrees(), AlgaeSubsystem.Settings.kMaxPos.getDegrees())));
+            mFlywheelVelocity = Rotation2d.fromRotations(mSolver.getFlywheelRPM() / 60.0);
+            mHeadingSetpoint = Rotation2d.fromRadians(mSolver.getHeadingRadians()).plus(Settings.kShooterFacing);
+        } else {
+            mFlywheelVelocity = Rotation2d.kZero;
+        }
+
+        Logger.recordOutput("AimAlgaeShot/PivotAngleDegrees", mSolver.getPivotAngleDegrees());
+        Logger.recordOutput("AimAlgaeShot/FlywheelRPM", mSolver.getFlywheelRPM());
+        Logger.recordOutput("AimAlgaeShot/HeadingRadians", mHeadingSetpoint.getRadians());
+        Logger.recordOutput("AimAlgaeShot/DistanceMeters", mSolver.getDistanceMeters());
+        Logger.recordOutput("AimAlgaeShot/TimeOfFlightSecs", mSolver.getTimeOfFlightSecs());
+        Logger.recordOutput("AimAlgaeShot/VirtualTargetX", mSolver.getVirtualTargetX());
+        Logger.recordOutput("AimAlgaeShot/VirtualTargetY", mSolver.getVirtualTargetY());
+        Logger.recordOutput("AimAlgaeShot/Iterations", mSolver.getIterations());
+        Logger.recordOutput("AimAlgaeShot/Converged", converged);
+    }
+
+    /** @return flywheel velocity for the current shot, in rotations per second */
+    public Rotation2d getFlywheelVelocity() {
+        return mFlywheelVelocity;
+    }
+
+    /** @return field heading the robot should hold for the current shot */
+    public Rotation2d getHeadingSetpoint() {
+        return mHeadingSetpoint;
+    }
+}
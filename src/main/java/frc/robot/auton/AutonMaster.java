@@ -61,10 +61,7 @@ public class AutonMaster {
         try {
             var config = RobotConfig.fromGUISettings();
             AutoBuilder.configure(
-                () -> {
-                    Pose2d poseEstPose = PoseEstimatorSubsystem.getInstance().getCurrentPose();
-                    return poseEstPose != Pose2d.kZero ? poseEstPose : CommandSwerveDrivetrain.getInstance().getPose();
-                },   // Supplier of current robot pose
+                drivetrain::getPose,           // Supplier of current robot pose
                 drivetrain::resetPose,         // Consumer for seeding pose against auto
                 drivetrain::getRobotRelvativeSpeeds, // Supplier of current robot speeds
                 // Consumer of ChassisSpeeds and feedforwards to drive the robot
@@ -127,6 +124,8 @@ public class AutonMaster {
         NamedCommands.registerCommand("AutonScoreL2", RobotCommands.scoreCoralAutonL2());
         NamedCommands.registerCommand("AutonScoreL3", RobotCommands.scoreCoralAutonL3());
         NamedCommands.registerCommand("AutonScoreL4", RobotCommands.scoreCoralAutonL4());
+        // Same command the driver scores with, picks the level and side when it runs
+        NamedCommands.registerCommand("ScoreCoral", RobotCommands.scoreCoral());
         NamedCommands.registerCommand("HPPickup", RobotCommands.autoHPPickUp());
         NamedCommands.registerCommand("StopRollers", new SetRollersVoltage(0.0));
         NamedCommands.registerCommand("PreHPPickUp", new ParallelCommandGroup(new SetWristState(RushinatorWrist.State.kHPMid), new SetArmState(RushinatorPivot.State.kHPIntake), new SetRollersVoltage(4.5)));
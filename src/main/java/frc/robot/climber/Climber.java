@@ -1,19 +1,17 @@
 package frc.robot.climber;
 
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.spark.SparkBase.PersistMode;
-import com.revrobotics.spark.SparkBase.ResetMode;
-import com.revrobotics.spark.SparkMax;
-import com.revrobotics.spark.SparkLowLevel.MotorType;
-import com.revrobotics.spark.config.SparkMaxConfig;
-import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
+import org.littletonrobotics.junction.Logger;
 
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.robot.Robot;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -45,8 +43,10 @@ public class Climber extends SubsystemBase {
         kCompetition
     }
 
-    private final SparkMax spark;
-    private final RelativeEncoder encoder;
+    private final ClimberIO io;
+    private final ClimberIOInputsAutoLogged inputs = new ClimberIOInputsAutoLogged();
+    private final EnumSet<State> observedStates = EnumSet.noneOf(State.class);
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Climber");
 
     private final Supplier<Boolean> deployProvider, retractProvider;
     private final Supplier<Double> overrideProvider;
@@ -54,24 +54,23 @@ public class Climber extends SubsystemBase {
     private State state;
     private final OperatingMode operatingMode;
 
+    private final DoubleChannel angleTelemetry = Telemetry.doubleChannel("Climber Angle (Rotations)", Level.kCompetition);
+    private final DoubleChannel currentTelemetry = Telemetry.doubleChannel("Climber Current (Amps)");
+
     public Climber(Supplier<Boolean> deployProvider, Supplier<Boolean> retractProvider, Supplier<Double> overrideProvider) {
         this(deployProvider, retractProvider, overrideProvider, OperatingMode.kCompetition);
     }
 
     public Climber(Supplier<Boolean> deployProvider, Supplier<Boolean> retractProvider, Supplier<Double> overrideProvider, OperatingMode operatingMode) {
+        this(createIO(), deployProvider, retractProvider, overrideProvider, operatingMode);
+    }
+
+    public Climber(ClimberIO io, Supplier<Boolean> deployProvider, Supplier<Boolean> retractProvider, Supplier<Double> overrideProvider, OperatingMode operatingMode) {
+        this.io = io;
         this.deployProvider = deployProvider;
         this.retractProvider = retractProvider;
         this.overrideProvider = overrideProvider;
 
-        this.spark = new SparkMax(Settings.kClimberPivotId, MotorType.kBrushless);
-        this.encoder = spark.getEncoder();
-
-        final var sparkConfig = new SparkMaxConfig()
-                .inverted(true)
-                .smartCurrentLimit(Settings.kMaxCurrent)
-                .idleMode(IdleMode.kBrake) ;
-        spark.configure(sparkConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
-
         this.state = switch (operatingMode) {
             case kManual -> State.kFloating;
             case kCompetition -> State.kStowed;
@@ -85,11 +84,19 @@ public class Climber extends SubsystemBase {
                 || (voltage > 0 && getPos().getRotations() >= Settings.kMaxPos.getRotations())) {
             voltage = 0;
         }
-        spark.setVoltage(voltage);
+        io.setVoltage(voltage);
     }
 
     public Rotation2d getPos() {
-        return Rotation2d.fromRotations(encoder.getPosition());
+        return Rotation2d.fromRotations(inputs.positionRotations);
+    }
+
+    private static ClimberIO createIO() {
+        return switch (Robot.Settings.kMode) {
+            case kReal -> new ClimberIOSparkMax();
+            case kSim -> new ClimberIOSim();
+            case kReplay -> new ClimberIO() {};
+        };
     }
 
     private State nextState(State state) {
@@ -101,7 +108,8 @@ public class Climber extends SubsystemBase {
             return State.kFloating;
         }
 
-        ArrayList<State> observedStates = new ArrayList<>();
+        // Reused between calls so the state machine does not allocate every loop
+        observedStates.clear();
         while (true) {
             var previousState = state;
             observedStates.add(previousState);
@@ -162,8 +170,14 @@ public class Climber extends SubsystemBase {
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("Climber Angle (Rotations)", getPos().getRotations());
-        SmartDashboard.putNumber("Climber Current (Amps)", spark.getOutputCurrent());
+        mLoopSection.begin();
+
+        io.updateInputs(inputs);
+        Logger.processInputs("Climber", inputs);
+
+        angleTelemetry.set(inputs.positionRotations);
+        currentTelemetry.set(inputs.outputCurrentAmps);
+        Logger.recordOutput("Climber/State", state);
 
         switch (state) {
             case kFloating:
@@ -0,0 +1,23 @@
+package frc.robot.climber;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the climber. Positions are motor rotations.
+ *
+ * <p>Every method has an empty default, so <code>new ClimberIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface ClimberIO {
+    @AutoLog
+    public static class ClimberIOInputs {
+        public double positionRotations = 0.0;
+        public double appliedVolts = 0.0;
+        public double outputCurrentAmps = 0.0;
+    }
+
+    default void updateInputs(ClimberIOInputs inputs) {}
+
+    /** Runs the motor open loop. Soft limits are enforced by {@link Climber}. */
+    default void setVoltage(double volts) {}
+}
@@ -0,0 +1,37 @@
+package frc.robot.climber;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+
+/**
+ * Physics model of the climber, unloaded. Positions are reported in motor rotations to match the
+ * SPARK MAX encoder.
+ */
+public class ClimberIOSim implements ClimberIO {
+    // Estimated from CAD, close enough to exercise the state machine
+    private static final double kMOIKgMetersSquared = 0.0005;
+
+    private static final DCMotor kGearbox = DCMotor.getNEO(1);
+
+    private final DCMotorSim mSim = new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(kGearbox, kMOIKgMetersSquared, 1.0), kGearbox);
+    private double mAppliedVolts = 0.0;
+
+    @Override
+    public void updateInputs(ClimberIOInputs inputs) {
+        mSim.setInputVoltage(mAppliedVolts);
+        mSim.update(TimedRobot.kDefaultPeriod);
+
+        inputs.positionRotations = mSim.getAngularPositionRotations();
+        inputs.appliedVolts = mAppliedVolts;
+        inputs.outputCurrentAmps = Math.abs(mSim.getCurrentDrawAmps());
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mAppliedVolts = MathUtil.clamp(volts, -12.0, 12.0);
+    }
+}
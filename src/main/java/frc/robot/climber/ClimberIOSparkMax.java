@@ -0,0 +1,40 @@
+package frc.robot.climber;
+
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
+import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.spark.config.SparkMaxConfig;
+import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
+
+import frc.robot.climber.Climber.Settings;
+
+/** Climber driven by a NEO on a SPARK MAX, using the built-in encoder. */
+public class ClimberIOSparkMax implements ClimberIO {
+    private final SparkMax spark;
+    private final RelativeEncoder encoder;
+
+    public ClimberIOSparkMax() {
+        this.spark = new SparkMax(Settings.kClimberPivotId, MotorType.kBrushless);
+        this.encoder = spark.getEncoder();
+
+        final var sparkConfig = new SparkMaxConfig()
+                .inverted(true)
+                .smartCurrentLimit(Settings.kMaxCurrent)
+                .idleMode(IdleMode.kBrake) ;
+        spark.configure(sparkConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+    }
+
+    @Override
+    public void updateInputs(ClimberIOInputs inputs) {
+        inputs.positionRotations = encoder.getPosition();
+        inputs.appliedVolts = spark.getAppliedOutput() * spark.getBusVoltage();
+        inputs.outputCurrentAmps = spark.getOutputCurrent();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        spark.setVoltage(volts);
+    }
+}
@@ -0,0 +1,95 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.operator.OperatorXbox;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.superstructure.Superstructure;
+
+/**
+ * Reef level and wrist side a coral score is picked by. {@link RobotCommands#scoreCoral()} keeps one
+ * prebuilt branch per target and picks between them with {@link #current()} when it is scheduled.
+ */
+public enum CoralScoreTarget {
+    // L1 scores from the mid pose, so both sides use the same wrist state
+    kL1Left(Superstructure.Tag.kL1, RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid),
+    kL1Right(Superstructure.Tag.kL1, RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid),
+    kL2Left(Superstructure.Tag.kL2, RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2LeftWrist),
+    kL2Right(Superstructure.Tag.kL2, RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2RightWrist),
+    kL3Left(Superstructure.Tag.kL3, RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3LeftWrist),
+    kL3Right(Superstructure.Tag.kL3, RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3RightWrist),
+    kL4Left(Superstructure.Tag.kL4, RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4LeftWrist),
+    kL4Right(Superstructure.Tag.kL4, RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4RightWrist);
+
+    public final Superstructure.Tag level;
+    public final RushinatorPivot.State armState;
+    public final RushinatorWrist.State wristState;
+
+    CoralScoreTarget(Superstructure.Tag level, RushinatorPivot.State armState, RushinatorWrist.State wristState) {
+        this.level = level;
+        this.armState = armState;
+        this.wristState = wristState;
+    }
+
+    // Left then right for each level, in declaration order
+    private static final CoralScoreTarget[] kValues = values();
+
+    /**
+     * Looks up the target for a level and side.
+     *
+     * @param level one of {@link Superstructure.Tag#kL1} to {@link Superstructure.Tag#kL4}
+     * @param rightSide true for the right side
+     * @return the target
+     */
+    public static CoralScoreTarget of(Superstructure.Tag level, boolean rightSide) {
+        return kValues[(level.ordinal() - Superstructure.Tag.kL1.ordinal()) * 2 + (rightSide ? 1 : 0)];
+    }
+
+    /**
+     * Works out the target from the robot as it is now. In teleop a level button held on the
+     * operator gamepad picks the level, otherwise it is the level the elevator was sent to, falling
+     * back to L1 when the elevator is not at a coral level. The side is the side the wrist is on.
+     *
+     * @return the target to score on
+     */
+    public static CoralScoreTarget current() {
+        final var superstructure = Superstructure.getInstance();
+        return of(currentLevel(superstructure), superstructure.isRightSide());
+    }
+
+    /**
+     * @return true in teleop while a level button is held on the operator gamepad, so a score is
+     *     never picked from the elevator's level alone
+     */
+    public static boolean hasOperatorLevel() {
+        if (!DriverStation.isTeleop()) {
+            return false;
+        }
+        final var operator = OperatorXbox.getInstance().controller.getHID();
+        return operator.getYButton() || operator.getBButton() || operator.getXButton() || operator.getAButton();
+    }
+
+    private static Superstructure.Tag currentLevel(Superstructure superstructure) {
+        if (DriverStation.isTeleop()) {
+            final var operator = OperatorXbox.getInstance().controller.getHID();
+            if (operator.getYButton()) {
+                return Superstructure.Tag.kL4;
+            } else if (operator.getBButton()) {
+                return Superstructure.Tag.kL3;
+            } else if (operator.getXButton()) {
+                return Superstructure.Tag.kL2;
+            } else if (operator.getAButton()) {
+                return Superstructure.Tag.kL1;
+            }
+        }
+
+        if (superstructure.isElevatorAt(Superstructure.Tag.kL4)) {
+            return Superstructure.Tag.kL4;
+        } else if (superstructure.isElevatorAt(Superstructure.Tag.kL3)) {
+            return Superstructure.Tag.kL3;
+        } else if (superstructure.isElevatorAt(Superstructure.Tag.kL2)) {
+            return Superstructure.Tag.kL2;
+        }
+        return Superstructure.Tag.kL1;
+    }
+}
@@ -1,70 +1,41 @@
 package frc.robot.commands;
 
+import java.util.EnumMap;
+
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj2.command.*;
 import frc.robot.algaepivot.AlgaeSubsystem;
 import frc.robot.algaepivot.commands.SetAngleAlgaePivot;
 import frc.robot.elevator.ElevatorSubsystem;
 import frc.robot.elevator.commands.SetElevatorState;
-import frc.robot.operator.OperatorXbox;
 import frc.robot.rushinator.RushinatorPivot;
 import frc.robot.rushinator.RushinatorWrist;
-import frc.robot.rushinator.RushinatorWrist.State;
 import frc.robot.rushinator.commands.SetArmState;
 import frc.robot.rushinator.commands.SetRollersVoltage;
 import frc.robot.rushinator.commands.SetWristState;
+import frc.robot.superstructure.SuperstructurePlanner;
+import frc.robot.superstructure.commands.SetSuperstructureState;
 
 public class RobotCommands {
+    private static Command mScoreCoral;
+
+    /**
+     * Moves the arm and wrist to score coral on the level and side picked by
+     * {@link CoralScoreTarget#current()} when the command is scheduled. Every branch is built the
+     * first time this is called and the same command is returned after that, so teleop bindings
+     * and the auton named command share it.
+     *
+     * @return the shared score command
+     */
     public static Command scoreCoral() {
-        if (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL4) {
-            return new ParallelCommandGroup(
-                new ConditionalCommand(
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreRightWrist), 
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreLeftWrist), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
-                )
-            );
-        
-        } else if (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL3 || ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralScoreL3) {
-            return new ParallelCommandGroup(
-                new ConditionalCommand(
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreRightWrist), 
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreLeftWrist), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
-                ),
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3)
-            );
-        } else if (OperatorXbox.getInstance().controller.x().getAsBoolean() == true) {
-            return new ParallelCommandGroup(
-                new ConditionalCommand(
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2RightWrist), 
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2LeftWrist), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
-                ),
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL2)
-            );
-        } else {
-            return new ParallelCommandGroup(
-                new ConditionalCommand(
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
-                ),
-                new SetRollersVoltage(-1.1)
-            );
+        if (mScoreCoral == null) {
+            final EnumMap<CoralScoreTarget, Command> branches = new EnumMap<>(CoralScoreTarget.class);
+            for (CoralScoreTarget target : CoralScoreTarget.values()) {
+                branches.put(target, coralPrimeShoot(target.armState, target.wristState));
+            }
+            mScoreCoral = new SelectCommand<>(branches, CoralScoreTarget::current);
         }
+        return mScoreCoral;
     }
 
     public static Command coralPrime(RushinatorPivot.State armState, ElevatorSubsystem.State eleState) {
@@ -105,13 +76,24 @@ public class RobotCommands {
         );
     }
 
-    /* Auto Scorring L3 */
-    public static Command scoreCoralAutoL3RightWrist(){
+    /**
+     * Raises to a scoring pose and comes back down to travel. Moves through the
+     * {@link SuperstructurePlanner} and ends when the joints arrive if it is enabled, otherwise
+     * uses the field-tested 0.4 s, 0.15 s and 0.7 s waits.
+     */
+    private static Command scoreAndStow(ElevatorSubsystem.State elevatorState, RushinatorPivot.State armState,
+            RushinatorWrist.State wristState, RushinatorWrist.State travelWristState) {
+        if (SuperstructurePlanner.Settings.kEnabled) {
+            return new SequentialCommandGroup(
+                new SetSuperstructureState(elevatorState, armState, wristState),
+                new SetSuperstructureState(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel, travelWristState)
+            );
+        }
         return new SequentialCommandGroup(
             new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3),
-                new SetArmState(RushinatorPivot.State.kScoreL3),
-                new SetWristState(RushinatorWrist.State.kScoreL3RightWrist),
+                new SetElevatorState(elevatorState),
+                new SetArmState(armState),
+                new SetWristState(wristState),
                 new WaitCommand(0.4)
             ),
             new ParallelRaceGroup(
@@ -120,7 +102,7 @@ public class RobotCommands {
                     new WaitCommand(0.15),
                     new ParallelCommandGroup(
                         new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelRight)
+                        new SetWristState(travelWristState)
                     )
                 ),
                 new WaitCommand(0.7)
@@ -128,71 +110,26 @@ public class RobotCommands {
         );
     }
 
+    /* Auto Scorring L3 */
+    public static Command scoreCoralAutoL3RightWrist(){
+        return scoreAndStow(ElevatorSubsystem.State.kCoralScoreL3, RushinatorPivot.State.kScoreL3,
+            RushinatorWrist.State.kScoreL3RightWrist, RushinatorWrist.State.kTravelRight);
+    }
+
     public static Command scoreCoralAutoL3LeftWrist(){
-        return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3),
-                new SetArmState(RushinatorPivot.State.kScoreL3),
-                new SetWristState(RushinatorWrist.State.kScoreL3LeftWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelLeft)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
-        );
+        return scoreAndStow(ElevatorSubsystem.State.kCoralScoreL3, RushinatorPivot.State.kScoreL3,
+            RushinatorWrist.State.kScoreL3LeftWrist, RushinatorWrist.State.kTravelLeft);
     }
 
     /* Auto Scoring L4 */
     public static Command scoreCoralAutoL4RightWrist(){
-        return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4),
-                new SetArmState(RushinatorPivot.State.kScoreL4),
-                new SetWristState(RushinatorWrist.State.kScoreL4RightWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelRight)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
-        );
+        return scoreAndStow(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4,
+            RushinatorWrist.State.kScoreL4RightWrist, RushinatorWrist.State.kTravelRight);
     }
 
     public static Command scoreCoralAutoL4LeftWrist(){
-        return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4),
-                new SetArmState(RushinatorPivot.State.kScoreL4),
-                new SetWristState(RushinatorWrist.State.kScoreL4LeftWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelLeft)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
-        );
+        return scoreAndStow(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4,
+            RushinatorWrist.State.kScoreL4LeftWrist, RushinatorWrist.State.kTravelLeft);
     }
 
     public static Command primeScoreCoralAutonL4(){
@@ -207,25 +144,8 @@ public class RobotCommands {
     }
     
     public static Command scoreCoralAutonL4(){
-        return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4),
-                new SetArmState(RushinatorPivot.State.kScoreL4),
-                new SetWristState(RushinatorWrist.State.kScoreL4RightWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelRight)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
-        );
+        return scoreAndStow(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4,
+            RushinatorWrist.State.kScoreL4RightWrist, RushinatorWrist.State.kTravelRight);
     }
 
     public static Command scoreCoralAutonL3(){
@@ -304,41 +224,6 @@ public class RobotCommands {
         );
     }
 
-    public static Command toggleWristState() {
-        System.out.println("Last State in Toggle Wrist" + RushinatorWrist.kLastState.name());
-        if(RushinatorWrist.kLastState == State.kScoreLeftWrist) {
-            System.out.println("First If");
-            return new SetWristState(RushinatorWrist.State.kScoreRightWrist);
-        }
-        else if(RushinatorWrist.kLastState == State.kScoreRightWrist) {
-            System.out.println("2nd If");
-            return new SetWristState(RushinatorWrist.State.kScoreLeftWrist);
-        }
-        else if(RushinatorWrist.kLastState == State.kTravelLeft) {
-            System.out.println("3rd If");
-            return new SetWristState(RushinatorWrist.State.kTravelRight);
-        }
-        else if(RushinatorWrist.kLastState == State.kTravelRight) {
-            System.out.println("Fourth If");
-            return new SetWristState(RushinatorWrist.State.kTravelLeft);
-        }
-        else {
-            System.out.println("Else");
-            return new SetWristState(RushinatorWrist.kLastState);
-        }
-        // if(RushinatorPivot.kLastState == RushinatorPivot.State.kScore) {
-        //     RushinatorWrist.State toggledWristState = (RushinatorWrist.kLastState == State.kScoreLeftWrist) ? State.kScoreRightWrist : State.kScoreLeftWrist;
-        //     return new SetWristState(toggledWristState);
-        // }
-        // else if(RushinatorPivot.kLastState == RushinatorPivot.State.kStowTravel) {
-        //     RushinatorWrist.State toggledWristState = (RushinatorWrist.kLastState == State.kTravelLeft) ? State.kTravelRight : State.kTravelLeft;
-        //     return new SetWristState(toggledWristState);
-        // }
-        // else {
-        //     return new SetWristState(RushinatorWrist.kLastState);
-        // }
-    }
-
     public static Command algaePrime(AlgaeSubsystem.State algaeState, ElevatorSubsystem.State eleState) {
         return new SequentialCommandGroup(
             new ParallelCommandGroup(
@@ -9,7 +9,9 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import edu.wpi.first.wpilibj2.command.button.RobotModeTriggers;
+import frc.crevolib.util.Curve;
 import frc.crevolib.util.ExpCurve;
+import frc.crevolib.util.LookupTableCurve;
 import frc.crevolib.util.XboxGamepad;
 import frc.robot.Robot;
 import frc.robot.RobotContainer;
@@ -19,6 +21,7 @@ import frc.robot.algaepivot.commands.AlgaePivotCommands;
 import frc.robot.algaepivot.commands.SetAngleAlgaePivot;
 import frc.robot.auton.AutonMaster;
 import frc.robot.climber.Climber;
+import frc.robot.commands.CoralScoreTarget;
 import frc.robot.commands.RobotCommands;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
 import frc.robot.elevator.ElevatorSubsystem;
@@ -32,6 +35,7 @@ import frc.robot.rushinator.commands.SetArmState;
 import frc.robot.rushinator.commands.SetWristState;
 import frc.robot.rushinator.commands.ToggleWristState;
 import frc.robot.rushinator.commands.SetRollersVoltage;
+import frc.robot.superstructure.Superstructure;
 import frc.robot.vision.LineupMaster;
 import frc.robot.vision.PoseEstimatorSubsystem;
 import frc.robot.vision.VisionConfig;
@@ -47,11 +51,13 @@ public class DriverXbox extends XboxGamepad {
         static final double kTranslationExpVal = 4.0;
         static final double kRotationExpVal = 1.0;
         static final double kDeadzone = 0.01;
+        // Stick curves are sampled into tables that stay this close to the exponential curve
+        static final double kCurveMaxError = 1e-3;
     }
 
     private static DriverXbox mInstance;
-    public static ExpCurve translationStickCurve;
-    private static ExpCurve rotationStickCurve;
+    public static Curve translationStickCurve;
+    private static Curve rotationStickCurve;
     public boolean autoAim;
     private double reqAngularVel;
     private static AlgaeSubsystem mAlgaeSubsystem;
@@ -64,8 +70,12 @@ public class DriverXbox extends XboxGamepad {
 
         mLineupMaster = new LineupMaster();
 
-        translationStickCurve = new ExpCurve(DriverXbox.Settings.kTranslationExpVal, 0, 1, DriverXbox.Settings.kDeadzone);
-        rotationStickCurve = new ExpCurve(DriverXbox.Settings.kRotationExpVal, 0, 1, DriverXbox.Settings.kDeadzone);
+        translationStickCurve = new LookupTableCurve(
+                new ExpCurve(DriverXbox.Settings.kTranslationExpVal, 0, 1, DriverXbox.Settings.kDeadzone),
+                DriverXbox.Settings.kCurveMaxError);
+        rotationStickCurve = new LookupTableCurve(
+                new ExpCurve(DriverXbox.Settings.kRotationExpVal, 0, 1, DriverXbox.Settings.kDeadzone),
+                DriverXbox.Settings.kCurveMaxError);
     }
 
     public static DriverXbox getInstance() {
@@ -81,91 +91,40 @@ public class DriverXbox extends XboxGamepad {
     public void setupTeleopButtons() {
         /*COMP BINDINGS */
         // Spit Coral
-        controller.x().whileTrue(new SetRollersVoltage(-2.0));
+        controller.x().whileTrue(command("SpitCoral", () -> new SetRollersVoltage(-2.0)));
         
         //Score Coral
-        // controller.y().whileTrue(RobotCommands.scoreCoral());
-        controller.y().and(() -> OperatorXbox.getInstance().controller.a().getAsBoolean()).whileTrue(new ConditionalCommand(
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
-        );
+        // Arm and wrist for the level held on the operator gamepad, nothing without one
+        controller.y().and(CoralScoreTarget::hasOperatorLevel).whileTrue(command("ScoreCoral", RobotCommands::scoreCoral));
         controller.y().and(() -> OperatorXbox.getInstance().controller.a().getAsBoolean()).whileTrue(
-            new SetRollersVoltage(-1.2)
+            command("ScoreL1Rollers", () -> new SetRollersVoltage(-1.2))
         );
 
-        controller.y().and(() -> OperatorXbox.getInstance().controller.x().getAsBoolean()).whileTrue(new ConditionalCommand(
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2RightWrist), 
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2LeftWrist), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
-        );
         controller.y().and(() -> OperatorXbox.getInstance().controller.x().getAsBoolean()).whileTrue(
-            new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL2)
+            command("ScoreL2Elevator", () -> new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL2))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.x().getAsBoolean()).whileTrue(
-            new SetRollersVoltage(0.0)
+            command("ScoreL2Rollers", () -> new SetRollersVoltage(0.0))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.x().getAsBoolean()).whileFalse(
-            new SetElevatorState(ElevatorSubsystem.State.kCoralL2)
+            command("ScoreL2Release", () -> new SetElevatorState(ElevatorSubsystem.State.kCoralL2))
         );
 
-        controller.y().and(() -> OperatorXbox.getInstance().controller.b().getAsBoolean()).whileTrue(new ConditionalCommand(
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3RightWrist), 
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3LeftWrist), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
-        );
         controller.y().and(() -> OperatorXbox.getInstance().controller.b().getAsBoolean()).whileTrue(
-            new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3)
+            command("ScoreL3Elevator", () -> new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.b().getAsBoolean()).whileTrue(
-            new SetRollersVoltage(0.0)
+            command("ScoreL3Rollers", () -> new SetRollersVoltage(0.0))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.b().getAsBoolean()).whileFalse(
-            new SetElevatorState(ElevatorSubsystem.State.kCoralL3)
+            command("ScoreL3Release", () -> new SetElevatorState(ElevatorSubsystem.State.kCoralL3))
         );
         
-        controller.y().and(() -> OperatorXbox.getInstance().controller.y().getAsBoolean()).whileTrue(new ConditionalCommand(
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4RightWrist), 
-            RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4LeftWrist), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
-        );
         controller.y().and(() -> OperatorXbox.getInstance().controller.y().getAsBoolean()).whileTrue(
-            new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4)
+            command("ScoreL4Elevator", () -> new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.y().getAsBoolean()).whileTrue(
-            new SetRollersVoltage(0.0)
+            command("ScoreL4Rollers", () -> new SetRollersVoltage(0.0))
         );
         
 
@@ -208,84 +167,60 @@ public class DriverXbox extends XboxGamepad {
         // controller.a().whileTrue(new AlgaeRoller.IntakeCommand());
 
          /*Algae Shoot */
-        controller.b().whileTrue(new AlgaeRoller.PrimeShootCommand());
-        controller.b().whileTrue(RobotCommands.algaePrime(AlgaeSubsystem.State.kScore, ElevatorSubsystem.State.kZero));
+        controller.b().whileTrue(command("AlgaeShootRollers", () -> new AlgaeRoller.PrimeShootCommand()));
+        controller.b().whileTrue(command("AlgaeShoot", () -> RobotCommands.algaePrime(AlgaeSubsystem.State.kScore, ElevatorSubsystem.State.kZero)));
         
 
         // Spit Algae
         // controller.b().whileTrue(new AlgaeRoller.ShootCommand());
 
         // Coral Ground Intake
-        controller.rightTrigger().whileTrue(RobotCommands.coralPrime(
-            RushinatorPivot.State.kFloorIntake, ElevatorSubsystem.State.kZero)
+        controller.rightTrigger().whileTrue(command("GroundIntake", () -> RobotCommands.coralPrime(
+            RushinatorPivot.State.kFloorIntake, ElevatorSubsystem.State.kZero))
         );
         controller.rightTrigger().whileTrue(
-            new SetWristState(RushinatorWrist.State.kGroundMid)
+            command("GroundIntakeWrist", () -> new SetWristState(RushinatorWrist.State.kGroundMid))
         );
-        controller.rightTrigger().whileTrue(new SetRollersVoltage(4.5));
+        controller.rightTrigger().whileTrue(command("GroundIntakeRollers", () -> new SetRollersVoltage(4.5)));
 
         // Coral HP Intake
-        controller.rightBumper().whileTrue(RobotCommands.coralPrime(
-            RushinatorPivot.State.kHPIntake, ElevatorSubsystem.State.kZero)
+        controller.rightBumper().whileTrue(command("HPIntake", () -> RobotCommands.coralPrime(
+            RushinatorPivot.State.kHPIntake, ElevatorSubsystem.State.kZero))
         );
         controller.rightBumper().whileTrue(
-            new SetWristState(RushinatorWrist.State.kHPMid)
+            command("HPIntakeWrist", () -> new SetWristState(RushinatorWrist.State.kHPMid))
         );
-        controller.rightBumper().whileTrue(new SetRollersVoltage(4.5));
+        controller.rightBumper().whileTrue(command("HPIntakeRollers", () -> new SetRollersVoltage(4.5)));
 
         // Algae Ground Intake
-        controller.leftTrigger().whileTrue(new AlgaeRoller.IntakeCommand());
-        controller.leftTrigger().whileTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kFloorIntake));
-        controller.leftTrigger().whileTrue(new SetElevatorState(ElevatorSubsystem.State.kAlgaeIntake));
+        controller.leftTrigger().whileTrue(command("AlgaeIntakeRollers", () -> new AlgaeRoller.IntakeCommand()));
+        controller.leftTrigger().whileTrue(command("AlgaeIntakePivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kFloorIntake)));
+        controller.leftTrigger().whileTrue(command("AlgaeIntakeElevator", () -> new SetElevatorState(ElevatorSubsystem.State.kAlgaeIntake)));
 
 
-        controller.povLeft().whileTrue(mLineupMaster.directDriveToNearestLeftBranch());
-        controller.povLeft().whileTrue(new ConditionalCommand(
+        controller.povLeft().whileTrue(command("AlignLeftL4Drive", () -> mLineupMaster.directDriveToNearestLeftBranch()));
+        controller.povLeft().whileTrue(command("AlignLeftL4", () -> new ConditionalCommand(
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight, ElevatorSubsystem.State.kCoralL4), 
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft, ElevatorSubsystem.State.kCoralL4), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().isRightSide()))
         );
 
-        controller.povRight().whileTrue(mLineupMaster.directDriveToNearestRightBranch());
-        controller.povRight().whileTrue(new ConditionalCommand(
+        controller.povRight().whileTrue(command("AlignRightL4Drive", () -> mLineupMaster.directDriveToNearestRightBranch()));
+        controller.povRight().whileTrue(command("AlignRightL4", () -> new ConditionalCommand(
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight, ElevatorSubsystem.State.kCoralL4), 
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft, ElevatorSubsystem.State.kCoralL4), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().isRightSide()))
         );
 
         /* L4 Scoring */
-        controller.a().onTrue(new ConditionalCommand(
+        controller.a().onTrue(command("AutoScoreL4", () -> new ConditionalCommand(
             RobotCommands.scoreCoralAutoL4RightWrist(), 
             RobotCommands.scoreCoralAutoL4LeftWrist(), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().isRightSide()))
         );
 
-        controller.povUp().whileTrue(mLineupMaster.directDriveToNearestRightBranch());
-        controller.povDown().whileTrue(mLineupMaster.directDriveToNearestLeftBranch());
+        controller.povUp().whileTrue(command("AlignRight", () -> mLineupMaster.directDriveToNearestRightBranch()));
+        controller.povDown().whileTrue(command("AlignLeft", () -> mLineupMaster.directDriveToNearestLeftBranch()));
 
         // controller.povUp().whileTrue(new AutoAlign(() -> LineupMaster.getClosestReefFace(()-> PoseEstimatorSubsystem.getInstance().getCurrentPose()).leftBranch, () -> true));
         // controller.povDown().whileTrue(new AutoAlign(() -> LineupMaster.getClosestReefFace(()-> PoseEstimatorSubsystem.getInstance().getCurrentPose()).rightBranch, () -> false));
@@ -366,10 +301,10 @@ public class DriverXbox extends XboxGamepad {
         // );
 
         // Zero Elevator
-        controller.leftBumper().onTrue(new SetElevatorState(ElevatorSubsystem.State.kZero));
+        controller.leftBumper().onTrue(command("ZeroElevator", () -> new SetElevatorState(ElevatorSubsystem.State.kZero)));
 
         // Zero Drivetrain
-        controller.start().onTrue(CommandSwerveDrivetrain.getInstance().runOnce(()-> CommandSwerveDrivetrain.getInstance().seedFieldCentric()));
+        controller.start().onTrue(command("ZeroHeading", () -> CommandSwerveDrivetrain.getInstance().runOnce(()-> CommandSwerveDrivetrain.getInstance().seedFieldCentric())));
 
         /*TESTING BINDINGS */
 
@@ -480,10 +415,18 @@ public class DriverXbox extends XboxGamepad {
 
 
     public Translation2d getDriveTranslation() {
-        final var xComponent = translationStickCurve.calculate(controller.getLeftX());
-        final var yComponent = translationStickCurve.calculate(controller.getLeftY());
-        // Components are reversed because field coordinates are opposite of joystick coordinates
-        return new Translation2d(yComponent, xComponent);
+        return new Translation2d(getDriveTranslationX(), getDriveTranslationY());
+    }
+
+    // Components are reversed because field coordinates are opposite of joystick coordinates.
+    // The drive request reads these every loop, so they skip the Translation2d allocation
+
+    public double getDriveTranslationX() {
+        return translationStickCurve.calculate(controller.getLeftY());
+    }
+
+    public double getDriveTranslationY() {
+        return translationStickCurve.calculate(controller.getLeftX());
     }
 
     public void setDriveRotation(double requestedAngularVel) {
@@ -495,19 +438,19 @@ public class DriverXbox extends XboxGamepad {
     }
 
     public boolean isLeftPovPressed() {
-        return controller.povLeft().getAsBoolean();
+        return controller.getHID().getPOV() == 270;
     }
 
     public boolean isUpPovPressed() {
-        return controller.povUp().getAsBoolean();
+        return controller.getHID().getPOV() == 0;
     }
 
     public boolean isDownPovPressed() {
-        return controller.povDown().getAsBoolean();
+        return controller.getHID().getPOV() == 180;
     }
 
     public boolean isRightPovPressed() {
-        return controller.povRight().getAsBoolean();
+        return controller.getHID().getPOV() == 90;
     }
 
     public double getRightX() { return controller.getRightX(); }
@@ -19,7 +19,10 @@ import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.path.PathPlannerPath;
 
+import org.littletonrobotics.junction.Logger;
+
 import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
@@ -43,6 +46,10 @@ import edu.wpi.first.wpilibj2.command.SelectCommand;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.crevolib.math.Conversions;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.PoseHistory;
+import frc.crevolib.util.Timebase;
+import frc.robot.Robot;
 import frc.robot.RobotContainer;
 import frc.robot.drivetrain.TunerConstants.TunerSwerveDrivetrain;
 import frc.robot.vision.PoseEstimatorSubsystem;
@@ -55,10 +62,35 @@ import frc.robot.vision.VisionConfig.ReefFace;
  */
 public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Subsystem {
     private static final double kSimLoopPeriod = 0.005; // 5 ms
+    // About two seconds of odometry at 250 Hz
+    private static final int kPoseHistoryCapacity = 512;
     private Notifier m_simNotifier = null;
     private double m_lastSimTime;
 
     public static CommandSwerveDrivetrain mInstance;
+    // Not zero: WPILib's estimator allocates a few hundred bytes for each odometry sample it is
+    // given (poses, twists, its copy of the module positions and its history entry), and
+    // AdvantageKit copies the input arrays it logs. At 250 Hz that is about five samples a loop.
+    private static final long kAllocationBudgetBytes = 32 * 1024;
+    private final LoopProfiler.Section mLoopSection =
+        LoopProfiler.getInstance().section("Subsystems/Drive").setAllocationBudget(kAllocationBudgetBytes);
+    private final DriveIO mIO;
+    private final DriveIOInputsAutoLogged mInputs = new DriveIOInputsAutoLogged();
+    // The pose the rest of the robot uses, rebuilt on the robot thread from the logged odometry
+    // samples so replay reproduces it. CTRE's own estimator is given the same resets and vision
+    // measurements, it is only read for field centric driving.
+    private final SwerveModulePosition[] mModulePositions = newModulePositions();
+    // Given the same std devs as CTRE's estimator, WPILib's defaults match CTRE's when none are passed
+    private final SwerveDrivePoseEstimator mPoseEstimator;
+    private boolean mEstimatorSeeded = false;
+    // Filled on the robot thread as each odometry sample is applied, in FPGA time. Camera frames
+    // captured since the last loop are newer than anything in it and are extrapolated from the newest
+    private final PoseHistory mPoseHistory = new PoseHistory(kPoseHistoryCapacity);
+    // Wheels and gyro only, never corrected by vision, in its own frame that starts at the origin
+    private final PoseHistory mOdometryHistory = new PoseHistory(kPoseHistoryCapacity);
+    private double mOdometryX = 0.0;
+    private double mOdometryY = 0.0;
+    private double mLastOdometryTimestamp = Double.NaN;
 
     public Pigeon2 mGyro = new Pigeon2(TunerConstants.kPigeonId, "Canivore");
 
@@ -167,9 +199,11 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         SwerveModuleConstants<?, ?, ?>... modules
     ) {
         super(drivetrainConstants, modules);
-        if (Utils.isSimulation()) {
+        mPoseEstimator = new SwerveDrivePoseEstimator(getKinematics(), Rotation2d.kZero, newModulePositions(), Pose2d.kZero);
+        if (Robot.Settings.kMode == Robot.Mode.kSim) {
             startSimThread();
         }
+        mIO = createIO();
     }
 
     //Create Object in class
@@ -180,6 +214,21 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         return mInstance;
     }
 
+    private DriveIO createIO() {
+        return switch (Robot.Settings.kMode) {
+            case kReal, kSim -> new DriveIOCtre(this);
+            case kReplay -> new DriveIO() {};
+        };
+    }
+
+    private SwerveModulePosition[] newModulePositions() {
+        final var positions = new SwerveModulePosition[getModules().length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new SwerveModulePosition();
+        }
+        return positions;
+    }
+
     /**
      * Constructs a CTRE SwerveDrivetrain using the specified constants.
      * <p>
@@ -199,9 +248,11 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         SwerveModuleConstants<?, ?, ?>... modules
     ) {
         super(drivetrainConstants, odometryUpdateFrequency, modules);
-        if (Utils.isSimulation()) {
+        mPoseEstimator = new SwerveDrivePoseEstimator(getKinematics(), Rotation2d.kZero, newModulePositions(), Pose2d.kZero);
+        if (Robot.Settings.kMode == Robot.Mode.kSim) {
             startSimThread();
         }
+        mIO = createIO();
     }
 
     /**
@@ -231,9 +282,12 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         SwerveModuleConstants<?, ?, ?>... modules
     ) {
         super(drivetrainConstants, odometryUpdateFrequency, odometryStandardDeviation, visionStandardDeviation, modules);
-        if (Utils.isSimulation()) {
+        mPoseEstimator = new SwerveDrivePoseEstimator(getKinematics(), Rotation2d.kZero, newModulePositions(), Pose2d.kZero,
+            odometryStandardDeviation, visionStandardDeviation);
+        if (Robot.Settings.kMode == Robot.Mode.kSim) {
             startSimThread();
         }
+        mIO = createIO();
     }
 
     /**
@@ -271,6 +325,8 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
 
     @Override
     public void periodic() {
+        mLoopSection.begin();
+
         /*
          * Periodically try to apply the operator perspective.
          * If we haven't applied the operator perspective before, then we should apply it regardless of DS state.
@@ -289,6 +345,11 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
             m_hasAppliedOperatorPerspective = true;
         }
 
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Drive", mInputs);
+        applyOdometrySamples();
+        Logger.recordOutput("Drive/Pose", getPose());
+
         // System.out.println("Estimated Pose X: " + PoseEstimatorSubsystem.getInstance().getCurrentPose().getX());
         // System.out.println("Estimated Pose Y: " + PoseEstimatorSubsystem.getInstance().getCurrentPose().getY());
 
@@ -306,11 +367,105 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
     
 
     public ChassisSpeeds getRobotRelvativeSpeeds() {
-        return getState().Speeds;
+        return mInputs.speeds;
     }
 
     public Pose2d getPose() {
-        return getState().Pose;
+        return mPoseEstimator.getEstimatedPosition();
+    }
+
+    /**
+     * Resets the pose of both estimators.
+     *
+     * @param pose the robot's pose on the field
+     */
+    @Override
+    public void resetPose(Pose2d pose) {
+        super.resetPose(pose);
+        mPoseEstimator.resetPose(pose);
+    }
+
+    /** Makes the robot's current heading forward from the operator's perspective, in both estimators. */
+    @Override
+    public void seedFieldCentric() {
+        super.seedFieldCentric();
+        mPoseEstimator.resetRotation(getOperatorForwardDirection());
+    }
+
+    /**
+     * Looks up where the robot was at a time, for code that needs to make up for its own latency.
+     *
+     * @param timestampSeconds FPGA time, see {@link Timebase}
+     * @param out filled in with the pose and field relative velocity at that time
+     * @return false if the time is older than the history kept
+     */
+    public boolean samplePoseHistory(double timestampSeconds, PoseHistory.Sample out) {
+        return mPoseHistory.sample(timestampSeconds, out);
+    }
+
+    public PoseHistory getPoseHistory() {
+        return mPoseHistory;
+    }
+
+    /**
+     * Looks up where wheel odometry and the gyro alone put the robot at a time. Vision never
+     * corrects it, so it drifts, but over a few seconds it is a reference that no camera has touched.
+     * It is in its own frame, which starts at the origin when the robot boots.
+     *
+     * @param timestampSeconds FPGA time, see {@link Timebase}
+     * @param out filled in with the odometry pose and velocity at that time
+     * @return false if the time is older than the history kept
+     */
+    public boolean sampleOdometryHistory(double timestampSeconds, PoseHistory.Sample out) {
+        return mOdometryHistory.sample(timestampSeconds, out);
+    }
+
+    // Steps the estimator through this loop's odometry samples, oldest first
+    private void applyOdometrySamples() {
+        final int moduleCount = mModulePositions.length;
+        for (int i = 0; i < mInputs.odometryTimestamps.length; i++) {
+            for (int m = 0; m < moduleCount; m++) {
+                mModulePositions[m].distanceMeters = mInputs.odometryDrivePositionsMeters[i * moduleCount + m];
+                final double steer = mInputs.odometrySteerAnglesRadians[i * moduleCount + m];
+                // Rotation2d is immutable, only make a new one when the module has turned
+                if (mModulePositions[m].angle.getRadians() != steer) {
+                    mModulePositions[m].angle = Rotation2d.fromRadians(steer);
+                }
+            }
+            final double timestamp = mInputs.odometryTimestamps[i];
+            final Rotation2d yaw = Rotation2d.fromRadians(mInputs.odometryYawRadians[i]);
+            if (!mEstimatorSeeded) {
+                // The wheels and gyro do not start at zero, so the first sample only sets the reference
+                mPoseEstimator.resetPosition(yaw, mModulePositions, mPoseEstimator.getEstimatedPosition());
+                mEstimatorSeeded = true;
+            }
+            final Pose2d pose = mPoseEstimator.updateWithTime(timestamp, yaw, mModulePositions);
+            addPoseHistorySample(timestamp, pose, yaw.getRadians(), mInputs.odometryVxMetersPerSec[i],
+                mInputs.odometryVyMetersPerSec[i], mInputs.odometryOmegaRadiansPerSec[i]);
+        }
+    }
+
+    private void addPoseHistorySample(double timestamp, Pose2d pose, double rawTheta, double robotVx,
+            double robotVy, double omega) {
+        final double theta = pose.getRotation().getRadians();
+        final double cos = Math.cos(theta);
+        final double sin = Math.sin(theta);
+        mPoseHistory.add(timestamp, pose.getX(), pose.getY(), theta,
+            robotVx * cos - robotVy * sin,
+            robotVx * sin + robotVy * cos,
+            omega);
+
+        // Dead reckoning from the measured module speeds and the raw gyro heading
+        final double rawCos = Math.cos(rawTheta);
+        final double rawSin = Math.sin(rawTheta);
+        final double vx = robotVx * rawCos - robotVy * rawSin;
+        final double vy = robotVx * rawSin + robotVy * rawCos;
+        if (timestamp > mLastOdometryTimestamp) {
+            mOdometryX += vx * (timestamp - mLastOdometryTimestamp);
+            mOdometryY += vy * (timestamp - mLastOdometryTimestamp);
+        }
+        mLastOdometryTimestamp = timestamp;
+        mOdometryHistory.add(timestamp, mOdometryX, mOdometryY, rawTheta, vx, vy, omega);
     }
 
     public Rotation2d getGyroRotation() {
@@ -354,11 +509,12 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
      * while still accounting for measurement noise.
      *
      * @param visionRobotPoseMeters The pose of the robot as measured by the vision camera.
-     * @param timestampSeconds The timestamp of the vision measurement in seconds.
+     * @param timestampSeconds The timestamp of the vision measurement in FPGA seconds, see {@link Timebase}.
      */
     @Override
     public void addVisionMeasurement(Pose2d visionRobotPoseMeters, double timestampSeconds) {
-        super.addVisionMeasurement(visionRobotPoseMeters, Utils.fpgaToCurrentTime(timestampSeconds));
+        super.addVisionMeasurement(visionRobotPoseMeters, Timebase.toCtre(timestampSeconds));
+        mPoseEstimator.addVisionMeasurement(visionRobotPoseMeters, timestampSeconds);
     }
 
     /**
@@ -370,7 +526,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
      * {@link #setVisionMeasurementStdDevs(Matrix)} or this method.
      *
      * @param visionRobotPoseMeters The pose of the robot as measured by the vision camera.
-     * @param timestampSeconds The timestamp of the vision measurement in seconds.
+     * @param timestampSeconds The timestamp of the vision measurement in FPGA seconds, see {@link Timebase}.
      * @param visionMeasurementStdDevs Standard deviations of the vision pose measurement
      *     in the form [x, y, theta]ᵀ, with units in meters and radians.
      */
@@ -380,7 +536,8 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         double timestampSeconds,
         Matrix<N3, N1> visionMeasurementStdDevs
     ) {
-        super.addVisionMeasurement(visionRobotPoseMeters, Utils.fpgaToCurrentTime(timestampSeconds), visionMeasurementStdDevs);
+        super.addVisionMeasurement(visionRobotPoseMeters, Timebase.toCtre(timestampSeconds), visionMeasurementStdDevs);
+        mPoseEstimator.addVisionMeasurement(visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
     }
 
 }
@@ -0,0 +1,40 @@
+package frc.robot.drivetrain;
+
+import org.littletonrobotics.junction.AutoLog;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Hardware interface for the swerve drivetrain. The odometry thread samples the modules and gyro
+ * faster than the robot loop, so each loop's inputs hold every sample taken since the last loop,
+ * oldest first. Timestamps are FPGA seconds, see {@link frc.crevolib.util.Timebase}.
+ *
+ * <p>Module arrays are flattened, sample <code>i</code> of module <code>m</code> is at
+ * <code>i * moduleCount + m</code>, modules in the order of {@link TunerConstants}.
+ *
+ * <p>Every method has an empty default, so <code>new DriveIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and the pose is rebuilt from them.
+ */
+public interface DriveIO {
+    @AutoLog
+    public static class DriveIOInputs {
+        public double[] odometryTimestamps = new double[] {};
+        public double[] odometryYawRadians = new double[] {};
+        public double[] odometryDrivePositionsMeters = new double[] {};
+        public double[] odometrySteerAnglesRadians = new double[] {};
+        // Measured robot relative speeds at each sample
+        public double[] odometryVxMetersPerSec = new double[] {};
+        public double[] odometryVyMetersPerSec = new double[] {};
+        public double[] odometryOmegaRadiansPerSec = new double[] {};
+        public int droppedOdometrySamples = 0;
+
+        public ChassisSpeeds speeds = new ChassisSpeeds();
+        public SwerveModuleState[] moduleStates = new SwerveModuleState[] {};
+        public SwerveModuleState[] moduleTargets = new SwerveModuleState[] {};
+        public double odometryPeriodSecs = 0.0;
+        public int failedDaqs = 0;
+    }
+
+    default void updateInputs(DriveIOInputs inputs) {}
+}
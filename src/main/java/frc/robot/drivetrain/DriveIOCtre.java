@@ -0,0 +1,127 @@
+package frc.robot.drivetrain;
+
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
+
+import frc.crevolib.util.Timebase;
+
+/**
+ * The CTRE swerve drivetrain, on the robot or in simulation. Every odometry update is copied into a
+ * buffer on the odometry thread, and the robot thread takes everything in it once per loop.
+ */
+public class DriveIOCtre implements DriveIO {
+    // A quarter second of odometry at 250 Hz, the oldest samples are dropped if the robot loop stalls
+    private static final int kSampleCapacity = 64;
+
+    private final CommandSwerveDrivetrain mDrivetrain;
+    private final int mModuleCount;
+
+    // Ring of samples since the last loop, guarded by this
+    private final double[] mTimestamps = new double[kSampleCapacity];
+    private final double[] mYaws = new double[kSampleCapacity];
+    private final double[] mDrivePositions;
+    private final double[] mSteerAngles;
+    private final double[] mVx = new double[kSampleCapacity];
+    private final double[] mVy = new double[kSampleCapacity];
+    private final double[] mOmega = new double[kSampleCapacity];
+    private int mStart = 0;
+    private int mSize = 0;
+    private int mDropped = 0;
+    // Input arrays for each sample count, made the first time that count is seen. A loop usually
+    // takes the same few counts, so after the first seconds no arrays are allocated. AdvantageKit
+    // copies arrays when it logs them, so handing out the same ones again is safe.
+    private final Samples[] mSamplesBySize = new Samples[kSampleCapacity + 1];
+
+    public DriveIOCtre(CommandSwerveDrivetrain drivetrain) {
+        mDrivetrain = drivetrain;
+        mModuleCount = drivetrain.getModules().length;
+        mDrivePositions = new double[kSampleCapacity * mModuleCount];
+        mSteerAngles = new double[kSampleCapacity * mModuleCount];
+        drivetrain.registerTelemetry(this::addSample);
+    }
+
+    // Runs on the odometry thread after every odometry update
+    private synchronized void addSample(SwerveDriveState state) {
+        if (mSize == kSampleCapacity) {
+            mStart = (mStart + 1) % kSampleCapacity;
+            mSize--;
+            mDropped++;
+        }
+        final int i = (mStart + mSize) % kSampleCapacity;
+        mTimestamps[i] = Timebase.fromCtre(state.Timestamp);
+        mYaws[i] = state.RawHeading.getRadians();
+        for (int m = 0; m < mModuleCount; m++) {
+            mDrivePositions[i * mModuleCount + m] = state.ModulePositions[m].distanceMeters;
+            mSteerAngles[i * mModuleCount + m] = state.ModulePositions[m].angle.getRadians();
+        }
+        mVx[i] = state.Speeds.vxMetersPerSecond;
+        mVy[i] = state.Speeds.vyMetersPerSecond;
+        mOmega[i] = state.Speeds.omegaRadiansPerSecond;
+        mSize++;
+    }
+
+    @Override
+    public void updateInputs(DriveIOInputs inputs) {
+        takeSamples(inputs);
+
+        // Outside the lock, getState() takes CTRE's lock and the odometry thread holds it while
+        // calling addSample
+        final SwerveDriveState state = mDrivetrain.getState();
+        inputs.speeds = state.Speeds;
+        inputs.moduleStates = state.ModuleStates;
+        inputs.moduleTargets = state.ModuleTargets;
+        inputs.odometryPeriodSecs = state.OdometryPeriod;
+        inputs.failedDaqs = state.FailedDaqs;
+    }
+
+    private synchronized void takeSamples(DriveIOInputs inputs) {
+        final Samples samples = samplesOfSize(mSize);
+        for (int k = 0; k < mSize; k++) {
+            final int i = (mStart + k) % kSampleCapacity;
+            samples.timestamps[k] = mTimestamps[i];
+            samples.yaws[k] = mYaws[i];
+            System.arraycopy(mDrivePositions, i * mModuleCount, samples.drivePositions, k * mModuleCount, mModuleCount);
+            System.arraycopy(mSteerAngles, i * mModuleCount, samples.steerAngles, k * mModuleCount, mModuleCount);
+            samples.vx[k] = mVx[i];
+            samples.vy[k] = mVy[i];
+            samples.omega[k] = mOmega[i];
+        }
+        inputs.odometryTimestamps = samples.timestamps;
+        inputs.odometryYawRadians = samples.yaws;
+        inputs.odometryDrivePositionsMeters = samples.drivePositions;
+        inputs.odometrySteerAnglesRadians = samples.steerAngles;
+        inputs.odometryVxMetersPerSec = samples.vx;
+        inputs.odometryVyMetersPerSec = samples.vy;
+        inputs.odometryOmegaRadiansPerSec = samples.omega;
+        inputs.droppedOdometrySamples = mDropped;
+        mStart = 0;
+        mSize = 0;
+        mDropped = 0;
+    }
+
+    private Samples samplesOfSize(int size) {
+        if (mSamplesBySize[size] == null) {
+            mSamplesBySize[size] = new Samples(size, mModuleCount);
+        }
+        return mSamplesBySize[size];
+    }
+
+    private static class Samples {
+        final double[] timestamps;
+        final double[] yaws;
+        final double[] drivePositions;
+        final double[] steerAngles;
+        final double[] vx;
+        final double[] vy;
+        final double[] omega;
+
+        Samples(int size, int moduleCount) {
+            timestamps = new double[size];
+            yaws = new double[size];
+            drivePositions = new double[size * moduleCount];
+            steerAngles = new double[size * moduleCount];
+            vx = new double[size];
+            vy = new double[size];
+            omega = new double[size];
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package frc.robot.drivetrain;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.swerve.SwerveRequest;
+
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Turns the driver's sticks into a field centric request, for the drivetrain's default command.
+ * Runs every loop, so it reads the sticks as primitives and reuses one request rather than building
+ * a new one.
+ */
+public class TeleopDriveRequest implements Supplier<SwerveRequest> {
+    private static final double kSlowScale = 0.3;
+
+    private final SwerveRequest.FieldCentric mRequest;
+    private final DoubleSupplier mTranslationX, mTranslationY, mRotation;
+    private final BooleanSupplier mFastMode;
+    private final double mAllianceSign;
+    private final double mMaxVelocity, mMaxAngularVelocity;
+
+    /**
+     * @param request the request to fill in, deadbands and drive type are left as they are
+     * @param translationX forward demand, from -1 to 1
+     * @param translationY left demand, from -1 to 1
+     * @param rotation counterclockwise demand, from -1 to 1
+     * @param fastMode true for full speed, false for {@link #kSlowScale} of it
+     * @param alliance alliance the robot is on, red drives the other way down the field
+     * @param maxVelocity speed at full demand, in meters per second
+     * @param maxAngularVelocity rate at full demand, in radians per second
+     */
+    public TeleopDriveRequest(SwerveRequest.FieldCentric request, DoubleSupplier translationX,
+            DoubleSupplier translationY, DoubleSupplier rotation, BooleanSupplier fastMode,
+            Alliance alliance, double maxVelocity, double maxAngularVelocity) {
+        mRequest = request;
+        mTranslationX = translationX;
+        mTranslationY = translationY;
+        mRotation = rotation;
+        mFastMode = fastMode;
+        mAllianceSign = alliance == Alliance.Blue ? 1.0 : -1.0;
+        mMaxVelocity = maxVelocity;
+        mMaxAngularVelocity = maxAngularVelocity;
+    }
+
+    @Override
+    public SwerveRequest get() {
+        final double speedScale = mFastMode.getAsBoolean() ? 1.0 : kSlowScale;
+        return mRequest.withVelocityX(mAllianceSign * mTranslationX.getAsDouble() * mMaxVelocity * speedScale)
+            .withVelocityY(mAllianceSign * mTranslationY.getAsDouble() * mMaxVelocity * speedScale)
+            .withRotationalRate(mRotation.getAsDouble() * mMaxAngularVelocity * speedScale);
+    }
+}
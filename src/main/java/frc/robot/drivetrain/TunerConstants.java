@@ -18,6 +18,7 @@ import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.units.measure.*;
 import frc.robot.RobotContainer;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.vision.VisionConfig;
 
 // Generated by the Tuner X Swerve Project Generator
 // https://v6.docs.ctr-electronics.com/en/stable/docs/tuner/tuner-swerve/index.html
@@ -200,7 +201,9 @@ public class TunerConstants {
      */
     public static CommandSwerveDrivetrain createDrivetrain() {
         return new CommandSwerveDrivetrain(
-            DrivetrainConstants, FrontLeft, FrontRight, BackLeft, BackRight
+            DrivetrainConstants, 0,
+            VisionConfig.STATE_STANDARD_DEVIATIONS, VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS,
+            FrontLeft, FrontRight, BackLeft, BackRight
         );
     }
 
@@ -0,0 +1,31 @@
+package frc.robot.elevator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the elevator. All positions are in rotations of the right motor.
+ *
+ * <p>Every method has an empty default, so <code>new ElevatorIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface ElevatorIO {
+    @AutoLog
+    public static class ElevatorIOInputs {
+        public double positionRotations = 0.0;
+        public double velocityRotationsPerSec = 0.0;
+        public double appliedVolts = 0.0;
+    }
+
+    default void updateInputs(ElevatorIOInputs inputs) {}
+
+    /** Runs both motors open loop. */
+    default void setVoltage(double volts) {}
+
+    /**
+     * Runs Motion Magic on the motor controller.
+     *
+     * @param positionRotations goal position
+     * @param slot gain slot, 0 below the crossover point and 1 above it
+     */
+    default void setMotionMagicPosition(double positionRotations, int slot) {}
+}
@@ -0,0 +1,63 @@
+package frc.robot.elevator;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.SimMotionMagic;
+import frc.robot.Robot;
+import frc.robot.elevator.ElevatorSubsystem.Settings;
+
+/**
+ * Physics model of the elevator. Does not touch any CTRE device, so it runs as fast as the loop is
+ * called, which lets replays and headless runs go faster than real time.
+ */
+public class ElevatorIOSim implements ElevatorIO {
+    private static final double kMaxPositionRotations = 40.0;
+    private static final int kSubsteps = (int) Math.ceil(TimedRobot.kDefaultPeriod / Robot.Settings.kSimStepPeriodSecs);
+    private static final double kSubstepSecs = TimedRobot.kDefaultPeriod / kSubsteps;
+
+    private final MechanismSim mSim = createModel();
+    private final SimMotionMagic mMotionMagic = new SimMotionMagic(
+            Settings.kMMCruiseVelocity, Settings.kMMAcceleration,
+            Settings.kP, Settings.kI, Settings.kD, Settings.kS, Settings.kV, Settings.kA
+    );
+    private int mMotionMagicSlot = 0;
+    private double mAppliedVolts = 0.0;
+
+    /**
+     * Creates the elevator model from its feedforward constants, in rotations of the right motor.
+     * Shared with the simulated TalonFXs in {@link ElevatorIOTalonFX}.
+     */
+    static MechanismSim createModel() {
+        return new MechanismSim(Settings.kS, Settings.kV, Settings.kA,
+                position -> position < Settings.kCrossoverPoint ? Settings.kGLow : Settings.kGHigh,
+                0.0, kMaxPositionRotations, 0.0);
+    }
+
+    @Override
+    public void updateInputs(ElevatorIOInputs inputs) {
+        for (int i = 0; i < kSubsteps; i++) {
+            if (mMotionMagic.isActive()) {
+                mAppliedVolts = mMotionMagic.calculate(mSim.getPosition(), kSubstepSecs)
+                        + (mMotionMagicSlot == 0 ? Settings.kGLow : Settings.kGHigh);
+            }
+            mSim.setInputVoltage(mAppliedVolts);
+            mSim.update(kSubstepSecs);
+        }
+
+        inputs.positionRotations = mSim.getPosition();
+        inputs.velocityRotationsPerSec = mSim.getVelocity();
+        inputs.appliedVolts = mSim.getInputVoltage();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mMotionMagic.stop();
+        mAppliedVolts = volts;
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations, int slot) {
+        mMotionMagic.setGoal(positionRotations, mSim.getPosition(), mSim.getVelocity());
+        mMotionMagicSlot = slot;
+    }
+}
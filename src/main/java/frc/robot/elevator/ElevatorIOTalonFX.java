@@ -0,0 +1,117 @@
+package frc.robot.elevator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.Slot1Configs;
+import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.sim.ChassisReference;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.PhysicsSim;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.elevator.ElevatorSubsystem.Settings;
+
+/**
+ * Elevator driven by two TalonFXs, with the right motor as the leader. In simulation the TalonFXs
+ * are driven by the elevator's physics model, so the real control path, including Motion Magic in
+ * the device firmware, can be tuned off-robot.
+ */
+public class ElevatorIOTalonFX implements ElevatorIO {
+    private final TalonFX mTalonLeft, mTalonRight;
+    private final StatusSignal<Angle> mPositionSignal;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+
+    private final MotionMagicVoltage mMotionMagicRequest = new MotionMagicVoltage(0.0);
+    private final Follower mFollowerRequest = new Follower(Settings.kTalonRightID, true);
+
+    private MechanismSim mSimModel = null;
+
+    public ElevatorIOTalonFX() {
+        mTalonLeft = new TalonFX(Settings.kTalonLeftID);
+        mTalonRight = new TalonFX(Settings.kTalonRightID);
+
+        mTalonLeft.getConfigurator().apply(new MotorOutputConfigs()
+                .withInverted(InvertedValue.CounterClockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        );
+        mTalonLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mTalonRight.getConfigurator().apply(new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        );
+        mTalonRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mTalonRight.getConfigurator().apply(new Slot0Configs()
+                .withGravityType(GravityTypeValue.Elevator_Static)
+                .withKG(Settings.kGLow).withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+        );
+        mTalonRight.getConfigurator().apply(new Slot1Configs()
+                .withGravityType(GravityTypeValue.Elevator_Static)
+                .withKG(Settings.kGHigh).withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+        );
+        mTalonRight.getConfigurator().apply(new MotionMagicConfigs()
+                .withMotionMagicCruiseVelocity(Settings.kMMCruiseVelocity)
+                .withMotionMagicAcceleration(Settings.kMMAcceleration)
+        );
+        mTalonRight.setPosition(0);
+
+        mPositionSignal = mTalonRight.getPosition(false);
+        mVelocitySignal = mTalonRight.getVelocity(false);
+        mMotorVoltageSignal = mTalonRight.getMotorVoltage(false);
+        StatusSignalRegistry.getInstance().register(mTalonRight, mPositionSignal, mVelocitySignal, mMotorVoltageSignal);
+
+        if (RobotBase.isSimulation()) {
+            mSimModel = ElevatorIOSim.createModel();
+            // Sim state is in the chassis frame, match it to the motor invert so the model's
+            // positive direction is the elevator's
+            mTalonRight.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+            PhysicsSim.getInstance().register(this::updateSimState);
+        }
+    }
+
+    /** Runs on the physics thread, see {@link PhysicsSim}. */
+    private void updateSimState(double dtSeconds) {
+        var simState = mTalonRight.getSimState();
+        simState.setSupplyVoltage(RobotController.getBatteryVoltage());
+        mSimModel.setInputVoltage(simState.getMotorVoltage());
+        mSimModel.update(dtSeconds);
+        simState.setRawRotorPosition(mSimModel.getPosition());
+        simState.setRotorVelocity(mSimModel.getVelocity());
+    }
+
+    @Override
+    public void updateInputs(ElevatorIOInputs inputs) {
+        // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+        inputs.positionRotations = mPositionSignal.getValueAsDouble();
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+        inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mTalonLeft.setVoltage(volts);
+        mTalonRight.setVoltage(volts);
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations, int slot) {
+        mTalonRight.setControl(mMotionMagicRequest.withPosition(positionRotations).withSlot(slot));
+        mTalonLeft.setControl(mFollowerRequest);
+    }
+}
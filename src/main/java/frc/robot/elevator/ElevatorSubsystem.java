@@ -1,19 +1,22 @@
 package frc.robot.elevator;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.hardware.TalonFX;
+import org.littletonrobotics.junction.Logger;
+
 import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.math.controller.ElevatorFeedforward;
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.math.ProfiledController;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.MechanismControlMode;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.crevolib.util.Telemetry.StringChannel;
+import frc.robot.Robot;
 
 import java.util.function.Supplier;
 
@@ -46,19 +49,38 @@ public class ElevatorSubsystem extends SubsystemBase {
 
         static final double kCurrentLimit = 40.0;
 
-        static final double kMaxVelocity = 250.0;
-        static final double kMaxAcceleration = 250.0;
+        public static final double kMaxVelocity = 250.0;
+        public static final double kMaxAcceleration = 250.0;
 
         static final double kCrossoverPoint = 17.2939453125;
+
+        // kRioProfiled runs the ProfiledController on the RIO, kMotionMagic runs the same
+        // gains on the right TalonFX (slot 0 below the crossover point, slot 1 above it)
+        static final MechanismControlMode kControlMode = MechanismControlMode.kRioProfiled;
+        static final double kMMCruiseVelocity = kMaxVelocity; // rot / sec
+        static final double kMMAcceleration = kMaxAcceleration; // rot / sec^2
     }
 
     private static ElevatorSubsystem mInstance;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Elevator");
 
-    private TalonFX mTalonLeft, mTalonRight;
+    private final ElevatorIO mIO;
+    private final ElevatorIOInputsAutoLogged mInputs = new ElevatorIOInputsAutoLogged();
     private final ElevatorFeedforward mFFLowController, mFFHighController;
-    public final ProfiledPIDController mPPIDController;
+    public final ProfiledController mPPIDController;
     private DigitalInput mLowerLimitSwitch;
 
+    private MechanismControlMode mControlMode;
+    private double mTargetPosition = 0.0;
+
+    private final DoubleChannel mPositionTelemetry = Telemetry.doubleChannel("Elevator Position", Level.kCompetition);
+    private final DoubleChannel mVelocityTelemetry = Telemetry.doubleChannel("Elevator Velocity");
+    private final DoubleChannel mTargetPositionTelemetry = Telemetry.doubleChannel("Elevator Target Position");
+    private final StringChannel mStateTelemetry = Telemetry.stringChannel("KLastState Elevator", Level.kCompetition);
+    private final DoubleChannel mTargetVelocityTelemetry = Telemetry.doubleChannel("Elevator Target Velocity");
+    private final DoubleChannel mVoltageTelemetry = Telemetry.doubleChannel("Elevator Applied Voltage");
+    private final StringChannel mModeTelemetry = Telemetry.stringChannel("Elevator Mode");
+
     private Supplier<Double> mVelocitySupplier;
 
 
@@ -85,62 +107,83 @@ public class ElevatorSubsystem extends SubsystemBase {
         public final double pos;
     }
 
-    public static State kLastState;
-
-    private ElevatorSubsystem() {
-        mTalonLeft = new TalonFX(Settings.kTalonLeftID);
-        mTalonRight = new TalonFX(Settings.kTalonRightID);
+    private State mTargetState;
 
-        mTalonLeft.getConfigurator().apply(new MotorOutputConfigs()
-                .withInverted(InvertedValue.CounterClockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        );
-        mTalonLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-
-        mTalonRight.getConfigurator().apply(new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        );
-        mTalonRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-        mTalonRight.setPosition(0);
+    /**
+     * Public so the superstructure can be tested against the sim IO, use {@link #getInstance()} in
+     * robot code.
+     *
+     * @param io hardware, simulation or replay
+     */
+    public ElevatorSubsystem(ElevatorIO io) {
+        mIO = io;
 
         // mLowerLimitSwitch = new DigitalInput(Settings.kLowerLimitSwitch);
 
         mFFLowController = new ElevatorFeedforward(Settings.kS, Settings.kGLow, Settings.kV, Settings.kA);
         mFFHighController = new ElevatorFeedforward(Settings.kS, Settings.kGHigh, Settings.kV, Settings.kA);
-        mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
-                Settings.kMaxVelocity,
-                Settings.kMaxAcceleration
-        ));
+        mPPIDController = new ProfiledController(Settings.kP, Settings.kI, Settings.kD,
+                Settings.kMaxVelocity, Settings.kMaxAcceleration);
 
-        if(kLastState == null) {
-            kLastState = State.kZero;
-        }
+        mTargetState = State.kZero;
 
         mVelocitySupplier = null;
+        mControlMode = Settings.kControlMode;
     }
 
     public void setVoltage(double voltage) {
-        mTalonLeft.setVoltage(voltage);
-        mTalonRight.setVoltage(voltage);
+        mIO.setVoltage(voltage);
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        mTargetState = targetState;
         setTargetPosition(targetState.pos);
     }
 
+    /** @return the last state passed to {@link #setTargetState} */
+    public State getTargetState() {
+        return mTargetState;
+    }
+
     public void setTargetPosition(double pos) {
         // NOTE: Use radians for target goal to align with re:calc constant units
         mPPIDController.setGoal(pos);
+        mTargetPosition = pos;
+    }
+
+    /**
+     * Selects whether the motion profile runs on the RIO or on the TalonFX. When falling back to
+     * the RIO, the profile is restarted from the current state so the elevator does not jump.
+     *
+     * @param controlMode where to run the profile
+     */
+    public void setControlMode(MechanismControlMode controlMode) {
+        if (controlMode == MechanismControlMode.kRioProfiled && mControlMode != controlMode) {
+            mPPIDController.reset(getPosition(), getVelocity());
+        }
+        mControlMode = controlMode;
+    }
+
+    public MechanismControlMode getControlMode() {
+        return mControlMode;
     }
 
     public double getPosition() {
-        return mTalonRight.getPosition().getValueAsDouble();
+        return mInputs.positionRotations;
+    }
+
+    /**
+     * Checks the measured position against the target, whether it came from a state or a position.
+     *
+     * @param toleranceRotations allowed error in rotations
+     * @return true if the elevator is within the tolerance of its target
+     */
+    public boolean isAtTarget(double toleranceRotations) {
+        return Math.abs(mInputs.positionRotations - mTargetPosition) <= toleranceRotations;
     }
 
     public double getVelocity() {
-        return mTalonRight.getVelocity().getValueAsDouble();
+        return mInputs.velocityRotationsPerSec;
     }
 
     public void setVelocitySupplier(Supplier<Double> velocitySupplier) {
@@ -157,7 +200,11 @@ public class ElevatorSubsystem extends SubsystemBase {
 
     public static ElevatorSubsystem getInstance() {
         if (mInstance == null) {
-            mInstance = new ElevatorSubsystem();
+            mInstance = new ElevatorSubsystem(switch (Robot.Settings.kMode) {
+                case kReal -> new ElevatorIOTalonFX();
+                case kSim -> Robot.Settings.kSimulateDevices ? new ElevatorIOTalonFX() : new ElevatorIOSim();
+                case kReplay -> new ElevatorIO() {};
+            });
         }
         return mInstance;
     }
@@ -171,6 +218,11 @@ public class ElevatorSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        mLoopSection.begin();
+
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Elevator", mInputs);
+
         // if (mVelocitySupplier == null) {
         //     voltage = mPPIDController.calculate(getPosition());
         //     targetVelocity = mPPIDController.getSetpoint().velocity;
@@ -185,21 +237,33 @@ public class ElevatorSubsystem extends SubsystemBase {
         // }
 
         double voltage = 0.0;
-        voltage = mPPIDController.calculate(getPosition());
-        voltage += getFeedforwardOutput(mPPIDController.getSetpoint().velocity);
-        setVoltage(voltage);
+        if (mControlMode == MechanismControlMode.kMotionMagic) {
+            mIO.setMotionMagicPosition(mTargetPosition, getPosition() < Settings.kCrossoverPoint ? 0 : 1);
+            voltage = mInputs.appliedVolts;
+        } else {
+            voltage = mPPIDController.calculate(getPosition());
+            voltage += getFeedforwardOutput(mPPIDController.getSetpoint().velocity);
+            setVoltage(voltage);
+        }
 
         // Telemetry
-        SmartDashboard.putNumber("Elevator Position", getPosition());
-        SmartDashboard.putNumber("Elevator Velocity", getVelocity());
+        mPositionTelemetry.set(getPosition());
+        mVelocityTelemetry.set(getVelocity());
         if (mVelocitySupplier != null) {
-            SmartDashboard.putNumber("Elevator Target Position", mPPIDController.getSetpoint().position);
+            mTargetPositionTelemetry.set(mPPIDController.getSetpoint().position);
         }
 
-        SmartDashboard.putString("KLastState Elevator", kLastState.name());
-        SmartDashboard.putNumber("Elevator Target Velocity", mPPIDController.getSetpoint().velocity);
-        SmartDashboard.putNumber("Elevator Applied Voltage", voltage);
-        SmartDashboard.putString("Elevator Mode", (mVelocitySupplier == null) ? "PPID" : "Manual");
+        mStateTelemetry.set(mTargetState.name());
+        mTargetVelocityTelemetry.set(mPPIDController.getSetpoint().velocity);
+        mVoltageTelemetry.set(voltage);
+        mModeTelemetry.set((mVelocitySupplier == null) ? mControlMode.name() : "Manual");
+
+        Logger.recordOutput("Elevator/State", mTargetState);
+        Logger.recordOutput("Elevator/ControlMode", mControlMode);
+        Logger.recordOutput("Elevator/TargetPosition", mTargetPosition);
+        Logger.recordOutput("Elevator/SetpointPosition", mPPIDController.getSetpoint().position);
+        Logger.recordOutput("Elevator/SetpointVelocity", mPPIDController.getSetpoint().velocity);
+        Logger.recordOutput("Elevator/Voltage", voltage);
     }
 
     public static class DefaultCommand extends Command {
@@ -1,11 +1,12 @@
 package frc.robot.indexer;
-import com.ctre.phoenix6.StatusSignal;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
+import org.littletonrobotics.junction.Logger;
+
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.BooleanChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.robot.Robot;
 
-import edu.wpi.first.units.measure.Current;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 public class Indexer extends SubsystemBase{
@@ -17,37 +18,44 @@ public class Indexer extends SubsystemBase{
   }
 
   private static Indexer mInstance;
-  private TalonFX mKraken;
+  private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Indexer");
+  private final IndexerIO mIO;
+  private final IndexerIOInputsAutoLogged mInputs = new IndexerIOInputsAutoLogged();
+  private final BooleanChannel mHasAlgaeTelemetry = Telemetry.booleanChannel("Indexer Has Algae", Level.kCompetition);
   
-  public Indexer() {
-    mKraken = new TalonFX(Settings.kTalonID);
-    
-    var talonFXConfigurator = mKraken.getConfigurator();
-    var motorConfigs = new MotorOutputConfigs();
-
-    motorConfigs.Inverted = InvertedValue.CounterClockwise_Positive;
-    talonFXConfigurator.apply(motorConfigs);
-
+  Indexer(IndexerIO io) {
+    mIO = io;
   }
 
   public static Indexer getInstance() {
       if (mInstance == null) {
-          mInstance = new Indexer();
+          mInstance = new Indexer(switch (Robot.Settings.kMode) {
+              case kReal -> new IndexerIOTalonFX();
+              case kSim -> new IndexerIOSim();
+              case kReplay -> new IndexerIO() {};
+          });
       }
       return mInstance;
   }
 
   public void setOutput(double percentOut) {
-      mKraken.setVoltage(percentOut * Settings.kMaxVoltage);
+      mIO.setVoltage(percentOut * Settings.kMaxVoltage);
   }
 
   public Boolean hasAlgae() {
     //needs testing
-    return (mKraken.getStatorCurrent().getValueAsDouble() > Settings.kCurrentThreshold);
+    return (mInputs.statorCurrentAmps > Settings.kCurrentThreshold);
   }
 
  @Override
  public void periodic() {
-  SmartDashboard.putBoolean("Indexer Has Algae", hasAlgae());
+  mLoopSection.begin();
+
+  mIO.updateInputs(mInputs);
+  Logger.processInputs("Indexer", mInputs);
+
+  mHasAlgaeTelemetry.set(hasAlgae());
+
+  Logger.recordOutput("Indexer/HasAlgae", hasAlgae());
  }
 }
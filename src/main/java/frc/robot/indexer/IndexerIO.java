@@ -0,0 +1,21 @@
+package frc.robot.indexer;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the indexer.
+ *
+ * <p>Every method has an empty default, so <code>new IndexerIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface IndexerIO {
+  @AutoLog
+  public static class IndexerIOInputs {
+    public double statorCurrentAmps = 0.0;
+    public double appliedVolts = 0.0;
+  }
+
+  default void updateInputs(IndexerIOInputs inputs) {}
+
+  default void setVoltage(double volts) {}
+}
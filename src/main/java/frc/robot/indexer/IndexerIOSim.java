@@ -0,0 +1,33 @@
+package frc.robot.indexer;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+
+/** Physics model of the indexer rollers, with no game piece loaded. */
+public class IndexerIOSim implements IndexerIO {
+  // Estimated from CAD, close enough to see the current spike on startup
+  private static final double kGearing = 3.0;
+  private static final double kMOIKgMetersSquared = 0.002;
+
+  private static final DCMotor kGearbox = DCMotor.getKrakenX60(1);
+
+  private final MechanismSim mSim = MechanismSim.roller(kGearbox, kGearing, kMOIKgMetersSquared);
+  private double mAppliedVolts = 0.0;
+
+  @Override
+  public void updateInputs(IndexerIOInputs inputs) {
+    mSim.setInputVoltage(mAppliedVolts);
+    mSim.update(TimedRobot.kDefaultPeriod);
+
+    final double motorRadPerSec = mSim.getVelocity() * 2.0 * Math.PI * kGearing;
+    inputs.statorCurrentAmps = Math.abs(kGearbox.getCurrent(motorRadPerSec, mAppliedVolts));
+    inputs.appliedVolts = mAppliedVolts;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    mAppliedVolts = MathUtil.clamp(volts, -12.0, 12.0);
+  }
+}
@@ -0,0 +1,44 @@
+package frc.robot.indexer;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.indexer.Indexer.Settings;
+
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+
+/** Indexer driven by a single Kraken. */
+public class IndexerIOTalonFX implements IndexerIO {
+  private final TalonFX mKraken;
+  private final StatusSignal<Current> mStatorCurrentSignal;
+  private final StatusSignal<Voltage> mMotorVoltageSignal;
+
+  public IndexerIOTalonFX() {
+    mKraken = new TalonFX(Settings.kTalonID);
+
+    var talonFXConfigurator = mKraken.getConfigurator();
+    var motorConfigs = new MotorOutputConfigs();
+
+    motorConfigs.Inverted = InvertedValue.CounterClockwise_Positive;
+    talonFXConfigurator.apply(motorConfigs);
+
+    mStatorCurrentSignal = mKraken.getStatorCurrent(false);
+    mMotorVoltageSignal = mKraken.getMotorVoltage(false);
+    StatusSignalRegistry.getInstance().register(mKraken, mStatorCurrentSignal, mMotorVoltageSignal);
+  }
+
+  @Override
+  public void updateInputs(IndexerIOInputs inputs) {
+    // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+    inputs.statorCurrentAmps = mStatorCurrentSignal.getValueAsDouble();
+    inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    mKraken.setVoltage(volts);
+  }
+}
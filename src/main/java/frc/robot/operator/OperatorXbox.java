@@ -29,6 +29,8 @@ import frc.robot.rushinator.RushinatorWrist;
 import frc.robot.rushinator.commands.SetArmState;
 import frc.robot.rushinator.commands.SetRollersVoltage;
 import frc.robot.rushinator.commands.SetWristState;
+import frc.robot.superstructure.Superstructure;
+import frc.robot.superstructure.commands.SetSuperstructureGoal;
 
 public class OperatorXbox extends XboxGamepad {
     private static class Settings {
@@ -77,131 +79,65 @@ public class OperatorXbox extends XboxGamepad {
 //        ));
 
         // Algae Reef Intake
-        controller.leftBumper().and(leftTriggerOnly()).whileTrue(new AlgaeRoller.IntakeCommand());
-        controller.leftBumper().and(leftTriggerOnly()).whileTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kReefIntake));
+        controller.leftBumper().and(leftTriggerOnly()).whileTrue(command("ReefAlgaeRollers", () -> new AlgaeRoller.IntakeCommand()));
+        controller.leftBumper().and(leftTriggerOnly()).whileTrue(command("ReefAlgaePivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kReefIntake)));
 
         // Jogging the ELevator Up and Down
         // controller.povUp().whileTrue(new ElevatorSubsystem.applyJog(ElevatorSubsystem.getInstance().getPosition() + 5.0));
         // controller.povDown().whileTrue(new ElevatorSubsystem.applyJog(ElevatorSubsystem.getInstance().getPosition() - 3.0));
 
         // Algae (Elevator) Barge Shot 
-        controller.leftBumper().onTrue(new SetElevatorState(ElevatorSubsystem.State.kCoralL4));
-        controller.leftBumper().onTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kStow));
-        controller.leftBumper().onTrue(new AlgaeRoller.PrimeCommand());
+        controller.leftBumper().onTrue(command("BargeElevator", () -> new SetElevatorState(ElevatorSubsystem.State.kCoralL4)));
+        controller.leftBumper().onTrue(command("BargePivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kStow)));
+        controller.leftBumper().onTrue(command("BargeRollers", () -> new AlgaeRoller.PrimeCommand()));
 
         // Primes the processor shooting
-        controller.rightTrigger().whileTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kProcessor));
-        controller.rightTrigger().whileTrue(new SetElevatorState(ElevatorSubsystem.State.kZero));
+        controller.rightTrigger().whileTrue(command("ProcessorPivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kProcessor)));
+        controller.rightTrigger().whileTrue(command("ProcessorElevator", () -> new SetElevatorState(ElevatorSubsystem.State.kZero)));
 
         // ALgae Scooring For Far Barge Shot
-        controller.x().and(leftTriggerOnly()).whileTrue(new AlgaeRoller.FarShootCommand());
+        controller.x().and(leftTriggerOnly()).whileTrue(command("AlgaeFarShoot", () -> new AlgaeRoller.FarShootCommand()));
 
         // Algae SCorring for Process & Barge
-        controller.rightBumper().and(leftTriggerOnly()).whileTrue(new AlgaeRoller.ProcessShootCommand());
-        controller.rightBumper().whileTrue(new AlgaeRoller.ShootCommand());
+        controller.rightBumper().and(leftTriggerOnly()).whileTrue(command("AlgaeProcessShoot", () -> new AlgaeRoller.ProcessShootCommand()));
+        controller.rightBumper().whileTrue(command("AlgaeShoot", () -> new AlgaeRoller.ShootCommand()));
 
 
         // ADjusting Coral ORinetaiton
-        controller.povLeft().onTrue(new ConditionalCommand(
+        controller.povLeft().onTrue(command("WristLeft", () -> new ConditionalCommand(
                         new SetWristState(RushinatorWrist.State.kTravelLeft),
                         new SetWristState(RushinatorWrist.State.kTravelL4Left),
-                        () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight
-                )
+                        () -> Superstructure.getInstance().getWristState() == RushinatorWrist.State.kTravelRight
+                ))
         );
 
-        controller.povRight().onTrue(new ConditionalCommand(
+        controller.povRight().onTrue(command("WristRight", () -> new ConditionalCommand(
                         new SetWristState(RushinatorWrist.State.kTravelRight),
                         new SetWristState(RushinatorWrist.State.kTravelL4Right),
-                        () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight
-                )
+                        () -> Superstructure.getInstance().getWristState() == RushinatorWrist.State.kTravelRight
+                ))
         );
 
-        // Score Prime L1
-        controller.a().whileTrue(RobotCommands.coralPrime(
-                RushinatorPivot.State.kScoreL1, ElevatorSubsystem.State.kZero)
-        );
-        controller.a().onTrue(new ConditionalCommand(
-                        new SetWristState(RushinatorWrist.State.kScoreL1Mid),
-                        new SetWristState(RushinatorWrist.State.kScoreL1Mid),
-                        () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid
-                )
-        );
-
-        // Score Prime L2
-        controller.x().whileTrue(RobotCommands.coralPrime(
-                RushinatorPivot.State.kStowTravel, ElevatorSubsystem.State.kCoralL2)
-        );
-        controller.x().onTrue(new ConditionalCommand(
-                        new SetWristState(RushinatorWrist.State.kTravelRight),
-                        new SetWristState(RushinatorWrist.State.kTravelLeft),
-                        () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid
-                )
-        );
-
-        // Score Prime L3
-        controller.b().onTrue(RobotCommands.coralPrime(
-                RushinatorPivot.State.kStowTravel, ElevatorSubsystem.State.kCoralL3)
-        );
-        controller.b().onTrue(new ConditionalCommand(
-                        new SetWristState(RushinatorWrist.State.kTravelRight),
-                        new SetWristState(RushinatorWrist.State.kTravelLeft),
-                        () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid
-                )
-        );
-
-        // Score Prime L4
-        controller.y().onTrue(RobotCommands.coralPrime(
-                RushinatorPivot.State.kStowL4, ElevatorSubsystem.State.kCoralL4)
-        );
-        controller.y().onTrue(new ConditionalCommand(
-                        new SetWristState(RushinatorWrist.State.kTravelL4Right),
-                        new SetWristState(RushinatorWrist.State.kTravelL4Left),
-                        () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-                                RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
-                )
-        );
+        // Score Prime L1 to L4, the wrist stays on the side it is on
+        controller.a().whileTrue(command("L1Prime", () -> new SetSuperstructureGoal(Superstructure.Goal.kL1)));
+        controller.x().whileTrue(command("L2Prime", () -> new SetSuperstructureGoal(Superstructure.Goal.kL2)));
+        controller.b().onTrue(command("L3Prime", () -> new SetSuperstructureGoal(Superstructure.Goal.kL3)));
+        controller.y().onTrue(command("L4Prime", () -> new SetSuperstructureGoal(Superstructure.Goal.kL4)));
 
         // Algae L3
-        controller.y().and(leftTriggerOnly()).onTrue(new SetElevatorState(ElevatorSubsystem.State.kAlgaeL3));
-        controller.y().and(leftTriggerOnly()).whileTrue(new AlgaeRoller.IntakeCommand());
-        controller.y().and(leftTriggerOnly()).whileTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kReefIntake));
+        controller.y().and(leftTriggerOnly()).onTrue(command("AlgaeL3Elevator", () -> new SetElevatorState(ElevatorSubsystem.State.kAlgaeL3)));
+        controller.y().and(leftTriggerOnly()).whileTrue(command("AlgaeL3Rollers", () -> new AlgaeRoller.IntakeCommand()));
+        controller.y().and(leftTriggerOnly()).whileTrue(command("AlgaeL3Pivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kReefIntake)));
 
         // Algae L2 
-        controller.b().and(leftTriggerOnly()).onTrue(new SetElevatorState(ElevatorSubsystem.State.kAlgaeL2));
-        controller.b().and(leftTriggerOnly()).whileTrue(new AlgaeRoller.IntakeCommand());
-        controller.b().and(leftTriggerOnly()).whileTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kReefIntake));
+        controller.b().and(leftTriggerOnly()).onTrue(command("AlgaeL2Elevator", () -> new SetElevatorState(ElevatorSubsystem.State.kAlgaeL2)));
+        controller.b().and(leftTriggerOnly()).whileTrue(command("AlgaeL2Rollers", () -> new AlgaeRoller.IntakeCommand()));
+        controller.b().and(leftTriggerOnly()).whileTrue(command("AlgaeL2Pivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kReefIntake)));
 
         // Algae Loli Pop Intake
-        controller.a().and(leftTriggerOnly()).onTrue(new SetElevatorState(ElevatorSubsystem.State.kAlgaeLoliIntake));
-        controller.a().and(leftTriggerOnly()).whileTrue(new AlgaeRoller.IntakeCommand());
-        controller.a().and(leftTriggerOnly()).whileTrue(new SetAngleAlgaePivot(AlgaeSubsystem.State.kLoliPop));
+        controller.a().and(leftTriggerOnly()).onTrue(command("LoliElevator", () -> new SetElevatorState(ElevatorSubsystem.State.kAlgaeLoliIntake)));
+        controller.a().and(leftTriggerOnly()).whileTrue(command("LoliRollers", () -> new AlgaeRoller.IntakeCommand()));
+        controller.a().and(leftTriggerOnly()).whileTrue(command("LoliPivot", () -> new SetAngleAlgaePivot(AlgaeSubsystem.State.kLoliPop)));
 
         // Score Prime Auto ALign L4
         // controller.x().and(leftTriggerOnly()).onTrue(RobotCommands.coralPrime(
@@ -210,7 +146,7 @@ public class OperatorXbox extends XboxGamepad {
         // controller.x().and(leftTriggerOnly()).onTrue(new ConditionalCommand(
         //     new SetWristState(RushinatorWrist.State.kTravelL4Right), 
         //     new SetWristState(RushinatorWrist.State.kTravelL4Left), 
-        //     () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
+        //     () -> Superstructure.getInstance().getWristState() == RushinatorWrist.State.kTravelRight ||
         //     RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
         //     RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
         //     RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
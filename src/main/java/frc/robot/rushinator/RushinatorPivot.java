@@ -1,23 +1,21 @@
 package frc.robot.rushinator;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MagnetSensorConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
+import org.littletonrobotics.junction.Logger;
+
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 
 import edu.wpi.first.math.controller.ArmFeedforward;
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.math.ProfiledController;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.MechanismControlMode;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.crevolib.util.Telemetry.StringChannel;
+import frc.robot.Robot;
 import frc.robot.algaepivot.AlgaeSubsystem;
 
 public class RushinatorPivot extends SubsystemBase {
@@ -43,6 +41,15 @@ public class RushinatorPivot extends SubsystemBase {
         // TODO: Enable lower min-pos to bring down CoG when elevator is up. We should be able to tuck the shooter into the elevator.
         static final Rotation2d kMinPos = Rotation2d.fromRotations(-0.02128);
         static final Rotation2d kMaxPos = Rotation2d.fromRotations(0.3218);
+
+        // kRioProfiled runs the ProfiledController on the RIO, kMotionMagic runs the profile on
+        // the TalonFX with the CANcoder as its feedback sensor
+        static final MechanismControlMode kControlMode = MechanismControlMode.kRioProfiled;
+        // FusedCANcoder requires Phoenix Pro and an accurate kRotorToSensorRatio
+        static final FeedbackSensorSourceValue kFeedbackSource = FeedbackSensorSourceValue.RemoteCANcoder;
+        static final double kRotorToSensorRatio = 96.0;
+        static final double kMMCruiseVelocity = 2.0; // rot / sec
+        static final double kMMAcceleration = 8.0; // rot / sec^2
     }
 
     public enum State {
@@ -68,106 +75,170 @@ public class RushinatorPivot extends SubsystemBase {
         public final Rotation2d pos;
     }
 
-    private final TalonFX mTalonPivot;
-    private final CANcoder mCANcoderPivot;
+    private final RushinatorPivotIO mIO;
+    private final RushinatorPivotIOInputsAutoLogged mInputs = new RushinatorPivotIOInputsAutoLogged();
     private final ArmFeedforward mFFController;
-    public final ProfiledPIDController mPPIDController;
-
-    public static State kLastState;
-
-    private RushinatorPivot() {
-        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
-        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        ));
-        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-
-        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
-        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
-                withSensorDirection(SensorDirectionValue.CounterClockwise_Positive).
-                withMagnetOffset(Settings.kZeroOffset)
-        ));
+    public final ProfiledController mPPIDController;
+
+    private MechanismControlMode mControlMode;
+    private double mTargetPosition = 0.0;
+
+    private final StringChannel mStateTelemetry = Telemetry.stringChannel("KLastState Arm Pivot", Level.kCompetition);
+    private final DoubleChannel mPositionTelemetry = Telemetry.doubleChannel("Coral Pivot Pos (rotations)", Level.kCompetition);
+    private final DoubleChannel mVelocityTelemetry = Telemetry.doubleChannel("Coral Pivot Vel (Rotations / sec)");
+    private final DoubleChannel mPivotAngleTelemetry = Telemetry.doubleChannel("Coral Arm Pivot * 96 (Roations)");
+    private final DoubleChannel mRelativePositionTelemetry = Telemetry.doubleChannel("Coral Arm Pivot Relative (Rotations)");
+    private final DoubleChannel mPIDOutputTelemetry = Telemetry.doubleChannel("PID Output (Coral Arm)");
+    private final DoubleChannel mFFOutputTelemetry = Telemetry.doubleChannel("FF Output (Coral Arm)");
+    private final DoubleChannel mTargetPositionTelemetry = Telemetry.doubleChannel("Coral Pivot Target Pos");
+    private final DoubleChannel mTargetVelocityTelemetry = Telemetry.doubleChannel("Coral Pivot Target Vel");
+    private final DoubleChannel mVoltageTelemetry = Telemetry.doubleChannel("Coral Pivot Applied Voltage");
+
+    private State mTargetState;
+
+    /**
+     * Public so the superstructure can be tested against the sim IO, use {@link #getInstance()} in
+     * robot code.
+     *
+     * @param io hardware, simulation or replay
+     */
+    public RushinatorPivot(RushinatorPivotIO io) {
+        mIO = io;
 
         mFFController = new ArmFeedforward(Settings.kS, Settings.kG, Settings.kV, Settings.kA);
-        mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
-                Settings.kMaxVelocity.getRadians(),
-                Settings.kMaxAcceleration.getRadians()
-        ));
+        mPPIDController = new ProfiledController(Settings.kP, Settings.kI, Settings.kD,
+                Settings.kMaxVelocity.getRadians(), Settings.kMaxAcceleration.getRadians());
         mPPIDController.setTolerance(0.01);
 
-        if (kLastState == null) {
-            kLastState = State.kStowTravel;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRotations());
+        mTargetState = State.kStowTravel;
+        mPPIDController.setGoal(mTargetState.pos.getRotations());
+        mTargetPosition = mTargetState.pos.getRotations();
+        mControlMode = Settings.kControlMode;
     }
 
 
     private static RushinatorPivot mInstance;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Pivot");
     public static RushinatorPivot getInstance() {
         if (mInstance == null) {
-            mInstance = new RushinatorPivot();
+            mInstance = new RushinatorPivot(switch (Robot.Settings.kMode) {
+                case kReal -> new RushinatorPivotIOTalonFX();
+                case kSim -> Robot.Settings.kSimulateDevices ? new RushinatorPivotIOTalonFX() : new RushinatorPivotIOSim();
+                case kReplay -> new RushinatorPivotIO() {};
+            });
         }
         return mInstance;
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        mTargetState = targetState;
         setTargetPosition(targetState.pos);
     }
 
+    /** @return the last state passed to {@link #setTargetState} */
+    public State getTargetState() {
+        return mTargetState;
+    }
+
     public Rotation2d getPivotAngle() {
-        return Rotation2d.fromRotations(mCANcoderPivot.getAbsolutePosition().getValueAsDouble() * 96);
+        return Rotation2d.fromRotations(mInputs.absolutePositionRotations * 96);
     }
 
 
     public void setTargetPosition(Rotation2d targetPosition) {
         // NOTE: Use radians for target goal to align with re:calc constant units
         mPPIDController.setGoal(targetPosition.getRotations());
+        mTargetPosition = targetPosition.getRotations();
+    }
+
+    /**
+     * Selects whether the motion profile runs on the RIO or on the TalonFX. When falling back to
+     * the RIO, the profile is restarted from the current state so the arm does not jump.
+     *
+     * @param controlMode where to run the profile
+     */
+    public void setControlMode(MechanismControlMode controlMode) {
+        if (controlMode == MechanismControlMode.kRioProfiled && mControlMode != controlMode) {
+            mPPIDController.reset(getArmPosition().getRotations(), getArmVelocity().getRotations());
+        }
+        mControlMode = controlMode;
+    }
+
+    public MechanismControlMode getControlMode() {
+        return mControlMode;
     }
 
     public Rotation2d getArmPosition() {
-        var pos = mCANcoderPivot.getAbsolutePosition().getValueAsDouble();
+        var pos = mInputs.absolutePositionRotations;
         return Rotation2d.fromRotations(pos);
     }
 
+    /**
+     * Checks the measured position against the target, whether it came from a state or a position.
+     *
+     * @param toleranceRotations allowed error in rotations
+     * @return true if the arm is within the tolerance of its target
+     */
+    public boolean isAtTarget(double toleranceRotations) {
+        return Math.abs(mInputs.absolutePositionRotations - mTargetPosition) <= toleranceRotations;
+    }
+
     public Rotation2d getArmRelativePos() {
-        return Rotation2d.fromRotations(mTalonPivot.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.relativePositionRotations);
     }
 
     public Rotation2d getArmVelocity() {
-        var vel = mCANcoderPivot.getVelocity().getValueAsDouble();
+        var vel = mInputs.velocityRotationsPerSec;
         return Rotation2d.fromRotations(vel);
     }
 
     @Override
     public void periodic() {
+        mLoopSection.begin();
+
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Pivot", mInputs);
+
         double voltage;
-        if (kLastState != null) {
-            voltage = mPPIDController.calculate(getArmPosition().getRotations());
-            voltage += mFFController.calculate(getArmPosition().getRotations(), mPPIDController.getSetpoint().velocity);
+        double pidOutput = 0.0;
+        double ffOutput = 0.0;
+        if (mControlMode == MechanismControlMode.kMotionMagic) {
+            mIO.setMotionMagicPosition(mTargetPosition);
+            voltage = mInputs.appliedVolts;
         } else {
-            voltage = 0.0;
-        }
+            // Read the input directly, getArmPosition() would allocate a Rotation2d every loop
+            pidOutput = mPPIDController.calculate(mInputs.absolutePositionRotations);
+            ffOutput = mFFController.calculate(mInputs.absolutePositionRotations, mPPIDController.getSetpoint().velocity);
+            voltage = pidOutput + ffOutput;
 
-        mTalonPivot.setVoltage(voltage);
+            mIO.setVoltage(voltage);
+        }
 
         // System.out.println("This Periodic is bieng called");
         // Telemetry
-        SmartDashboard.putString("KLastState Arm Pivot", kLastState.name());
+        mStateTelemetry.set(mTargetState.name());
+
+        mPositionTelemetry.set(mInputs.absolutePositionRotations);
+        mVelocityTelemetry.set(mInputs.velocityRotationsPerSec);
 
-        SmartDashboard.putNumber("Coral Pivot Pos (rotations)", getArmPosition().getRotations());
-        SmartDashboard.putNumber("Coral Pivot Vel (Rotations / sec)", getArmVelocity().getRotations());
+        mPivotAngleTelemetry.set(mInputs.absolutePositionRotations * 96);
+        mRelativePositionTelemetry.set(mInputs.relativePositionRotations);
+        mPIDOutputTelemetry.set(pidOutput);
+        mFFOutputTelemetry.set(ffOutput);
 
-        SmartDashboard.putNumber("Coral Arm Pivot * 96 (Roations)", getPivotAngle().getRotations());
-        SmartDashboard.putNumber("Coral Arm Pivot Relative (Rotations)", mTalonPivot.getPosition().getValueAsDouble());
-        SmartDashboard.putNumber("PID Output (Coral Arm)", mPPIDController.calculate(getArmPosition().getRadians()));
-        SmartDashboard.putNumber("FF Output (Coral Arm)", mFFController.calculate(getArmPosition().getRadians(), mPPIDController.getSetpoint().velocity));
+        mTargetPositionTelemetry.set(mPPIDController.getSetpoint().position);
+        mTargetVelocityTelemetry.set(mPPIDController.getSetpoint().velocity);
 
-        SmartDashboard.putNumber("Coral Pivot Target Pos", mPPIDController.getSetpoint().position);
-        SmartDashboard.putNumber("Coral Pivot Target Vel", mPPIDController.getSetpoint().velocity);
+        mVoltageTelemetry.set(voltage);
 
-        SmartDashboard.putNumber("Coral Pivot Applied Voltage", voltage);
+        Logger.recordOutput("Pivot/State", mTargetState);
+        Logger.recordOutput("Pivot/ControlMode", mControlMode);
+        Logger.recordOutput("Pivot/TargetPosition", mTargetPosition);
+        Logger.recordOutput("Pivot/SetpointPosition", mPPIDController.getSetpoint().position);
+        Logger.recordOutput("Pivot/SetpointVelocity", mPPIDController.getSetpoint().velocity);
+        Logger.recordOutput("Pivot/PIDOutput", pidOutput);
+        Logger.recordOutput("Pivot/FFOutput", ffOutput);
+        Logger.recordOutput("Pivot/Voltage", voltage);
     }
 
     public static class DefaultCommand extends Command {
@@ -178,7 +249,7 @@ public class RushinatorPivot extends SubsystemBase {
 
         @Override
         public void execute() {
-            if (kLastState == State.kTuck) {
+            if (RushinatorPivot.getInstance().getTargetState() == State.kTuck) {
                 RushinatorPivot.getInstance().setTargetState(State.kTuck);
             } else {
                 RushinatorPivot.getInstance().setTargetState(State.kStowTravel);
@@ -0,0 +1,27 @@
+package frc.robot.rushinator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the coral arm pivot. Absolute positions are CANcoder rotations of the arm,
+ * relative positions are rotations of the motor.
+ *
+ * <p>Every method has an empty default, so <code>new RushinatorPivotIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface RushinatorPivotIO {
+    @AutoLog
+    public static class RushinatorPivotIOInputs {
+        public double absolutePositionRotations = 0.0;
+        public double velocityRotationsPerSec = 0.0;
+        public double relativePositionRotations = 0.0;
+        public double appliedVolts = 0.0;
+    }
+
+    default void updateInputs(RushinatorPivotIOInputs inputs) {}
+
+    default void setVoltage(double volts) {}
+
+    /** Runs Motion Magic on the motor controller, with the CANcoder as the feedback sensor. */
+    default void setMotionMagicPosition(double positionRotations) {}
+}
@@ -0,0 +1,62 @@
+package frc.robot.rushinator;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.SimMotionMagic;
+import frc.robot.Robot;
+import frc.robot.rushinator.RushinatorPivot.Settings;
+
+/**
+ * Physics model of the coral arm pivot. Does not touch any CTRE device, so it runs as fast as the
+ * loop is called.
+ */
+public class RushinatorPivotIOSim implements RushinatorPivotIO {
+    private static final double kMinAngleRotations = -0.12;
+    private static final double kMaxAngleRotations = 0.35;
+    private static final int kSubsteps = (int) Math.ceil(TimedRobot.kDefaultPeriod / Robot.Settings.kSimStepPeriodSecs);
+    private static final double kSubstepSecs = TimedRobot.kDefaultPeriod / kSubsteps;
+
+    private final MechanismSim mSim = createModel();
+    private final SimMotionMagic mMotionMagic = new SimMotionMagic(
+            Settings.kMMCruiseVelocity, Settings.kMMAcceleration,
+            Settings.kP, Settings.kI, Settings.kD, Settings.kS, Settings.kV, Settings.kA
+    );
+    private double mAppliedVolts = 0.0;
+
+    /**
+     * Creates the pivot model from its feedforward constants, in rotations of the arm. Gravity is
+     * constant to match the feedforward. Shared with the simulated devices in
+     * {@link RushinatorPivotIOTalonFX}.
+     */
+    static MechanismSim createModel() {
+        return new MechanismSim(Settings.kS, Settings.kV, Settings.kA, position -> Settings.kG,
+                kMinAngleRotations, kMaxAngleRotations, RushinatorPivot.State.kStowTravel.pos.getRotations());
+    }
+
+    @Override
+    public void updateInputs(RushinatorPivotIOInputs inputs) {
+        for (int i = 0; i < kSubsteps; i++) {
+            if (mMotionMagic.isActive()) {
+                mAppliedVolts = mMotionMagic.calculate(mSim.getPosition(), kSubstepSecs) + Settings.kG;
+            }
+            mSim.setInputVoltage(mAppliedVolts);
+            mSim.update(kSubstepSecs);
+        }
+
+        inputs.absolutePositionRotations = mSim.getPosition();
+        inputs.velocityRotationsPerSec = mSim.getVelocity();
+        inputs.relativePositionRotations = mSim.getPosition() * Settings.kRotorToSensorRatio;
+        inputs.appliedVolts = mSim.getInputVoltage();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mMotionMagic.stop();
+        mAppliedVolts = volts;
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations) {
+        mMotionMagic.setGoal(positionRotations, mSim.getPosition(), mSim.getVelocity());
+    }
+}
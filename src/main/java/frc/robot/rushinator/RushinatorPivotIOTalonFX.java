@@ -0,0 +1,127 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MagnetSensorConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+import com.ctre.phoenix6.sim.ChassisReference;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.PhysicsSim;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.rushinator.RushinatorPivot.Settings;
+
+/**
+ * Coral arm pivot driven by a TalonFX, with a CANcoder on the arm. In simulation both devices are
+ * driven by the pivot's physics model.
+ */
+public class RushinatorPivotIOTalonFX implements RushinatorPivotIO {
+    private final TalonFX mTalonPivot;
+    private final CANcoder mCANcoderPivot;
+    private final StatusSignal<Angle> mRelativePositionSignal;
+    private final StatusSignal<Angle> mAbsolutePositionSignal;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+
+    private final MotionMagicVoltage mMotionMagicRequest = new MotionMagicVoltage(0.0);
+
+    private MechanismSim mSimModel = null;
+
+    public RushinatorPivotIOTalonFX() {
+        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
+        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        ));
+        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
+        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
+                withSensorDirection(SensorDirectionValue.CounterClockwise_Positive).
+                withMagnetOffset(Settings.kZeroOffset)
+        ));
+
+        // The RIO feedforward treats kG as roughly constant over the pivot's range, so match that
+        mTalonPivot.getConfigurator().apply(new Slot0Configs()
+                .withGravityType(GravityTypeValue.Elevator_Static)
+                .withKG(Settings.kG).withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+        );
+        mTalonPivot.getConfigurator().apply(new MotionMagicConfigs()
+                .withMotionMagicCruiseVelocity(Settings.kMMCruiseVelocity)
+                .withMotionMagicAcceleration(Settings.kMMAcceleration)
+        );
+        mTalonPivot.getConfigurator().apply(new FeedbackConfigs()
+                .withFeedbackRemoteSensorID(Settings.kCANcoderPivotID)
+                .withFeedbackSensorSource(Settings.kFeedbackSource)
+                .withRotorToSensorRatio(Settings.kRotorToSensorRatio)
+        );
+
+        mRelativePositionSignal = mTalonPivot.getPosition(false);
+        mAbsolutePositionSignal = mCANcoderPivot.getAbsolutePosition(false);
+        mVelocitySignal = mCANcoderPivot.getVelocity(false);
+        mMotorVoltageSignal = mTalonPivot.getMotorVoltage(false);
+        StatusSignalRegistry.getInstance().register(mTalonPivot, mRelativePositionSignal, mMotorVoltageSignal);
+        StatusSignalRegistry.getInstance().register(mCANcoderPivot, mAbsolutePositionSignal, mVelocitySignal);
+
+        if (RobotBase.isSimulation()) {
+            mSimModel = RushinatorPivotIOSim.createModel();
+            mTalonPivot.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+            mCANcoderPivot.getSimState().Orientation = ChassisReference.CounterClockwise_Positive;
+            PhysicsSim.getInstance().register(this::updateSimState);
+        }
+    }
+
+    /** Runs on the physics thread, see {@link PhysicsSim}. */
+    private void updateSimState(double dtSeconds) {
+        var talonSimState = mTalonPivot.getSimState();
+        var cancoderSimState = mCANcoderPivot.getSimState();
+        talonSimState.setSupplyVoltage(RobotController.getBatteryVoltage());
+        cancoderSimState.setSupplyVoltage(RobotController.getBatteryVoltage());
+
+        mSimModel.setInputVoltage(talonSimState.getMotorVoltage());
+        mSimModel.update(dtSeconds);
+
+        talonSimState.setRawRotorPosition(mSimModel.getPosition() * Settings.kRotorToSensorRatio);
+        talonSimState.setRotorVelocity(mSimModel.getVelocity() * Settings.kRotorToSensorRatio);
+        // The CANcoder adds its magnet offset to the raw position
+        cancoderSimState.setRawPosition(mSimModel.getPosition() - Settings.kZeroOffset);
+        cancoderSimState.setVelocity(mSimModel.getVelocity());
+    }
+
+    @Override
+    public void updateInputs(RushinatorPivotIOInputs inputs) {
+        // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+        inputs.absolutePositionRotations = mAbsolutePositionSignal.getValueAsDouble();
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+        inputs.relativePositionRotations = mRelativePositionSignal.getValueAsDouble();
+        inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mTalonPivot.setVoltage(volts);
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations) {
+        mTalonPivot.setControl(mMotionMagicRequest.withPosition(positionRotations));
+    }
+}
@@ -1,14 +1,14 @@
 package frc.robot.rushinator;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
+import org.littletonrobotics.junction.Logger;
 
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.algaeflywheel.AlgaeRoller;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.robot.Robot;
 
 
 public class RushinatorRollers extends SubsystemBase {
@@ -21,37 +21,49 @@ public class RushinatorRollers extends SubsystemBase {
     }
 
     private static RushinatorRollers mInstance;
-    private final TalonFX mTalonWheel;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Rollers");
+    private final RushinatorRollersIO mIO;
+    private final RushinatorRollersIOInputsAutoLogged mInputs = new RushinatorRollersIOInputsAutoLogged();
+    private final DoubleChannel mVelocityTelemetry = Telemetry.doubleChannel("Wheel Velocity (RPM)");
 
-    private RushinatorRollers() {
-        mTalonWheel = new TalonFX(Settings.kTopID);
-        mTalonWheel.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+    RushinatorRollers(RushinatorRollersIO io) {
+        mIO = io;
     }
 
     public static RushinatorRollers getInstance() {
         if (mInstance == null) {
-            mInstance = new RushinatorRollers();
+            mInstance = new RushinatorRollers(switch (Robot.Settings.kMode) {
+                case kReal -> new RushinatorRollersIOTalonFX();
+                case kSim -> new RushinatorRollersIOSim();
+                case kReplay -> new RushinatorRollersIO() {};
+            });
         }
         return mInstance;
     }
 
     public void setFlywheelVoltage(double voltage) {
-        mTalonWheel.setVoltage(voltage);
+        mIO.setVoltage(voltage);
     }
 
     public void setFlywheelVelocity(Rotation2d velocity) {
-        mTalonWheel.setControl(new VelocityVoltage(velocity.getRotations()));
+        mIO.setVelocity(velocity.getRotations());
     }
 
 
     public Rotation2d getWheelVelocity() {
-        return Rotation2d.fromRotations(mTalonWheel.getVelocity().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.velocityRotationsPerSec);
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("Wheel Velocity (RPM)", getWheelVelocity().getRotations() * 60.0);
-        
+        mLoopSection.begin();
+
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Rollers", mInputs);
+
+        mVelocityTelemetry.set(mInputs.velocityRotationsPerSec * 60.0);
+
+        Logger.recordOutput("Rollers/VelocityRPS", mInputs.velocityRotationsPerSec);
     }
 
     public static class DefaultCommand extends Command {
@@ -0,0 +1,24 @@
+package frc.robot.rushinator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware interface for the coral rollers. Velocities are in rotations of the roller motor.
+ *
+ * <p>Every method has an empty default, so <code>new RushinatorRollersIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface RushinatorRollersIO {
+    @AutoLog
+    public static class RushinatorRollersIOInputs {
+        public double velocityRotationsPerSec = 0.0;
+        public double appliedVolts = 0.0;
+    }
+
+    default void updateInputs(RushinatorRollersIOInputs inputs) {}
+
+    default void setVoltage(double volts) {}
+
+    /** Runs the velocity loop on the motor controller, with its slot 0 gains. */
+    default void setVelocity(double velocityRotationsPerSec) {}
+}
@@ -0,0 +1,36 @@
+package frc.robot.rushinator;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+
+/** Physics model of the coral rollers, with no coral loaded. */
+public class RushinatorRollersIOSim implements RushinatorRollersIO {
+    // Estimated from CAD, the rollers are direct drive
+    private static final double kGearing = 1.0;
+    private static final double kMOIKgMetersSquared = 0.001;
+
+    private final MechanismSim mSim = MechanismSim.roller(DCMotor.getKrakenX60(1), kGearing, kMOIKgMetersSquared);
+    private double mAppliedVolts = 0.0;
+
+    @Override
+    public void updateInputs(RushinatorRollersIOInputs inputs) {
+        mSim.setInputVoltage(mAppliedVolts);
+        mSim.update(TimedRobot.kDefaultPeriod);
+
+        inputs.velocityRotationsPerSec = mSim.getVelocity();
+        inputs.appliedVolts = mSim.getInputVoltage();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mAppliedVolts = volts;
+    }
+
+    @Override
+    public void setVelocity(double velocityRotationsPerSec) {
+        // Slot 0 is never configured on the TalonFX, so with zero gains a velocity request puts out
+        // nothing. The model does the same rather than pretend the loop is tuned.
+        mAppliedVolts = 0.0;
+    }
+}
@@ -0,0 +1,46 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.rushinator.RushinatorRollers.Settings;
+
+/** Coral rollers driven by a single TalonFX. */
+public class RushinatorRollersIOTalonFX implements RushinatorRollersIO {
+    private final TalonFX mTalonWheel;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+
+    private final VelocityVoltage mVelocityRequest = new VelocityVoltage(0.0);
+
+    public RushinatorRollersIOTalonFX() {
+        mTalonWheel = new TalonFX(Settings.kTopID);
+        mTalonWheel.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mVelocitySignal = mTalonWheel.getVelocity(false);
+        mMotorVoltageSignal = mTalonWheel.getMotorVoltage(false);
+        StatusSignalRegistry.getInstance().register(mTalonWheel, mVelocitySignal, mMotorVoltageSignal);
+    }
+
+    @Override
+    public void updateInputs(RushinatorRollersIOInputs inputs) {
+        // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+        inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mTalonWheel.setVoltage(volts);
+    }
+
+    @Override
+    public void setVelocity(double velocityRotationsPerSec) {
+        mTalonWheel.setControl(mVelocityRequest.withVelocity(velocityRotationsPerSec));
+    }
+}
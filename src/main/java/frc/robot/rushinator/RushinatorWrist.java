@@ -2,26 +2,24 @@ package frc.robot.rushinator;
 
 import static edu.wpi.first.units.Units.Rotation;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MagnetSensorConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
+import org.littletonrobotics.junction.Logger;
+
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.math.ProfiledController;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.MechanismControlMode;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.crevolib.util.Telemetry.StringChannel;
+import frc.robot.Robot;
 import frc.robot.rushinator.commands.SetWristState;
 
 public class RushinatorWrist extends SubsystemBase {
@@ -44,6 +42,14 @@ public class RushinatorWrist extends SubsystemBase {
 
         public static final double kZeroOffset = 0.505126953125; // rotations
 
+        // kRioProfiled runs the ProfiledController on the RIO, kMotionMagic runs the profile on
+        // the TalonFX with the CANcoder as its feedback sensor
+        static final MechanismControlMode kControlMode = MechanismControlMode.kRioProfiled;
+        // FusedCANcoder requires Phoenix Pro and an accurate kRotorToSensorRatio
+        static final FeedbackSensorSourceValue kFeedbackSource = FeedbackSensorSourceValue.RemoteCANcoder;
+        static final double kRotorToSensorRatio = 1.0;
+        static final double kMMCruiseVelocity = 4.0; // rot / sec
+        static final double kMMAcceleration = 16.0; // rot / sec^2
     }
 // 12.3720703125 Score MId
 /*
@@ -108,34 +114,40 @@ public class RushinatorWrist extends SubsystemBase {
     }
 
 
-    private final CANcoder mWristCancoder;
-    public TalonFX mWristTalon;
-    private final ProfiledPIDController mPPIDController;
+    private final RushinatorWristIO mIO;
+    private final RushinatorWristIOInputsAutoLogged mInputs = new RushinatorWristIOInputsAutoLogged();
+    private final ProfiledController mPPIDController;
     private final SimpleMotorFeedforward mFFController;
     private final PIDController mPIDController;
+
+    private MechanismControlMode mControlMode = MechanismControlMode.kRioProfiled;
+    private double mTargetPosition = 0.0;
+
+    private final DoubleChannel mPIDOutputTelemetry = Telemetry.doubleChannel("PID Output");
+    private final DoubleChannel mFFOutputTelemetry = Telemetry.doubleChannel("FF Output");
+    private final DoubleChannel mVoltageTelemetry = Telemetry.doubleChannel("Output Voltage");
+    private final StringChannel mStateTelemetry = Telemetry.stringChannel("KLastState Wrist Pivot", Level.kCompetition);
+    private final DoubleChannel mPositionTelemetry = Telemetry.doubleChannel("Coral Wrist Current Angle (Rotations)", Level.kCompetition);
+    private final DoubleChannel mRelativePositionTelemetry = Telemetry.doubleChannel("Coral Wrist Pivot (Rotations Relavtive)");
+    private final DoubleChannel mVelocityTelemetry = Telemetry.doubleChannel("Coral WRist Current Vel");
+    private final DoubleChannel mTargetPositionTelemetry = Telemetry.doubleChannel("Coral Wrist Target Pos");
+    private final DoubleChannel mTargetVelocityTelemetry = Telemetry.doubleChannel("Coral Wrist Target Vel");
     
     // private final ArmFeedforward mFFController;
     
-    public static State kLastState;
+    private State mTargetState;
     
-    public RushinatorWrist() {  
-        mWristTalon = new TalonFX(Settings.kTalonWristID);
-        mWristTalon.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
-                .withInverted(InvertedValue.CounterClockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        ));
-        mWristTalon.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-
-        mWristCancoder =  new CANcoder(Settings.kCancoderWristID);
-        mWristCancoder.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
-                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
-                withMagnetOffset(Settings.kZeroOffset)
-        ));
-
-        mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
-                Settings.kMaxVelocity.getRadians(),
-                Settings.kMaxAcceleration.getRadians()
-        ));
+    /**
+     * Public so the superstructure can be tested against the sim IO, use {@link #getInstance()} in
+     * robot code.
+     *
+     * @param io hardware, simulation or replay
+     */
+    public RushinatorWrist(RushinatorWristIO io) {
+        mIO = io;
+
+        mPPIDController = new ProfiledController(Settings.kP, Settings.kI, Settings.kD,
+                Settings.kMaxVelocity.getRadians(), Settings.kMaxAcceleration.getRadians());
         mPPIDController.setTolerance(0.01); //degrees of tolerance
 
         mPIDController = new PIDController(Settings.kP, Settings.kI, Settings.kD);
@@ -143,78 +155,142 @@ public class RushinatorWrist extends SubsystemBase {
 
         mFFController = new SimpleMotorFeedforward(Settings.kS, Settings.kV, Settings.kA);
 
-        if (kLastState == null) {
-            kLastState = State.kTravelRight;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRotations());
+        mTargetState = State.kTravelRight;
+        mPPIDController.setGoal(mTargetState.pos.getRotations());
+        mTargetPosition = mTargetState.pos.getRotations();
+        setControlMode(Settings.kControlMode);
     }
 
     private static RushinatorWrist mInstance;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Wrist");
     public static RushinatorWrist getInstance() {
         if (mInstance == null) {
-            mInstance = new RushinatorWrist();
+            mInstance = new RushinatorWrist(switch (Robot.Settings.kMode) {
+                case kReal -> new RushinatorWristIOTalonFX();
+                case kSim -> Robot.Settings.kSimulateDevices ? new RushinatorWristIOTalonFX() : new RushinatorWristIOSim();
+                case kReplay -> new RushinatorWristIO() {};
+            });
         }
         return mInstance;
     }
 
     public Rotation2d getWristRelativePos() {
-        return Rotation2d.fromRotations(mWristTalon.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.relativePositionRotations);
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        mTargetState = targetState;
         setTargetPosition(targetState.pos);
     }
 
     public void setTargetPosition(Rotation2d targetPosition) {
         mPPIDController.setGoal(targetPosition.getRotations());
         mPIDController.setSetpoint(targetPosition.getRotations());
+        mTargetPosition = targetPosition.getRotations();
+    }
+
+    /**
+     * Selects whether the motion profile runs on the RIO or on the TalonFX. When falling back to
+     * the RIO, the profile is restarted from the current state so the wrist does not jump.
+     *
+     * @param controlMode where to run the profile
+     */
+    public void setControlMode(MechanismControlMode controlMode) {
+        if (controlMode == mControlMode) {
+            return;
+        }
+        if (controlMode == MechanismControlMode.kRioProfiled) {
+            mPPIDController.reset(getCurrentPos().getRotations());
+        }
+        // The RIO loop negates its output, the TalonFX needs positive output to move the CANcoder
+        // positive instead, so the IO flips the motor invert to match
+        mIO.setControlMode(controlMode);
+        mControlMode = controlMode;
+    }
+
+    public MechanismControlMode getControlMode() {
+        return mControlMode;
     }
 
     public void setVoltage(double voltage) {
-        mWristTalon.setVoltage(voltage);
+        mIO.setVoltage(voltage);
     }
 
     public double getMotorOutputVoltage() {
-        return mWristTalon.getMotorVoltage().getValueAsDouble();
+        return mInputs.appliedVolts;
     }
 
     public boolean atSetpoint() {
         return mPPIDController.atGoal();
     }
 
-    public State getCurrentWristState() {
-        return kLastState;
+    /** @return the last state passed to {@link #setTargetState} */
+    public State getTargetState() {
+        return mTargetState;
     }
 
     public Rotation2d getCurrentPos() {
-        return Rotation2d.fromRotations(mWristCancoder.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.absolutePositionRotations);
+    }
+
+    /**
+     * Checks the measured position against the target, whether it came from a state or a position.
+     *
+     * @param toleranceRotations allowed error in rotations
+     * @return true if the wrist is within the tolerance of its target
+     */
+    public boolean isAtTarget(double toleranceRotations) {
+        return Math.abs(mInputs.absolutePositionRotations - mTargetPosition) <= toleranceRotations;
     }
 
     public Rotation2d getCurrentRelativePos() {
-        return Rotation2d.fromRotations(mWristTalon.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.relativePositionRotations);
     }
 
     @Override
     public void periodic() {
-        double pidOutput = mPPIDController.calculate(getCurrentPos().getRotations());
-        // double pidOutput = mPIDController.calculate(getCurrentPos().getRotations());
-        // double ffOutput = mFFController.calculate(getWristRelativePos().getRotations(), mPPIDController.getSetpoint().velocity);
-        double ffOutput = mFFController.calculate(mPPIDController.getSetpoint().velocity);
-        double totalOutputVoltage = pidOutput + ffOutput;
-        mWristTalon.setVoltage(-totalOutputVoltage);
+        mLoopSection.begin();
+
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Wrist", mInputs);
+
+        double pidOutput = 0.0;
+        double ffOutput = 0.0;
+        double totalOutputVoltage;
+        if (mControlMode == MechanismControlMode.kMotionMagic) {
+            mIO.setMotionMagicPosition(mTargetPosition);
+            // Motor is inverted in this mode, so the applied voltage already matches the RIO sign
+            totalOutputVoltage = mInputs.appliedVolts;
+        } else {
+            // Read the input directly, getCurrentPos() would allocate a Rotation2d every loop
+            pidOutput = mPPIDController.calculate(mInputs.absolutePositionRotations);
+            // double pidOutput = mPIDController.calculate(getCurrentPos().getRotations());
+            // double ffOutput = mFFController.calculate(getWristRelativePos().getRotations(), mPPIDController.getSetpoint().velocity);
+            ffOutput = mFFController.calculate(mPPIDController.getSetpoint().velocity);
+            totalOutputVoltage = pidOutput + ffOutput;
+            mIO.setVoltage(-totalOutputVoltage);
+        }
         
 
-        SmartDashboard.putNumber("PID Output", pidOutput);
-        SmartDashboard.putNumber("FF Output", ffOutput);
-        SmartDashboard.putNumber("Output Voltage", totalOutputVoltage);
-        SmartDashboard.putString("KLastState Wrist Pivot", kLastState.name());
-        SmartDashboard.putNumber("Coral Wrist Current Angle (Rotations)", getCurrentPos().getRotations());
-        SmartDashboard.putNumber("Coral Wrist Pivot (Rotations Relavtive)", mWristTalon.getPosition().getValueAsDouble());
-        SmartDashboard.putNumber("Coral WRist Current Vel", mWristTalon.getVelocity().getValueAsDouble());
-
-        SmartDashboard.putNumber("Coral Wrist Target Pos", mPPIDController.getSetpoint().position);
-        SmartDashboard.putNumber("Coral Wrist Target Vel", mPPIDController.getSetpoint().velocity);
+        mPIDOutputTelemetry.set(pidOutput);
+        mFFOutputTelemetry.set(ffOutput);
+        mVoltageTelemetry.set(totalOutputVoltage);
+        mStateTelemetry.set(mTargetState.name());
+        mPositionTelemetry.set(mInputs.absolutePositionRotations);
+        mRelativePositionTelemetry.set(mInputs.relativePositionRotations);
+        mVelocityTelemetry.set(mInputs.relativeVelocityRotationsPerSec);
+
+        mTargetPositionTelemetry.set(mPPIDController.getSetpoint().position);
+        mTargetVelocityTelemetry.set(mPPIDController.getSetpoint().velocity);
+
+        Logger.recordOutput("Wrist/State", mTargetState);
+        Logger.recordOutput("Wrist/ControlMode", mControlMode);
+        Logger.recordOutput("Wrist/TargetPosition", mTargetPosition);
+        Logger.recordOutput("Wrist/SetpointPosition", mPPIDController.getSetpoint().position);
+        Logger.recordOutput("Wrist/SetpointVelocity", mPPIDController.getSetpoint().velocity);
+        Logger.recordOutput("Wrist/PIDOutput", pidOutput);
+        Logger.recordOutput("Wrist/FFOutput", ffOutput);
+        Logger.recordOutput("Wrist/Voltage", totalOutputVoltage);
     }
 
     public static class DefaultCommand extends Command {
@@ -0,0 +1,35 @@
+package frc.robot.rushinator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+import frc.crevolib.util.MechanismControlMode;
+
+/**
+ * Hardware interface for the coral wrist. Absolute positions are CANcoder rotations of the wrist,
+ * relative positions are rotations of the motor.
+ *
+ * <p>Every method has an empty default, so <code>new RushinatorWristIO() {}</code> is the replay
+ * implementation: inputs are filled in from the log and outputs go nowhere.
+ */
+public interface RushinatorWristIO {
+    @AutoLog
+    public static class RushinatorWristIOInputs {
+        public double absolutePositionRotations = 0.0;
+        public double relativePositionRotations = 0.0;
+        public double relativeVelocityRotationsPerSec = 0.0;
+        public double appliedVolts = 0.0;
+    }
+
+    default void updateInputs(RushinatorWristIOInputs inputs) {}
+
+    default void setVoltage(double volts) {}
+
+    /** Runs Motion Magic on the motor controller, with the CANcoder as the feedback sensor. */
+    default void setMotionMagicPosition(double positionRotations) {}
+
+    /**
+     * Reconfigures the motor for a control mode. The RIO loop drives the motor in the opposite
+     * direction to the CANcoder, Motion Magic needs them to agree.
+     */
+    default void setControlMode(MechanismControlMode controlMode) {}
+}
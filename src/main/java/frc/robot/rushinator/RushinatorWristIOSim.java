@@ -0,0 +1,69 @@
+package frc.robot.rushinator;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.SimMotionMagic;
+import frc.crevolib.util.MechanismControlMode;
+import frc.robot.Robot;
+import frc.robot.rushinator.RushinatorWrist.Settings;
+
+/**
+ * Physics model of the coral wrist. Does not touch any CTRE device, so it runs as fast as the loop
+ * is called. The wrist is balanced about its axis, so gravity is ignored.
+ */
+public class RushinatorWristIOSim implements RushinatorWristIO {
+    private static final int kSubsteps = (int) Math.ceil(TimedRobot.kDefaultPeriod / Robot.Settings.kSimStepPeriodSecs);
+    private static final double kSubstepSecs = TimedRobot.kDefaultPeriod / kSubsteps;
+
+    private final MechanismSim mSim = createModel();
+    private final SimMotionMagic mMotionMagic = new SimMotionMagic(
+            Settings.kMMCruiseVelocity, Settings.kMMAcceleration,
+            Settings.kP, Settings.kI, Settings.kD, Settings.kS, Settings.kV, Settings.kA
+    );
+    private double mAppliedVolts = 0.0;
+    // Positive motor output turns the wrist negative unless the motor is inverted for Motion Magic
+    private double mMotorDirection = -1.0;
+
+    /**
+     * Creates the wrist model from its feedforward constants, in rotations of the wrist. The wrist
+     * spins freely, so there are no hard stops. Shared with the simulated devices in
+     * {@link RushinatorWristIOTalonFX}.
+     */
+    static MechanismSim createModel() {
+        return new MechanismSim(Settings.kS, Settings.kV, Settings.kA, position -> 0.0,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                RushinatorWrist.State.kTravelRight.pos.getRotations());
+    }
+
+    @Override
+    public void updateInputs(RushinatorWristIOInputs inputs) {
+        for (int i = 0; i < kSubsteps; i++) {
+            if (mMotionMagic.isActive()) {
+                mAppliedVolts = mMotionMagic.calculate(mSim.getPosition(), kSubstepSecs);
+            }
+            mSim.setInputVoltage(mAppliedVolts * mMotorDirection);
+            mSim.update(kSubstepSecs);
+        }
+
+        inputs.absolutePositionRotations = mSim.getPosition();
+        inputs.relativePositionRotations = mSim.getPosition() * Settings.kRotorToSensorRatio * mMotorDirection;
+        inputs.relativeVelocityRotationsPerSec = mSim.getVelocity() * Settings.kRotorToSensorRatio * mMotorDirection;
+        inputs.appliedVolts = mSim.getInputVoltage() * mMotorDirection;
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mMotionMagic.stop();
+        mAppliedVolts = volts;
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations) {
+        mMotionMagic.setGoal(positionRotations, mSim.getPosition(), mSim.getVelocity());
+    }
+
+    @Override
+    public void setControlMode(MechanismControlMode controlMode) {
+        mMotorDirection = controlMode == MechanismControlMode.kMotionMagic ? 1.0 : -1.0;
+    }
+}
@@ -0,0 +1,137 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MagnetSensorConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+import com.ctre.phoenix6.sim.ChassisReference;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.crevolib.sim.MechanismSim;
+import frc.crevolib.sim.PhysicsSim;
+import frc.crevolib.util.MechanismControlMode;
+import frc.crevolib.util.StatusSignalRegistry;
+import frc.robot.rushinator.RushinatorWrist.Settings;
+
+/**
+ * Coral wrist driven by a TalonFX, with a CANcoder on the wrist. In simulation both devices are
+ * driven by the wrist's physics model.
+ */
+public class RushinatorWristIOTalonFX implements RushinatorWristIO {
+    private final TalonFX mWristTalon;
+    private final CANcoder mWristCancoder;
+    private final StatusSignal<Angle> mRelativePositionSignal;
+    private final StatusSignal<AngularVelocity> mRelativeVelocitySignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+    private final StatusSignal<Angle> mCancoderPositionSignal;
+
+    private final MotionMagicVoltage mMotionMagicRequest = new MotionMagicVoltage(0.0);
+
+    private MechanismSim mSimModel = null;
+
+    public RushinatorWristIOTalonFX() {
+        mWristTalon = new TalonFX(Settings.kTalonWristID);
+        mWristTalon.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
+                .withInverted(InvertedValue.CounterClockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        ));
+        mWristTalon.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mWristCancoder =  new CANcoder(Settings.kCancoderWristID);
+        mWristCancoder.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
+                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
+                withMagnetOffset(Settings.kZeroOffset)
+        ));
+
+        mWristTalon.getConfigurator().apply(new Slot0Configs()
+                .withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+        );
+        mWristTalon.getConfigurator().apply(new MotionMagicConfigs()
+                .withMotionMagicCruiseVelocity(Settings.kMMCruiseVelocity)
+                .withMotionMagicAcceleration(Settings.kMMAcceleration)
+        );
+        mWristTalon.getConfigurator().apply(new FeedbackConfigs()
+                .withFeedbackRemoteSensorID(Settings.kCancoderWristID)
+                .withFeedbackSensorSource(Settings.kFeedbackSource)
+                .withRotorToSensorRatio(Settings.kRotorToSensorRatio)
+        );
+
+        mRelativePositionSignal = mWristTalon.getPosition(false);
+        mRelativeVelocitySignal = mWristTalon.getVelocity(false);
+        mMotorVoltageSignal = mWristTalon.getMotorVoltage(false);
+        mCancoderPositionSignal = mWristCancoder.getPosition(false);
+        StatusSignalRegistry.getInstance().register(mWristTalon, mRelativePositionSignal, mRelativeVelocitySignal, mMotorVoltageSignal);
+        StatusSignalRegistry.getInstance().register(mWristCancoder, mCancoderPositionSignal);
+
+        if (RobotBase.isSimulation()) {
+            mSimModel = RushinatorWristIOSim.createModel();
+            // Orientation is the physical mounting, so it does not follow the invert that
+            // setControlMode applies. A positive rotor turns the wrist negative
+            mWristTalon.getSimState().Orientation = ChassisReference.CounterClockwise_Positive;
+            mWristCancoder.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+            PhysicsSim.getInstance().register(this::updateSimState);
+        }
+    }
+
+    /** Runs on the physics thread, see {@link PhysicsSim}. */
+    private void updateSimState(double dtSeconds) {
+        var talonSimState = mWristTalon.getSimState();
+        var cancoderSimState = mWristCancoder.getSimState();
+        talonSimState.setSupplyVoltage(RobotController.getBatteryVoltage());
+        cancoderSimState.setSupplyVoltage(RobotController.getBatteryVoltage());
+
+        mSimModel.setInputVoltage(-talonSimState.getMotorVoltage());
+        mSimModel.update(dtSeconds);
+
+        talonSimState.setRawRotorPosition(-mSimModel.getPosition() * Settings.kRotorToSensorRatio);
+        talonSimState.setRotorVelocity(-mSimModel.getVelocity() * Settings.kRotorToSensorRatio);
+        // The CANcoder adds its magnet offset to the raw position
+        cancoderSimState.setRawPosition(mSimModel.getPosition() - Settings.kZeroOffset);
+        cancoderSimState.setVelocity(mSimModel.getVelocity());
+    }
+
+    @Override
+    public void updateInputs(RushinatorWristIOInputs inputs) {
+        // Signals are refreshed by the StatusSignalRegistry at the top of the loop
+        inputs.absolutePositionRotations = mCancoderPositionSignal.getValueAsDouble();
+        inputs.relativePositionRotations = mRelativePositionSignal.getValueAsDouble();
+        inputs.relativeVelocityRotationsPerSec = mRelativeVelocitySignal.getValueAsDouble();
+        inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        mWristTalon.setVoltage(volts);
+    }
+
+    @Override
+    public void setMotionMagicPosition(double positionRotations) {
+        mWristTalon.setControl(mMotionMagicRequest.withPosition(positionRotations));
+    }
+
+    @Override
+    public void setControlMode(MechanismControlMode controlMode) {
+        mWristTalon.getConfigurator().apply(new MotorOutputConfigs()
+                .withInverted(controlMode == MechanismControlMode.kMotionMagic
+                        ? InvertedValue.Clockwise_Positive
+                        : InvertedValue.CounterClockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        );
+    }
+}
@@ -6,7 +6,7 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.rushinator.RushinatorPivot;
 import frc.robot.rushinator.RushinatorWrist;
-import frc.robot.rushinator.RushinatorWrist.State;
+import frc.robot.superstructure.Superstructure;
 
 public class ToggleWristState extends Command{
     RushinatorWrist mRushinatorWrist;
@@ -21,27 +21,7 @@ public class ToggleWristState extends Command{
 
     @Override
     public void initialize() {
-        System.out.println("Last State in Toggle Wrist" + RushinatorWrist.kLastState.name());
-        if(RushinatorWrist.kLastState == State.kScoreLeftWrist) {
-            System.out.println("First If");
-            mRushinatorWrist.setTargetState(RushinatorWrist.State.kScoreRightWrist);
-        }
-        else if(RushinatorWrist.kLastState == State.kScoreRightWrist) {
-            System.out.println("2nd If");
-            mRushinatorWrist.setTargetState(RushinatorWrist.State.kScoreLeftWrist);
-        }
-        else if(RushinatorWrist.kLastState == State.kTravelLeft) {
-            System.out.println("3rd If");
-            mRushinatorWrist.setTargetState(RushinatorWrist.State.kTravelRight);
-        }
-        else if(RushinatorWrist.kLastState == State.kTravelRight) {
-            System.out.println("Fourth If");
-            mRushinatorWrist.setTargetState(RushinatorWrist.State.kTravelLeft);
-        }
-        else {
-            System.out.println("Else");
-            mRushinatorWrist.setTargetState(RushinatorWrist.kLastState);
-        }
+        mRushinatorWrist.setTargetState(Superstructure.mirror(mRushinatorWrist.getTargetState()));
     }
 
     @Override
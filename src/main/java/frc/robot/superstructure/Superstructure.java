@@ -0,0 +1,447 @@
+package frc.robot.superstructure;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.BooleanChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.crevolib.util.Telemetry.StringChannel;
+import frc.robot.algaepivot.AlgaeSubsystem;
+import frc.robot.elevator.ElevatorSubsystem;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+
+/**
+ * One place to ask what the elevator, coral arm, wrist and algae pivot are doing. Each mechanism
+ * keeps the state it was last sent to, this reads them back and answers questions about them from
+ * tables built once: which side the wrist is on, which reef level the elevator is at, and what kind
+ * of pose the mechanisms are in. Readiness, every mechanism at its target, is worked out once per
+ * loop in {@link #periodic()} so triggers and commands only read it.
+ *
+ * <p>The wrist's side flips and the travel pose for each side are also kept here as tables, so a new
+ * wrist state only needs an entry below instead of another clause in every condition that checks the
+ * side.
+ *
+ * <p>Moves that involve the elevator, arm and wrist together are asked for as a {@link Goal}, see
+ * {@link #setGoal}. The goal's states and the order the mechanisms move in are both looked up from
+ * tables, and {@link #periodic()} sends each mechanism its part of the goal once the order allows.
+ * The goal a move comes from is worked out from the mechanisms' targets, see {@link #goalOf}, so the
+ * order is right however the mechanisms got there. Commands that set a single mechanism still work
+ * as before; a goal only drives the mechanisms while one is set.
+ */
+public class Superstructure extends SubsystemBase {
+    public static class Settings {
+        static final double kArmToleranceRotations = 2.0 / 360.0;
+        static final double kWristToleranceRotations = 3.0 / 360.0;
+        static final double kElevatorToleranceRotations = 0.5;
+    }
+
+    /** What a mechanism state is for. Each state has a set of these, see {@link #getTags}. */
+    public enum Tag {
+        // Wrist side. Mid poses that hand the coral to the right side count as right.
+        kLeft, kRight,
+        // Reef level the elevator or wrist is set up for
+        kL1, kL2, kL3, kL4,
+        // Kind of pose
+        kTravel, kScore, kIntake, kAlgae, kClimb
+    }
+
+    /**
+     * A pose of the elevator, arm and wrist together. The wrist pose is picked for the side the wrist
+     * is on when the goal is set.
+     */
+    public enum Goal {
+        kStow(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel,
+            RushinatorWrist.State.kTravelLeft, RushinatorWrist.State.kTravelRight),
+        kL1(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kScoreL1,
+            RushinatorWrist.State.kScoreL1Mid, RushinatorWrist.State.kScoreL1Mid),
+        kL2(ElevatorSubsystem.State.kCoralL2, RushinatorPivot.State.kStowTravel,
+            RushinatorWrist.State.kTravelLeft, RushinatorWrist.State.kTravelRight),
+        kL3(ElevatorSubsystem.State.kCoralL3, RushinatorPivot.State.kStowTravel,
+            RushinatorWrist.State.kTravelLeft, RushinatorWrist.State.kTravelRight),
+        kL4(ElevatorSubsystem.State.kCoralL4, RushinatorPivot.State.kStowL4,
+            RushinatorWrist.State.kTravelL4Left, RushinatorWrist.State.kTravelL4Right),
+        kHPIntake(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kHPIntake,
+            RushinatorWrist.State.kHPMid, RushinatorWrist.State.kHPMid),
+        kGroundIntake(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kFloorIntake,
+            RushinatorWrist.State.kGroundMid, RushinatorWrist.State.kGroundMid);
+
+        public final ElevatorSubsystem.State elevatorState;
+        public final RushinatorPivot.State armState;
+        public final RushinatorWrist.State leftWristState;
+        public final RushinatorWrist.State rightWristState;
+
+        Goal(ElevatorSubsystem.State elevatorState, RushinatorPivot.State armState,
+                RushinatorWrist.State leftWristState, RushinatorWrist.State rightWristState) {
+            this.elevatorState = elevatorState;
+            this.armState = armState;
+            this.leftWristState = leftWristState;
+            this.rightWristState = rightWristState;
+        }
+    }
+
+    /** The order the mechanisms move in on the way to a goal. */
+    public enum Order {
+        // Everything is sent at once
+        kTogether,
+        // The arm and wrist wait for the elevator to reach its target
+        kElevatorFirst,
+        // The elevator waits for the arm and wrist to reach theirs
+        kArmFirst
+    }
+
+    private static final EnumMap<RushinatorWrist.State, EnumSet<Tag>> kWristTags = new EnumMap<>(RushinatorWrist.State.class);
+    private static final EnumMap<RushinatorWrist.State, RushinatorWrist.State> kWristMirror = new EnumMap<>(RushinatorWrist.State.class);
+    private static final EnumMap<ElevatorSubsystem.State, EnumSet<Tag>> kElevatorTags = new EnumMap<>(ElevatorSubsystem.State.class);
+    private static final EnumMap<RushinatorPivot.State, EnumSet<Tag>> kArmTags = new EnumMap<>(RushinatorPivot.State.class);
+    private static final Goal[] kGoals = Goal.values();
+    // From goal, to goal, order. Moves not listed here go together.
+    private static final EnumMap<Goal, EnumMap<Goal, Order>> kTransitions = new EnumMap<>(Goal.class);
+
+    static {
+        wrist(RushinatorWrist.State.kScoreLeftWrist, RushinatorWrist.State.kScoreRightWrist, RushinatorWrist.State.kScoreMid,
+            false, Tag.kScore);
+        wrist(RushinatorWrist.State.kScoreL4LeftWrist, RushinatorWrist.State.kScoreL4RightWrist, RushinatorWrist.State.kScoreL4Mid,
+            false, Tag.kScore, Tag.kL4);
+        wrist(RushinatorWrist.State.kScoreL3LeftWrist, RushinatorWrist.State.kScoreL3RightWrist, RushinatorWrist.State.kScoreL3Mid,
+            false, Tag.kScore, Tag.kL3);
+        wrist(RushinatorWrist.State.kScoreL2LeftWrist, RushinatorWrist.State.kScoreL2RightWrist, RushinatorWrist.State.kScoreL2Mid,
+            false, Tag.kScore, Tag.kL2);
+        wrist(RushinatorWrist.State.kScoreL1LeftWrist, RushinatorWrist.State.kScoreL1RightWrist, RushinatorWrist.State.kScoreL1Mid,
+            true, Tag.kScore, Tag.kL1);
+        wrist(RushinatorWrist.State.kHPLeft, RushinatorWrist.State.kHPRight, RushinatorWrist.State.kHPMid,
+            true, Tag.kIntake);
+        wrist(RushinatorWrist.State.kGroundLeft, RushinatorWrist.State.kGroundRight, RushinatorWrist.State.kGroundMid,
+            true, Tag.kIntake);
+        wrist(RushinatorWrist.State.kLoliLeft, RushinatorWrist.State.kLoliRight, RushinatorWrist.State.kLoliMid,
+            false, Tag.kIntake);
+        wrist(RushinatorWrist.State.kTravelLeft, RushinatorWrist.State.kTravelRight, RushinatorWrist.State.kTravelMid,
+            false, Tag.kTravel);
+        wrist(RushinatorWrist.State.kTravelL4Left, RushinatorWrist.State.kTravelL4Right, RushinatorWrist.State.kTravelL4Mid,
+            false, Tag.kTravel, Tag.kL4);
+        wrist(RushinatorWrist.State.kTravelAutoAlignL4Left, RushinatorWrist.State.kTravelAutonAlignL4Right, RushinatorWrist.State.kTravelAutonAlignL4Mid,
+            false, Tag.kTravel, Tag.kL4);
+        wrist(RushinatorWrist.State.kClimbLeft, RushinatorWrist.State.kClimblRight, RushinatorWrist.State.kClimblMid,
+            false, Tag.kClimb);
+
+        elevator(ElevatorSubsystem.State.kCoralL1, Tag.kTravel, Tag.kL1);
+        elevator(ElevatorSubsystem.State.kCoralL2, Tag.kTravel, Tag.kL2);
+        elevator(ElevatorSubsystem.State.kCoralScoreL2, Tag.kScore, Tag.kL2);
+        elevator(ElevatorSubsystem.State.kCoralL3, Tag.kTravel, Tag.kL3);
+        elevator(ElevatorSubsystem.State.kCoralScoreL3, Tag.kScore, Tag.kL3);
+        elevator(ElevatorSubsystem.State.kCoralL4AutonScore, Tag.kScore, Tag.kL4);
+        elevator(ElevatorSubsystem.State.kCoralL4, Tag.kTravel, Tag.kL4);
+        elevator(ElevatorSubsystem.State.kCoralScoreL4, Tag.kScore, Tag.kL4);
+        elevator(ElevatorSubsystem.State.kAlgaeL2, Tag.kAlgae, Tag.kL2);
+        elevator(ElevatorSubsystem.State.kAlgaeL3, Tag.kAlgae, Tag.kL3);
+        elevator(ElevatorSubsystem.State.kAlgaeIntake, Tag.kAlgae, Tag.kIntake);
+        elevator(ElevatorSubsystem.State.kAlgaeLoliIntake, Tag.kAlgae, Tag.kIntake);
+        elevator(ElevatorSubsystem.State.kClimb, Tag.kClimb);
+        elevator(ElevatorSubsystem.State.kZero, Tag.kTravel);
+
+        arm(RushinatorPivot.State.kFloorIntake, Tag.kIntake);
+        arm(RushinatorPivot.State.kHPIntake, Tag.kIntake);
+        arm(RushinatorPivot.State.kScore, Tag.kScore);
+        arm(RushinatorPivot.State.kScoreL1, Tag.kScore, Tag.kL1);
+        arm(RushinatorPivot.State.kScoreL2, Tag.kScore, Tag.kL2);
+        arm(RushinatorPivot.State.kScoreL3, Tag.kScore, Tag.kL3);
+        arm(RushinatorPivot.State.kScoreL4, Tag.kScore, Tag.kL4);
+        arm(RushinatorPivot.State.kScoreL4Auton, Tag.kScore, Tag.kL4);
+        arm(RushinatorPivot.State.kStowL4, Tag.kTravel, Tag.kL4);
+        arm(RushinatorPivot.State.kStowAutoAlignL4, Tag.kTravel, Tag.kL4);
+        arm(RushinatorPivot.State.kStowTravel, Tag.kTravel);
+        arm(RushinatorPivot.State.kLoliPop, Tag.kIntake);
+        arm(RushinatorPivot.State.kClimb, Tag.kClimb);
+        arm(RushinatorPivot.State.kTuck, Tag.kTravel);
+
+        // The intake poses reach out past the bumper, so the arm comes in before the elevator rises
+        // and the elevator is down before the arm reaches out
+        for (Goal level : EnumSet.of(Goal.kL2, Goal.kL3, Goal.kL4)) {
+            for (Goal intake : EnumSet.of(Goal.kHPIntake, Goal.kGroundIntake)) {
+                transition(intake, level, Order.kArmFirst);
+                transition(level, intake, Order.kElevatorFirst);
+            }
+        }
+    }
+
+    private static void transition(Goal from, Goal to, Order order) {
+        kTransitions.computeIfAbsent(from, k -> new EnumMap<>(Goal.class)).put(to, order);
+    }
+
+    private static void wrist(RushinatorWrist.State left, RushinatorWrist.State right, RushinatorWrist.State mid,
+            boolean midIsRight, Tag first, Tag... rest) {
+        EnumSet<Tag> tags = EnumSet.of(first, rest);
+        EnumSet<Tag> leftTags = EnumSet.copyOf(tags);
+        leftTags.add(Tag.kLeft);
+        EnumSet<Tag> rightTags = EnumSet.copyOf(tags);
+        rightTags.add(Tag.kRight);
+        kWristTags.put(left, leftTags);
+        kWristTags.put(right, rightTags);
+        kWristTags.put(mid, midIsRight ? EnumSet.copyOf(rightTags) : tags);
+        kWristMirror.put(left, right);
+        kWristMirror.put(right, left);
+        kWristMirror.put(mid, mid);
+    }
+
+    private static void elevator(ElevatorSubsystem.State state, Tag first, Tag... rest) {
+        kElevatorTags.put(state, EnumSet.of(first, rest));
+    }
+
+    private static void arm(RushinatorPivot.State state, Tag first, Tag... rest) {
+        kArmTags.put(state, EnumSet.of(first, rest));
+    }
+
+    private static Superstructure mInstance;
+    private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Superstructure");
+
+    private final ElevatorSubsystem mElevator;
+    private final RushinatorPivot mRushinatorPivot;
+    private final RushinatorWrist mRushinatorWrist;
+    private final AlgaeSubsystem mAlgaePivot;
+
+    private boolean mReady = false;
+
+    // The goal being driven, null when none is
+    private Goal mGoal = null;
+    private Order mOrder = Order.kTogether;
+    private RushinatorWrist.State mGoalWristState;
+    private boolean mElevatorSent, mArmSent;
+
+    private final StringChannel mSideTelemetry = Telemetry.stringChannel("Superstructure Side", Level.kCompetition);
+    private final BooleanChannel mReadyTelemetry = Telemetry.booleanChannel("Superstructure Ready", Level.kCompetition);
+
+    Superstructure(ElevatorSubsystem elevator, RushinatorPivot rushinatorPivot, RushinatorWrist rushinatorWrist,
+            AlgaeSubsystem algaePivot) {
+        mElevator = elevator;
+        mRushinatorPivot = rushinatorPivot;
+        mRushinatorWrist = rushinatorWrist;
+        mAlgaePivot = algaePivot;
+    }
+
+    public static Superstructure getInstance() {
+        if (mInstance == null) {
+            // Created after the mechanisms, so their periodic has read this loop's inputs before ours runs
+            mInstance = new Superstructure(ElevatorSubsystem.getInstance(), RushinatorPivot.getInstance(),
+                RushinatorWrist.getInstance(), AlgaeSubsystem.getInstance());
+        }
+        return mInstance;
+    }
+
+    /**
+     * Gets what a wrist state is for.
+     *
+     * @param state the wrist state
+     * @return the state's tags, do not modify
+     */
+    public static EnumSet<Tag> getTags(RushinatorWrist.State state) {
+        return kWristTags.get(state);
+    }
+
+    /**
+     * Gets what an elevator state is for.
+     *
+     * @param state the elevator state
+     * @return the state's tags, do not modify
+     */
+    public static EnumSet<Tag> getTags(ElevatorSubsystem.State state) {
+        return kElevatorTags.get(state);
+    }
+
+    /**
+     * Gets what an arm state is for.
+     *
+     * @param state the arm state
+     * @return the state's tags, do not modify
+     */
+    public static EnumSet<Tag> getTags(RushinatorPivot.State state) {
+        return kArmTags.get(state);
+    }
+
+    /**
+     * Gets the same wrist pose on the other side.
+     *
+     * @param state the wrist state
+     * @return the mirrored state, or the same state for mid poses
+     */
+    public static RushinatorWrist.State mirror(RushinatorWrist.State state) {
+        return kWristMirror.get(state);
+    }
+
+    /** @return the wrist travel pose on a side */
+    public static RushinatorWrist.State travelFor(boolean rightSide) {
+        return rightSide ? RushinatorWrist.State.kTravelRight : RushinatorWrist.State.kTravelLeft;
+    }
+
+    public ElevatorSubsystem.State getElevatorState() {
+        return mElevator.getTargetState();
+    }
+
+    public RushinatorPivot.State getArmState() {
+        return mRushinatorPivot.getTargetState();
+    }
+
+    public RushinatorWrist.State getWristState() {
+        return mRushinatorWrist.getTargetState();
+    }
+
+    public AlgaeSubsystem.State getAlgaeState() {
+        return mAlgaePivot.getTargetState();
+    }
+
+    /** @return true if the wrist is on the right side, or in a mid pose that counts as right */
+    public boolean isRightSide() {
+        return kWristTags.get(getWristState()).contains(Tag.kRight);
+    }
+
+    /**
+     * Checks the reef level the elevator is set up to place coral on. Algae states are not counted.
+     *
+     * @param level one of {@link Tag#kL1} to {@link Tag#kL4}
+     * @return true if the elevator is at a coral state for that level
+     */
+    public boolean isElevatorAt(Tag level) {
+        EnumSet<Tag> tags = kElevatorTags.get(getElevatorState());
+        return tags.contains(level) && !tags.contains(Tag.kAlgae);
+    }
+
+    /**
+     * Gets the order the mechanisms move in between two goals.
+     *
+     * @param from the goal the robot is coming from, or null if unknown
+     * @param to the goal being set
+     * @return the order from the transition table
+     */
+    public static Order getOrder(Goal from, Goal to) {
+        if (from == null) {
+            return Order.kTogether;
+        }
+        final EnumMap<Goal, Order> row = kTransitions.get(from);
+        final Order order = row == null ? null : row.get(to);
+        return order == null ? Order.kTogether : order;
+    }
+
+    /**
+     * Works out which goal the mechanisms are at, or on their way to, from their targets. A goal
+     * whose elevator and arm states match is used first. Otherwise the intake arm states stand for the
+     * intake goals, and a coral elevator state for its reef level's goal.
+     *
+     * @param elevatorState the elevator's target
+     * @param armState the arm's target
+     * @return the goal, or null if the targets do not stand for one
+     */
+    public static Goal goalOf(ElevatorSubsystem.State elevatorState, RushinatorPivot.State armState) {
+        for (Goal goal : kGoals) {
+            if (goal.elevatorState == elevatorState && goal.armState == armState) {
+                return goal;
+            }
+        }
+        if (armState == RushinatorPivot.State.kHPIntake) {
+            return Goal.kHPIntake;
+        }
+        if (armState == RushinatorPivot.State.kFloorIntake) {
+            return Goal.kGroundIntake;
+        }
+        final EnumSet<Tag> tags = kElevatorTags.get(elevatorState);
+        if (tags == null || tags.contains(Tag.kAlgae)) {
+            return null;
+        }
+        if (tags.contains(Tag.kL4)) {
+            return Goal.kL4;
+        }
+        if (tags.contains(Tag.kL3)) {
+            return Goal.kL3;
+        }
+        if (tags.contains(Tag.kL2)) {
+            return Goal.kL2;
+        }
+        return null;
+    }
+
+    /**
+     * Starts driving the elevator, arm and wrist to a goal, in the order the transition table gives
+     * for the move from the goal the mechanisms are at now, see {@link #goalOf}. Whatever can be sent
+     * right away is sent before this returns. The goal is driven from {@link #periodic()} until
+     * {@link #clearGoal()} is called.
+     *
+     * @param goal the goal
+     */
+    public void setGoal(Goal goal) {
+        mOrder = getOrder(goalOf(getElevatorState(), getArmState()), goal);
+        mGoal = goal;
+        mGoalWristState = isRightSide() ? goal.rightWristState : goal.leftWristState;
+        mElevatorSent = false;
+        mArmSent = false;
+        driveGoal();
+    }
+
+    /** Stops driving the goal. Mechanisms keep whatever target they were last sent. */
+    public void clearGoal() {
+        mGoal = null;
+    }
+
+    /** @return the order the goal being driven moves in */
+    public Order getGoalOrder() {
+        return mOrder;
+    }
+
+    /** @return the goal being driven, or null */
+    public Goal getGoal() {
+        return mGoal;
+    }
+
+    /** @return the wrist travel pose on the side the wrist is on */
+    public RushinatorWrist.State getTravelState() {
+        return travelFor(isRightSide());
+    }
+
+    /** @return true if the elevator, arm and wrist were all at their targets at the start of this loop */
+    public boolean isReady() {
+        return mReady;
+    }
+
+    @Override
+    public void periodic() {
+        mLoopSection.begin();
+
+        mReady = mElevator.isAtTarget(Settings.kElevatorToleranceRotations)
+            && mRushinatorPivot.isAtTarget(Settings.kArmToleranceRotations)
+            && mRushinatorWrist.isAtTarget(Settings.kWristToleranceRotations);
+        if (mGoal != null) {
+            driveGoal();
+        }
+
+        final boolean rightSide = isRightSide();
+        mSideTelemetry.set(rightSide ? "Right" : "Left");
+        mReadyTelemetry.set(mReady);
+
+        Logger.recordOutput("Superstructure/RightSide", rightSide);
+        Logger.recordOutput("Superstructure/Ready", mReady);
+        Logger.recordOutput("Superstructure/ElevatorState", getElevatorState());
+        Logger.recordOutput("Superstructure/ArmState", getArmState());
+        Logger.recordOutput("Superstructure/WristState", getWristState());
+        Logger.recordOutput("Superstructure/AlgaeState", getAlgaeState());
+        Logger.recordOutput("Superstructure/Goal", mGoal == null ? "None" : mGoal.name());
+        Logger.recordOutput("Superstructure/Order", mOrder);
+    }
+
+    // Sends each mechanism its part of the goal once the order allows it, each only once
+    private void driveGoal() {
+        if (!mElevatorSent && (mOrder != Order.kArmFirst || mArmSent
+                && mRushinatorPivot.isAtTarget(Settings.kArmToleranceRotations)
+                && mRushinatorWrist.isAtTarget(Settings.kWristToleranceRotations))) {
+            mElevator.setTargetState(mGoal.elevatorState);
+            mElevatorSent = true;
+        }
+        if (!mArmSent && (mOrder != Order.kElevatorFirst
+                || mElevatorSent && mElevator.isAtTarget(Settings.kElevatorToleranceRotations))) {
+            mRushinatorPivot.setTargetState(mGoal.armState);
+            mRushinatorWrist.setTargetState(mGoalWristState);
+            mArmSent = true;
+        }
+    }
+}
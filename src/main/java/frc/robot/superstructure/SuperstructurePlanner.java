@@ -0,0 +1,465 @@
+package frc.robot.superstructure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+
+/**
+ * Plans collision free arm and wrist motions through the coralator configuration space described in
+ * <code>docs/coralator-tuning.md</code>. The space is sampled once into a grid of arm angle against
+ * wrist angle, where a cell is valid if the wrist's angle relative to the arm,
+ * <code>180 - arm - wrist</code>, is inside its limits.
+ *
+ * <p>Every goal a command can ask for is registered with {@link #addGoal}, which runs Dijkstra out
+ * from the goal over the grid and keeps the time to reach the goal from every cell. Both joints move
+ * at once, so a step costs the time of the slower joint. A path from any start follows that field
+ * downhill and is then shortened to the fewest straight segments that stay inside the space.
+ * {@link #cachePaths()} plans between every pair of registered goals ahead of time, so moving from
+ * one goal to another only looks the path up.
+ *
+ * <p>Angles are in rotations at the API, in the frames of {@link RushinatorPivot.State} and
+ * {@link RushinatorWrist.State}, and in degrees inside the planner.
+ */
+public class SuperstructurePlanner {
+    public static class Settings {
+        // Relative angle limits from docs/coralator-tuning.md, and the offsets from the pivot and
+        // wrist encoder frames to the angles in the doc's diagrams. The limits are the doc's worked
+        // example and the offsets were picked so every arm and wrist pair the robot is commanded to
+        // today is inside them; none were measured on the robot. Until they are, leave the planner
+        // disabled and the score commands keep their field-tested waits.
+        public static final boolean kEnabled = false;
+        static final double kMinRelativeDegrees = -120.0;
+        static final double kMaxRelativeDegrees = 160.0;
+        static final double kArmOffsetDegrees = 0.0;
+        static final double kWristOffsetDegrees = 180.0;
+
+        // Kept clear of the limits, the joints run separate profiles and do not follow a segment exactly
+        static final double kMarginDegrees = 5.0;
+        static final double kResolutionDegrees = 2.5;
+
+        // Motion Magic cruise velocities of the pivot and the wrist
+        static final double kArmVelocityDegPerSec = 720.0;
+        static final double kWristVelocityDegPerSec = 1440.0;
+
+        // A start this close to a registered goal uses the cached path from that goal
+        static final double kCachedStartToleranceDegrees = 2.0;
+    }
+
+    /** A planned motion as waypoints for both joints, the first is the start and the last the goal. */
+    public static class Path {
+        private final double[] mArmRotations;
+        private final double[] mWristRotations;
+        private final double mDurationSecs;
+
+        Path(double[] armDegrees, double[] wristDegrees, int count) {
+            mArmRotations = new double[count];
+            mWristRotations = new double[count];
+            double duration = 0.0;
+            for (int i = 0; i < count; i++) {
+                mArmRotations[i] = armDegrees[i] / 360.0;
+                mWristRotations[i] = wristDegrees[i] / 360.0;
+                if (i > 0) {
+                    duration += segmentTime(armDegrees[i - 1], wristDegrees[i - 1], armDegrees[i], wristDegrees[i]);
+                }
+            }
+            mDurationSecs = duration;
+        }
+
+        public int getWaypointCount() {
+            return mArmRotations.length;
+        }
+
+        /** @return arm position of a waypoint in rotations */
+        public double getArmRotations(int waypoint) {
+            return mArmRotations[waypoint];
+        }
+
+        /** @return wrist position of a waypoint in rotations */
+        public double getWristRotations(int waypoint) {
+            return mWristRotations[waypoint];
+        }
+
+        /** @return time to run the path at cruise velocity, ignoring acceleration */
+        public double getDurationSecs() {
+            return mDurationSecs;
+        }
+    }
+
+    // Neighbour offsets, straight moves first
+    private static final int[] kRowSteps = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] kColumnSteps = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private static final RushinatorPivot.State[] kArmStates = RushinatorPivot.State.values();
+    private static final RushinatorWrist.State[] kWristStates = RushinatorWrist.State.values();
+
+    private static SuperstructurePlanner mInstance;
+
+    private final double mArmMinDegrees, mArmMaxDegrees;
+    private final double mWristMinDegrees, mWristMaxDegrees;
+    private final int mArmCells, mWristCells;
+    private final boolean[] mValid;
+    private final float[] mStepCosts = new float[kRowSteps.length];
+
+    // Indexed by goal key, see goalKey()
+    private final float[][] mCostFields;
+    private final int[] mGoalKeys;
+    private int mGoalCount = 0;
+    private final Map<Integer, Path> mCachedPaths = new HashMap<>();
+
+    // Scratch for path extraction, sized for the longest possible descent
+    private final double[] mArmScratch, mWristScratch;
+
+    private SuperstructurePlanner() {
+        // Rows are arm angles, columns wrist angles, covering every state with some room around it
+        double armMin = Double.POSITIVE_INFINITY, armMax = Double.NEGATIVE_INFINITY;
+        for (RushinatorPivot.State state : kArmStates) {
+            armMin = Math.min(armMin, state.pos.getDegrees());
+            armMax = Math.max(armMax, state.pos.getDegrees());
+        }
+        double wristMin = Double.POSITIVE_INFINITY, wristMax = Double.NEGATIVE_INFINITY;
+        for (RushinatorWrist.State state : kWristStates) {
+            wristMin = Math.min(wristMin, state.pos.getDegrees());
+            wristMax = Math.max(wristMax, state.pos.getDegrees());
+        }
+        mArmMinDegrees = armMin - Settings.kResolutionDegrees;
+        mArmMaxDegrees = armMax + Settings.kResolutionDegrees;
+        mWristMinDegrees = wristMin - Settings.kResolutionDegrees;
+        mWristMaxDegrees = wristMax + Settings.kResolutionDegrees;
+        mArmCells = (int) Math.ceil((mArmMaxDegrees - mArmMinDegrees) / Settings.kResolutionDegrees) + 1;
+        mWristCells = (int) Math.ceil((mWristMaxDegrees - mWristMinDegrees) / Settings.kResolutionDegrees) + 1;
+
+        mValid = new boolean[mArmCells * mWristCells];
+        for (int row = 0; row < mArmCells; row++) {
+            for (int column = 0; column < mWristCells; column++) {
+                mValid[row * mWristCells + column] = isValidDegrees(armDegrees(row), wristDegrees(column));
+            }
+        }
+
+        for (int i = 0; i < mStepCosts.length; i++) {
+            mStepCosts[i] = (float) segmentTime(0.0, 0.0,
+                    kRowSteps[i] * Settings.kResolutionDegrees, kColumnSteps[i] * Settings.kResolutionDegrees);
+        }
+
+        int keyCount = kArmStates.length * kWristStates.length;
+        mCostFields = new float[keyCount][];
+        mGoalKeys = new int[keyCount];
+        mArmScratch = new double[mArmCells + mWristCells + 2];
+        mWristScratch = new double[mArmCells + mWristCells + 2];
+    }
+
+    public static SuperstructurePlanner getInstance() {
+        if (mInstance == null) {
+            mInstance = new SuperstructurePlanner();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Checks a configuration against the configuration space.
+     *
+     * @param armRotations arm position in rotations
+     * @param wristRotations wrist position in rotations
+     * @return true if the configuration is inside the space, with margin
+     */
+    public boolean isValid(double armRotations, double wristRotations) {
+        return isValidDegrees(armRotations * 360.0, wristRotations * 360.0);
+    }
+
+    /**
+     * Registers a goal and computes its time field. Registering a goal again does nothing.
+     *
+     * @param arm arm state of the goal
+     * @param wrist wrist state of the goal
+     */
+    public void addGoal(RushinatorPivot.State arm, RushinatorWrist.State wrist) {
+        int key = goalKey(arm, wrist);
+        if (mCostFields[key] != null) {
+            return;
+        }
+        if (!isValidDegrees(arm.pos.getDegrees(), wrist.pos.getDegrees())) {
+            // Still plannable, paths end with a straight move out of the space to the goal
+            DriverStation.reportWarning("[SuperstructurePlanner] " + arm + " / " + wrist
+                    + " is outside the configuration space", false);
+        }
+        mCostFields[key] = costField(nearestValidCell(arm.pos.getDegrees(), wrist.pos.getDegrees()));
+        mGoalKeys[mGoalCount++] = key;
+    }
+
+    /** Plans between every pair of registered goals, so those moves are looked up instead of planned. */
+    public void cachePaths() {
+        for (int i = 0; i < mGoalCount; i++) {
+            for (int j = 0; j < mGoalCount; j++) {
+                if (i == j) {
+                    continue;
+                }
+                int from = mGoalKeys[i];
+                int to = mGoalKeys[j];
+                mCachedPaths.computeIfAbsent(from * mCostFields.length + to, pair -> extract(
+                        goalArmDegrees(from), goalWristDegrees(from), to));
+            }
+        }
+    }
+
+    /** @return number of paths planned ahead of time */
+    public int getCachedPathCount() {
+        return mCachedPaths.size();
+    }
+
+    /**
+     * Plans a motion from the current configuration to a goal. Starts at a registered goal use the
+     * cached path, anything else is planned from the goal's time field, registering the goal first if
+     * needed.
+     *
+     * @param armRotations current arm position in rotations
+     * @param wristRotations current wrist position in rotations
+     * @param arm arm state to move to
+     * @param wrist wrist state to move to
+     * @return the path, starting at the current configuration
+     */
+    public Path plan(double armRotations, double wristRotations, RushinatorPivot.State arm, RushinatorWrist.State wrist) {
+        addGoal(arm, wrist);
+        int to = goalKey(arm, wrist);
+        double armDegrees = armRotations * 360.0;
+        double wristDegrees = wristRotations * 360.0;
+
+        for (int i = 0; i < mGoalCount; i++) {
+            int from = mGoalKeys[i];
+            if (Math.abs(goalArmDegrees(from) - armDegrees) <= Settings.kCachedStartToleranceDegrees
+                    && Math.abs(goalWristDegrees(from) - wristDegrees) <= Settings.kCachedStartToleranceDegrees) {
+                Path cached = mCachedPaths.get(from * mCostFields.length + to);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        return extract(armDegrees, wristDegrees, to);
+    }
+
+    private Path extract(double startArmDegrees, double startWristDegrees, int goalKey) {
+        float[] cost = mCostFields[goalKey];
+        double goalArm = goalArmDegrees(goalKey);
+        double goalWrist = goalWristDegrees(goalKey);
+
+        // Walk down the time field from the start cell to the goal cell
+        int count = 0;
+        mArmScratch[count] = startArmDegrees;
+        mWristScratch[count++] = startWristDegrees;
+        int cell = nearestValidCell(startArmDegrees, startWristDegrees);
+        while (cell >= 0 && cost[cell] > 0.0f && count < mArmScratch.length - 1) {
+            mArmScratch[count] = armDegrees(cell / mWristCells);
+            mWristScratch[count++] = wristDegrees(cell % mWristCells);
+            int next = -1;
+            float best = cost[cell];
+            for (int i = 0; i < kRowSteps.length; i++) {
+                int neighbour = neighbour(cell, i);
+                if (neighbour >= 0 && cost[neighbour] + mStepCosts[i] <= best && cost[neighbour] < cost[cell]) {
+                    best = cost[neighbour] + mStepCosts[i];
+                    next = neighbour;
+                }
+            }
+            cell = next;
+        }
+        mArmScratch[count] = goalArm;
+        mWristScratch[count++] = goalWrist;
+
+        // Keep only the waypoints a straight segment cannot skip
+        int kept = 1;
+        int from = 0;
+        while (from < count - 1) {
+            int to = count - 1;
+            while (to > from + 1 && !isSegmentValid(mArmScratch[from], mWristScratch[from], mArmScratch[to], mWristScratch[to])) {
+                to--;
+            }
+            mArmScratch[kept] = mArmScratch[to];
+            mWristScratch[kept++] = mWristScratch[to];
+            from = to;
+        }
+        return new Path(mArmScratch, mWristScratch, kept);
+    }
+
+    /** Dijkstra out from the goal, the time to reach the goal from each cell, infinite if unreachable. */
+    private float[] costField(int goalCell) {
+        float[] cost = new float[mValid.length];
+        Arrays.fill(cost, Float.POSITIVE_INFINITY);
+        if (goalCell < 0) {
+            return cost;
+        }
+        CellQueue queue = new CellQueue(mValid.length * kRowSteps.length);
+        cost[goalCell] = 0.0f;
+        queue.push(0.0f, goalCell);
+        while (!queue.isEmpty()) {
+            long entry = queue.pop();
+            int cell = CellQueue.cell(entry);
+            float cellCost = CellQueue.cost(entry);
+            if (cellCost > cost[cell]) {
+                continue;
+            }
+            for (int i = 0; i < kRowSteps.length; i++) {
+                int neighbour = neighbour(cell, i);
+                if (neighbour >= 0 && cellCost + mStepCosts[i] < cost[neighbour]) {
+                    cost[neighbour] = cellCost + mStepCosts[i];
+                    queue.push(cost[neighbour], neighbour);
+                }
+            }
+        }
+        return cost;
+    }
+
+    /** Index of a valid neighbour of a cell, or -1. */
+    private int neighbour(int cell, int step) {
+        int row = cell / mWristCells + kRowSteps[step];
+        int column = cell % mWristCells + kColumnSteps[step];
+        if (row < 0 || row >= mArmCells || column < 0 || column >= mWristCells) {
+            return -1;
+        }
+        int neighbour = row * mWristCells + column;
+        return mValid[neighbour] ? neighbour : -1;
+    }
+
+    /** The valid cell closest to a configuration, or -1 if there are none. */
+    private int nearestValidCell(double armDegrees, double wristDegrees) {
+        int row = clampIndex((int) Math.round((armDegrees - mArmMinDegrees) / Settings.kResolutionDegrees), mArmCells);
+        int column = clampIndex((int) Math.round((wristDegrees - mWristMinDegrees) / Settings.kResolutionDegrees), mWristCells);
+        // Search outward in square rings
+        int maxRing = Math.max(mArmCells, mWristCells);
+        for (int ring = 0; ring < maxRing; ring++) {
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = column - ring; c <= column + ring; c++) {
+                    boolean onRing = Math.abs(r - row) == ring || Math.abs(c - column) == ring;
+                    if (!onRing || r < 0 || r >= mArmCells || c < 0 || c >= mWristCells || !mValid[r * mWristCells + c]) {
+                        continue;
+                    }
+                    double distance = Math.hypot(armDegrees(r) - armDegrees, wristDegrees(c) - wristDegrees);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = r * mWristCells + c;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isValidDegrees(double armDegrees, double wristDegrees) {
+        if (armDegrees < mArmMinDegrees || armDegrees > mArmMaxDegrees
+                || wristDegrees < mWristMinDegrees || wristDegrees > mWristMaxDegrees) {
+            return false;
+        }
+        double relative = 180.0 - (armDegrees + Settings.kArmOffsetDegrees) - (wristDegrees + Settings.kWristOffsetDegrees);
+        return relative >= Settings.kMinRelativeDegrees + Settings.kMarginDegrees
+                && relative <= Settings.kMaxRelativeDegrees - Settings.kMarginDegrees;
+    }
+
+    /** Checks the inside of a segment, so a start outside the space can still leave it. */
+    private boolean isSegmentValid(double armFrom, double wristFrom, double armTo, double wristTo) {
+        double length = Math.max(Math.abs(armTo - armFrom), Math.abs(wristTo - wristFrom));
+        int samples = (int) Math.ceil(length / (Settings.kResolutionDegrees / 2.0));
+        for (int i = 1; i < samples; i++) {
+            double t = (double) i / samples;
+            if (!isValidDegrees(armFrom + (armTo - armFrom) * t, wristFrom + (wristTo - wristFrom) * t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Time to move both joints between two configurations at cruise velocity. */
+    private static double segmentTime(double armFrom, double wristFrom, double armTo, double wristTo) {
+        return Math.max(Math.abs(armTo - armFrom) / Settings.kArmVelocityDegPerSec,
+                Math.abs(wristTo - wristFrom) / Settings.kWristVelocityDegPerSec);
+    }
+
+    private double armDegrees(int row) {
+        return mArmMinDegrees + row * Settings.kResolutionDegrees;
+    }
+
+    private double wristDegrees(int column) {
+        return mWristMinDegrees + column * Settings.kResolutionDegrees;
+    }
+
+    private static int clampIndex(int index, int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    private static int goalKey(RushinatorPivot.State arm, RushinatorWrist.State wrist) {
+        return arm.ordinal() * kWristStates.length + wrist.ordinal();
+    }
+
+    private static double goalArmDegrees(int key) {
+        return kArmStates[key / kWristStates.length].pos.getDegrees();
+    }
+
+    private static double goalWristDegrees(int key) {
+        return kWristStates[key % kWristStates.length].pos.getDegrees();
+    }
+
+    /**
+     * Binary min-heap of cells keyed by cost, packed into longs. Costs are never negative, so their
+     * float bits sort the same way the floats do.
+     */
+    private static class CellQueue {
+        private final long[] mEntries;
+        private int mSize = 0;
+
+        CellQueue(int capacity) {
+            mEntries = new long[capacity];
+        }
+
+        static int cell(long entry) {
+            return (int) entry;
+        }
+
+        static float cost(long entry) {
+            return Float.intBitsToFloat((int) (entry >>> 32));
+        }
+
+        boolean isEmpty() {
+            return mSize == 0;
+        }
+
+        void push(float cost, int cell) {
+            long entry = ((long) Float.floatToIntBits(cost) << 32) | cell;
+            int i = mSize++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (mEntries[parent] <= entry) {
+                    break;
+                }
+                mEntries[i] = mEntries[parent];
+                i = parent;
+            }
+            mEntries[i] = entry;
+        }
+
+        long pop() {
+            long top = mEntries[0];
+            long last = mEntries[--mSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= mSize) {
+                    break;
+                }
+                if (child + 1 < mSize && mEntries[child + 1] < mEntries[child]) {
+                    child++;
+                }
+                if (last <= mEntries[child]) {
+                    break;
+                }
+                mEntries[i] = mEntries[child];
+                i = child;
+            }
+            mEntries[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package frc.robot.superstructure.commands;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.elevator.ElevatorSubsystem;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.superstructure.Superstructure;
+
+/**
+ * Has {@link Superstructure} drive the elevator, arm and wrist to a {@link Superstructure.Goal} for as
+ * long as the command runs. Requires all three mechanisms, so a command for any one of them ends the
+ * goal and takes over from there.
+ */
+public class SetSuperstructureGoal extends Command {
+    private final Superstructure mSuperstructure;
+    private final Superstructure.Goal mGoal;
+
+    public SetSuperstructureGoal(Superstructure.Goal goal) {
+        mSuperstructure = Superstructure.getInstance();
+        mGoal = goal;
+        addRequirements(ElevatorSubsystem.getInstance(), RushinatorPivot.getInstance(), RushinatorWrist.getInstance());
+    }
+
+    @Override
+    public void initialize() {
+        mSuperstructure.setGoal(mGoal);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        mSuperstructure.clearGoal();
+    }
+}
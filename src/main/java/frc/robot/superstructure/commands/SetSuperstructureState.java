@@ -0,0 +1,158 @@
+package frc.robot.superstructure.commands;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.elevator.ElevatorSubsystem;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.superstructure.SuperstructurePlanner;
+
+/**
+ * Moves the elevator, arm and wrist to a goal together, with the arm and wrist following a path from
+ * {@link SuperstructurePlanner}. Each waypoint is handed to the joints once both are close to the
+ * previous one, and the command ends when every joint is at the goal, instead of after a fixed wait.
+ *
+ * <p>Only built by the score commands in RobotCommands when
+ * {@link SuperstructurePlanner.Settings#kEnabled} is set, which waits on the planner's limits being
+ * measured.
+ */
+public class SetSuperstructureState extends Command {
+    public static class Settings {
+        static final double kArmToleranceRotations = 2.0 / 360.0;
+        static final double kWristToleranceRotations = 3.0 / 360.0;
+        static final double kElevatorToleranceRotations = 0.5;
+        // Intermediate waypoints are passed through, not stopped at
+        static final double kWaypointToleranceRotations = 8.0 / 360.0;
+
+        // Ends the command anyway if the joints have not arrived this long after the planned time,
+        // with the elevator timed along its motion profile
+        static final double kTimeoutMarginSecs = 0.5;
+    }
+
+    private final ElevatorSubsystem mElevator;
+    private final RushinatorPivot mRushinatorPivot;
+    private final RushinatorWrist mRushinatorWrist;
+    private final ElevatorSubsystem.State mElevatorState;
+    private final RushinatorPivot.State mArmState;
+    private final RushinatorWrist.State mWristState;
+    private final SuperstructurePlanner mPlanner = SuperstructurePlanner.getInstance();
+    private final Timer mTimer = new Timer();
+
+    private double mElevatorLeadRotations = 0.0;
+    private double mElevatorStart;
+    private boolean mElevatorCleared;
+    private SuperstructurePlanner.Path mPath;
+    private int mWaypoint;
+    private double mTimeoutSecs;
+
+    public SetSuperstructureState(ElevatorSubsystem.State elevatorState, RushinatorPivot.State armState, RushinatorWrist.State wristState) {
+        mElevator = ElevatorSubsystem.getInstance();
+        mRushinatorPivot = RushinatorPivot.getInstance();
+        mRushinatorWrist = RushinatorWrist.getInstance();
+        mElevatorState = elevatorState;
+        mArmState = armState;
+        mWristState = wristState;
+
+        // Registered when the command is built, so the planning is done before the match
+        mPlanner.addGoal(armState, wristState);
+        addRequirements(mElevator, mRushinatorPivot, mRushinatorWrist);
+    }
+
+    /**
+     * Holds the arm and wrist until the elevator has moved some distance, for moves that have to
+     * lift or drop off a branch before swinging.
+     *
+     * @param rotations elevator travel before the arm and wrist start
+     * @return this command
+     */
+    public SetSuperstructureState withElevatorLead(double rotations) {
+        mElevatorLeadRotations = rotations;
+        return this;
+    }
+
+    @Override
+    public void initialize() {
+        mElevator.setTargetState(mElevatorState);
+        mElevatorStart = mElevator.getPosition();
+        mElevatorCleared = mElevatorLeadRotations <= 0.0;
+
+        mPath = mPlanner.plan(mRushinatorPivot.getArmPosition().getRotations(),
+                mRushinatorWrist.getCurrentPos().getRotations(), mArmState, mWristState);
+        // Waypoint 0 is where the joints already are
+        mWaypoint = 0;
+        if (mElevatorCleared) {
+            advance();
+        }
+
+        double elevatorSecs = profileSecs(Math.abs(mElevatorState.pos - mElevatorStart),
+                ElevatorSubsystem.Settings.kMaxVelocity, ElevatorSubsystem.Settings.kMaxAcceleration);
+        mTimeoutSecs = Math.max(mPath.getDurationSecs(), elevatorSecs) + Settings.kTimeoutMarginSecs;
+        mTimer.restart();
+
+        Logger.recordOutput("Superstructure/Goal", mElevatorState + " / " + mArmState + " / " + mWristState);
+        Logger.recordOutput("Superstructure/Waypoints", mPath.getWaypointCount());
+        Logger.recordOutput("Superstructure/PlannedSecs", mPath.getDurationSecs());
+    }
+
+    @Override
+    public void execute() {
+        if (!mElevatorCleared) {
+            mElevatorCleared = Math.abs(mElevator.getPosition() - mElevatorStart) >= mElevatorLeadRotations
+                    || isElevatorAtGoal();
+            if (mElevatorCleared) {
+                advance();
+            }
+        } else if (mWaypoint < mPath.getWaypointCount() - 1
+                && isNear(mWaypoint, Settings.kWaypointToleranceRotations, Settings.kWaypointToleranceRotations)) {
+            advance();
+        }
+        Logger.recordOutput("Superstructure/Waypoint", mWaypoint);
+    }
+
+    @Override
+    public boolean isFinished() {
+        boolean atGoal = mWaypoint == mPath.getWaypointCount() - 1
+                && isNear(mWaypoint, Settings.kArmToleranceRotations, Settings.kWristToleranceRotations)
+                && isElevatorAtGoal();
+        return atGoal || mTimer.hasElapsed(mTimeoutSecs);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        mTimer.stop();
+        Logger.recordOutput("Superstructure/ActualSecs", mTimer.get());
+    }
+
+    private void advance() {
+        mWaypoint++;
+        if (mWaypoint == mPath.getWaypointCount() - 1) {
+            // The goal goes through the states so the target states stay current
+            mRushinatorPivot.setTargetState(mArmState);
+            mRushinatorWrist.setTargetState(mWristState);
+        } else {
+            mRushinatorPivot.setTargetPosition(Rotation2d.fromRotations(mPath.getArmRotations(mWaypoint)));
+            mRushinatorWrist.setTargetPosition(Rotation2d.fromRotations(mPath.getWristRotations(mWaypoint)));
+        }
+    }
+
+    private boolean isNear(int waypoint, double armTolerance, double wristTolerance) {
+        return Math.abs(mRushinatorPivot.getArmPosition().getRotations() - mPath.getArmRotations(waypoint)) <= armTolerance
+                && Math.abs(mRushinatorWrist.getCurrentPos().getRotations() - mPath.getWristRotations(waypoint)) <= wristTolerance;
+    }
+
+    /** Time for a trapezoid profile to cover a distance from rest to rest. */
+    private static double profileSecs(double distance, double maxVelocity, double maxAcceleration) {
+        if (distance < maxVelocity * maxVelocity / maxAcceleration) {
+            // Never reaches cruise, accelerates for half the distance and brakes for the rest
+            return 2.0 * Math.sqrt(distance / maxAcceleration);
+        }
+        return distance / maxVelocity + maxVelocity / maxAcceleration;
+    }
+
+    private boolean isElevatorAtGoal() {
+        return Math.abs(mElevator.getPosition() - mElevatorState.pos) <= Settings.kElevatorToleranceRotations;
+    }
+}
@@ -0,0 +1,141 @@
+package frc.robot.vision;
+
+import java.util.Optional;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose3d;
+
+/**
+ * The AprilTag field layout, parsed once and shared. Every camera's pose estimator gets the same
+ * {@link AprilTagFieldLayout} instance with the blue alliance origin, PhotonVision estimates are
+ * always blue and get flipped by the robot thread.
+ *
+ * <p>The tag poses are also copied into a flat table indexed by tag ID, for both alliance origins,
+ * so filtering code can look a tag up without going through the layout's map and
+ * <code>Optional</code>s.
+ *
+ * <p>The layout is shared between camera threads and only read, never call
+ * <code>setOrigin</code> on it.
+ */
+public class FieldLayout {
+    // x, y, z in meters and yaw in radians for each tag
+    private static final int kStride = 4;
+
+    private static FieldLayout mInstance;
+
+    private final AprilTagFieldLayout mLayout;
+    private final int mMaxTagId;
+    private final boolean[] mPresent;
+    private final double[] mBluePoses;
+    private final double[] mRedPoses;
+
+    private FieldLayout() {
+        mLayout = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
+        mLayout.setOrigin(OriginPosition.kBlueAllianceWallRightSide);
+
+        int maxId = 0;
+        for (AprilTag tag : mLayout.getTags()) {
+            maxId = Math.max(maxId, tag.ID);
+        }
+        mMaxTagId = maxId;
+        mPresent = new boolean[maxId + 1];
+        mBluePoses = new double[(maxId + 1) * kStride];
+        mRedPoses = new double[(maxId + 1) * kStride];
+
+        final double length = mLayout.getFieldLength();
+        final double width = mLayout.getFieldWidth();
+        for (AprilTag tag : mLayout.getTags()) {
+            final Pose3d pose = tag.pose;
+            final int i = tag.ID * kStride;
+            mPresent[tag.ID] = true;
+            mBluePoses[i] = pose.getX();
+            mBluePoses[i + 1] = pose.getY();
+            mBluePoses[i + 2] = pose.getZ();
+            mBluePoses[i + 3] = pose.getRotation().getZ();
+            // Red origin is the opposite corner, turned half a turn
+            mRedPoses[i] = length - pose.getX();
+            mRedPoses[i + 1] = width - pose.getY();
+            mRedPoses[i + 2] = pose.getZ();
+            mRedPoses[i + 3] = MathUtil.angleModulus(pose.getRotation().getZ() + Math.PI);
+        }
+    }
+
+    public static FieldLayout getInstance() {
+        if (mInstance == null) {
+            mInstance = new FieldLayout();
+        }
+        return mInstance;
+    }
+
+    /** @return the shared layout, with the blue alliance origin */
+    public AprilTagFieldLayout getLayout() {
+        return mLayout;
+    }
+
+    /** @return the highest tag ID on the field */
+    public int getMaxTagId() {
+        return mMaxTagId;
+    }
+
+    /**
+     * @param id tag ID
+     * @return true if the tag is on the field
+     */
+    public boolean hasTag(int id) {
+        return id >= 0 && id <= mMaxTagId && mPresent[id];
+    }
+
+    /**
+     * @param id tag ID, check {@link #hasTag(int)} first
+     * @param redOrigin true for the red alliance origin
+     * @return field x of the tag in meters
+     */
+    public double getTagX(int id, boolean redOrigin) {
+        return table(redOrigin)[id * kStride];
+    }
+
+    /**
+     * @param id tag ID, check {@link #hasTag(int)} first
+     * @param redOrigin true for the red alliance origin
+     * @return field y of the tag in meters
+     */
+    public double getTagY(int id, boolean redOrigin) {
+        return table(redOrigin)[id * kStride + 1];
+    }
+
+    /**
+     * @param id tag ID, check {@link #hasTag(int)} first
+     * @return height of the tag's center in meters, the same for both origins
+     */
+    public double getTagZ(int id) {
+        return mBluePoses[id * kStride + 2];
+    }
+
+    /**
+     * @param id tag ID, check {@link #hasTag(int)} first
+     * @param redOrigin true for the red alliance origin
+     * @return direction the tag faces in radians, in [-pi, pi]
+     */
+    public double getTagYaw(int id, boolean redOrigin) {
+        return table(redOrigin)[id * kStride + 3];
+    }
+
+    /**
+     * Gets a tag's full pose from the layout, for code that needs the pitch and roll as well.
+     * Allocates, prefer the getters above in loops.
+     *
+     * @param id tag ID
+     * @return the tag's pose with the blue origin, empty if there is no such tag
+     */
+    public Optional<Pose3d> getTagPose(int id) {
+        return mLayout.getTagPose(id);
+    }
+
+    private double[] table(boolean redOrigin) {
+        return redOrigin ? mRedPoses : mBluePoses;
+    }
+}
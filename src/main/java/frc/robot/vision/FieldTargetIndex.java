@@ -0,0 +1,188 @@
+package frc.robot.vision;
+
+import java.util.Optional;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.vision.VisionConfig.HPStation;
+import frc.robot.vision.VisionConfig.ReefFace;
+
+/**
+ * Answers "which reef face or coral station is the robot at" in constant time, for commands that
+ * ask every loop while aligning.
+ *
+ * <p>The faces of a reef sit around its center at close to even angles, so the face closest to a
+ * point is found from the point's angle around the center. That angle is looked up in a sector
+ * table built once from the real tag positions. Only the robot's own reef is searched once the
+ * alliance is known, see {@link #refreshAlliance()}, otherwise the reef on the robot's half of the
+ * field is used.
+ *
+ * <p>A face stays picked until another one is closer by {@link Settings#kHysteresisRadians} around
+ * the reef, so the target does not flicker when the robot sits on the line between two faces.
+ * Queries do not allocate.
+ */
+public class FieldTargetIndex {
+    public static class Settings {
+        // Angle around the reef a new face has to win by before the pick changes
+        public static final double kHysteresisRadians = Math.toRadians(5.0);
+        static final int kSectorBins = 360;
+    }
+
+    private static FieldTargetIndex mInstance;
+
+    private final Reef mBlueReef;
+    private final Reef mRedReef;
+
+    private Alliance mAlliance = null;
+    private ReefFace mLastFace = null;
+
+    private FieldTargetIndex() {
+        mBlueReef = new Reef(new ReefFace[] {
+            ReefFace.BLU_REEF_AB, ReefFace.BLU_REEF_CD, ReefFace.BLU_REEF_EF,
+            ReefFace.BLU_REEF_GH, ReefFace.BLU_REEF_IJ, ReefFace.BLU_REEF_KL
+        });
+        mRedReef = new Reef(new ReefFace[] {
+            ReefFace.RED_REEF_AB, ReefFace.RED_REEF_CD, ReefFace.RED_REEF_EF,
+            ReefFace.RED_REEF_GH, ReefFace.RED_REEF_IJ, ReefFace.RED_REEF_KL
+        });
+    }
+
+    public static FieldTargetIndex getInstance() {
+        if (mInstance == null) {
+            mInstance = new FieldTargetIndex();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Reads the alliance from the driver station. Called on mode changes and while disabled, the
+     * alliance cannot change while the robot is enabled.
+     */
+    public void refreshAlliance() {
+        setAlliance(DriverStation.getAlliance());
+    }
+
+    /**
+     * Sets the alliance whose reef and stations are searched.
+     *
+     * @param alliance the alliance, or empty to use whichever is on the robot's half of the field
+     */
+    public void setAlliance(Optional<Alliance> alliance) {
+        mAlliance = alliance.orElse(null);
+    }
+
+    /**
+     * Gets the reef face closest to a point, keeping the last pick until another face is clearly
+     * closer.
+     *
+     * @param x field x of the point in meters, usually the robot's position
+     * @param y field y of the point in meters
+     * @return the reef face
+     */
+    public ReefFace getReefFace(double x, double y) {
+        final Reef reef = getReef(x);
+        final double angle = Math.atan2(y - reef.centerY, x - reef.centerX);
+        final ReefFace candidate = reef.sectors[sectorBin(angle)];
+
+        if (mLastFace != null && mLastFace != candidate) {
+            final int last = reef.indexOf(mLastFace);
+            if (last >= 0) {
+                final double lastDistance = Math.abs(MathUtil.angleModulus(angle - reef.angles[last]));
+                final double candidateDistance = Math.abs(MathUtil.angleModulus(angle - reef.angles[reef.indexOf(candidate)]));
+                if (lastDistance - candidateDistance < Settings.kHysteresisRadians) {
+                    return mLastFace;
+                }
+            }
+        }
+        mLastFace = candidate;
+        return candidate;
+    }
+
+    /**
+     * Gets the coral station closest to a point, out of the alliance's two stations when the
+     * alliance is known.
+     *
+     * @param x field x of the point in meters
+     * @param y field y of the point in meters
+     * @return the coral station
+     */
+    public HPStation getHPStation(double x, double y) {
+        if (mAlliance == Alliance.Blue) {
+            return closer(HPStation.BLU_LEFT_STATION, HPStation.BLU_RIGHT_STATION, x, y);
+        } else if (mAlliance == Alliance.Red) {
+            return closer(HPStation.RED_LEFT_STATION, HPStation.RED_RIGHT_STATION, x, y);
+        }
+        return closer(
+            closer(HPStation.BLU_LEFT_STATION, HPStation.BLU_RIGHT_STATION, x, y),
+            closer(HPStation.RED_LEFT_STATION, HPStation.RED_RIGHT_STATION, x, y), x, y);
+    }
+
+    private Reef getReef(double x) {
+        if (mAlliance == Alliance.Blue) {
+            return mBlueReef;
+        } else if (mAlliance == Alliance.Red) {
+            return mRedReef;
+        }
+        return x < VisionConfig.FIELD_LENGTH_METERS / 2.0 ? mBlueReef : mRedReef;
+    }
+
+    private static int sectorBin(double angleRadians) {
+        final int bin = (int) ((angleRadians + Math.PI) / (2.0 * Math.PI) * Settings.kSectorBins);
+        return Math.min(Math.max(bin, 0), Settings.kSectorBins - 1);
+    }
+
+    private static HPStation closer(HPStation a, HPStation b, double x, double y) {
+        final double dxA = a.aprilTagX - x, dyA = a.aprilTagY - y;
+        final double dxB = b.aprilTagX - x, dyB = b.aprilTagY - y;
+        return dxA * dxA + dyA * dyA <= dxB * dxB + dyB * dyB ? a : b;
+    }
+
+    /** One reef's faces, with each face's angle around the reef center and the sector table. */
+    private static class Reef {
+        final ReefFace[] faces;
+        final double[] angles;
+        final double centerX;
+        final double centerY;
+        final ReefFace[] sectors = new ReefFace[Settings.kSectorBins];
+
+        Reef(ReefFace[] faces) {
+            this.faces = faces;
+            double sumX = 0.0;
+            double sumY = 0.0;
+            for (ReefFace face : faces) {
+                sumX += face.aprilTagX;
+                sumY += face.aprilTagY;
+            }
+            centerX = sumX / faces.length;
+            centerY = sumY / faces.length;
+
+            angles = new double[faces.length];
+            for (int i = 0; i < faces.length; i++) {
+                angles[i] = Math.atan2(faces[i].aprilTagY - centerY, faces[i].aprilTagX - centerX);
+            }
+
+            // Each bin goes to the face whose angle is closest to the middle of the bin
+            for (int bin = 0; bin < Settings.kSectorBins; bin++) {
+                final double angle = (bin + 0.5) / Settings.kSectorBins * 2.0 * Math.PI - Math.PI;
+                int closest = 0;
+                for (int i = 1; i < faces.length; i++) {
+                    if (Math.abs(MathUtil.angleModulus(angle - angles[i]))
+                            < Math.abs(MathUtil.angleModulus(angle - angles[closest]))) {
+                        closest = i;
+                    }
+                }
+                sectors[bin] = faces[closest];
+            }
+        }
+
+        int indexOf(ReefFace face) {
+            for (int i = 0; i < faces.length; i++) {
+                if (faces[i] == face) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
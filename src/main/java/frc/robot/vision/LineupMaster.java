@@ -20,16 +20,20 @@ import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SelectCommand;
 import frc.crevolib.math.Conversions;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.StringChannel;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.vision.VisionConfig.HPStation;
 import frc.robot.vision.VisionConfig.ReefFace;
 import frc.robot.vision.commands.AutoAlign;
 // import frc.robot.vision.commands.DriveToPoseCommand;
 
 public class LineupMaster {
+    private static final StringChannel closestFaceTelemetry = Telemetry.stringChannel("closest reef face");
     private static final Map<ReefFace, Command> leftBranchAlignmentCommands = new HashMap<>();
     // private static final Map<ReefFace, Command> reefCenterAlignmentCommands = new HashMap<>();
     private static final Map<ReefFace, Command> rightBranchAlignmentCommands = new HashMap<>();
@@ -57,33 +61,40 @@ public class LineupMaster {
         }
     }
 
+    private static ReefFace lastClosestFace = null;
+
     public static ReefFace getClosestReefFace(Supplier<Pose2d> robotPose){
-        double closestDistance = Double.MAX_VALUE; // Distance away from april tag
-        ReefFace closestFace = null;
+        final Pose2d pose = robotPose.get();
+        ReefFace closestFace = FieldTargetIndex.getInstance().getReefFace(pose.getX(), pose.getY());
 
-        for (ReefFace face: filteredReefFaces){
-            double distance = robotPose.get().getTranslation().getDistance(face.AprilTag.getTranslation());
-            if (distance < closestDistance) {
-                closestDistance = distance;
-                closestFace = face;
-            }
+        if (closestFace != lastClosestFace) {
+            closestFaceTelemetry.set(closestFace.name());
+            lastClosestFace = closestFace;
         }
 
-        SmartDashboard.putString("closest reef face", closestFace.name());
-
         return closestFace;
     }
 
+    public static HPStation getClosestHPStation(Supplier<Pose2d> robotPose) {
+        final Pose2d pose = robotPose.get();
+        return FieldTargetIndex.getInstance().getHPStation(pose.getX(), pose.getY());
+    }
+
     public Command directDriveToPose(Supplier<Pose2d> targetPose, Supplier<Boolean> isLeftAlign) {
         AutoAlign newAutoAlign = new AutoAlign(targetPose, isLeftAlign);
         return newAutoAlign;
         // return new DriveToPoseCommand(targetPose);
     }
 
+    /**
+     * Drives to the left branch of the reef face closest to the robot when the command is
+     * scheduled, not when it is built, so it can be built once and kept for a binding.
+     */
     public Command directDriveToNearestLeftBranch() {
-        System.out.println("LEFT BRANCH CALLED");
-        ReefFace nearestReefFace = getClosestReefFace(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose());
-        return directDriveToPose(() -> nearestReefFace.leftBranch, () -> true);
+        return Commands.defer(() -> {
+            ReefFace nearestReefFace = getClosestReefFace(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose());
+            return directDriveToPose(() -> nearestReefFace.leftBranch, () -> true);
+        }, Set.of(CommandSwerveDrivetrain.getInstance()));
         // return new SelectCommand<>(leftBranchAlignmentCommands, () -> getClosestReefFace(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose()));
         // try {
         //     return new SelectCommand<>(leftBranchAlignmentCommands, () -> getClosestReefFace(PoseEstimatorSubsystem.getInstance().getCurrentPose()));
@@ -98,11 +109,14 @@ public class LineupMaster {
     //     return new SelectCommand<>(reefCenterAlignmentCommands, () -> getClosestReefFace(PoseEstimatorSubsystem.getInstance().getCurrentPose()));
     // }
 
+    /** Same as {@link #directDriveToNearestLeftBranch()}, for the right branch. */
     public Command directDriveToNearestRightBranch() {
         // Supplier<ReefFace> nearestReefFace = getClosestReefFace(()->PoseEstimatorSubsystem.getInstance().getCurrentPose());
         // return directDriveToPose(() -> nearestReefFace.get().rightBranch, false);
-        ReefFace nearestReefFace = getClosestReefFace(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose());
-        return directDriveToPose(() -> nearestReefFace.rightBranch, () -> false);
+        return Commands.defer(() -> {
+            ReefFace nearestReefFace = getClosestReefFace(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose());
+            return directDriveToPose(() -> nearestReefFace.rightBranch, () -> false);
+        }, Set.of(CommandSwerveDrivetrain.getInstance()));
         // try {
         // return new SelectCommand<>(rightBranchAlignmentCommands, () -> getClosestReefFace(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose()));
         // } catch(Exception ex) {
@@ -2,36 +2,73 @@ package frc.robot.vision;
 
 import static frc.robot.vision.VisionConfig.AMBIGUITY_THRESHOLD;
 
-import java.io.IOException;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
 import org.photonvision.PhotonPoseEstimator;
 import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonPipelineResult;
 
-import edu.wpi.first.apriltag.AprilTagFieldLayout;
-import edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition;
-import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DriverStation;
+import frc.crevolib.util.PoseHistory;
+import frc.crevolib.util.SpscRingBuffer;
 
 /**
  * Runnable that gets AprilTag data from PhotonVision.
+ *
+ * <p>Each instance owns a worker thread for its camera. The worker sleeps until PhotonVision
+ * publishes a new frame (or {@link VisionConfig#CAMERA_IDLE_WAKE_SECONDS} passes), estimates a pose
+ * for every unread result, and hands every accepted estimate to the robot thread through a
+ * lock-free ring buffer.
+ *
+ * <p>A frame with a single tag is solved by {@link SingleTagSolver} from the robot's heading at the
+ * capture time, read from the drivetrain's pose history, rather than by PnP. PnP is only the
+ * fallback for a single tag while disabled, when the heading may not have been set yet, or when
+ * the history does not reach back to the frame.
  */
 public class PhotonRunnable implements Runnable {
 
   private final PhotonPoseEstimator photonPoseEstimator;
   private final PhotonCamera photonCamera;
-  private final AtomicReference<EstimatedRobotPose> atomicEstimatedRobotPose = new AtomicReference<EstimatedRobotPose>();
+  private final SingleTagSolver singleTagSolver;
+  private final PoseHistory poseHistory;
+  // Only touched by the worker thread
+  private final PoseHistory.Sample headingSample = new PoseHistory.Sample();
+  private final double[] solvedPosition = new double[2];
+  private final SpscRingBuffer<EstimatedRobotPose> estimatedRobotPoses =
+      new SpscRingBuffer<>(VisionConfig.CAMERA_RESULT_BUFFER_SIZE);
 
-  public PhotonRunnable(PhotonCamera cameraName, Transform3d robotToCamera) {
+  // Frame counters written by the worker thread and reset by the robot thread each loop
+  private final AtomicInteger framesReceived = new AtomicInteger();
+  private final AtomicInteger framesAccepted = new AtomicInteger();
+  private final AtomicInteger framesRejected = new AtomicInteger();
+
+  private Thread workerThread;
+  private int newResultListener = 0;
+  private volatile boolean running = false;
+
+  /**
+   * @param cameraName the camera
+   * @param robotToCamera the camera's pose on the robot
+   * @param poseHistory the drivetrain's pose history, for the heading of single tag frames
+   */
+  public PhotonRunnable(PhotonCamera cameraName, Transform3d robotToCamera, PoseHistory poseHistory) {
     this.photonCamera = cameraName;
+    this.singleTagSolver = new SingleTagSolver(robotToCamera);
+    this.poseHistory = poseHistory;
     PhotonPoseEstimator photonPoseEstimator = null;
     try {
-      var layout = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
-      // PV estimates will always be blue, they'll get flipped by robot thread
-      layout.setOrigin(OriginPosition.kBlueAllianceWallRightSide);
+      // Shared by every camera, PV estimates will always be blue, they'll get flipped by robot thread
+      var layout = FieldLayout.getInstance().getLayout();
       if (photonCamera != null) {
         photonPoseEstimator = new PhotonPoseEstimator(
             layout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, robotToCamera);
@@ -44,40 +81,173 @@ public class PhotonRunnable implements Runnable {
     this.photonPoseEstimator = photonPoseEstimator;
   }
 
+  /**
+   * Starts the worker thread for this camera. The thread is woken by a NetworkTables listener
+   * whenever the camera publishes a new result.
+   */
+  public synchronized void start() {
+    if (running || photonPoseEstimator == null || photonCamera == null) {
+      return;
+    }
+    running = true;
+    workerThread = new Thread(this::workerLoop, "PhotonRunnable-" + photonCamera.getName());
+    workerThread.setDaemon(true);
+
+    var resultTopic = NetworkTableInstance.getDefault()
+        .getTable("photonvision")
+        .getSubTable(photonCamera.getName())
+        .getTopic("rawBytes");
+    final Thread thread = workerThread;
+    newResultListener = NetworkTableInstance.getDefault().addListener(
+        resultTopic, EnumSet.of(NetworkTableEvent.Kind.kValueAll), event -> LockSupport.unpark(thread));
+
+    workerThread.start();
+  }
+
+  /**
+   * Stops the worker thread for this camera. Any estimates already in the buffer can still be
+   * drained.
+   */
+  public synchronized void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    if (newResultListener != 0) {
+      NetworkTableInstance.getDefault().removeListener(newResultListener);
+      newResultListener = 0;
+    }
+    workerThread.interrupt();
+    workerThread = null;
+  }
+
+  private void workerLoop() {
+    final long idleWakeNanos = (long) (VisionConfig.CAMERA_IDLE_WAKE_SECONDS * 1e9);
+    while (running && !Thread.currentThread().isInterrupted()) {
+      try {
+        run();
+      } catch (Exception e) {
+        DriverStation.reportError("PhotonRunnable worker failed for " + photonCamera.getName(), e.getStackTrace());
+      }
+      LockSupport.parkNanos(this, idleWakeNanos);
+    }
+  }
+
   @Override
   public void run() {
     // Get AprilTag data
     if (photonPoseEstimator != null && photonCamera != null) {
       var photonResults = photonCamera.getAllUnreadResults();
+      framesReceived.addAndGet(photonResults.size());
       for(var result : photonResults) {
-          if (result.hasTargets()
-          && (result.targets.size() > 1
-              || result.targets.get(0).getPoseAmbiguity() < AMBIGUITY_THRESHOLD)) {
-          photonPoseEstimator.update(result).ifPresent(estimatedRobotPose -> {
-            var estimatedPose = estimatedRobotPose.estimatedPose;
+        boolean accepted = false;
+        // A single tag must be one that is on the field, a misread ID would place the robot anywhere
+        if (result.hasTargets()
+            && (result.targets.size() > 1
+                || (result.targets.get(0).getPoseAmbiguity() < AMBIGUITY_THRESHOLD
+                    && FieldLayout.getInstance().hasTag(result.targets.get(0).getFiducialId())))) {
+          var estimate = result.targets.size() == 1 ? solveSingleTag(result) : null;
+          if (estimate == null) {
+            estimate = photonPoseEstimator.update(result).orElse(null);
+          }
+          if (estimate != null) {
+            var estimatedPose = estimate.estimatedPose;
             // Make sure the measurement is on the field
             if (estimatedPose.getX() > 0.0 && estimatedPose.getX() <= VisionConfig.FIELD_LENGTH_METERS
                 && estimatedPose.getY() > 0.0 && estimatedPose.getY() <= VisionConfig.FIELD_WIDTH_METERS) {
-              atomicEstimatedRobotPose.set(estimatedRobotPose);
+              accepted = estimatedRobotPoses.offer(estimate);
             }
-          });
+          }
+        }
+        if (accepted) {
+          framesAccepted.incrementAndGet();
+        } else {
+          framesRejected.incrementAndGet();
         }
       }
-      
+
+    }
+  }
+
+  /**
+   * Solves a single tag frame from the robot's heading when the frame was captured.
+   *
+   * @param result a frame with exactly one target
+   * @return the estimate, or null if PnP should be used instead
+   */
+  private EstimatedRobotPose solveSingleTag(PhotonPipelineResult result) {
+    // Until the robot is enabled the heading may not have been reset to the field yet
+    if (!DriverStation.isEnabled()) {
+      return null;
+    }
+    var target = result.targets.get(0);
+    double timestamp = result.getTimestampSeconds();
+    if (!poseHistory.sample(timestamp, headingSample)) {
+      return null;
+    }
+    var cameraToTarget = target.getBestCameraToTarget();
+    if (!singleTagSolver.solve(target.getFiducialId(), cameraToTarget.getX(), cameraToTarget.getY(),
+        cameraToTarget.getZ(), headingSample.thetaRadians, solvedPosition)) {
+      return null;
     }
+    return new EstimatedRobotPose(
+        new Pose3d(solvedPosition[0], solvedPosition[1], 0.0, new Rotation3d(0.0, 0.0, headingSample.thetaRadians)),
+        timestamp, result.targets, PoseStrategy.PNP_DISTANCE_TRIG_SOLVE);
+  }
+
+  /**
+   * Gets the number of frames received from the camera since the last call, and resets the count.
+   *
+   * @return frames received since last call
+   */
+  public int takeFramesReceived() {
+    return framesReceived.getAndSet(0);
+  }
+
+  /**
+   * Gets the number of frames that produced an estimate since the last call, and resets the count.
+   *
+   * @return frames accepted since last call
+   */
+  public int takeFramesAccepted() {
+    return framesAccepted.getAndSet(0);
+  }
+
+  /**
+   * Gets the number of frames that were filtered out (no targets, too ambiguous, off the field or
+   * buffer full) since the last call, and resets the count.
+   *
+   * @return frames rejected since last call
+   */
+  public int takeFramesRejected() {
+    return framesRejected.getAndSet(0);
   }
 
   /**
-   * Gets the latest robot pose. Calling this will only return the pose once. If
-   * it returns a non-null value, it is a
-   * new estimate that hasn't been returned before.
-   * This pose will always be for the BLUE alliance. It must be flipped if the
+   * Passes every estimate accepted since the last call to <code>consumer</code>, oldest first.
+   * Each estimate is only returned once.
+   * These poses will always be for the BLUE alliance. They must be flipped if the
    * current alliance is RED.
-   * 
-   * @return latest estimated pose
+   *
+   * @param consumer receives each new estimated pose
+   * @return number of estimates drained
    */
-  public EstimatedRobotPose grabLatestEstimatedPose() {
-    return atomicEstimatedRobotPose.getAndSet(null);
+  public int drainEstimatedPoses(Consumer<EstimatedRobotPose> consumer) {
+    return estimatedRobotPoses.drainTo(consumer);
+  }
+
+  /**
+   * Gets the number of estimates dropped because the robot thread did not drain this
+   * camera's buffer fast enough.
+   *
+   * @return dropped estimate count
+   */
+  public long getDroppedEstimateCount() {
+    return estimatedRobotPoses.getDroppedCount();
+  }
+
+  public String getCameraName() {
+    return photonCamera != null ? photonCamera.getName() : "";
   }
 
-}
\ No newline at end of file
+}
@@ -1,86 +1,101 @@
 package frc.robot.vision;
 
-import static edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition.kBlueAllianceWallRightSide;
-import static edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition.kRedAllianceWallRightSide;
-
-import java.util.function.Supplier;
+import java.util.Arrays;
 
+import org.littletonrobotics.junction.Logger;
 import org.photonvision.EstimatedRobotPose;
-import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
 
-import edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition;
 import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.trajectory.Trajectory;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.PoseHistory;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.crevolib.util.Telemetry.StringChannel;
+import frc.crevolib.util.Telemetry.StructChannel;
+import frc.robot.Robot;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
 
+/**
+ * Feeds vision measurements into the drivetrain's pose estimator.
+ *
+ * <p>The drivetrain's estimator integrates every odometry sample at the full odometry rate, so it
+ * is the single source of truth for the robot pose. This subsystem only collects estimates from the
+ * cameras, through each camera's {@link VisionIO}, and hands them to that estimator. Gating and
+ * fusing only use the logged inputs, so replay fuses the same measurements. All poses are in the
+ * blue alliance coordinate system, which is what PathPlanner expects.
+ */
 public class PoseEstimatorSubsystem extends SubsystemBase {
 
-  // Kalman Filter Configuration. These can be "tuned-to-taste" based on how much
-  // you trust your various sensors. Smaller numbers will cause the filter to
-  // "trust" the estimate from that particular component more than the others.
-  // This in turn means the particualr component will have a stronger influence
-  // on the final pose estimate.
-
-  // Kalman Filter Configuration. These can be "tuned-to-taste" based on how much
-  // you trust your various sensors. Smaller numbers will cause the filter to
-  // "trust" the estimate from that particular component more than the others.
-  // This in turn means the particualr component will have a stronger influence
-  // on the final pose estimate.
-
-  private final Supplier<Rotation2d> rotationSupplier;
-  private final Supplier<SwerveModulePosition[]> modulePositionSupplier;
-  private final SwerveDrivePoseEstimator poseEstimator;
+  private final CommandSwerveDrivetrain drivetrain;
   private final Field2d field2d = new Field2d();
-  private final PhotonRunnable rightEstimator = new PhotonRunnable(new PhotonCamera(VisionConfig.CAM_NAMES[1]),
-      VisionConfig.ROBOT_TO_CAM_TRANSFORMS[1]);
-  private final PhotonRunnable leftEstimator = new PhotonRunnable(new PhotonCamera(VisionConfig.CAM_NAMES[0]),
-      VisionConfig.ROBOT_TO_CAM_TRANSFORMS[0]);
-
-  private final Notifier allNotifier = new Notifier(() -> {
-    rightEstimator.run();
-    leftEstimator.run();
-  });
-
-  private OriginPosition originPosition = kBlueAllianceWallRightSide;
+  // Indexed the same as VisionConfig.CAM_NAMES
+  private final VisionIO[] cameras;
+  private final VisionIOInputsAutoLogged[] cameraInputs = new VisionIOInputsAutoLogged[VisionConfig.TOTAL_CAMS];
+  private final String[] cameraInputKeys = new String[VisionConfig.TOTAL_CAMS];
+  // Every estimate from every camera for the current loop, fused in capture-time order
+  private final VisionMeasurementBatch visionBatch =
+      new VisionMeasurementBatch(VisionConfig.TOTAL_CAMS * VisionConfig.CAMERA_RESULT_BUFFER_SIZE);
+
+  // One row per fused measurement for VisionNoiseFitter: camera, tag count, closest tag distance,
+  // ambiguity, PoseStrategy ordinal, capture time, vision x, y, theta, the estimate's x, y, theta at
+  // capture time before fusing, then odometry's x, y, theta at capture time
+  public static final int NOISE_SAMPLE_STRIDE = 15;
+  private static final double[] NO_NOISE_SAMPLES = new double[0];
+  private final double[] noiseSamples =
+      new double[VisionConfig.TOTAL_CAMS * VisionConfig.CAMERA_RESULT_BUFFER_SIZE * NOISE_SAMPLE_STRIDE];
+  private int noiseSampleCount = 0;
+  private final PoseHistory.Sample referenceSample = new PoseHistory.Sample();
+  private final PoseHistory.Sample odometrySample = new PoseHistory.Sample();
+  private final double[] stdDevs = new double[3];
+  // Drops or down-weights estimates that disagree with the pose estimate, see VisionGate
+  private final VisionGate visionGate = new VisionGate(VisionConfig.CAM_NAMES);
+  private boolean gateOpen = true;
+
+  // Vision bandwidth counters for the most recent loop
+  private int framesReceived = 0;
+  private int framesAccepted = 0;
+  private int framesRejected = 0;
+  private int measurementsFused = 0;
+  private int measurementsGated = 0;
+
+  private final StructChannel<Pose2d> poseTelemetry =
+      Telemetry.structChannel("Robot Pose", Pose2d.struct, Level.kCompetition);
+  // Formatting allocates, so only build the string a few times a second
+  private final StringChannel formattedPoseTelemetry =
+      Telemetry.stringChannel("Pose Formatted", Level.kDebug, 0.25);
+  private final DoubleChannel framesReceivedTelemetry = Telemetry.doubleChannel("Vision Frames Received");
+  private final DoubleChannel framesAcceptedTelemetry = Telemetry.doubleChannel("Vision Frames Accepted");
+  private final DoubleChannel framesRejectedTelemetry = Telemetry.doubleChannel("Vision Frames Rejected");
+  private final DoubleChannel measurementsFusedTelemetry = Telemetry.doubleChannel("Vision Measurements Fused");
+  private final DoubleChannel measurementsGatedTelemetry = Telemetry.doubleChannel("Vision Measurements Gated");
 
   private static PoseEstimatorSubsystem mInstance;
+  private final LoopProfiler.Section mLoopSection = LoopProfiler.getInstance().section("Subsystems/Vision");
 
-  public PoseEstimatorSubsystem(Supplier<Rotation2d> rotationSupplier,
-      Supplier<SwerveModulePosition[]> modulePositionSupplier) {
-    this.rotationSupplier = rotationSupplier;
-    this.modulePositionSupplier = modulePositionSupplier;
-
-    poseEstimator = new SwerveDrivePoseEstimator(
-        CommandSwerveDrivetrain.getInstance().getKinematics(),
-        rotationSupplier.get(),
-        modulePositionSupplier.get(),
-        new Pose2d(),
-        VisionConfig.STATE_STANDARD_DEVIATIONS,
-        VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS);
-
-    // Start PhotonVision thread
-    // rightNotifier.setName("rightRunnable");
-    // rightNotifier.startPeriodic(0.02);
-
-    // // Start PhotonVision thread
-    // leftNotifier.setName("leftRunnable");
-    // leftNotifier.startPeriodic(0.02);
-
-    allNotifier.setName("runAll");
-    allNotifier.startPeriodic(0.02);
+  /**
+   * @param drivetrain the drivetrain whose estimator the measurements go to
+   * @param cameras one per camera, in the order of VisionConfig.CAM_NAMES
+   */
+  PoseEstimatorSubsystem(CommandSwerveDrivetrain drivetrain, VisionIO[] cameras) {
+    this.drivetrain = drivetrain;
+    this.cameras = cameras;
+    for (int i = 0; i < cameras.length; i++) {
+      cameraInputs[i] = new VisionIOInputsAutoLogged();
+      cameraInputKeys[i] = "Vision/" + VisionConfig.CAM_NAMES[i];
+    }
 
     SmartDashboard.putData("Field Pose Estimation", field2d);
     // backNotifier.setName("backRunnable");
@@ -90,8 +105,16 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
 
   public static PoseEstimatorSubsystem getInstance() {
     if(mInstance == null) {
-      CommandSwerveDrivetrain mDrivetrain = CommandSwerveDrivetrain.getInstance();
-      mInstance = new PoseEstimatorSubsystem(mDrivetrain::getGyroRotation, mDrivetrain::getSwerveModulePositions);
+      var drivetrain = CommandSwerveDrivetrain.getInstance();
+      var cameras = new VisionIO[VisionConfig.TOTAL_CAMS];
+      for (int i = 0; i < cameras.length; i++) {
+        cameras[i] = switch (Robot.Settings.kMode) {
+          case kReal, kSim -> new VisionIOPhoton(VisionConfig.CAM_NAMES[i],
+              VisionConfig.ROBOT_TO_CAM_TRANSFORMS[i], drivetrain.getPoseHistory());
+          case kReplay -> new VisionIO() {};
+        };
+      }
+      mInstance = new PoseEstimatorSubsystem(drivetrain, cameras);
     }
     return mInstance;
   }
@@ -101,58 +124,46 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
     tab.addString("Pose", this::getFomattedPose).withPosition(6, 2).withSize(2, 1);
   }
 
-  /**
-   * Sets the alliance. This is used to configure the origin of the AprilTag map
-   * 
-   * @param alliance alliance
-   */
-  public void setAlliance(Alliance alliance) {
-    boolean allianceChanged = false;
-    switch (alliance) {
-      case Blue:
-        allianceChanged = (originPosition == kRedAllianceWallRightSide);
-        originPosition = kBlueAllianceWallRightSide;
-        break;
-      case Red:
-        allianceChanged = (originPosition == kBlueAllianceWallRightSide);
-        originPosition = kRedAllianceWallRightSide;
-        break;
-      default:
-        // No valid alliance data. Nothing we can do about it
-    }
+  @Override
+  public void periodic() {
+    mLoopSection.begin();
 
-    if (allianceChanged) {
-      // The alliance changed, which changes the coordinate system.
-      // Since a tag was seen, and the tags are all relative to the coordinate system,
-      // the estimated pose
-      // needs to be transformed to the new coordinate system.
-      var newPose = flipAlliance(getCurrentPose());
-      poseEstimator.resetPosition(rotationSupplier.get(), modulePositionSupplier.get(), newPose);
+    for (int i = 0; i < cameras.length; i++) {
+      cameras[i].updateInputs(cameraInputs[i]);
+      Logger.processInputs(cameraInputKeys[i], cameraInputs[i]);
     }
-  }
 
-  @Override
-  public void periodic() {
-    // Update pose estimator with drivetrain sensors
-    poseEstimator.update(rotationSupplier.get(), modulePositionSupplier.get());
+    // Odometry is integrated by the drivetrain, only vision is added here
     if (VisionConfig.USE_VISION) {
-      estimatorChecker(rightEstimator);
-      estimatorChecker(leftEstimator);
+      fuseVisionMeasurements();
     } else {
-      allNotifier.close();
+      for (var camera : cameras) {
+        camera.stop();
+      }
     }
 
     // estimatorChecker(backEstimator);
 
     // Set the pose on the dashboard
-    var dashboardPose = poseEstimator.getEstimatedPosition();
-    if (originPosition == kRedAllianceWallRightSide) {
-      // Flip the pose when red, since the dashboard field photo cannot be rotated
-      dashboardPose = flipAlliance(dashboardPose);
+    var pose = getCurrentPose();
+    field2d.setRobotPose(pose);
+    poseTelemetry.set(pose);
+    if (formattedPoseTelemetry.isDue()) {
+      formattedPoseTelemetry.set(getFomattedPose());
     }
-    field2d.setRobotPose(dashboardPose);
-    SmartDashboard.putString("Pose Formatted", getFomattedPose());
-    
+
+    framesReceivedTelemetry.set(framesReceived);
+    framesAcceptedTelemetry.set(framesAccepted);
+    framesRejectedTelemetry.set(framesRejected);
+    measurementsFusedTelemetry.set(measurementsFused);
+    measurementsGatedTelemetry.set(measurementsGated);
+
+    Logger.recordOutput("Vision/FramesReceived", framesReceived);
+    Logger.recordOutput("Vision/FramesAccepted", framesAccepted);
+    Logger.recordOutput("Vision/FramesRejected", framesRejected);
+    Logger.recordOutput("Vision/MeasurementsFused", measurementsFused);
+    Logger.recordOutput("Vision/MeasurementsGated", measurementsGated);
+    visionGate.publish();
   }
 
   private String getFomattedPose() {
@@ -164,7 +175,7 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
   }
 
   public Pose2d getCurrentPose() {
-    return poseEstimator.getEstimatedPosition();
+    return drivetrain.getPose();
   }
 
   /**
@@ -175,7 +186,7 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
    * @param newPose new pose
    */
   public void setCurrentPose(Pose2d newPose) {
-    poseEstimator.resetPosition(rotationSupplier.get(), modulePositionSupplier.get(), newPose);
+    drivetrain.resetPose(newPose);
   }
 
   /**
@@ -187,21 +198,6 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
     setCurrentPose(new Pose2d());
   }
 
-  /**
-   * Transforms a pose to the opposite alliance's coordinate system. (0,0) is
-   * always on the right corner of your
-   * alliance wall, so for 2023, the field elements are at different coordinates
-   * for each alliance.
-   * 
-   * @param poseToFlip pose to transform to the other alliance
-   * @return pose relative to the other alliance's coordinate system
-   */
-  private Pose2d flipAlliance(Pose2d poseToFlip) {
-    return poseToFlip.relativeTo(new Pose2d(
-        new Translation2d(VisionConfig.FIELD_LENGTH_METERS, VisionConfig.FIELD_WIDTH_METERS),
-        new Rotation2d(Math.PI)));
-  }
-
   public void addTrajectory(Trajectory traj) {
     field2d.getObject("Trajectory").setTrajectory(traj);
   }
@@ -211,44 +207,125 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
   // yValues.clear();
   // }
 
-  private Matrix<N3, N1> confidenceCalculator(EstimatedRobotPose estimation) {
+  /**
+   * Looks up the vision standard deviations for an estimate from the camera's fitted noise model,
+   * by how far away the closest tag is, how ambiguous a single tag is and how many tags were seen.
+   * Pure math, so it can be benchmarked off-robot.
+   */
+  static Matrix<N3, N1> confidenceCalculator(EstimatedRobotPose estimation, int camera) {
+    var out = new double[3];
+    VisionNoiseModel.getInstance().lookup(camera, estimation.targetsUsed.size(),
+        smallestTagDistance(estimation), singleTagAmbiguity(estimation), out);
+    return VecBuilder.fill(out[0], out[1], out[2]);
+  }
+
+  /** Distance from the camera to the closest tag used by an estimate, in meters. */
+  static double smallestTagDistance(EstimatedRobotPose estimation) {
     double smallestDistance = Double.POSITIVE_INFINITY;
     for (var target : estimation.targetsUsed) {
       var t3d = target.getBestCameraToTarget();
-      var distance = Math.sqrt(Math.pow(t3d.getX(), 2) + Math.pow(t3d.getY(), 2) + Math.pow(t3d.getZ(), 2));
+      var distance = Math.sqrt(t3d.getX() * t3d.getX() + t3d.getY() * t3d.getY() + t3d.getZ() * t3d.getZ());
       if (distance < smallestDistance)
         smallestDistance = distance;
     }
-    double poseAmbiguityFactor = estimation.targetsUsed.size() != 1
-        ? 1
-        : Math.max(
-            1,
-            (estimation.targetsUsed.get(0).getPoseAmbiguity()
-                + VisionConfig.POSE_AMBIGUITY_SHIFTER)
-                * VisionConfig.POSE_AMBIGUITY_MULTIPLIER);
-    double confidenceMultiplier = Math.max(
-        1,
-        (Math.max(
-            1,
-            Math.max(0, smallestDistance -  VisionConfig.NOISY_DISTANCE_METERS)
-                * VisionConfig.DISTANCE_WEIGHT)
-            * poseAmbiguityFactor)
-            / (1
-                + ((estimation.targetsUsed.size() - 1) * VisionConfig.TAG_PRESENCE_WEIGHT)));
-
-    return VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS.times(confidenceMultiplier);
+    return smallestDistance;
   }
 
-  public void estimatorChecker(PhotonRunnable estimator) {
-    var cameraPose = estimator.grabLatestEstimatedPose();
-    if (cameraPose != null) {
-      // New pose from vision
-      var pose2d = cameraPose.estimatedPose.toPose2d();
-      if (originPosition == kRedAllianceWallRightSide) {
-        pose2d = flipAlliance(pose2d);
-      }
-      poseEstimator.addVisionMeasurement(pose2d, cameraPose.timestampSeconds,
-          confidenceCalculator(cameraPose));
+  /** Pose ambiguity of a single tag estimate, zero for estimates from more tags. */
+  static double singleTagAmbiguity(EstimatedRobotPose estimation) {
+    return estimation.targetsUsed.size() == 1 ? estimation.targetsUsed.get(0).getPoseAmbiguity() : 0.0;
+  }
+
+  /**
+   * Collects every new estimate from every camera, sorts them by capture time and adds them to
+   * the drivetrain's pose estimator in a single pass. Also updates the per-loop vision counters.
+   */
+  private void fuseVisionMeasurements() {
+    framesReceived = 0;
+    framesAccepted = 0;
+    framesRejected = 0;
+    for (int i = 0; i < cameras.length; i++) {
+      var inputs = cameraInputs[i];
+      visionBatch.addAll(inputs, i);
+      framesReceived += inputs.framesReceived;
+      framesAccepted += inputs.framesAccepted;
+      framesRejected += inputs.framesRejected;
+    }
+
+    visionBatch.sortByTimestamp();
+    noiseSampleCount = 0;
+    measurementsGated = 0;
+    // Let everything through while disabled, the robot may have been moved by hand
+    gateOpen = DriverStation.isDisabled();
+    for (int i = 0; i < visionBatch.size(); i++) {
+      addCameraPose(i);
+    }
+    measurementsFused = visionBatch.size() - measurementsGated;
+    visionBatch.clear();
+    Logger.recordOutput("Vision/NoiseSamples", noiseSampleCount == 0
+        ? NO_NOISE_SAMPLES
+        : Arrays.copyOf(noiseSamples, noiseSampleCount * NOISE_SAMPLE_STRIDE));
+  }
+
+  /** Gates and fuses the measurement at <code>index</code> in the sorted batch. */
+  private void addCameraPose(int index) {
+    // New pose from vision, timestamp is converted from FPGA time by the drivetrain
+    var pose2d = new Pose2d(visionBatch.getX(index), visionBatch.getY(index),
+        new Rotation2d(visionBatch.getTheta(index)));
+    double timestampSeconds = visionBatch.getTimestamp(index);
+    int camera = visionBatch.getCamera(index);
+    int tagCount = visionBatch.getTagCount(index);
+    double distance = visionBatch.getClosestTagDistance(index);
+    double ambiguity = visionBatch.getAmbiguity(index);
+    int strategy = visionBatch.getStrategy(index);
+    boolean hasReference = drivetrain.samplePoseHistory(timestampSeconds, referenceSample);
+    recordNoiseSample(pose2d, timestampSeconds, hasReference, camera, tagCount, distance, ambiguity, strategy);
+
+    VisionNoiseModel.getInstance().lookup(camera, tagCount, distance, ambiguity, stdDevs);
+    if (strategy == PoseStrategy.PNP_DISTANCE_TRIG_SOLVE.ordinal()) {
+      stdDevs[2] = VisionConfig.TRIG_SOLVE_HEADING_STD_DEV;
+    }
+    if (hasReference && !visionGate.check(camera,
+        pose2d.getX() - referenceSample.xMeters,
+        pose2d.getY() - referenceSample.yMeters,
+        Math.IEEEremainder(pose2d.getRotation().getRadians() - referenceSample.thetaRadians, 2.0 * Math.PI),
+        stdDevs, gateOpen)) {
+      measurementsGated++;
+      return;
+    }
+    drivetrain.addVisionMeasurement(pose2d, timestampSeconds,
+        VecBuilder.fill(stdDevs[0], stdDevs[1], stdDevs[2]));
+    Logger.recordOutput("Vision/LastFusedPose", pose2d);
+    Logger.recordOutput("Vision/LastFusedTimestamp", timestampSeconds);
+  }
+
+  /**
+   * Adds a row to this loop's noise samples. Two references are kept with each row, the
+   * drivetrain's estimate when the frame was captured, before this frame is fused, and odometry
+   * alone, which no camera has touched. Rows are recorded before the gate, so the fit sees the
+   * outliers too.
+   */
+  private void recordNoiseSample(Pose2d pose2d, double timestampSeconds, boolean hasReference, int camera,
+      int tagCount, double distance, double ambiguity, int strategy) {
+    if ((noiseSampleCount + 1) * NOISE_SAMPLE_STRIDE > noiseSamples.length) {
+      return;
     }
+    boolean hasOdometry = drivetrain.sampleOdometryHistory(timestampSeconds, odometrySample);
+    int i = noiseSampleCount++ * NOISE_SAMPLE_STRIDE;
+    noiseSamples[i] = camera;
+    noiseSamples[i + 1] = tagCount;
+    noiseSamples[i + 2] = distance;
+    noiseSamples[i + 3] = ambiguity;
+    noiseSamples[i + 4] = strategy;
+    noiseSamples[i + 5] = timestampSeconds;
+    noiseSamples[i + 6] = pose2d.getX();
+    noiseSamples[i + 7] = pose2d.getY();
+    noiseSamples[i + 8] = pose2d.getRotation().getRadians();
+    noiseSamples[i + 9] = hasReference ? referenceSample.xMeters : Double.NaN;
+    noiseSamples[i + 10] = hasReference ? referenceSample.yMeters : Double.NaN;
+    noiseSamples[i + 11] = hasReference ? referenceSample.thetaRadians : Double.NaN;
+    noiseSamples[i + 12] = hasOdometry ? odometrySample.xMeters : Double.NaN;
+    noiseSamples[i + 13] = hasOdometry ? odometrySample.yMeters : Double.NaN;
+    noiseSamples[i + 14] = hasOdometry ? odometrySample.thetaRadians : Double.NaN;
   }
 }
\ No newline at end of file
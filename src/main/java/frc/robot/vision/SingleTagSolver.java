@@ -0,0 +1,71 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.geometry.Transform3d;
+
+/**
+ * Finds the robot's position from one AprilTag and the robot's heading, in closed form.
+ *
+ * <p>With one tag, PnP has to guess the tag's orientation from four corners a few pixels apart,
+ * which is where single tag estimates get their ambiguity and most of their error. The distance and
+ * direction to the tag are measured much better than its orientation. Given the heading from the
+ * gyro, the tag's position relative to the robot only has to be turned into field coordinates and
+ * subtracted from the tag's known position on the field. There is no iteration and nothing is
+ * allocated.
+ *
+ * <p>The heading is not measured, only passed through, so estimates from this solver should be
+ * fused with a very large heading std dev.
+ *
+ * <p>One solver per camera. Immutable, can be used from any thread.
+ */
+public class SingleTagSolver {
+    // Robot-to-camera translation and the top two rows of its rotation, only x and y are needed
+    private final double mCameraX;
+    private final double mCameraY;
+    private final double mR00, mR01, mR02;
+    private final double mR10, mR11, mR12;
+
+    /**
+     * @param robotToCamera the camera's pose on the robot, from
+     *     {@link VisionConfig#ROBOT_TO_CAM_TRANSFORMS}
+     */
+    public SingleTagSolver(Transform3d robotToCamera) {
+        mCameraX = robotToCamera.getX();
+        mCameraY = robotToCamera.getY();
+        final var rotation = robotToCamera.getRotation().toMatrix();
+        mR00 = rotation.get(0, 0);
+        mR01 = rotation.get(0, 1);
+        mR02 = rotation.get(0, 2);
+        mR10 = rotation.get(1, 0);
+        mR11 = rotation.get(1, 1);
+        mR12 = rotation.get(1, 2);
+    }
+
+    /**
+     * Solves for the robot's position on the field, with the blue alliance origin.
+     *
+     * @param tagId ID of the tag seen
+     * @param cameraToTagX x of the tag in the camera's frame, forward out of the lens, in meters
+     * @param cameraToTagY y of the tag in the camera's frame, to the left
+     * @param cameraToTagZ z of the tag in the camera's frame, up
+     * @param headingRadians the robot's heading on the field when the frame was captured
+     * @param out filled with the robot's field x and y in meters
+     * @return false if the tag is not on the field
+     */
+    public boolean solve(int tagId, double cameraToTagX, double cameraToTagY, double cameraToTagZ,
+            double headingRadians, double[] out) {
+        final FieldLayout layout = FieldLayout.getInstance();
+        if (!layout.hasTag(tagId)) {
+            return false;
+        }
+        // Tag relative to the robot center, in the robot's frame
+        final double tagX = mCameraX + mR00 * cameraToTagX + mR01 * cameraToTagY + mR02 * cameraToTagZ;
+        final double tagY = mCameraY + mR10 * cameraToTagX + mR11 * cameraToTagY + mR12 * cameraToTagZ;
+
+        // Turned into the field frame and taken back from the tag
+        final double cos = Math.cos(headingRadians);
+        final double sin = Math.sin(headingRadians);
+        out[0] = layout.getTagX(tagId, false) - (cos * tagX - sin * tagY);
+        out[1] = layout.getTagY(tagId, false) - (sin * tagX + cos * tagY);
+        return true;
+    }
+}
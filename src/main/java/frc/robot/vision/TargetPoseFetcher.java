@@ -6,8 +6,7 @@ import java.util.Map;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.driver.DriverXbox;
-import frc.robot.elevator.ElevatorSubsystem;
-import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.superstructure.Superstructure;
 import frc.robot.vision.VisionConfig.ReefFace;
 
 public class TargetPoseFetcher {
@@ -58,9 +57,7 @@ public class TargetPoseFetcher {
 
     public Pose2d getAppropriateElevatorLineupOffset(ReefFace nearestReefFace, boolean isLeftAlign) {
         //handle Elevator L4 vs L3, L2, L1 logic here
-        boolean isElevatorStateL4 = (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL4) || 
-                                    (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL4AutonScore) || 
-                                    (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralScoreL4);
+        boolean isElevatorStateL4 = Superstructure.getInstance().isElevatorAt(Superstructure.Tag.kL4);
         
         Pose2d appropriateElevatorPose = Pose2d.kZero;
         
@@ -74,14 +71,7 @@ public class TargetPoseFetcher {
     public Pose2d getAppropriateWristLineupOffset() {
         //handle right facing vs left facing wrist
 
-        boolean isWristRightFacing = (RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight) ||
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right) ||
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist) || 
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist) || 
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist) || 
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid) ||
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid) ||
-                                    (RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid);
+        boolean isWristRightFacing = Superstructure.getInstance().isRightSide();
 
         return Pose2d.kZero;
     }
@@ -14,7 +14,6 @@ import java.util.stream.Stream;
 import org.photonvision.PhotonCamera;
 
 import edu.wpi.first.apriltag.AprilTagFieldLayout;
-import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.VecBuilder;
@@ -23,6 +22,7 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
@@ -55,8 +55,8 @@ public class VisionConfig {
             new Rotation3d(0, Units.degreesToRadians(15), Units.degreesToRadians(-160)))
     }; 
 
-    // Creates field layout for AprilTags
-    public static AprilTagFieldLayout TAG_FIELD_LAYOUT = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
+    // Field layout for AprilTags, parsed once and shared with the cameras
+    public static final AprilTagFieldLayout TAG_FIELD_LAYOUT = FieldLayout.getInstance().getLayout();
 
     // Standard deviation of vision poses, this helps with correction or something idk thats what photon said
     // TODO: experiment with standard deviation values and set them to whatever gives the most correct pose
@@ -74,6 +74,10 @@ public class VisionConfig {
 
     public static boolean USE_VISION = true;
 
+    // Each camera runs its own worker thread; these size the hand-off to the robot thread
+    public static final int CAMERA_RESULT_BUFFER_SIZE = 32; // accepted estimates held per camera between robot loops
+    public static final double CAMERA_IDLE_WAKE_SECONDS = 0.02; // worker polls at least this often if no new frame is signalled
+
 
     public static final double APRILTAG_AMBIGUITY_THRESHOLD = 0.2;
     public static final double POSE_AMBIGUITY_SHIFTER = 0.2;
@@ -91,6 +95,11 @@ public class VisionConfig {
      */
     public static final Matrix<N3, N1> VISION_MEASUREMENT_STANDARD_DEVIATIONS = VecBuilder.fill(0.2, 0.2, Units.degreesToRadians(10));
 
+    // Single tag estimates from SingleTagSolver copy their heading from the estimator, so it carries no
+    // information. An infinite std dev gives it a Kalman gain of exactly zero, where a large finite one
+    // would still nudge the heading toward its own past value.
+    public static final double TRIG_SOLVE_HEADING_STD_DEV = Double.POSITIVE_INFINITY;
+
     /**
      * Standard deviations of the vision measurements. Increase these numbers to
      * trust global measurements from vision
@@ -275,6 +284,25 @@ public class VisionConfig {
 
         }
 
+        /**
+         * Finds the face whose AprilTag is closest to a point on the field.
+         *
+         * @param translation the point, usually the robot's position
+         * @param faces the faces to search
+         * @return the closest face, or null if <code>faces</code> is empty
+         */
+        public static ReefFace closestTo(Translation2d translation, ReefFace[] faces) {
+            double closestDistance = Double.MAX_VALUE; // Distance away from april tag
+            ReefFace closestFace = null;
+            for (ReefFace face : faces) {
+                double distance = translation.getDistance(face.AprilTag.getTranslation());
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closestFace = face;
+                }
+            }
+            return closestFace;
+        }
     }
 
     
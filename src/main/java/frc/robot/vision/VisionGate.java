@@ -0,0 +1,154 @@
+package frc.robot.vision;
+
+import org.littletonrobotics.junction.Logger;
+
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+
+/**
+ * Checks each vision estimate against where the pose estimator thought the robot was when the
+ * frame was captured, before it is fused. A bad solve, such as a flipped multi-tag pose, would
+ * otherwise pull the estimate off and make AutoAlign chase it back and forth.
+ *
+ * <p>The check is the squared Mahalanobis distance between the two poses, each axis divided by the
+ * combined variance of the estimate ({@link VisionConfig#STATE_STANDARD_DEVIATIONS}) and the
+ * measurement. Measurements past {@link Settings#kRejectDistanceSquared} are dropped, and ones past
+ * {@link Settings#kTrustDistanceSquared} have their std devs scaled up so they pull less.
+ *
+ * <p>Each camera keeps a health score from 0 to 1, an exponential average of how well its
+ * measurements agree with the estimate. A camera's std devs are divided by its health, so a camera
+ * that has been bumped or is seeing reflections is trusted less until it agrees again.
+ *
+ * <p>If the gate rejects {@link Settings#kRecoverRejections} measurements in a row, from any camera,
+ * the estimate is more likely wrong than every camera, so the next measurement is let through to
+ * pull it back. The gate is also open while disabled, so the robot can be placed anywhere before a
+ * match.
+ *
+ * <p>Only used from the robot thread.
+ */
+public class VisionGate {
+    public static class Settings {
+        // Chi-squared with 3 degrees of freedom, 95% and 99.9%
+        public static final double kTrustDistanceSquared = 7.81;
+        public static final double kRejectDistanceSquared = 16.27;
+        // Weight of the newest measurement in each camera's health
+        public static final double kHealthAlpha = 0.05;
+        // A camera is never trusted less than this
+        public static final double kMinHealth = 0.25;
+        public static final int kRecoverRejections = 10;
+    }
+
+    private final double[] mHealth;
+    private final int[] mRejected;
+    private final DoubleChannel[] mHealthTelemetry;
+    private final String[] mHealthKeys;
+    private final String[] mRejectedKeys;
+    private final double mEstimateVarianceX;
+    private final double mEstimateVarianceY;
+    private final double mEstimateVarianceTheta;
+
+    private int mConsecutiveRejections = 0;
+    private double mLastDistanceSquared = 0.0;
+
+    /**
+     * @param cameraNames names of the cameras, indexed the same as camera indexes passed to
+     *     {@link #check}
+     */
+    public VisionGate(String[] cameraNames) {
+        mHealth = new double[cameraNames.length];
+        mRejected = new int[cameraNames.length];
+        mHealthTelemetry = new DoubleChannel[cameraNames.length];
+        mHealthKeys = new String[cameraNames.length];
+        mRejectedKeys = new String[cameraNames.length];
+        for (int i = 0; i < cameraNames.length; i++) {
+            mHealth[i] = 1.0;
+            mHealthTelemetry[i] = Telemetry.doubleChannel("Vision Health " + cameraNames[i]);
+            mHealthKeys[i] = "Vision/" + cameraNames[i] + "/Health";
+            mRejectedKeys[i] = "Vision/" + cameraNames[i] + "/Rejected";
+        }
+
+        final var estimate = VisionConfig.STATE_STANDARD_DEVIATIONS;
+        mEstimateVarianceX = estimate.get(0, 0) * estimate.get(0, 0);
+        mEstimateVarianceY = estimate.get(1, 0) * estimate.get(1, 0);
+        mEstimateVarianceTheta = estimate.get(2, 0) * estimate.get(2, 0);
+    }
+
+    /**
+     * Checks one measurement and updates the camera's health. Does not allocate.
+     *
+     * @param camera index of the camera
+     * @param dx measured x minus estimated x, in meters
+     * @param dy measured y minus estimated y, in meters
+     * @param dTheta measured heading minus estimated heading, wrapped to [-pi, pi]
+     * @param stdDevs the measurement's x, y and heading std devs, scaled in place by the camera's
+     *     health and by how far out the measurement is
+     * @param open true to accept the measurement whatever it says, for example while disabled
+     * @return true if the measurement should be fused
+     */
+    public boolean check(int camera, double dx, double dy, double dTheta, double[] stdDevs, boolean open) {
+        final double health = Math.max(mHealth[camera], Settings.kMinHealth);
+        stdDevs[0] /= health;
+        stdDevs[1] /= health;
+        stdDevs[2] /= health;
+
+        final double distanceSquared = dx * dx / (mEstimateVarianceX + stdDevs[0] * stdDevs[0])
+            + dy * dy / (mEstimateVarianceY + stdDevs[1] * stdDevs[1])
+            + dTheta * dTheta / (mEstimateVarianceTheta + stdDevs[2] * stdDevs[2]);
+        mLastDistanceSquared = distanceSquared;
+
+        // Full marks inside the trusted region, none past the rejection line
+        final double agreement;
+        if (distanceSquared <= Settings.kTrustDistanceSquared) {
+            agreement = 1.0;
+        } else if (distanceSquared < Settings.kRejectDistanceSquared) {
+            agreement = (Settings.kRejectDistanceSquared - distanceSquared)
+                / (Settings.kRejectDistanceSquared - Settings.kTrustDistanceSquared);
+        } else {
+            agreement = 0.0;
+        }
+        mHealth[camera] += Settings.kHealthAlpha * (agreement - mHealth[camera]);
+
+        if (open || mConsecutiveRejections >= Settings.kRecoverRejections) {
+            mConsecutiveRejections = 0;
+            return true;
+        }
+        // Also catches NaN
+        if (!(distanceSquared < Settings.kRejectDistanceSquared)) {
+            mConsecutiveRejections++;
+            mRejected[camera]++;
+            return false;
+        }
+        mConsecutiveRejections = 0;
+        if (distanceSquared > Settings.kTrustDistanceSquared) {
+            // Pull about as hard as a measurement right on the trust line would
+            final double scale = Math.sqrt(distanceSquared / Settings.kTrustDistanceSquared);
+            stdDevs[0] *= scale;
+            stdDevs[1] *= scale;
+            stdDevs[2] *= scale;
+        }
+        return true;
+    }
+
+    /**
+     * @param camera index of the camera
+     * @return the camera's health, 1 when its measurements agree with the estimate
+     */
+    public double getHealth(int camera) {
+        return mHealth[camera];
+    }
+
+    /** @return the squared Mahalanobis distance of the last measurement checked */
+    public double getLastDistanceSquared() {
+        return mLastDistanceSquared;
+    }
+
+    /** Publishes each camera's health and rejections since the last call. */
+    public void publish() {
+        for (int i = 0; i < mHealth.length; i++) {
+            mHealthTelemetry[i].set(mHealth[i]);
+            Logger.recordOutput(mHealthKeys[i], mHealth[i]);
+            Logger.recordOutput(mRejectedKeys[i], mRejected[i]);
+            mRejected[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package frc.robot.vision;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Interface to one camera. Each loop's inputs hold every estimate the camera accepted since the
+ * last loop, oldest first, cut down to what fusing it needs. Poses are on the blue alliance field
+ * and timestamps are FPGA seconds at capture.
+ *
+ * <p>Every method has an empty default, so <code>new VisionIO() {}</code> is the replay
+ * implementation: the estimates come from the log and are fused again as if they were live.
+ */
+public interface VisionIO {
+  @AutoLog
+  public static class VisionIOInputs {
+    public int framesReceived = 0;
+    public int framesAccepted = 0;
+    public int framesRejected = 0;
+    // Estimates taken from the camera past what one loop can hold, lost
+    public int estimatesDropped = 0;
+
+    public double[] timestamps = new double[] {};
+    public double[] xMeters = new double[] {};
+    public double[] yMeters = new double[] {};
+    public double[] thetaRadians = new double[] {};
+    public int[] tagCounts = new int[] {};
+    public double[] closestTagDistances = new double[] {};
+    public double[] ambiguities = new double[] {};
+    // PoseStrategy ordinals
+    public int[] strategies = new int[] {};
+  }
+
+  default void updateInputs(VisionIOInputs inputs) {}
+
+  /** Stops the camera, nothing it sees is wanted any more. */
+  default void stop() {}
+}
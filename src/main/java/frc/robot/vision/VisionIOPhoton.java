@@ -0,0 +1,85 @@
+package frc.robot.vision;
+
+import java.util.Arrays;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+
+import edu.wpi.first.math.geometry.Transform3d;
+import frc.crevolib.util.PoseHistory;
+
+/**
+ * A PhotonVision camera, on the robot or in simulation. Estimates are made on the camera's
+ * {@link PhotonRunnable} worker thread and drained into the inputs once per loop.
+ */
+public class VisionIOPhoton implements VisionIO {
+
+  private final PhotonRunnable runnable;
+
+  // Estimates drained this loop, only touched by the robot thread
+  private final double[] timestamps = new double[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final double[] xMeters = new double[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final double[] yMeters = new double[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final double[] thetaRadians = new double[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final int[] tagCounts = new int[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final double[] closestTagDistances = new double[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final double[] ambiguities = new double[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private final int[] strategies = new int[VisionConfig.CAMERA_RESULT_BUFFER_SIZE];
+  private int count = 0;
+  private int dropped = 0;
+
+  /**
+   * @param cameraName name of the camera in PhotonVision
+   * @param robotToCamera the camera's pose on the robot
+   * @param poseHistory the drivetrain's pose history, for the heading of single tag frames
+   */
+  public VisionIOPhoton(String cameraName, Transform3d robotToCamera, PoseHistory poseHistory) {
+    runnable = new PhotonRunnable(new PhotonCamera(cameraName), robotToCamera, poseHistory);
+    if (VisionConfig.USE_VISION) {
+      runnable.start();
+    }
+  }
+
+  @Override
+  public void updateInputs(VisionIOInputs inputs) {
+    count = 0;
+    dropped = 0;
+    runnable.drainEstimatedPoses(this::addEstimate);
+
+    inputs.framesReceived = runnable.takeFramesReceived();
+    inputs.framesAccepted = runnable.takeFramesAccepted();
+    inputs.framesRejected = runnable.takeFramesRejected();
+    inputs.estimatesDropped = dropped;
+    inputs.timestamps = Arrays.copyOf(timestamps, count);
+    inputs.xMeters = Arrays.copyOf(xMeters, count);
+    inputs.yMeters = Arrays.copyOf(yMeters, count);
+    inputs.thetaRadians = Arrays.copyOf(thetaRadians, count);
+    inputs.tagCounts = Arrays.copyOf(tagCounts, count);
+    inputs.closestTagDistances = Arrays.copyOf(closestTagDistances, count);
+    inputs.ambiguities = Arrays.copyOf(ambiguities, count);
+    inputs.strategies = Arrays.copyOf(strategies, count);
+  }
+
+  @Override
+  public void stop() {
+    runnable.close();
+  }
+
+  private void addEstimate(EstimatedRobotPose estimate) {
+    // The worker can keep adding while the buffer is drained
+    if (count == timestamps.length) {
+      dropped++;
+      return;
+    }
+    var pose = estimate.estimatedPose;
+    timestamps[count] = estimate.timestampSeconds;
+    xMeters[count] = pose.getX();
+    yMeters[count] = pose.getY();
+    thetaRadians[count] = pose.getRotation().getZ();
+    tagCounts[count] = estimate.targetsUsed.size();
+    closestTagDistances[count] = PoseEstimatorSubsystem.smallestTagDistance(estimate);
+    ambiguities[count] = PoseEstimatorSubsystem.singleTagAmbiguity(estimate);
+    strategies[count] = estimate.strategy.ordinal();
+    count++;
+  }
+}
@@ -0,0 +1,138 @@
+package frc.robot.vision;
+
+/**
+ * Holds every vision estimate collected from all cameras during one robot loop so they can be
+ * fused into the pose estimator in capture-time order.
+ *
+ * <p>Estimates are kept as primitives, as they come out of each camera's {@link VisionIO} inputs.
+ * Storage is allocated once; adding, sorting and clearing do not allocate.
+ */
+public class VisionMeasurementBatch {
+
+  private final double[] timestamps;
+  private final double[] xMeters;
+  private final double[] yMeters;
+  private final double[] thetaRadians;
+  private final int[] tagCounts;
+  private final double[] closestTagDistances;
+  private final double[] ambiguities;
+  private final int[] strategies;
+  // Index of the camera each measurement came from
+  private final int[] cameras;
+  // Slots in timestamp order once sorted, the getters read through it
+  private final int[] order;
+  private int size = 0;
+  private int overflowed = 0;
+
+  public VisionMeasurementBatch(int capacity) {
+    timestamps = new double[capacity];
+    xMeters = new double[capacity];
+    yMeters = new double[capacity];
+    thetaRadians = new double[capacity];
+    tagCounts = new int[capacity];
+    closestTagDistances = new double[capacity];
+    ambiguities = new double[capacity];
+    strategies = new int[capacity];
+    cameras = new int[capacity];
+    order = new int[capacity];
+  }
+
+  /**
+   * Adds every estimate in one camera's inputs to the batch. Measurements past capacity are counted
+   * and ignored.
+   *
+   * @param inputs the camera's inputs for this loop
+   * @param camera index of the camera, as in VisionConfig.CAM_NAMES
+   */
+  public void addAll(VisionIO.VisionIOInputs inputs, int camera) {
+    for (int i = 0; i < inputs.timestamps.length; i++) {
+      if (size == timestamps.length) {
+        overflowed += inputs.timestamps.length - i;
+        return;
+      }
+      timestamps[size] = inputs.timestamps[i];
+      xMeters[size] = inputs.xMeters[i];
+      yMeters[size] = inputs.yMeters[i];
+      thetaRadians[size] = inputs.thetaRadians[i];
+      tagCounts[size] = inputs.tagCounts[i];
+      closestTagDistances[size] = inputs.closestTagDistances[i];
+      ambiguities[size] = inputs.ambiguities[i];
+      strategies[size] = inputs.strategies[i];
+      cameras[size] = camera;
+      order[size] = size;
+      size++;
+    }
+  }
+
+  /**
+   * Sorts the batch from oldest to newest capture timestamp. Uses an insertion sort since
+   * batches are small and usually already nearly ordered per camera.
+   */
+  public void sortByTimestamp() {
+    for (int i = 1; i < size; i++) {
+      int current = order[i];
+      int j = i - 1;
+      while (j >= 0 && timestamps[order[j]] > timestamps[current]) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = current;
+    }
+  }
+
+  public double getTimestamp(int index) {
+    return timestamps[order[index]];
+  }
+
+  public double getX(int index) {
+    return xMeters[order[index]];
+  }
+
+  public double getY(int index) {
+    return yMeters[order[index]];
+  }
+
+  public double getTheta(int index) {
+    return thetaRadians[order[index]];
+  }
+
+  public int getTagCount(int index) {
+    return tagCounts[order[index]];
+  }
+
+  public double getClosestTagDistance(int index) {
+    return closestTagDistances[order[index]];
+  }
+
+  public double getAmbiguity(int index) {
+    return ambiguities[order[index]];
+  }
+
+  /** @return the PhotonVision PoseStrategy ordinal the estimate was made with */
+  public int getStrategy(int index) {
+    return strategies[order[index]];
+  }
+
+  public int getCamera(int index) {
+    return cameras[order[index]];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of measurements ignored because the batch was full.
+   *
+   * @return overflowed measurement count since the last clear
+   */
+  public int getOverflowed() {
+    return overflowed;
+  }
+
+  /** Empties the batch. */
+  public void clear() {
+    size = 0;
+    overflowed = 0;
+  }
+}
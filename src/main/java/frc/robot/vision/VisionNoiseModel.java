@@ -0,0 +1,241 @@
+package frc.robot.vision;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Standard deviations of each camera's pose estimates, looked up from a table fitted to recorded
+ * matches by {@link frc.robot.vision.tools.VisionNoiseFitter}. The table is read once from
+ * <code>vision_noise.csv</code> in the deploy directory.
+ *
+ * <p>The table has one cell per camera, tag count bucket (one, two, or three or more tags),
+ * ambiguity bin and distance bin, on the fixed grid in {@link Settings}. A lookup indexes straight
+ * into a flat array and interpolates between the two distance bins around the closest tag, so it
+ * costs the same no matter how big the table is and does not allocate.
+ *
+ * <p>Cells the file does not have, for example because too few samples landed in them, are filled
+ * from the hand-tuned formula that was used before the model was fitted,
+ * {@link #heuristicStdDevs}. With no fitted cells at all the formula is used directly.
+ *
+ * <p>The table is immutable once loaded and can be read from any thread.
+ *
+ * <pre>
+ * camera, tags, ambiguity, distance_m, std_x_m, std_y_m, std_theta_rad, samples
+ * 0, 1, 0.025, 1.25, 0.061, 0.058, 0.094, 412
+ * </pre>
+ */
+public class VisionNoiseModel {
+    public static class Settings {
+        public static final String kTableFile = "vision_noise.csv";
+        // Distance bins are centered on multiples of the step, clamped at both ends
+        public static final double kDistanceStepMeters = 0.5;
+        public static final int kDistanceBins = 13; // 0 to 6 m
+        // Tag counts past this share the last bucket
+        public static final int kTagBuckets = 3;
+        // Ambiguity bins are [0, step), [step, 2 step) and so on, the last one is open ended. Only
+        // single tags have an ambiguity, estimates from more tags are always in the first bin.
+        public static final double kAmbiguityStep = 0.05;
+        public static final int kAmbiguityBins = 4;
+        // Fitted values are never trusted past these
+        public static final double kMinStdDevMeters = 0.02;
+        public static final double kMinStdDevRadians = Math.toRadians(1.0);
+    }
+
+    private static final int kValues = 3;
+
+    private static VisionNoiseModel mInstance;
+
+    private final int mCameraCount;
+    /** x, y and theta std devs per cell, cells ordered camera, tags, ambiguity, distance. */
+    private final double[] mTable;
+    private final int mFittedCells;
+
+    /**
+     * Creates a model from the lines of a table file. Cells that are not in the file, or all of
+     * them if <code>lines</code> is null, use the heuristic.
+     *
+     * @param cameraCount number of cameras, rows for other cameras are ignored
+     * @param lines the lines of the CSV file, or null
+     * @throws IllegalArgumentException if the lines are not a valid table
+     */
+    public VisionNoiseModel(int cameraCount, List<String> lines) {
+        mCameraCount = cameraCount;
+        mTable = new double[cameraCount * Settings.kTagBuckets * Settings.kAmbiguityBins * Settings.kDistanceBins * kValues];
+
+        final double[] heuristic = new double[kValues];
+        for (int camera = 0; camera < cameraCount; camera++) {
+            for (int tags = 1; tags <= Settings.kTagBuckets; tags++) {
+                for (int ambiguityBin = 0; ambiguityBin < Settings.kAmbiguityBins; ambiguityBin++) {
+                    for (int distanceBin = 0; distanceBin < Settings.kDistanceBins; distanceBin++) {
+                        heuristicStdDevs(tags, distanceBin * Settings.kDistanceStepMeters,
+                            tags == 1 ? (ambiguityBin + 0.5) * Settings.kAmbiguityStep : 0.0, heuristic);
+                        System.arraycopy(heuristic, 0, mTable, cell(camera, tags, ambiguityBin, distanceBin), kValues);
+                    }
+                }
+            }
+        }
+        mFittedCells = lines == null ? 0 : parse(lines);
+    }
+
+    public static VisionNoiseModel getInstance() {
+        if (mInstance == null) {
+            mInstance = load(new File(Filesystem.getDeployDirectory(), Settings.kTableFile));
+        }
+        return mInstance;
+    }
+
+    private static VisionNoiseModel load(File file) {
+        if (!file.exists()) {
+            DriverStation.reportWarning("[VisionNoiseModel] " + file + " not found, using the heuristic std devs", false);
+            return new VisionNoiseModel(VisionConfig.TOTAL_CAMS, null);
+        }
+        try {
+            var model = new VisionNoiseModel(VisionConfig.TOTAL_CAMS, Files.readAllLines(file.toPath()));
+            DriverStation.reportWarning("[VisionNoiseModel] Loaded " + model.getFittedCellCount() + " fitted cells from " + file, false);
+            return model;
+        } catch (IOException | IllegalArgumentException e) {
+            DriverStation.reportWarning("[VisionNoiseModel] Could not read " + file + ": " + e.getMessage()
+                + ", using the heuristic std devs", false);
+            return new VisionNoiseModel(VisionConfig.TOTAL_CAMS, null);
+        }
+    }
+
+    /**
+     * Looks up the standard deviations of one estimate.
+     *
+     * @param camera index of the camera, as in {@link VisionConfig#CAM_NAMES}
+     * @param tagCount number of tags used by the estimate
+     * @param distanceMeters distance from the camera to the closest tag used
+     * @param ambiguity pose ambiguity of a single tag estimate, ignored for more tags
+     * @param out filled with the x and y std devs in meters and the heading std dev in radians
+     */
+    public void lookup(int camera, int tagCount, double distanceMeters, double ambiguity, double[] out) {
+        // Without a fitted table, use the formula itself rather than a sampled copy of it
+        if (mFittedCells == 0 || camera < 0 || camera >= mCameraCount) {
+            heuristicStdDevs(tagCount, distanceMeters, ambiguity, out);
+            return;
+        }
+        final int tags = tagBucket(tagCount);
+        final int base = cell(camera, tags, tags == 1 ? ambiguityBin(ambiguity) : 0, 0);
+
+        // Clamped at both ends, NaN lands in the first bin
+        double position = distanceMeters / Settings.kDistanceStepMeters;
+        if (!(position > 0.0)) {
+            position = 0.0;
+        } else if (position > Settings.kDistanceBins - 1) {
+            position = Settings.kDistanceBins - 1;
+        }
+        final int below = Math.min((int) position, Settings.kDistanceBins - 2);
+        final double fraction = position - below;
+        final int low = base + below * kValues;
+        final int high = low + kValues;
+        for (int i = 0; i < kValues; i++) {
+            out[i] = mTable[low + i] + (mTable[high + i] - mTable[low + i]) * fraction;
+        }
+    }
+
+    /** @return the number of cells read from the table file, zero if only the heuristic is used */
+    public int getFittedCellCount() {
+        return mFittedCells;
+    }
+
+    /**
+     * The hand-tuned standard deviations used before the model was fitted: the base vision std devs
+     * scaled up by the distance past {@link VisionConfig#NOISY_DISTANCE_METERS} and a single tag's
+     * ambiguity, and down by the number of tags.
+     *
+     * @param tagCount number of tags used by the estimate
+     * @param distanceMeters distance from the camera to the closest tag used
+     * @param ambiguity pose ambiguity of a single tag estimate, ignored for more tags
+     * @param out filled with the x, y and heading std devs
+     */
+    public static void heuristicStdDevs(int tagCount, double distanceMeters, double ambiguity, double[] out) {
+        final double poseAmbiguityFactor = tagCount != 1
+            ? 1
+            : Math.max(1, (ambiguity + VisionConfig.POSE_AMBIGUITY_SHIFTER) * VisionConfig.POSE_AMBIGUITY_MULTIPLIER);
+        final double confidenceMultiplier = Math.max(
+            1,
+            (Math.max(1, Math.max(0, distanceMeters - VisionConfig.NOISY_DISTANCE_METERS) * VisionConfig.DISTANCE_WEIGHT)
+                * poseAmbiguityFactor)
+                / (1 + ((tagCount - 1) * VisionConfig.TAG_PRESENCE_WEIGHT)));
+        final var base = VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS;
+        out[0] = base.get(0, 0) * confidenceMultiplier;
+        out[1] = base.get(1, 0) * confidenceMultiplier;
+        out[2] = base.get(2, 0) * confidenceMultiplier;
+    }
+
+    /**
+     * @param tagCount number of tags used by an estimate
+     * @return the tag count bucket, from 1 to {@link Settings#kTagBuckets}
+     */
+    public static int tagBucket(int tagCount) {
+        return Math.min(Math.max(tagCount, 1), Settings.kTagBuckets);
+    }
+
+    /**
+     * @param ambiguity pose ambiguity of a single tag estimate
+     * @return the ambiguity bin, negative or NaN ambiguity is in the first bin
+     */
+    public static int ambiguityBin(double ambiguity) {
+        final int bin = (int) (ambiguity / Settings.kAmbiguityStep);
+        return Math.min(Math.max(bin, 0), Settings.kAmbiguityBins - 1);
+    }
+
+    /**
+     * @param distanceMeters distance to the closest tag
+     * @return the nearest distance bin
+     */
+    public static int distanceBin(double distanceMeters) {
+        final int bin = (int) Math.round(distanceMeters / Settings.kDistanceStepMeters);
+        return Math.min(Math.max(bin, 0), Settings.kDistanceBins - 1);
+    }
+
+    private static int cell(int camera, int tags, int ambiguityBin, int distanceBin) {
+        return (((camera * Settings.kTagBuckets + tags - 1) * Settings.kAmbiguityBins + ambiguityBin)
+            * Settings.kDistanceBins + distanceBin) * kValues;
+    }
+
+    /** Copies the rows of a table file over the heuristic, returns the number of rows used. */
+    private int parse(List<String> lines) {
+        boolean header = true;
+        int used = 0;
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            final String line = lines.get(lineNumber - 1).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+            final String[] cells = line.split(",");
+            if (cells.length < 7) {
+                throw new IllegalArgumentException("line " + lineNumber + " has " + cells.length + " cells, expected 7 or more");
+            }
+            final double[] row = new double[7];
+            for (int i = 0; i < row.length; i++) {
+                try {
+                    row[i] = Double.parseDouble(cells[i].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("line " + lineNumber + " has a bad number '" + cells[i].trim() + "'");
+                }
+            }
+            final int camera = (int) row[0];
+            if (camera < 0 || camera >= mCameraCount) {
+                continue;
+            }
+            final int tags = tagBucket((int) row[1]);
+            final int i = cell(camera, tags, tags == 1 ? ambiguityBin(row[2]) : 0, distanceBin(row[3]));
+            mTable[i] = Math.max(row[4], Settings.kMinStdDevMeters);
+            mTable[i + 1] = Math.max(row[5], Settings.kMinStdDevMeters);
+            mTable[i + 2] = Math.max(row[6], Settings.kMinStdDevRadians);
+            used++;
+        }
+        return used;
+    }
+}
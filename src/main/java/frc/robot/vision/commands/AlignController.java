@@ -0,0 +1,102 @@
+package frc.robot.vision.commands;
+
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static frc.robot.vision.VisionConfig.AlignmentConfig.*;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * The x, y and theta PID controllers shared by the alignment commands. Turns the robot pose and a
+ * goal pose into field relative speeds, with each axis zeroed once it is in tolerance and the
+ * translation clamped to the alignment speed limit.
+ *
+ * <p>Holds no hardware, so the math can run off-robot. {@link #calculate(Pose2d, Pose2d)} writes
+ * into a reused {@link ChassisSpeeds} and does not allocate.
+ */
+class AlignController {
+    private static final double kMinTranslationSpeed = 0.07; // m / sec, slower than this is stopped
+
+    private final PIDController xController;
+    private final PIDController yController;
+    private final PIDController thetaController;
+    private final double maxTranslationSpeed = MAX_ALIGN_TRANSLATION_VELOCITY.in(MetersPerSecond);
+
+    // Reused every loop, the swerve request copies the values when it is applied
+    private final ChassisSpeeds speeds = new ChassisSpeeds();
+    private double xOutput, yOutput, thetaOutput;
+
+    /**
+     * @param translationToleranceMeters x and y distance from the goal that counts as aligned
+     * @param thetaToleranceRadians heading error that counts as aligned
+     */
+    AlignController(double translationToleranceMeters, double thetaToleranceRadians) {
+        xController = new PIDController(XY_kP, XY_kI, XY_kD);
+        xController.setTolerance(translationToleranceMeters);
+
+        yController = new PIDController(XY_kP, XY_kI, XY_kD);
+        yController.setTolerance(translationToleranceMeters);
+
+        thetaController = new PIDController(THETA_kP, THETA_kI, THETA_kD);
+        thetaController.enableContinuousInput(-Math.PI, Math.PI);
+        thetaController.setTolerance(thetaToleranceRadians);
+    }
+
+    void setGoal(Pose2d goalPose) {
+        thetaController.setSetpoint(goalPose.getRotation().getRadians());
+        xController.setSetpoint(goalPose.getX());
+        yController.setSetpoint(goalPose.getY());
+    }
+
+    void reset() {
+        xController.reset();
+        yController.reset();
+        thetaController.reset();
+    }
+
+    /**
+     * Runs the controllers for one loop.
+     *
+     * @param robotPose current field pose of the robot
+     * @param goalPose field pose to drive to
+     * @return field relative speeds, reused by the next call
+     */
+    ChassisSpeeds calculate(Pose2d robotPose, Pose2d goalPose) {
+        xOutput = xController.calculate(robotPose.getX(), goalPose.getX());
+        double xSpeed = xController.atSetpoint() ? 0 : xOutput;
+
+        yOutput = yController.calculate(robotPose.getY(), goalPose.getY());
+        double ySpeed = yController.atSetpoint() ? 0 : yOutput;
+
+        thetaOutput = thetaController.calculate(robotPose.getRotation().getRadians(), goalPose.getRotation().getRadians());
+        double omegaSpeed = thetaController.atSetpoint() ? 0 : thetaOutput;
+
+        return applyLimits(xSpeed, ySpeed, omegaSpeed);
+    }
+
+    boolean atGoal() {
+        return xController.atSetpoint() && yController.atSetpoint() && thetaController.atSetpoint();
+    }
+
+    /** Publishes the last loop's controller state, see {@link AlignTelemetry}. */
+    void publish(AlignTelemetry telemetry, Pose2d goalPose, Pose2d robotPose) {
+        telemetry.publish(goalPose, robotPose, xController, yController, thetaController,
+            xOutput, yOutput, thetaOutput);
+    }
+
+    /** Clamps the translational speed and zeroes it near the goal. */
+    private ChassisSpeeds applyLimits(double vx, double vy, double omega) {
+        double magnitude = Math.hypot(vx, vy);
+        speeds.omegaRadiansPerSecond = omega;
+        if (magnitude < kMinTranslationSpeed) {
+            speeds.vxMetersPerSecond = 0;
+            speeds.vyMetersPerSecond = 0;
+            return speeds;
+        }
+        double scale = Math.min(magnitude, maxTranslationSpeed) / magnitude;
+        speeds.vxMetersPerSecond = vx * scale;
+        speeds.vyMetersPerSecond = vy * scale;
+        return speeds;
+    }
+}
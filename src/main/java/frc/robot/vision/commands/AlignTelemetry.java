@@ -0,0 +1,73 @@
+package frc.robot.vision.commands;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.BooleanChannel;
+import frc.crevolib.util.Telemetry.DoubleChannel;
+
+/**
+ * Debug telemetry shared by the alignment commands. Every alignment command with the same suffix
+ * publishes to the same channels.
+ */
+class AlignTelemetry {
+    private final DoubleChannel goalX, goalY, goalTheta;
+    private final DoubleChannel robotX, robotY, robotTheta;
+    private final DoubleChannel xSetpoint, ySetpoint, thetaSetpoint;
+    private final DoubleChannel xOutput, yOutput, thetaOutput;
+    private final DoubleChannel xError, yError, thetaError;
+    private final BooleanChannel xAtSetpoint, yAtSetpoint, thetaAtSetpoint;
+
+    /**
+     * Creates the channels for one alignment command.
+     *
+     * @param suffix appended to every key, for example <code>" - HP Align"</code>
+     */
+    AlignTelemetry(String suffix) {
+        goalX = Telemetry.doubleChannel("Goal Pose X" + suffix);
+        goalY = Telemetry.doubleChannel("Goal Pose Y" + suffix);
+        goalTheta = Telemetry.doubleChannel("Goal Pose Theta" + suffix);
+        robotX = Telemetry.doubleChannel("Current Robot Pose X" + suffix);
+        robotY = Telemetry.doubleChannel("Current Robot Pose Y" + suffix);
+        robotTheta = Telemetry.doubleChannel("Current Robot Pose Theta" + suffix);
+        xSetpoint = Telemetry.doubleChannel("X Setpoint" + suffix);
+        ySetpoint = Telemetry.doubleChannel("Y Setpoint" + suffix);
+        thetaSetpoint = Telemetry.doubleChannel("Theta Setpoint" + suffix);
+        xOutput = Telemetry.doubleChannel("X Output" + suffix);
+        yOutput = Telemetry.doubleChannel("Y Output" + suffix);
+        thetaOutput = Telemetry.doubleChannel("Theta Output" + suffix);
+        xError = Telemetry.doubleChannel("X Error" + suffix);
+        yError = Telemetry.doubleChannel("Y Error" + suffix);
+        thetaError = Telemetry.doubleChannel("Theta Error" + suffix);
+        xAtSetpoint = Telemetry.booleanChannel("X at Setpoint" + suffix);
+        yAtSetpoint = Telemetry.booleanChannel("Y at Setpoint" + suffix);
+        thetaAtSetpoint = Telemetry.booleanChannel("Theta at Setpoint" + suffix);
+    }
+
+    /**
+     * Publishes the state of one alignment loop. Controller outputs are passed in rather than
+     * recalculated so publishing does not change the controllers' state.
+     */
+    void publish(Pose2d goalPose, Pose2d robotPose,
+            PIDController x, PIDController y, PIDController theta,
+            double xOut, double yOut, double thetaOut) {
+        goalX.set(goalPose.getX());
+        goalY.set(goalPose.getY());
+        goalTheta.set(goalPose.getRotation().getRadians());
+        robotX.set(robotPose.getX());
+        robotY.set(robotPose.getY());
+        robotTheta.set(robotPose.getRotation().getRadians());
+        xSetpoint.set(x.getSetpoint());
+        ySetpoint.set(y.getSetpoint());
+        thetaSetpoint.set(theta.getSetpoint());
+        xOutput.set(xOut);
+        yOutput.set(yOut);
+        thetaOutput.set(thetaOut);
+        xError.set(x.getError());
+        yError.set(y.getError());
+        thetaError.set(theta.getError());
+        xAtSetpoint.set(x.atSetpoint());
+        yAtSetpoint.set(y.atSetpoint());
+        thetaAtSetpoint.set(theta.atSetpoint());
+    }
+}
@@ -3,29 +3,27 @@ package frc.robot.vision.commands;
 import static edu.wpi.first.units.Units.Degrees;
 import static edu.wpi.first.units.Units.Inches;
 import static edu.wpi.first.units.Units.Meters;
-import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.Radians;
-import static frc.robot.vision.VisionConfig.AlignmentConfig.*;
 
 import com.ctre.phoenix6.swerve.SwerveModule;
 import com.ctre.phoenix6.swerve.SwerveRequest;
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.Distance;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.crevolib.math.Conversions;
+import frc.crevolib.util.Telemetry;
+import frc.crevolib.util.Telemetry.BooleanChannel;
+import frc.crevolib.util.Telemetry.Level;
+import frc.crevolib.util.Telemetry.StringChannel;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
-import frc.robot.elevator.ElevatorSubsystem;
-import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.superstructure.Superstructure;
 import frc.robot.vision.LineupMaster;
 import frc.robot.vision.PoseEstimatorSubsystem;
 import frc.robot.vision.VisionConfig.ReefFace;
@@ -67,12 +65,7 @@ public class AutoAlign extends Command {
 //       MAX_ALIGN_ANGULAR_VELOCITY.in(RadiansPerSecond),
 //       MAX_ALIGN_ANGULAR_ACCELERATION.in(RadiansPerSecondPerSecond));
 
-  private final PIDController xController;
-  private final PIDController yController;
-  private final PIDController thetaController;
-  double xSpeed;
-  double ySpeed;
-  double omegaSpeed;
+  private final AlignController controller;
 
   boolean isLeftAlign = false;
   ReefFace nearestReefFace = null;
@@ -87,9 +80,22 @@ public class AutoAlign extends Command {
   protected final static Supplier<Pose2d> poseProvider = () -> PoseEstimatorSubsystem.getInstance().getCurrentPose();
 
   private Pose2d goalPose2d;
+  // Inputs goalPose2d was last built from
+  private ReefFace goalFace = null;
+  private boolean goalIsLeftAlign, goalIsRightWrist, goalIsElevatorL4;
 
   private final SwerveRequest.ApplyFieldSpeeds applyFieldSpeeds = new SwerveRequest.ApplyFieldSpeeds()
             .withDriveRequestType(SwerveModule.DriveRequestType.Velocity);
+
+  private static final AlignTelemetry alignTelemetry = new AlignTelemetry("");
+  private static final BooleanChannel isRightWristTelemetry = Telemetry.booleanChannel("isRightWrist - AutoAlign");
+  private static final BooleanChannel isElevatorL4Telemetry = Telemetry.booleanChannel("isElevatorL4 - AutoAlign");
+  private static final StringChannel elevatorStateTelemetry = Telemetry.stringChannel("elevator kLastState - AutoAlign");
+  // Alliance string is built with toString(), so only publish it occasionally
+  private static final StringChannel allianceTelemetry = Telemetry.stringChannel("alliance - AutoAlign", Level.kDebug, 1.0);
+  private static final BooleanChannel leftBranchTelemetry = Telemetry.booleanChannel("requesting lineup left branch - AutoAlign", Level.kCompetition);
+  private static final StringChannel nearestFaceTelemetry = Telemetry.stringChannel("nearest ReefFace accessed - AutoAlign", Level.kCompetition);
+  private static final StringChannel updatedFaceTelemetry = Telemetry.stringChannel("updated ReefFace - AutoAlign");
   /**
    * Constructs a DriveToPoseCommand
    * 
@@ -175,15 +181,7 @@ public class AutoAlign extends Command {
     // this.drivetrainSubsystem = CommandSwerveDrivetrain.getInstance();
     // this.poseProvider = () -> PoseEstimatorSubsystem.getInstance().getCurrentPose();
 
-    xController = new PIDController(XY_kP, XY_kI, XY_kD);
-    xController.setTolerance(TRANSLATION_TOLERANCE.in(Meters));
-
-    yController = new PIDController(XY_kP, XY_kI, XY_kD);
-    yController.setTolerance(TRANSLATION_TOLERANCE.in(Meters));
-
-    thetaController = new PIDController(THETA_kP, THETA_kI, THETA_kD);
-    thetaController.enableContinuousInput(-Math.PI, Math.PI);
-    thetaController.setTolerance(THETA_TOLERANCE.in(Radians));
+    controller = new AlignController(TRANSLATION_TOLERANCE.in(Meters), THETA_TOLERANCE.in(Radians));
 
     addRequirements(drivetrainSubsystem);
   }
@@ -194,25 +192,13 @@ public class AutoAlign extends Command {
    * @param goalPose goal pose
    */
   public void setGoal(Pose2d goalPose) {
-    thetaController.setSetpoint(goalPose.getRotation().getRadians());
-    xController.setSetpoint(goalPose.getX());
-    yController.setSetpoint(goalPose.getY());
-  }
-
-  private ChassisSpeeds applyLimits(ChassisSpeeds speeds){
-    Translation2d translation = new Translation2d(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
-    double magnitude = translation.getNorm();
-    if (magnitude < .07) return new ChassisSpeeds(0,0, speeds.omegaRadiansPerSecond);
-    Rotation2d angle = translation.getAngle();
-    magnitude = Math.min(magnitude, MAX_ALIGN_TRANSLATION_VELOCITY.in(MetersPerSecond));
-    return new ChassisSpeeds(magnitude * angle.getCos(), magnitude * angle.getSin(), speeds.omegaRadiansPerSecond);
+    controller.setGoal(goalPose);
   }
 
   @Override
   public void initialize() {
-    xController.reset();
-    yController.reset();
-    thetaController.reset();
+    goalFace = null;
+    controller.reset();
 
   }
 
@@ -225,91 +211,78 @@ public class AutoAlign extends Command {
         this.isLeftAlign = DriverXbox.getInstance().isLeftPovPressed() || DriverXbox.getInstance().isUpPovPressed();
       }
       this.nearestReefFace = LineupMaster.getClosestReefFace(poseProvider);
-      if(isLeftAlign) {
-        this.goalPose2d = nearestReefFace.leftBranch;
-      }
-      else {
-        this.goalPose2d = nearestReefFace.rightBranch;
-      }
        //need to do - transform for left or right wrist
-      boolean isRightWrist = (RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight) ||
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right) ||
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist) || 
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist) || 
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist) || 
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid) ||
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid) ||
-       (RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid);
-      boolean isElevatorL4 = (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL4) || 
-                      (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL4AutonScore) || 
-                      (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralScoreL4);
-
-      SmartDashboard.putBoolean("isRightWrist - AutoAlign", isRightWrist);
-      SmartDashboard.putBoolean("isElevatorL4 - AutoAlign", isElevatorL4);
-      SmartDashboard.putString("elevator kLastState - AutoAlign", ElevatorSubsystem.kLastState.name());
-      SmartDashboard.putString("alliance - AutoAlign", DriverStation.getAlliance().toString());
-      SmartDashboard.putBoolean("requesting lineup left branch - AutoAlign", isLeftAlign);
-      SmartDashboard.putString("nearest ReefFace accessed - AutoAlign", nearestReefFace.name());
-      if(isElevatorL4 == true) {
-      // System.out.println("REACHED ELEVATOR L4 IF STATEMENT IN AUTOALIGN");
-        ReefFace newReefFace = updateReefFace(nearestReefFace);
-        SmartDashboard.putString("updated ReefFace - AutoAlign", newReefFace.name());
-        goalPose2d = new Pose2d(newReefFace.aprilTagX, newReefFace.aprilTagY, Rotation2d.fromDegrees(newReefFace.aprilTagTheta));
-        if(isRightWrist) {
-          if(isLeftAlign) {
-            goalPose2d = goalPose2d.transformBy(leftBranchTransformRightWrist);
-          }
-          else {
-            goalPose2d = goalPose2d.transformBy(rightBranchTransformRightWrist);
-          }
+      boolean isRightWrist = Superstructure.getInstance().isRightSide();
+      boolean isElevatorL4 = Superstructure.getInstance().isElevatorAt(Superstructure.Tag.kL4);
+
+      isRightWristTelemetry.set(isRightWrist);
+      isElevatorL4Telemetry.set(isElevatorL4);
+      elevatorStateTelemetry.set(Superstructure.getInstance().getElevatorState().name());
+      if (allianceTelemetry.isDue()) {
+        allianceTelemetry.set(DriverStation.getAlliance().toString());
+      }
+      leftBranchTelemetry.set(isLeftAlign);
+      nearestFaceTelemetry.set(nearestReefFace.name());
+      // The goal only changes with these inputs, so only rebuild it when one of them changes
+      if (nearestReefFace != goalFace || isLeftAlign != goalIsLeftAlign
+          || isRightWrist != goalIsRightWrist || isElevatorL4 != goalIsElevatorL4) {
+        if(isLeftAlign) {
+          this.goalPose2d = nearestReefFace.leftBranch;
         }
         else {
-          if(isLeftAlign) {
-            goalPose2d = goalPose2d.transformBy(leftBranchTransformLeftWrist);
-          }
-          else {
-            goalPose2d = goalPose2d.transformBy(rightBranchTransformLeftWrist);
-          }
+          this.goalPose2d = nearestReefFace.rightBranch;
         }
-      }
-      else {
-        if(isRightWrist) {
-          if(isLeftAlign) {
+        if(isElevatorL4 == true) {
+        // System.out.println("REACHED ELEVATOR L4 IF STATEMENT IN AUTOALIGN");
+          ReefFace newReefFace = updateReefFace(nearestReefFace);
+          updatedFaceTelemetry.set(newReefFace.name());
+          goalPose2d = new Pose2d(newReefFace.aprilTagX, newReefFace.aprilTagY, Rotation2d.fromDegrees(newReefFace.aprilTagTheta));
+          if(isRightWrist) {
+            if(isLeftAlign) {
               goalPose2d = goalPose2d.transformBy(leftBranchTransformRightWrist);
             }
             else {
               goalPose2d = goalPose2d.transformBy(rightBranchTransformRightWrist);
             }
           }
-        else {
-          if(isLeftAlign) {
-            goalPose2d = goalPose2d.transformBy(leftBranchTransformLeftWrist);
+          else {
+            if(isLeftAlign) {
+              goalPose2d = goalPose2d.transformBy(leftBranchTransformLeftWrist);
             }
             else {
-            goalPose2d = goalPose2d.transformBy(rightBranchTransformLeftWrist);
+              goalPose2d = goalPose2d.transformBy(rightBranchTransformLeftWrist);
+            }
+          }
+        }
+        else {
+          if(isRightWrist) {
+            if(isLeftAlign) {
+                goalPose2d = goalPose2d.transformBy(leftBranchTransformRightWrist);
+              }
+              else {
+                goalPose2d = goalPose2d.transformBy(rightBranchTransformRightWrist);
+              }
             }
+          else {
+            if(isLeftAlign) {
+              goalPose2d = goalPose2d.transformBy(leftBranchTransformLeftWrist);
+              }
+              else {
+              goalPose2d = goalPose2d.transformBy(rightBranchTransformLeftWrist);
+              }
+          }
         }
+
+        goalPose2d = Conversions.rotatePose(goalPose2d.transformBy(robotOffset), Rotation2d.kZero);
+        goalFace = nearestReefFace;
+        goalIsLeftAlign = isLeftAlign;
+        goalIsRightWrist = isRightWrist;
+        goalIsElevatorL4 = isElevatorL4;
       }
 
-    goalPose2d = Conversions.rotatePose(goalPose2d.transformBy(robotOffset), Rotation2d.kZero);
     var robotPose = poseProvider.get();
     
-    xSpeed = xController.calculate(robotPose.getX(), this.goalPose2d.getX());
-    if (xController.atSetpoint()) {
-      xSpeed = 0;
-    }
-
-    ySpeed = yController.calculate(robotPose.getY(), this.goalPose2d.getY());
-    if (yController.atSetpoint()) {
-      ySpeed = 0;
-    }
-
-    omegaSpeed = thetaController.calculate(robotPose.getRotation().getRadians(), this.goalPose2d.getRotation().getRadians());
-    if (thetaController.atSetpoint()) {
-      omegaSpeed = 0;
-    }
-
-    ChassisSpeeds speeds = applyLimits(new ChassisSpeeds(xSpeed, ySpeed, omegaSpeed));
+    ChassisSpeeds speeds = controller.calculate(robotPose, this.goalPose2d);
 
     // CommandSwerveDrivetrain.getInstance().applyRequest( () -> 
     //     RobotContainer.drive.withVelocityX(speeds.vxMetersPerSecond)
@@ -319,29 +292,12 @@ public class AutoAlign extends Command {
     drivetrainSubsystem.setControl(applyFieldSpeeds.withSpeeds(speeds));
     // drivetrainSubsystem.setControl(
     //     fieldCentricSwerveRequest.withVelocityX(xSpeed).withVelocityY(ySpeed).withRotationalRate(omegaSpeed));
-    SmartDashboard.putNumber("Goal Pose X", this.goalPose2d.getX());
-    SmartDashboard.putNumber("Goal Pose Y", this.goalPose2d.getY());
-    SmartDashboard.putNumber("Goal Pose Theta", this.goalPose2d.getRotation().getRadians());
-    SmartDashboard.putNumber("Current Robot Pose X", robotPose.getX());
-    SmartDashboard.putNumber("Current Robot Pose Y", robotPose.getY());
-    SmartDashboard.putNumber("Current Robot Pose Theta", robotPose.getRotation().getRadians());
-    SmartDashboard.putNumber("X Setpoint", xController.getSetpoint());
-    SmartDashboard.putNumber("Y Setpoint", yController.getSetpoint());
-    SmartDashboard.putNumber("Theta Setpoint", thetaController.getSetpoint());
-    SmartDashboard.putNumber("X Output", xController.calculate(robotPose.getX()));
-    SmartDashboard.putNumber("Y Output", yController.calculate(robotPose.getY()));
-    SmartDashboard.putNumber("Theta Output", thetaController.calculate(robotPose.getRotation().getRadians()));
-    SmartDashboard.putNumber("X Error", xController.getError());
-    SmartDashboard.putNumber("Y Error", yController.getError());
-    SmartDashboard.putNumber("Theta Error", thetaController.getError());
-    SmartDashboard.putBoolean("X at Setpoint", xController.atSetpoint());
-    SmartDashboard.putBoolean("Y at Setpoint", yController.atSetpoint());
-    SmartDashboard.putBoolean("Theta at Setpoint", thetaController.atSetpoint());
+    controller.publish(alignTelemetry, goalPose2d, robotPose);
   }
 
   @Override
   public boolean isFinished() {
-    return xController.atSetpoint() && yController.atSetpoint() && thetaController.atSetpoint();
+    return controller.atGoal();
   }
 
   @Override
@@ -0,0 +1,342 @@
+package frc.robot.vision.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.vision.PoseEstimatorSubsystem;
+import frc.robot.vision.VisionNoiseModel;
+
+/**
+ * Fits {@link VisionNoiseModel}'s table from match logs. Runs on a laptop, not the robot:
+ *
+ * <pre>
+ * ./gradlew fitVisionNoise -PvisionLogs=logs/q12.wpilog,logs/practice
+ * </pre>
+ *
+ * <p>Reads every <code>Vision/NoiseSamples</code> row from the given WPILOG files, or every log in
+ * the given folders. Each row holds one camera estimate, the drivetrain's estimate at the moment the
+ * frame was captured, and where odometry alone put the robot at that moment.
+ *
+ * <p>The drivetrain's estimate is not a fair reference. It has already fused earlier frames from the
+ * same camera, so it leans toward that camera's errors and a fit against it comes out optimistic,
+ * with std devs that are too small. Odometry is used instead. It is never corrected by vision, but
+ * it drifts and is in its own frame, so the rows are cut into short segments, at most
+ * {@link Settings#kSegmentSeconds} long, over which the drift is small. In each segment the rigid
+ * transform from odometry to the field is taken as the median offset of all its estimates, heading
+ * first, and each estimate's error is what is left after that transform. One estimate barely moves
+ * a median, so segments need {@link Settings#kMinSegmentSamples} rows and rows in shorter ones are
+ * dropped. <code>--fused</code> fits against the drivetrain's estimate instead, as before.
+ *
+ * <p>Errors are put in the model's bins by camera, tag count, ambiguity and distance, and each bin
+ * with enough samples gets a robust standard deviation, 1.4826 times the median absolute error,
+ * so the odd bad frame does not blow up a whole bin. Within each camera, tag count and ambiguity,
+ * the std devs are made to never shrink with distance, which irons out bins that got lucky.
+ *
+ * <p>Rows from {@link frc.robot.vision.SingleTagSolver} are left out. Their heading is copied from
+ * the estimate, so it would fit as perfect, and their position error is not that of a PnP solve.
+ */
+public class VisionNoiseFitter {
+    public static class Settings {
+        public static final String kDefaultOutput = "src/main/deploy/" + VisionNoiseModel.Settings.kTableFile;
+        public static final String kSamplesKey = "RealOutputs/Vision/NoiseSamples";
+        // Bins with fewer samples are left out, the model fills them from the heuristic
+        public static final int kMinSamples = 30;
+        // Odometry drift over a segment should stay well under the camera noise being fitted
+        public static final double kSegmentSeconds = 3.0;
+        // A longer gap between rows starts a new segment
+        public static final double kMaxGapSeconds = 0.5;
+        public static final int kMinSegmentSamples = 10;
+        // Median absolute deviation to standard deviation for normally distributed errors
+        static final double kMadToStdDev = 1.4826;
+    }
+
+    // Columns of a noise sample row, see PoseEstimatorSubsystem.recordNoiseSample
+    private static final int kCamera = 0;
+    private static final int kTags = 1;
+    private static final int kDistance = 2;
+    private static final int kAmbiguity = 3;
+    private static final int kStrategy = 4;
+    private static final int kTimestamp = 5;
+    private static final int kVision = 6;
+    private static final int kFused = 9;
+    private static final int kOdometry = 12;
+
+    private static final int kStride = PoseEstimatorSubsystem.NOISE_SAMPLE_STRIDE;
+
+    /** The errors that landed in one bin. */
+    private static class Bin {
+        final List<double[]> errors = new ArrayList<>();
+        double[] stdDevs;
+    }
+
+    private final Map<Integer, Bin> mBins = new HashMap<>();
+    private int mCameraCount = 0;
+    private int mSampleCount = 0;
+    private int mSkippedCount = 0;
+    private int mTrigSolveCount = 0;
+    private final boolean mUseFused;
+
+    private VisionNoiseFitter(boolean useFused) {
+        mUseFused = useFused;
+    }
+
+    /**
+     * @param args WPILOG files or folders of them, optionally <code>--out</code> followed by the
+     *     table to write, which defaults to the deploy directory, and <code>--fused</code> to fit
+     *     against the drivetrain's estimate rather than odometry
+     */
+    public static void main(String[] args) throws IOException {
+        String output = Settings.kDefaultOutput;
+        boolean useFused = false;
+        List<File> logs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--out") && i + 1 < args.length) {
+                output = args[++i];
+            } else if (args[i].equals("--fused")) {
+                useFused = true;
+            } else {
+                addLogs(new File(args[i]), logs);
+            }
+        }
+        if (logs.isEmpty()) {
+            System.err.println("Usage: VisionNoiseFitter [--out table.csv] [--fused] <log.wpilog or folder>...");
+            System.exit(1);
+        }
+
+        var fitter = new VisionNoiseFitter(useFused);
+        for (File log : logs) {
+            fitter.read(log);
+        }
+        fitter.fit();
+        fitter.write(new File(output), logs.size());
+    }
+
+    private static void addLogs(File file, List<File> logs) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    addLogs(child, logs);
+                }
+            }
+        } else if (file.getName().endsWith(".wpilog")) {
+            logs.add(file);
+        }
+    }
+
+    private void read(File log) throws IOException {
+        var reader = new DataLogReader(log.getPath());
+        if (!reader.isValid()) {
+            System.err.println("Skipping " + log + ", not a WPILOG file");
+            return;
+        }
+        int entry = -1;
+        int before = mSampleCount;
+        List<double[]> rows = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                var start = record.getStartData();
+                // Outputs are under RealOutputs, replayed logs also have a ReplayOutputs copy which is skipped
+                String name = start.name.startsWith("/") ? start.name.substring(1) : start.name;
+                if (name.equals(Settings.kSamplesKey)) {
+                    entry = start.entry;
+                }
+            } else if (!record.isControl() && record.getEntry() == entry) {
+                double[] samples = record.getDoubleArray();
+                for (int i = 0; i + kStride <= samples.length; i += kStride) {
+                    rows.add(Arrays.copyOfRange(samples, i, i + kStride));
+                }
+            }
+        }
+
+        if (mUseFused) {
+            for (double[] row : rows) {
+                if (usable(row, kFused)) {
+                    addError(row, row[kVision] - row[kFused], row[kVision + 1] - row[kFused + 1],
+                        Math.IEEEremainder(row[kVision + 2] - row[kFused + 2], 2.0 * Math.PI));
+                }
+            }
+        } else {
+            // Each loop's rows are in capture order, but loops can overlap a little
+            rows.sort((a, b) -> Double.compare(a[kTimestamp], b[kTimestamp]));
+            int start = 0;
+            for (int i = 1; i <= rows.size(); i++) {
+                if (i == rows.size()
+                        || rows.get(i)[kTimestamp] - rows.get(start)[kTimestamp] > Settings.kSegmentSeconds
+                        || rows.get(i)[kTimestamp] - rows.get(i - 1)[kTimestamp] > Settings.kMaxGapSeconds) {
+                    addSegment(rows.subList(start, i));
+                    start = i;
+                }
+            }
+        }
+        System.out.println("Read " + (mSampleCount - before) + " samples from " + log);
+    }
+
+    /** Checks a row has a finite estimate and reference, and is not a trig solve. */
+    private boolean usable(double[] row, int reference) {
+        // Trig solved frames copy their heading from the estimate and are not PnP noise at all
+        if ((int) row[kStrategy] == PoseStrategy.PNP_DISTANCE_TRIG_SOLVE.ordinal()) {
+            mTrigSolveCount++;
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (!Double.isFinite(row[kVision + i]) || !Double.isFinite(row[reference + i])) {
+                mSkippedCount++;
+                return false;
+            }
+        }
+        if (!Double.isFinite(row[kDistance])) {
+            mSkippedCount++;
+            return false;
+        }
+        return true;
+    }
+
+    /** Lines odometry up with the field over one segment and adds what is left of each estimate. */
+    private void addSegment(List<double[]> segment) {
+        List<double[]> rows = new ArrayList<>();
+        for (double[] row : segment) {
+            if (usable(row, kOdometry)) {
+                rows.add(row);
+            }
+        }
+        if (rows.size() < Settings.kMinSegmentSamples) {
+            mSkippedCount += rows.size();
+            return;
+        }
+
+        // Heading offset, measured around the first row's so the median does not straddle the wrap
+        final double[] values = new double[rows.size()];
+        final double firstOffset = rows.get(0)[kVision + 2] - rows.get(0)[kOdometry + 2];
+        for (int i = 0; i < values.length; i++) {
+            final double[] row = rows.get(i);
+            values[i] = Math.IEEEremainder(row[kVision + 2] - row[kOdometry + 2] - firstOffset, 2.0 * Math.PI);
+        }
+        final double thetaOffset = firstOffset + median(values);
+        final double cos = Math.cos(thetaOffset);
+        final double sin = Math.sin(thetaOffset);
+
+        // Then the translation, with odometry turned onto the field
+        final double[] ys = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final double[] row = rows.get(i);
+            values[i] = row[kVision] - (cos * row[kOdometry] - sin * row[kOdometry + 1]);
+            ys[i] = row[kVision + 1] - (sin * row[kOdometry] + cos * row[kOdometry + 1]);
+        }
+        final double xOffset = median(values);
+        final double yOffset = median(ys);
+
+        for (double[] row : rows) {
+            addError(row,
+                row[kVision] - (cos * row[kOdometry] - sin * row[kOdometry + 1] + xOffset),
+                row[kVision + 1] - (sin * row[kOdometry] + cos * row[kOdometry + 1] + yOffset),
+                Math.IEEEremainder(row[kVision + 2] - row[kOdometry + 2] - thetaOffset, 2.0 * Math.PI));
+        }
+    }
+
+    private void addError(double[] row, double dx, double dy, double dTheta) {
+        final int camera = (int) row[kCamera];
+        final int tags = VisionNoiseModel.tagBucket((int) row[kTags]);
+        final int ambiguityBin = tags == 1 ? VisionNoiseModel.ambiguityBin(row[kAmbiguity]) : 0;
+        final int distanceBin = VisionNoiseModel.distanceBin(row[kDistance]);
+        mBins.computeIfAbsent(key(camera, tags, ambiguityBin, distanceBin), k -> new Bin())
+            .errors.add(new double[] {Math.abs(dx), Math.abs(dy), Math.abs(dTheta)});
+        mCameraCount = Math.max(mCameraCount, camera + 1);
+        mSampleCount++;
+    }
+
+    /** Sorts the values in place and returns their median. */
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        final int mid = values.length / 2;
+        return values.length % 2 == 1 ? values[mid] : 0.5 * (values[mid - 1] + values[mid]);
+    }
+
+    private void fit() {
+        for (Bin bin : mBins.values()) {
+            if (bin.errors.size() < Settings.kMinSamples) {
+                continue;
+            }
+            bin.stdDevs = new double[3];
+            final double[] values = new double[bin.errors.size()];
+            for (int axis = 0; axis < 3; axis++) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = bin.errors.get(i)[axis];
+                }
+                bin.stdDevs[axis] = Settings.kMadToStdDev * median(values);
+            }
+        }
+
+        // Never more sure of a farther tag than a closer one
+        for (int camera = 0; camera < mCameraCount; camera++) {
+            for (int tags = 1; tags <= VisionNoiseModel.Settings.kTagBuckets; tags++) {
+                for (int ambiguityBin = 0; ambiguityBin < VisionNoiseModel.Settings.kAmbiguityBins; ambiguityBin++) {
+                    final double[] floor = new double[3];
+                    for (int distanceBin = 0; distanceBin < VisionNoiseModel.Settings.kDistanceBins; distanceBin++) {
+                        Bin bin = mBins.get(key(camera, tags, ambiguityBin, distanceBin));
+                        if (bin == null || bin.stdDevs == null) {
+                            continue;
+                        }
+                        for (int axis = 0; axis < 3; axis++) {
+                            bin.stdDevs[axis] = Math.max(bin.stdDevs[axis], floor[axis]);
+                            floor[axis] = bin.stdDevs[axis];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void write(File output, int logCount) throws IOException {
+        int rows = 0;
+        try (var out = new PrintWriter(output, "UTF-8")) {
+            out.println("# Vision std devs per camera, tag count, single tag ambiguity and distance to the closest tag. Read");
+            out.println("# once at startup by VisionNoiseModel, cells missing here use the hand-tuned formula in");
+            out.println("# VisionNoiseModel.heuristicStdDevs. Camera is the index into VisionConfig.CAM_NAMES, ambiguity and");
+            out.println("# distance_m are bin centers.");
+            out.println("#");
+            out.println("# Written by VisionNoiseFitter from match logs, do not edit by hand:");
+            out.println("#   ./gradlew fitVisionNoise -PvisionLogs=<log or folder>[,<log or folder>...]");
+            out.println("# Fitted from " + mSampleCount + " samples in " + logCount + " logs.");
+            out.println("camera, tags, ambiguity, distance_m, std_x_m, std_y_m, std_theta_rad, samples");
+            for (int camera = 0; camera < mCameraCount; camera++) {
+                for (int tags = 1; tags <= VisionNoiseModel.Settings.kTagBuckets; tags++) {
+                    for (int ambiguityBin = 0; ambiguityBin < VisionNoiseModel.Settings.kAmbiguityBins; ambiguityBin++) {
+                        for (int distanceBin = 0; distanceBin < VisionNoiseModel.Settings.kDistanceBins; distanceBin++) {
+                            Bin bin = mBins.get(key(camera, tags, ambiguityBin, distanceBin));
+                            if (bin == null || bin.stdDevs == null) {
+                                continue;
+                            }
+                            out.println(String.format(Locale.ROOT, "%d, %d, %.3f, %.2f, %.4f, %.4f, %.4f, %d",
+                                camera, tags,
+                                (ambiguityBin + 0.5) * VisionNoiseModel.Settings.kAmbiguityStep,
+                                distanceBin * VisionNoiseModel.Settings.kDistanceStepMeters,
+                                bin.stdDevs[0], bin.stdDevs[1], bin.stdDevs[2], bin.errors.size()));
+                            rows++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Wrote " + rows + " cells to " + output + " from " + mSampleCount + " samples, skipped "
+            + mSkippedCount + " without a usable reference and " + mTrigSolveCount + " trig solved, against "
+            + (mUseFused ? "the fused estimate" : "odometry"));
+    }
+
+    private static int key(int camera, int tags, int ambiguityBin, int distanceBin) {
+        return ((camera * VisionNoiseModel.Settings.kTagBuckets + tags - 1) * VisionNoiseModel.Settings.kAmbiguityBins
+            + ambiguityBin) * VisionNoiseModel.Settings.kDistanceBins + distanceBin;
+    }
+}
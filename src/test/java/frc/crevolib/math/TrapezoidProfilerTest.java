@@ -0,0 +1,37 @@
+package frc.crevolib.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/** Checks the profiler against WPILib's profile it copies. */
+class TrapezoidProfilerTest {
+    private static final double kDt = 0.02;
+
+    @Test
+    void matchesWpilib() {
+        // Trapezoid, triangle, backwards, and starting faster than allowed
+        check(2.0, 4.0, new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(5.0, 0.0));
+        check(2.0, 4.0, new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(0.3, 0.0));
+        check(2.0, 4.0, new TrapezoidProfile.State(1.0, 0.5), new TrapezoidProfile.State(-3.0, 0.0));
+        check(2.0, 4.0, new TrapezoidProfile.State(0.0, 3.0), new TrapezoidProfile.State(4.0, 0.0));
+    }
+
+    private static void check(double maxVelocity, double maxAcceleration,
+            TrapezoidProfile.State start, TrapezoidProfile.State goal) {
+        var wpilib = new TrapezoidProfile(new TrapezoidProfile.Constraints(maxVelocity, maxAcceleration));
+        var profiler = new TrapezoidProfiler(maxVelocity, maxAcceleration);
+
+        var expected = new TrapezoidProfile.State(start.position, start.velocity);
+        var actual = new TrapezoidProfile.State(start.position, start.velocity);
+        for (int i = 0; i < 300; i++) {
+            expected = wpilib.calculate(kDt, expected, goal);
+            profiler.calculate(kDt, actual, goal, actual);
+            assertEquals(expected.position, actual.position, 1e-9);
+            assertEquals(expected.velocity, actual.velocity, 1e-9);
+        }
+        assertEquals(goal.position, actual.position, 1e-9);
+    }
+}
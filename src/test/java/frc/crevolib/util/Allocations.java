@@ -0,0 +1,46 @@
+package frc.crevolib.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes the test thread allocates while running a piece of code, for tests that hold
+ * the robot loop's hot paths to zero allocations.
+ */
+public final class Allocations {
+    private static final int kWarmupCalls = 20_000;
+    private static final int kMeasuredCalls = 1_000;
+    private static final int kAttempts = 3;
+
+    private static final com.sun.management.ThreadMXBean kThreadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Allocations() {}
+
+    /**
+     * Runs the code enough times for the JIT to compile it, then measures it.
+     *
+     * <p>The counter is read once before and once after a batch of calls. The best of a few batches
+     * is kept, so a one-off allocation by the JVM itself, such as a deoptimization, does not fail
+     * the test.
+     *
+     * @param body the code to measure
+     * @return bytes allocated per call, rounded down
+     */
+    public static long bytesPerCall(Runnable body) {
+        kThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < kWarmupCalls; i++) {
+            body.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < kAttempts; attempt++) {
+            final long before = kThreadMXBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < kMeasuredCalls; i++) {
+                body.run();
+            }
+            final long after = kThreadMXBean.getCurrentThreadAllocatedBytes();
+            best = Math.min(best, after - before);
+        }
+        return best / kMeasuredCalls;
+    }
+}
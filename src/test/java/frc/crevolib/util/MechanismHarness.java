@@ -0,0 +1,79 @@
+package frc.crevolib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * Shared setup for tests that run a position-controlled mechanism against its physics model, one
+ * robot loop at a time.
+ */
+public final class MechanismHarness {
+    // Loops between target changes, one second at the default period
+    private static final int kLoopsPerTarget = 50;
+
+    private MechanismHarness() {}
+
+    /** Starts the simulated HAL, call it from the test class's <code>@BeforeAll</code>. */
+    public static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    /**
+     * Makes a robot loop that sends the mechanism between two targets every second, so its profile
+     * is always running.
+     *
+     * @param setTarget sets the mechanism's target
+     * @param first target for the first second
+     * @param second target for the next second
+     * @param periodic the mechanism's periodic
+     * @return one robot loop
+     */
+    public static <T> Runnable alternateTargets(Consumer<T> setTarget, T first, T second, Runnable periodic) {
+        final int[] loops = {0};
+        return () -> {
+            if (loops[0] % kLoopsPerTarget == 0) {
+                setTarget.accept(loops[0] % (2 * kLoopsPerTarget) == 0 ? first : second);
+            }
+            loops[0]++;
+            periodic.run();
+        };
+    }
+
+    /**
+     * Checks that the loop allocates nothing in every {@link MechanismControlMode}.
+     *
+     * @param setControlMode sets the mechanism's control mode
+     * @param loop one robot loop, usually from {@link #alternateTargets}
+     */
+    public static void assertLoopDoesNotAllocate(Consumer<MechanismControlMode> setControlMode, Runnable loop) {
+        for (var mode : MechanismControlMode.values()) {
+            setControlMode.accept(mode);
+            assertEquals(0, Allocations.bytesPerCall(loop), mode + " allocated");
+        }
+    }
+
+    /**
+     * Runs the loop until done is true.
+     *
+     * @param periodic one robot loop
+     * @param done checked after each loop
+     * @param timeoutSecs robot time to give up after
+     * @return false on timeout
+     */
+    public static boolean runUntil(Runnable periodic, BooleanSupplier done, double timeoutSecs) {
+        final int maxLoops = (int) (timeoutSecs / TimedRobot.kDefaultPeriod);
+        for (int i = 0; i < maxLoops; i++) {
+            periodic.run();
+            if (done.getAsBoolean()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package frc.crevolib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PoseHistoryTest {
+    private static final double kEpsilon = 1e-9;
+
+    @Test
+    void interpolatesBetweenSamples() {
+        var history = new PoseHistory(8);
+        history.add(1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0);
+        history.add(1.02, 0.02, 0.0, 0.1, 1.0, 0.0, 5.0);
+
+        var out = new PoseHistory.Sample();
+        assertTrue(history.sample(1.01, out));
+        assertEquals(0.01, out.xMeters, kEpsilon);
+        assertEquals(0.05, out.thetaRadians, kEpsilon);
+        assertFalse(history.sample(0.5, out));
+    }
+
+    @Test
+    void extrapolatesPastNewestSample() {
+        var history = new PoseHistory(8);
+        history.add(1.0, 1.0, 2.0, Math.PI - 0.05, 1.0, -2.0, 5.0);
+
+        var out = new PoseHistory.Sample();
+        assertTrue(history.sample(1.02, out));
+        assertEquals(1.02, out.xMeters, kEpsilon);
+        assertEquals(1.96, out.yMeters, kEpsilon);
+        // Wraps past pi
+        assertEquals(-Math.PI + 0.05, out.thetaRadians, kEpsilon);
+
+        // Held at the limit for a writer that has stalled
+        assertTrue(history.sample(3.0, out));
+        assertEquals(1.1, out.xMeters, kEpsilon);
+    }
+}
@@ -0,0 +1,37 @@
+package frc.robot.algaeflywheel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.crevolib.util.Allocations;
+
+/** Runs the algae flywheels and indexer against their physics model. */
+class AlgaeRollerTest {
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void flywheelsSpinTogether() {
+        var roller = new AlgaeRoller(new AlgaeRollerIOSim());
+        roller.setFlywheelVoltage(9.0);
+        for (int i = 0; i < 50; i++) {
+            roller.periodic();
+        }
+        assertTrue(roller.geLeftVelocity().getRotations() > 0.0);
+        assertEquals(roller.geLeftVelocity().getRotations(), roller.getRightVelocity().getRotations(), 1e-9);
+    }
+
+    @Test
+    void periodicDoesNotAllocate() {
+        var roller = new AlgaeRoller(new AlgaeRollerIOSim());
+        roller.setFlywheelVoltage(9.0);
+        roller.setIndexerVoltage(-6.0);
+        assertEquals(0, Allocations.bytesPerCall(roller::periodic));
+    }
+}
@@ -0,0 +1,37 @@
+package frc.robot.algaepivot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.crevolib.util.MechanismHarness;
+
+/** Runs the algae pivot against its physics model. */
+class AlgaeSubsystemTest {
+    private static final double kToleranceRotations = 3.0 / 360.0;
+    private static final double kTimeoutSecs = 2.0;
+
+    @BeforeAll
+    static void initializeHal() {
+        MechanismHarness.initializeHal();
+    }
+
+    @Test
+    void reachesReefIntake() {
+        var pivot = new AlgaeSubsystem(new AlgaePivotIOSim());
+        pivot.setTargetState(AlgaeSubsystem.State.kReefIntake);
+
+        final double target = AlgaeSubsystem.State.kReefIntake.pos.getRotations();
+        assertTrue(MechanismHarness.runUntil(pivot::periodic,
+                () -> Math.abs(pivot.getWristPosition().getRotations() - target) <= kToleranceRotations, kTimeoutSecs),
+            "did not reach reef intake within " + kTimeoutSecs + " s, at " + pivot.getWristPosition().getRotations());
+    }
+
+    @Test
+    void periodicDoesNotAllocate() {
+        var pivot = new AlgaeSubsystem(new AlgaePivotIOSim());
+        MechanismHarness.assertLoopDoesNotAllocate(pivot::setControlMode, MechanismHarness.alternateTargets(
+            pivot::setTargetState, AlgaeSubsystem.State.kReefIntake, AlgaeSubsystem.State.kStow, pivot::periodic));
+    }
+}
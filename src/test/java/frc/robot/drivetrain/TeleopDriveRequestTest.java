@@ -0,0 +1,34 @@
+package frc.robot.drivetrain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.ctre.phoenix6.swerve.SwerveRequest;
+
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.crevolib.util.Allocations;
+
+class TeleopDriveRequestTest {
+    private static final double kMaxVelocity = 4.0;
+    private static final double kMaxAngularVelocity = 6.0;
+
+    @Test
+    void scalesAndFlipsForRed() {
+        var request = new SwerveRequest.FieldCentric();
+        new TeleopDriveRequest(request, () -> 0.5, () -> -0.25, () -> 1.0, () -> false,
+            Alliance.Red, kMaxVelocity, kMaxAngularVelocity).get();
+
+        assertEquals(-0.5 * kMaxVelocity * 0.3, request.VelocityX, 1e-9);
+        assertEquals(0.25 * kMaxVelocity * 0.3, request.VelocityY, 1e-9);
+        assertEquals(kMaxAngularVelocity * 0.3, request.RotationalRate, 1e-9);
+    }
+
+    @Test
+    void getDoesNotAllocate() {
+        final boolean[] fast = {true};
+        var supplier = new TeleopDriveRequest(new SwerveRequest.FieldCentric(), () -> 0.5, () -> -0.25, () -> 1.0,
+            () -> fast[0] = !fast[0], Alliance.Blue, kMaxVelocity, kMaxAngularVelocity);
+        assertEquals(0, Allocations.bytesPerCall(supplier::get));
+    }
+}
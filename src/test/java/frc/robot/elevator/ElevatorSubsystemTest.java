@@ -0,0 +1,60 @@
+package frc.robot.elevator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.crevolib.util.MechanismHarness;
+
+/** Drives the elevator through its physics model, one robot loop at a time. */
+class ElevatorSubsystemTest {
+    private static final double kToleranceRotations = 0.25;
+    private static final double kTimeoutSecs = 2.0;
+
+    @BeforeAll
+    static void initializeHal() {
+        MechanismHarness.initializeHal();
+    }
+
+    @Test
+    void reachesCoralL3() {
+        var elevator = new ElevatorSubsystem(new ElevatorIOSim());
+        elevator.setTargetState(ElevatorSubsystem.State.kCoralL3);
+
+        assertTrue(run(elevator, ElevatorSubsystem.State.kCoralL3.pos),
+            "did not reach L3 within " + kTimeoutSecs + " s, at " + elevator.getPosition());
+    }
+
+    @Test
+    void holdsAndReturnsToZero() {
+        var elevator = new ElevatorSubsystem(new ElevatorIOSim());
+        elevator.setTargetState(ElevatorSubsystem.State.kCoralL4);
+        assertTrue(run(elevator, ElevatorSubsystem.State.kCoralL4.pos), "did not reach L4");
+
+        // Gravity is modeled, so holding needs the feedforward to be right
+        for (int i = 0; i < 50; i++) {
+            elevator.periodic();
+        }
+        assertEquals(ElevatorSubsystem.State.kCoralL4.pos, elevator.getPosition(), kToleranceRotations);
+
+        elevator.setTargetState(ElevatorSubsystem.State.kZero);
+        assertTrue(run(elevator, ElevatorSubsystem.State.kZero.pos), "did not return to zero");
+    }
+
+    @Test
+    void periodicDoesNotAllocate() {
+        var elevator = new ElevatorSubsystem(new ElevatorIOSim());
+        MechanismHarness.assertLoopDoesNotAllocate(elevator::setControlMode, MechanismHarness.alternateTargets(
+            elevator::setTargetState, ElevatorSubsystem.State.kCoralL3, ElevatorSubsystem.State.kCoralL4, elevator::periodic));
+    }
+
+    /** Runs the loop until the elevator is settled at the position, returns false on timeout. */
+    private static boolean run(ElevatorSubsystem elevator, double positionRotations) {
+        return MechanismHarness.runUntil(elevator::periodic,
+            () -> Math.abs(elevator.getPosition() - positionRotations) <= kToleranceRotations
+                && Math.abs(elevator.getVelocity()) < 1.0,
+            kTimeoutSecs);
+    }
+}
@@ -0,0 +1,25 @@
+package frc.robot.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.crevolib.util.Allocations;
+
+/** Runs the indexer against its physics model. */
+class IndexerTest {
+  @BeforeAll
+  static void initializeHal() {
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  @Test
+  void periodicDoesNotAllocate() {
+    var indexer = new Indexer(new IndexerIOSim());
+    indexer.setOutput(0.5);
+    assertEquals(0, Allocations.bytesPerCall(indexer::periodic));
+  }
+}
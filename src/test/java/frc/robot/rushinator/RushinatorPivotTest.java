@@ -0,0 +1,35 @@
+package frc.robot.rushinator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.crevolib.util.MechanismHarness;
+
+/** Runs the coral arm pivot against its physics model. */
+class RushinatorPivotTest {
+    private static final double kToleranceRotations = 2.0 / 360.0;
+    private static final double kTimeoutSecs = 2.0;
+
+    @BeforeAll
+    static void initializeHal() {
+        MechanismHarness.initializeHal();
+    }
+
+    @Test
+    void reachesScoreL3() {
+        var pivot = new RushinatorPivot(new RushinatorPivotIOSim());
+        pivot.setTargetState(RushinatorPivot.State.kScoreL3);
+
+        assertTrue(MechanismHarness.runUntil(pivot::periodic, () -> pivot.isAtTarget(kToleranceRotations), kTimeoutSecs),
+            "did not reach L3 within " + kTimeoutSecs + " s, at " + pivot.getArmPosition().getRotations());
+    }
+
+    @Test
+    void periodicDoesNotAllocate() {
+        var pivot = new RushinatorPivot(new RushinatorPivotIOSim());
+        MechanismHarness.assertLoopDoesNotAllocate(pivot::setControlMode, MechanismHarness.alternateTargets(
+            pivot::setTargetState, RushinatorPivot.State.kScoreL3, RushinatorPivot.State.kStowTravel, pivot::periodic));
+    }
+}
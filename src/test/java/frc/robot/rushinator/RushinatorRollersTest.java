@@ -0,0 +1,39 @@
+package frc.robot.rushinator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.crevolib.util.Allocations;
+
+/** Spins the coral rollers through their physics model. */
+class RushinatorRollersTest {
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void spinsUpToFreeSpeed() {
+        var rollers = new RushinatorRollers(new RushinatorRollersIOSim());
+        rollers.setFlywheelVoltage(6.0);
+        for (int i = 0; i < 50; i++) {
+            rollers.periodic();
+        }
+
+        // Direct drive with no load, so half voltage is half the motor's free speed
+        double expected = 6.0 * DCMotor.getKrakenX60(1).KvRadPerSecPerVolt / (2.0 * Math.PI);
+        assertEquals(expected, rollers.getWheelVelocity().getRotations(), expected * 0.02);
+    }
+
+    @Test
+    void periodicDoesNotAllocate() {
+        var rollers = new RushinatorRollers(new RushinatorRollersIOSim());
+        rollers.setFlywheelVoltage(6.0);
+        assertEquals(0, Allocations.bytesPerCall(rollers::periodic));
+    }
+}
@@ -0,0 +1,38 @@
+package frc.robot.rushinator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.crevolib.util.MechanismHarness;
+
+/** Runs the coral wrist against its physics model. */
+class RushinatorWristTest {
+    private static final double kToleranceRotations = 3.0 / 360.0;
+    private static final double kTimeoutSecs = 2.0;
+
+    @BeforeAll
+    static void initializeHal() {
+        MechanismHarness.initializeHal();
+    }
+
+    @Test
+    void reachesEachSide() {
+        var wrist = new RushinatorWrist(new RushinatorWristIOSim());
+        wrist.setTargetState(RushinatorWrist.State.kTravelLeft);
+        assertTrue(MechanismHarness.runUntil(wrist::periodic, () -> wrist.isAtTarget(kToleranceRotations), kTimeoutSecs),
+            "did not reach the left side, at " + wrist.getCurrentPos().getRotations());
+
+        wrist.setTargetState(RushinatorWrist.State.kTravelRight);
+        assertTrue(MechanismHarness.runUntil(wrist::periodic, () -> wrist.isAtTarget(kToleranceRotations), kTimeoutSecs),
+            "did not reach the right side, at " + wrist.getCurrentPos().getRotations());
+    }
+
+    @Test
+    void periodicDoesNotAllocate() {
+        var wrist = new RushinatorWrist(new RushinatorWristIOSim());
+        MechanismHarness.assertLoopDoesNotAllocate(wrist::setControlMode, MechanismHarness.alternateTargets(
+            wrist::setTargetState, RushinatorWrist.State.kTravelLeft, RushinatorWrist.State.kTravelRight, wrist::periodic));
+    }
+}
@@ -0,0 +1,102 @@
+package frc.robot.superstructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.algaepivot.AlgaePivotIOSim;
+import frc.robot.algaepivot.AlgaeSubsystem;
+import frc.robot.elevator.ElevatorIOSim;
+import frc.robot.elevator.ElevatorSubsystem;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorPivotIOSim;
+import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.rushinator.RushinatorWristIOSim;
+import frc.robot.superstructure.Superstructure.Goal;
+import frc.robot.superstructure.Superstructure.Order;
+
+/** Runs goals through the superstructure with every mechanism on its physics model. */
+class SuperstructureTest {
+    private static final double kTimeoutSecs = 3.0;
+
+    private ElevatorSubsystem mElevator;
+    private RushinatorPivot mPivot;
+    private RushinatorWrist mWrist;
+    private AlgaeSubsystem mAlgaePivot;
+    private Superstructure mSuperstructure;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void fromGoalComesFromMechanismTargets() {
+        assertEquals(Goal.kHPIntake, Superstructure.goalOf(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kHPIntake));
+        assertEquals(Goal.kGroundIntake, Superstructure.goalOf(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kFloorIntake));
+        assertEquals(Goal.kL4, Superstructure.goalOf(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4));
+        assertEquals(Goal.kStow, Superstructure.goalOf(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel));
+        assertNull(Superstructure.goalOf(ElevatorSubsystem.State.kAlgaeL3, RushinatorPivot.State.kStowTravel));
+    }
+
+    @Test
+    void elevatorWaitsForArmOnTheWayOutOfIntake() {
+        build();
+        // Into the intake pose with the single mechanism setters, the way the intake bindings do it
+        mPivot.setTargetState(RushinatorPivot.State.kHPIntake);
+        mWrist.setTargetState(RushinatorWrist.State.kHPMid);
+        assertTrue(run(() -> mPivot.isAtTarget(Superstructure.Settings.kArmToleranceRotations)
+                && mWrist.isAtTarget(Superstructure.Settings.kWristToleranceRotations)),
+            "did not reach the intake pose");
+
+        mSuperstructure.setGoal(Goal.kL4);
+        assertEquals(Order.kArmFirst, mSuperstructure.getGoalOrder());
+        assertEquals(ElevatorSubsystem.State.kZero, mElevator.getTargetState());
+
+        final boolean[] elevatorSent = {false};
+        assertTrue(run(() -> {
+            if (!elevatorSent[0] && mElevator.getTargetState() != ElevatorSubsystem.State.kZero) {
+                // The loop the elevator is sent, the arm and wrist must already be in
+                elevatorSent[0] = true;
+                assertTrue(mPivot.isAtTarget(Superstructure.Settings.kArmToleranceRotations)
+                        && mWrist.isAtTarget(Superstructure.Settings.kWristToleranceRotations),
+                    "elevator was sent before the arm and wrist came in");
+            }
+            return mElevator.isAtTarget(Superstructure.Settings.kElevatorToleranceRotations)
+                && mElevator.getTargetState() == ElevatorSubsystem.State.kCoralL4;
+        }), "did not reach L4, elevator at " + mElevator.getPosition());
+        assertEquals(RushinatorPivot.State.kStowL4, mPivot.getTargetState());
+        assertEquals(RushinatorWrist.State.kTravelL4Right, mWrist.getTargetState());
+    }
+
+    private void build() {
+        mElevator = new ElevatorSubsystem(new ElevatorIOSim());
+        mPivot = new RushinatorPivot(new RushinatorPivotIOSim());
+        mWrist = new RushinatorWrist(new RushinatorWristIOSim());
+        mAlgaePivot = new AlgaeSubsystem(new AlgaePivotIOSim());
+        mSuperstructure = new Superstructure(mElevator, mPivot, mWrist, mAlgaePivot);
+    }
+
+    /** Runs robot loops, mechanisms before the superstructure, until done is true or the timeout. */
+    private boolean run(BooleanSupplier done) {
+        final int maxLoops = (int) (kTimeoutSecs / TimedRobot.kDefaultPeriod);
+        for (int i = 0; i < maxLoops; i++) {
+            mElevator.periodic();
+            mPivot.periodic();
+            mWrist.periodic();
+            mAlgaePivot.periodic();
+            mSuperstructure.periodic();
+            if (done.getAsBoolean()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
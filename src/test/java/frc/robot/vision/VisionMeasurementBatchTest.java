@@ -0,0 +1,54 @@
+package frc.robot.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class VisionMeasurementBatchTest {
+    private static VisionIOInputsAutoLogged inputs(double... timestamps) {
+        var inputs = new VisionIOInputsAutoLogged();
+        int n = timestamps.length;
+        inputs.timestamps = timestamps;
+        inputs.xMeters = new double[n];
+        inputs.yMeters = new double[n];
+        inputs.thetaRadians = new double[n];
+        inputs.tagCounts = new int[n];
+        inputs.closestTagDistances = new double[n];
+        inputs.ambiguities = new double[n];
+        inputs.strategies = new int[n];
+        for (int i = 0; i < n; i++) {
+            inputs.xMeters[i] = timestamps[i] * 10.0;
+        }
+        return inputs;
+    }
+
+    @Test
+    void sortsCamerasByCaptureTime() {
+        var batch = new VisionMeasurementBatch(8);
+        batch.addAll(inputs(1.0, 3.0), 0);
+        batch.addAll(inputs(0.5, 2.0), 1);
+        batch.sortByTimestamp();
+
+        assertEquals(4, batch.size());
+        double[] expected = {0.5, 1.0, 2.0, 3.0};
+        int[] cameras = {1, 0, 1, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], batch.getTimestamp(i));
+            assertEquals(expected[i] * 10.0, batch.getX(i));
+            assertEquals(cameras[i], batch.getCamera(i));
+        }
+    }
+
+    @Test
+    void countsOverflow() {
+        var batch = new VisionMeasurementBatch(2);
+        batch.addAll(inputs(1.0, 2.0, 3.0), 0);
+
+        assertEquals(2, batch.size());
+        assertEquals(1, batch.getOverflowed());
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertEquals(0, batch.getOverflowed());
+    }
+}
@@ -0,0 +1,42 @@
+package frc.robot.vision.commands;
+
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static frc.robot.vision.VisionConfig.AlignmentConfig.MAX_ALIGN_TRANSLATION_VELOCITY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.crevolib.util.Allocations;
+
+class AlignControllerTest {
+    private static final Pose2d kGoal = new Pose2d(3.0, 4.0, Rotation2d.fromDegrees(60.0));
+    // Far enough out to be clamped, and close enough to be zeroed
+    private static final Pose2d kFar = new Pose2d(1.0, 1.0, Rotation2d.fromDegrees(0.0));
+    private static final Pose2d kNear = new Pose2d(3.001, 4.001, Rotation2d.fromDegrees(60.0));
+
+    @Test
+    void clampsAndStops() {
+        var controller = new AlignController(0.01, 0.03);
+
+        var speeds = controller.calculate(kFar, kGoal);
+        final double speed = Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
+        assertTrue(speed > 0.0);
+        assertTrue(speed <= MAX_ALIGN_TRANSLATION_VELOCITY.in(MetersPerSecond) + 1e-9,
+            "translation " + speed + " m/s is over the alignment limit");
+
+        speeds = controller.calculate(kNear, kGoal);
+        assertEquals(0.0, speeds.vxMetersPerSecond);
+        assertEquals(0.0, speeds.vyMetersPerSecond);
+    }
+
+    @Test
+    void calculateDoesNotAllocate() {
+        var controller = new AlignController(0.01, 0.03);
+        final int[] calls = {0};
+        assertEquals(0, Allocations.bytesPerCall(
+            () -> controller.calculate(calls[0]++ % 2 == 0 ? kFar : kNear, kGoal)));
+    }
+}